@@ -0,0 +1,95 @@
+-- Benchmark: monthly partitioned audit_logs vs one flat table (V19)
+--
+-- Usage (on a scratch database migrated to V19, with at least one row in users):
+--   psql -d billing_bench -v rows=100000000 -f benchmarks/audit_partitions.sql
+--
+-- Loads :rows audit rows spread evenly over the last 36 months (100M by default, about
+-- 25 GB with indexes; pass a smaller -v rows for a quick run), copies them into a flat
+-- table with the pre-V19 indexes, then compares the AuditLogRepository queries and
+-- retention on both layouts.
+
+\timing on
+\if :{?rows}
+\else
+\set rows 100000000
+\endif
+
+SELECT ensure_monthly_partition('audit_logs', (date_trunc('month', CURRENT_DATE) - m * INTERVAL '1 month')::date)
+FROM generate_series(0, 36) m;
+
+INSERT INTO audit_logs (entity_type, entity_id, action, changed_by, new_data, change_summary, created_at)
+SELECT 'BenchInvoice', g % 5000000, CASE WHEN g % 10 = 0 THEN 'ISSUE' ELSE 'UPDATE' END,
+       (SELECT MIN(user_id) FROM users),
+       jsonb_build_object('id', g % 5000000, 'status', 'DRAFT', 'subtotal', g % 1000),
+       'Benchmark row',
+       CURRENT_TIMESTAMP - (:rows - g) * (INTERVAL '36 months' / :rows)
+FROM generate_series(1, :rows) g;
+
+CREATE TABLE bench_audit_flat AS SELECT * FROM audit_logs WHERE entity_type = 'BenchInvoice';
+ALTER TABLE bench_audit_flat ADD PRIMARY KEY (audit_log_id);
+CREATE INDEX bench_flat_entity ON bench_audit_flat(entity_type, entity_id);
+CREATE INDEX bench_flat_user ON bench_audit_flat(changed_by);
+CREATE INDEX bench_flat_action ON bench_audit_flat(action);
+CREATE INDEX bench_flat_date ON bench_audit_flat(created_at);
+
+ANALYZE audit_logs;
+ANALYZE bench_audit_flat;
+
+-- findByCreatedAtBetweenOrderByCreatedAtDesc, one week last month
+-- Flat: range scan over one large idx_audit_date
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM bench_audit_flat
+WHERE created_at BETWEEN date_trunc('month', CURRENT_DATE) - INTERVAL '1 month'
+                     AND date_trunc('month', CURRENT_DATE) - INTERVAL '1 month' + INTERVAL '7 days'
+ORDER BY created_at DESC;
+
+-- Partitioned: only last month's partition is scanned
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM audit_logs
+WHERE created_at BETWEEN date_trunc('month', CURRENT_DATE) - INTERVAL '1 month'
+                     AND date_trunc('month', CURRENT_DATE) - INTERVAL '1 month' + INTERVAL '7 days'
+ORDER BY created_at DESC;
+
+-- Same query as a prepared statement with a generic plan, as JDBC runs it after five executions:
+-- pruning happens at executor startup ("Subplans Removed")
+SET plan_cache_mode = force_generic_plan;
+PREPARE audit_range(timestamp, timestamp) AS
+    SELECT * FROM audit_logs WHERE created_at BETWEEN $1 AND $2 ORDER BY created_at DESC;
+EXPLAIN (ANALYZE, BUFFERS)
+EXECUTE audit_range(date_trunc('month', CURRENT_DATE) - INTERVAL '1 month',
+                    date_trunc('month', CURRENT_DATE) - INTERVAL '1 month' + INTERVAL '7 days');
+DEALLOCATE audit_range;
+RESET plan_cache_mode;
+
+-- findByEntityTypeAndEntityIdOrderByCreatedAtDesc without a bound: one index probe per partition
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM audit_logs WHERE entity_type = 'BenchInvoice' AND entity_id = 4242
+ORDER BY created_at DESC;
+
+-- With the invoice creation bound AuditService adds: partitions before it are pruned
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM audit_logs WHERE entity_type = 'BenchInvoice' AND entity_id = 4242
+  AND created_at >= CURRENT_DATE - INTERVAL '2 months'
+ORDER BY created_at DESC;
+
+-- Flat table, for comparison
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM bench_audit_flat WHERE entity_type = 'BenchInvoice' AND entity_id = 4242
+ORDER BY created_at DESC;
+
+-- Retention: deleting the oldest month from the flat table vs detaching its partition
+BEGIN;
+EXPLAIN (ANALYZE, BUFFERS)
+DELETE FROM bench_audit_flat
+WHERE created_at < date_trunc('month', CURRENT_DATE) - INTERVAL '35 months';
+ROLLBACK;
+
+BEGIN;
+SELECT format('ALTER TABLE audit_logs DETACH PARTITION %I',
+              'audit_logs_p' || to_char(date_trunc('month', CURRENT_DATE) - INTERVAL '36 months', 'YYYYMM'))
+\gexec
+ROLLBACK;
+
+-- Cleanup
+DROP TABLE bench_audit_flat;
+DELETE FROM audit_logs WHERE entity_type = 'BenchInvoice';
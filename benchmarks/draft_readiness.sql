@@ -0,0 +1,55 @@
+-- Benchmark: findDraftsReadyForIssuance before and after the readiness flag (V13)
+--
+-- Usage (on a scratch database migrated to V13, with at least one row in users):
+--   psql -d billing_bench -f benchmarks/draft_readiness.sql
+--
+-- Loads 1M drafts, 90% of them with one item, then compares the old SIZE(items)
+-- predicate with the indexed ready_for_issue flag for a 500-row claim page.
+
+\timing on
+
+BEGIN;
+
+INSERT INTO invoices (invoice_number, client_name, invoice_date, due_date, subtotal, tax_amount,
+                      total_amount, currency, invoice_status, created_by)
+SELECT 'BENCH-' || g, 'Client ' || (g % 5000), CURRENT_DATE, CURRENT_DATE + 30,
+       100.00, 0.00, 100.00, 'USD',
+       CASE WHEN g % 4 = 0 THEN 'ISSUED' ELSE 'DRAFT' END,
+       (SELECT MIN(user_id) FROM users)
+FROM generate_series(1, 1000000) g;
+
+INSERT INTO invoice_items (invoice_id, description, quantity, unit_price, total_price)
+SELECT invoice_id, 'Benchmark item', 1, 100.00, 100.00
+FROM invoices
+WHERE invoice_number LIKE 'BENCH-%' AND invoice_id % 10 <> 0;
+
+COMMIT;
+
+ANALYZE invoices;
+ANALYZE invoice_items;
+
+-- Before: correlated count over invoice_items for every draft
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT i.invoice_id FROM invoices i
+WHERE i.invoice_status = 'DRAFT' AND i.subtotal > 0
+  AND (SELECT COUNT(*) FROM invoice_items it WHERE it.invoice_id = i.invoice_id) > 0
+  AND i.client_name IS NOT NULL AND btrim(i.client_name) <> ''
+ORDER BY i.invoice_id
+LIMIT 500;
+
+-- After: partial index scan on idx_invoice_ready_for_issue
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT i.invoice_id FROM invoices i
+WHERE i.ready_for_issue
+ORDER BY i.invoice_id
+LIMIT 500
+FOR UPDATE SKIP LOCKED;
+
+-- Consistency check: the flag must agree with the item table
+SELECT COUNT(*) AS mismatched
+FROM invoices i
+WHERE i.invoice_number LIKE 'BENCH-%'
+  AND i.item_count <> (SELECT COUNT(*) FROM invoice_items it WHERE it.invoice_id = i.invoice_id);
+
+-- Cleanup
+DELETE FROM invoices WHERE invoice_number LIKE 'BENCH-%';
@@ -0,0 +1,72 @@
+-- Benchmark: unlinked shipments, NOT IN vs NOT EXISTS with keyset pagination (V14)
+--
+-- Usage (on a scratch database migrated to V14, with at least one row in users):
+--   psql -d billing_bench -f benchmarks/unlinked_shipments.sql
+--
+-- Loads 1M shipments, links 800k of them to 8k invoices, then compares the old
+-- unbounded NOT IN query with the paginated NOT EXISTS form, unfiltered and per client.
+-- Rerun with a different link ratio to see how each form scales with invoice_shipments.
+
+\timing on
+
+BEGIN;
+
+INSERT INTO shipments (client_name, origin_address, destination_address, total_weight, total_volume,
+                       shipment_status, tracking_number)
+SELECT 'Client ' || (g % 2000), 'Origin ' || g, 'Destination ' || g, 10.00, 1.00,
+       CASE WHEN g % 3 = 0 THEN 'DELIVERED' ELSE 'PENDING' END,
+       'BENCH-TRK-' || g
+FROM generate_series(1, 1000000) g;
+
+INSERT INTO invoices (invoice_number, client_name, invoice_date, due_date, subtotal, tax_amount,
+                      total_amount, currency, invoice_status, created_by)
+SELECT 'BENCH-SHIP-' || g, 'Client ' || g, CURRENT_DATE, CURRENT_DATE + 30, 100.00, 0.00, 100.00, 'USD',
+       'ISSUED', (SELECT MIN(user_id) FROM users)
+FROM generate_series(1, 8000) g;
+
+INSERT INTO invoice_shipments (invoice_id, shipment_id)
+SELECT i.invoice_id, s.shipment_id
+FROM (SELECT shipment_id, ROW_NUMBER() OVER (ORDER BY shipment_id) AS rn
+      FROM shipments WHERE tracking_number LIKE 'BENCH-TRK-%') s
+JOIN (SELECT invoice_id, ROW_NUMBER() OVER (ORDER BY invoice_id) AS rn
+      FROM invoices WHERE invoice_number LIKE 'BENCH-SHIP-%') i ON i.rn = (s.rn % 8000) + 1
+WHERE s.rn % 5 <> 0;
+
+COMMIT;
+
+ANALYZE shipments;
+ANALYZE invoice_shipments;
+
+-- Before: NOT IN over a DISTINCT subquery, no limit
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT s.* FROM shipments s
+WHERE s.shipment_id NOT IN (SELECT DISTINCT is2.shipment_id FROM invoice_shipments is2);
+
+-- After: first page with NOT EXISTS
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT s.* FROM shipments s
+WHERE s.shipment_id > 0
+  AND NOT EXISTS (SELECT 1 FROM invoice_shipments is2 WHERE is2.shipment_id = s.shipment_id)
+ORDER BY s.shipment_id
+LIMIT 101;
+
+-- After: deep page, cursor near the end of the table
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT s.* FROM shipments s
+WHERE s.shipment_id > (SELECT MAX(shipment_id) - 5000 FROM shipments)
+  AND NOT EXISTS (SELECT 1 FROM invoice_shipments is2 WHERE is2.shipment_id = s.shipment_id)
+ORDER BY s.shipment_id
+LIMIT 101;
+
+-- After: filtered by client and status via idx_shipment_client_id
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT s.* FROM shipments s
+WHERE s.shipment_id > 0
+  AND NOT EXISTS (SELECT 1 FROM invoice_shipments is2 WHERE is2.shipment_id = s.shipment_id)
+  AND s.client_name = 'Client 42' AND s.shipment_status = 'PENDING'
+ORDER BY s.shipment_id
+LIMIT 101;
+
+-- Cleanup
+DELETE FROM invoices WHERE invoice_number LIKE 'BENCH-SHIP-%';
+DELETE FROM shipments WHERE tracking_number LIKE 'BENCH-TRK-%';
@@ -0,0 +1,204 @@
+package com.fabrica.p6f5.springapp.audit.archive;
+
+import com.fabrica.p6f5.springapp.audit.model.AuditLog;
+import com.fabrica.p6f5.springapp.audit.model.InvoiceHistory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Binary encoding of archived audit and history rows.
+ * Every record starts with a format version byte; nullable values carry a presence
+ * flag and strings are length-prefixed UTF-8, so JSON payloads of any size fit.
+ * Version 2 added the audit log field diff, version 3 the correlation ID and version 4
+ * the hash chain columns, so archived rows can still be checked against live ones;
+ * older records still decode.
+ */
+public final class ArchiveCodec {
+    
+    private static final byte FORMAT_VERSION = 4;
+    private static final byte FIRST_VERSION_WITH_CHANGES = 2;
+    private static final byte FIRST_VERSION_WITH_CORRELATION_ID = 3;
+    private static final byte FIRST_VERSION_WITH_CHAIN = 4;
+    
+    private ArchiveCodec() {
+    }
+    
+    /**
+     * Record time as used by segment indexes: the local timestamp read as UTC.
+     */
+    public static long toMillis(LocalDateTime time) {
+        return time.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+    
+    public static byte[] encode(AuditLog auditLog) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT_VERSION);
+            out.writeLong(auditLog.getId());
+            writeString(out, auditLog.getEntityType());
+            out.writeLong(auditLog.getEntityId());
+            writeString(out, auditLog.getAction().name());
+            writeLong(out, auditLog.getChangedBy());
+            writeString(out, auditLog.getOldData());
+            writeString(out, auditLog.getNewData());
+            writeString(out, auditLog.getChangeSummary());
+            writeString(out, auditLog.getIpAddress());
+            writeString(out, auditLog.getUserAgent());
+            writeTime(out, auditLog.getCreatedAt());
+            writeString(out, auditLog.getChanges());
+            writeString(out, auditLog.getCorrelationId());
+            writeLong(out, auditLog.getChainSeq());
+            writeBytes(out, auditLog.getPrevHash());
+            writeBytes(out, auditLog.getRowHash());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+    
+    public static AuditLog decodeAuditLog(byte[] record) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(record))) {
+            byte version = readVersion(in);
+            AuditLog auditLog = new AuditLog();
+            auditLog.setId(in.readLong());
+            auditLog.setEntityType(readString(in));
+            auditLog.setEntityId(in.readLong());
+            auditLog.setAction(AuditLog.AuditAction.valueOf(readString(in)));
+            auditLog.setChangedBy(readLong(in));
+            auditLog.setOldData(readString(in));
+            auditLog.setNewData(readString(in));
+            auditLog.setChangeSummary(readString(in));
+            auditLog.setIpAddress(readString(in));
+            auditLog.setUserAgent(readString(in));
+            auditLog.setCreatedAt(readTime(in));
+            if (version >= FIRST_VERSION_WITH_CHANGES) {
+                auditLog.setChanges(readString(in));
+            }
+            if (version >= FIRST_VERSION_WITH_CORRELATION_ID) {
+                auditLog.setCorrelationId(readString(in));
+            }
+            if (version >= FIRST_VERSION_WITH_CHAIN) {
+                auditLog.setChainSeq(readLong(in));
+                auditLog.setPrevHash(readBytes(in));
+                auditLog.setRowHash(readBytes(in));
+            }
+            return auditLog;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    public static byte[] encode(InvoiceHistory history) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(1024);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT_VERSION);
+            out.writeLong(history.getId());
+            out.writeLong(history.getInvoiceId());
+            out.writeInt(history.getVersion());
+            writeString(out, history.getFiscalFolio());
+            writeString(out, history.getInvoiceNumber());
+            writeString(out, history.getInvoiceData());
+            out.writeLong(history.getCreatedBy());
+            writeTime(out, history.getCreatedAt());
+            out.writeBoolean(Boolean.TRUE.equals(history.getIsReverted()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+    
+    public static InvoiceHistory decodeInvoiceHistory(byte[] record) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(record))) {
+            readVersion(in);
+            InvoiceHistory history = new InvoiceHistory();
+            history.setId(in.readLong());
+            history.setInvoiceId(in.readLong());
+            history.setVersion(in.readInt());
+            history.setFiscalFolio(readString(in));
+            history.setInvoiceNumber(readString(in));
+            history.setInvoiceData(readString(in));
+            history.setCreatedBy(in.readLong());
+            history.setCreatedAt(readTime(in));
+            history.setIsReverted(in.readBoolean());
+            return history;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    private static byte readVersion(DataInputStream in) throws IOException {
+        byte version = in.readByte();
+        if (version < 1 || version > FORMAT_VERSION) {
+            throw new IOException("Unsupported archive record version " + version);
+        }
+        return version;
+    }
+    
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+    
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    
+    private static void writeBytes(DataOutputStream out, byte[] value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(value.length);
+        out.write(value);
+    }
+    
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return bytes;
+    }
+    
+    private static void writeLong(DataOutputStream out, Long value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value);
+        }
+    }
+    
+    private static Long readLong(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readLong() : null;
+    }
+    
+    private static void writeTime(DataOutputStream out, LocalDateTime time) throws IOException {
+        out.writeLong(time.toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(time.getNano());
+    }
+    
+    private static LocalDateTime readTime(DataInputStream in) throws IOException {
+        long seconds = in.readLong();
+        return LocalDateTime.ofEpochSecond(seconds, in.readInt(), ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,142 @@
+package com.fabrica.p6f5.springapp.audit.archive;
+
+import com.fabrica.p6f5.springapp.audit.model.AuditLog;
+import com.fabrica.p6f5.springapp.audit.model.InvoiceHistory;
+import com.fabrica.p6f5.springapp.audit.service.AuditPartitionService;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Cold storage for archived audit logs and invoice history.
+ * <p>
+ * Segments live in {@code billing.archive.dir} as {@code <table>-<yyyyMM>-<sequence>.idx}
+ * plus a matching data file, and are never modified once written. Audit log segments
+ * are keyed by entity ID, history segments by invoice ID. The set of open segments is
+ * swapped atomically when a new segment is published, so lookups never block archiving.
+ */
+@Component
+public class AuditArchive {
+    
+    private static final Logger logger = LoggerFactory.getLogger(AuditArchive.class);
+    
+    private static final DateTimeFormatter MONTH = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final char SEPARATOR = '-';
+    
+    private final AtomicReference<Map<String, List<Segment>>> segments = new AtomicReference<>(Map.of());
+    private final AtomicLong sequence = new AtomicLong(System.currentTimeMillis());
+    
+    @Value("${billing.archive.dir:archive/audit}")
+    private String dir;
+    
+    /**
+     * Map every complete segment in the archive directory.
+     */
+    @PostConstruct
+    public void load() throws IOException {
+        Path root = Paths.get(dir);
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        Map<String, List<Segment>> loaded = new HashMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(root, "*" + Segment.INDEX_SUFFIX)) {
+            for (Path file : files) {
+                String table = tableOf(file);
+                if (table != null) {
+                    loaded.computeIfAbsent(table, key -> new ArrayList<>()).add(Segment.open(file));
+                }
+            }
+        }
+        loaded.replaceAll((table, list) -> List.copyOf(list));
+        segments.set(Map.copyOf(loaded));
+        logger.info("Audit archive loaded from {}: {} segments", root.toAbsolutePath(), getSegmentCount());
+    }
+    
+    /**
+     * Start a new segment for rows of a table created in the given month.
+     */
+    public SegmentWriter newWriter(String table, YearMonth month, int blockBytes) throws IOException {
+        Path root = Paths.get(dir);
+        Files.createDirectories(root);
+        String name = table + SEPARATOR + month.format(MONTH) + SEPARATOR + sequence.incrementAndGet();
+        return new SegmentWriter(root.resolve(name + Segment.INDEX_SUFFIX), blockBytes);
+    }
+    
+    /**
+     * Make a finished segment visible to lookups.
+     */
+    public Segment publish(String table, Path indexFile) throws IOException {
+        Segment segment = Segment.open(indexFile);
+        segments.updateAndGet(current -> {
+            Map<String, List<Segment>> next = new HashMap<>(current);
+            List<Segment> list = new ArrayList<>(current.getOrDefault(table, List.of()));
+            list.add(segment);
+            next.put(table, List.copyOf(list));
+            return Map.copyOf(next);
+        });
+        return segment;
+    }
+    
+    /**
+     * Archived audit logs of an entity created at or after {@code since} (null for no bound).
+     */
+    public List<AuditLog> findAuditLogs(String entityType, Long entityId, LocalDateTime since) {
+        List<AuditLog> logs = new ArrayList<>();
+        for (byte[] record : find(AuditPartitionService.AUDIT_LOGS_TABLE, entityId, since)) {
+            AuditLog auditLog = ArchiveCodec.decodeAuditLog(record);
+            if (entityType.equals(auditLog.getEntityType())) {
+                logs.add(auditLog);
+            }
+        }
+        return logs;
+    }
+    
+    /**
+     * Archived history versions of an invoice created at or after {@code since} (null for no bound).
+     */
+    public List<InvoiceHistory> findInvoiceHistory(Long invoiceId, LocalDateTime since) {
+        List<InvoiceHistory> history = new ArrayList<>();
+        for (byte[] record : find(AuditPartitionService.INVOICE_HISTORY_TABLE, invoiceId, since)) {
+            history.add(ArchiveCodec.decodeInvoiceHistory(record));
+        }
+        return history;
+    }
+    
+    public int getSegmentCount() {
+        return segments.get().values().stream().mapToInt(List::size).sum();
+    }
+    
+    private List<byte[]> find(String table, Long key, LocalDateTime since) {
+        long sinceMillis = since != null ? ArchiveCodec.toMillis(since) : Long.MIN_VALUE;
+        List<byte[]> found = new ArrayList<>();
+        for (Segment segment : segments.get().getOrDefault(table, List.of())) {
+            if (segment.mayContain(key, sinceMillis)) {
+                found.addAll(segment.find(key, sinceMillis));
+            }
+        }
+        return found;
+    }
+    
+    private static String tableOf(Path indexFile) {
+        String name = indexFile.getFileName().toString();
+        int separator = name.indexOf(SEPARATOR);
+        return separator > 0 ? name.substring(0, separator) : null;
+    }
+}
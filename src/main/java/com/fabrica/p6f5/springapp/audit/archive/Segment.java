@@ -0,0 +1,189 @@
+package com.fabrica.p6f5.springapp.audit.archive;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Read-only archive segment written by {@link SegmentWriter}.
+ * <p>
+ * The index file starts with a header (key and time range of the whole segment)
+ * followed by fixed-width block entries sorted by key:
+ * {@code firstKey, lastKey, minTime, maxTime, offset, length, rows}. Both files are
+ * memory-mapped; a lookup binary-searches the index and inflates only the blocks
+ * whose key and time ranges can hold a match. Instances are safe for concurrent use.
+ */
+public final class Segment {
+    
+    public static final String INDEX_SUFFIX = ".idx";
+    public static final String DATA_SUFFIX = ".seg";
+    
+    static final int MAGIC = 0x41534547;
+    static final int FORMAT_VERSION = 1;
+    static final int HEADER_BYTES = 56;
+    static final int ENTRY_BYTES = 48;
+    
+    private static final int FIRST_KEY = 0;
+    private static final int LAST_KEY = 8;
+    private static final int MAX_TIME = 24;
+    private static final int OFFSET = 32;
+    private static final int LENGTH = 40;
+    private static final int ROWS = 44;
+    
+    private final String name;
+    private final ByteBuffer index;
+    private final ByteBuffer data;
+    private final int blockCount;
+    private final long rows;
+    private final long minKey;
+    private final long maxKey;
+    private final long minTime;
+    private final long maxTime;
+    
+    private Segment(String name, ByteBuffer index, ByteBuffer data) throws IOException {
+        if (index.capacity() < HEADER_BYTES || index.getInt(0) != MAGIC) {
+            throw new IOException("Not an archive segment index: " + name);
+        }
+        if (index.getInt(4) != FORMAT_VERSION) {
+            throw new IOException("Unsupported archive segment version " + index.getInt(4) + ": " + name);
+        }
+        this.name = name;
+        this.index = index;
+        this.data = data;
+        this.blockCount = index.getInt(8);
+        this.rows = index.getLong(16);
+        this.minKey = index.getLong(24);
+        this.maxKey = index.getLong(32);
+        this.minTime = index.getLong(40);
+        this.maxTime = index.getLong(48);
+        if (index.capacity() != HEADER_BYTES + (long) blockCount * ENTRY_BYTES) {
+            throw new IOException("Truncated archive segment index: " + name);
+        }
+    }
+    
+    /**
+     * Map a segment from its index file.
+     */
+    public static Segment open(Path indexFile) throws IOException {
+        String fileName = indexFile.getFileName().toString();
+        String name = fileName.substring(0, fileName.length() - INDEX_SUFFIX.length());
+        return new Segment(name, map(indexFile), map(dataFileOf(indexFile)));
+    }
+    
+    static Path dataFileOf(Path indexFile) {
+        String fileName = indexFile.getFileName().toString();
+        if (!fileName.endsWith(INDEX_SUFFIX)) {
+            throw new IllegalArgumentException("Segment index files end with " + INDEX_SUFFIX + ": " + fileName);
+        }
+        return indexFile.resolveSibling(fileName.substring(0, fileName.length() - INDEX_SUFFIX.length()) + DATA_SUFFIX);
+    }
+    
+    /**
+     * Whether the segment's key and time ranges can hold a record for the key.
+     */
+    public boolean mayContain(long key, long sinceMillis) {
+        return key >= minKey && key <= maxKey && maxTime >= sinceMillis;
+    }
+    
+    /**
+     * Find the records of a key at or after a point in time, in the order they were written.
+     */
+    public List<byte[]> find(long key, long sinceMillis) {
+        List<byte[]> found = new ArrayList<>();
+        if (!mayContain(key, sinceMillis)) {
+            return found;
+        }
+        for (int block = firstBlockEndingAtOrAfter(key);
+             block < blockCount && entryLong(block, FIRST_KEY) <= key; block++) {
+            if (entryLong(block, MAX_TIME) >= sinceMillis) {
+                readBlock(block, key, sinceMillis, found);
+            }
+        }
+        return found;
+    }
+    
+    private int firstBlockEndingAtOrAfter(long key) {
+        int low = 0;
+        int high = blockCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (entryLong(mid, LAST_KEY) < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+    
+    private void readBlock(int block, long key, long sinceMillis, List<byte[]> found) {
+        int offset = Math.toIntExact(entryLong(block, OFFSET));
+        byte[] compressed = new byte[entryInt(block, LENGTH)];
+        data.get(offset, compressed);
+        int blockRows = entryInt(block, ROWS);
+        try (DataInputStream in = new DataInputStream(new GZIPInputStream(new ByteArrayInputStream(compressed)))) {
+            for (int i = 0; i < blockRows; i++) {
+                long recordKey = in.readLong();
+                if (recordKey > key) {
+                    return;
+                }
+                long time = in.readLong();
+                int length = in.readInt();
+                if (recordKey == key && time >= sinceMillis) {
+                    byte[] record = new byte[length];
+                    in.readFully(record);
+                    found.add(record);
+                } else {
+                    in.skipNBytes(length);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Corrupt block " + block + " in archive segment " + name, e);
+        }
+    }
+    
+    private long entryLong(int block, int field) {
+        return index.getLong(HEADER_BYTES + block * ENTRY_BYTES + field);
+    }
+    
+    private int entryInt(int block, int field) {
+        return index.getInt(HEADER_BYTES + block * ENTRY_BYTES + field);
+    }
+    
+    private static ByteBuffer map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Archive segment file too large to map: " + file);
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public int getBlockCount() {
+        return blockCount;
+    }
+    
+    public long getRows() {
+        return rows;
+    }
+    
+    public long getMinTime() {
+        return minTime;
+    }
+    
+    public long getMaxTime() {
+        return maxTime;
+    }
+}
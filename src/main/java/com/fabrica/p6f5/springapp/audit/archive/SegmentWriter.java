@@ -0,0 +1,200 @@
+package com.fabrica.p6f5.springapp.audit.archive;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes one archive segment: a data file of independently gzip-compressed blocks
+ * and a sparse index holding one entry per block.
+ * <p>
+ * Records must arrive in ascending key order. Both files are written under temporary
+ * names and renamed into place by {@link #finish()}, index last, so a segment is
+ * complete once its index file exists. Closing an unfinished writer discards it.
+ */
+public class SegmentWriter implements Closeable {
+    
+    private static final String TEMP_SUFFIX = ".tmp";
+    
+    private final Path dataFile;
+    private final Path indexFile;
+    private final Path dataTemp;
+    private final Path indexTemp;
+    private final int blockBytes;
+    private final FileOutputStream dataStream;
+    private final BufferedOutputStream data;
+    private final ByteArrayOutputStream block = new ByteArrayOutputStream();
+    private final DataOutputStream blockOut = new DataOutputStream(block);
+    private final ByteArrayOutputStream entries = new ByteArrayOutputStream();
+    private final DataOutputStream entriesOut = new DataOutputStream(entries);
+    
+    private int blockCount;
+    private int blockRows;
+    private long blockFirstKey;
+    private long blockLastKey;
+    private long blockMinTime;
+    private long blockMaxTime;
+    private long rows;
+    private long dataBytes;
+    private long minKey = Long.MAX_VALUE;
+    private long maxKey = Long.MIN_VALUE;
+    private long minTime = Long.MAX_VALUE;
+    private long maxTime = Long.MIN_VALUE;
+    private boolean closed;
+    
+    /**
+     * @param indexFile the index file; the data file sits next to it with the data suffix
+     * @param blockBytes uncompressed size after which a block is compressed and written
+     */
+    public SegmentWriter(Path indexFile, int blockBytes) throws IOException {
+        if (blockBytes <= 0) {
+            throw new IllegalArgumentException("Block size must be positive");
+        }
+        this.indexFile = indexFile;
+        this.dataFile = Segment.dataFileOf(indexFile);
+        this.indexTemp = indexFile.resolveSibling(indexFile.getFileName() + TEMP_SUFFIX);
+        this.dataTemp = dataFile.resolveSibling(dataFile.getFileName() + TEMP_SUFFIX);
+        this.blockBytes = blockBytes;
+        this.dataStream = new FileOutputStream(dataTemp.toFile());
+        this.data = new BufferedOutputStream(dataStream, 1 << 16);
+    }
+    
+    /**
+     * Append a record.
+     * 
+     * @param key the lookup key, e.g. the entity or invoice ID
+     * @param timeMillis the record time, see {@link ArchiveCodec#toMillis}
+     * @param record the encoded record
+     */
+    public void append(long key, long timeMillis, byte[] record) throws IOException {
+        if (closed) {
+            throw new IllegalStateException("Segment writer is closed");
+        }
+        if (rows > 0 && key < maxKey) {
+            throw new IllegalArgumentException("Segment keys must be ascending: " + key + " after " + maxKey);
+        }
+        if (blockRows == 0) {
+            blockFirstKey = key;
+            blockMinTime = timeMillis;
+            blockMaxTime = timeMillis;
+        }
+        blockOut.writeLong(key);
+        blockOut.writeLong(timeMillis);
+        blockOut.writeInt(record.length);
+        blockOut.write(record);
+        blockRows++;
+        blockLastKey = key;
+        blockMinTime = Math.min(blockMinTime, timeMillis);
+        blockMaxTime = Math.max(blockMaxTime, timeMillis);
+        
+        rows++;
+        minKey = Math.min(minKey, key);
+        maxKey = key;
+        minTime = Math.min(minTime, timeMillis);
+        maxTime = Math.max(maxTime, timeMillis);
+        
+        if (block.size() >= blockBytes) {
+            flushBlock();
+        }
+    }
+    
+    /**
+     * Write the last block and the index, sync both to disk and move them into place.
+     */
+    public void finish() throws IOException {
+        if (rows == 0) {
+            throw new IllegalStateException("Cannot finish an empty segment");
+        }
+        flushBlock();
+        data.flush();
+        dataStream.getChannel().force(true);
+        data.close();
+        closed = true;
+        
+        ByteBuffer header = ByteBuffer.allocate(Segment.HEADER_BYTES);
+        header.putInt(Segment.MAGIC);
+        header.putInt(Segment.FORMAT_VERSION);
+        header.putInt(blockCount);
+        header.putInt(0);
+        header.putLong(rows);
+        header.putLong(minKey);
+        header.putLong(maxKey);
+        header.putLong(minTime);
+        header.putLong(maxTime);
+        header.flip();
+        try (FileChannel index = FileChannel.open(indexTemp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            index.write(header);
+            ByteBuffer body = ByteBuffer.wrap(entries.toByteArray());
+            while (body.hasRemaining()) {
+                index.write(body);
+            }
+            index.force(true);
+        }
+        
+        Files.move(dataTemp, dataFile, StandardCopyOption.ATOMIC_MOVE);
+        Files.move(indexTemp, indexFile, StandardCopyOption.ATOMIC_MOVE);
+    }
+    
+    /**
+     * Discard the segment if it was not finished.
+     */
+    @Override
+    public void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            data.close();
+            Files.deleteIfExists(dataTemp);
+            Files.deleteIfExists(indexTemp);
+        }
+    }
+    
+    public Path getIndexFile() {
+        return indexFile;
+    }
+    
+    public long getRows() {
+        return rows;
+    }
+    
+    /**
+     * Compressed bytes written so far, not counting the open block.
+     */
+    public long getDataBytes() {
+        return dataBytes;
+    }
+    
+    private void flushBlock() throws IOException {
+        if (blockRows == 0) {
+            return;
+        }
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(block.size() / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            block.writeTo(gzip);
+        }
+        compressed.writeTo(data);
+        
+        entriesOut.writeLong(blockFirstKey);
+        entriesOut.writeLong(blockLastKey);
+        entriesOut.writeLong(blockMinTime);
+        entriesOut.writeLong(blockMaxTime);
+        entriesOut.writeLong(dataBytes);
+        entriesOut.writeInt(compressed.size());
+        entriesOut.writeInt(blockRows);
+        
+        dataBytes += compressed.size();
+        blockCount++;
+        blockRows = 0;
+        block.reset();
+    }
+}
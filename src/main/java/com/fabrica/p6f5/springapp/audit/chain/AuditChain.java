@@ -0,0 +1,127 @@
+package com.fabrica.p6f5.springapp.audit.chain;
+
+import com.fabrica.p6f5.springapp.audit.model.AuditLog;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.cfg.JsonNodeFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Hash chain over audit log rows.
+ * <p>
+ * Each row's hash is SHA-256 over the previous row's hash, the row's position in its
+ * chain and its content. Content is encoded like the archive codec: nullable values carry
+ * a presence flag and strings are length-prefixed UTF-8. JSON columns are hashed in a
+ * canonical form (sorted keys, plain numbers, no whitespace) because {@code jsonb} does
+ * not keep the text it was given, and timestamps at microseconds, the precision Postgres
+ * stores. The correlation ID comes last and only when present, so rows sealed before
+ * it existed keep their hashes.
+ */
+public final class AuditChain {
+    
+    /** Length of a row hash in bytes. */
+    public static final int HASH_BYTES = 32;
+    
+    private static final byte[] GENESIS = new byte[HASH_BYTES];
+    
+    private static final ObjectMapper CANONICAL_JSON = JsonMapper.builder()
+        .enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS)
+        .enable(JsonNodeFeature.WRITE_PROPERTIES_SORTED)
+        .enable(JsonGenerator.Feature.WRITE_BIGDECIMAL_AS_PLAIN)
+        .build();
+    
+    private AuditChain() {
+    }
+    
+    /**
+     * Time as stored by Postgres, so a hash computed before insert matches the row read back.
+     */
+    public static LocalDateTime storedTime(LocalDateTime time) {
+        return time.truncatedTo(ChronoUnit.MICROS);
+    }
+    
+    /**
+     * Hash of a row.
+     * 
+     * @param prevHash hash of the previous row in the chain, or null for the first row
+     * @param chainSeq position of the row in its chain, starting at 1
+     * @param auditLog the row; its creation time must already be set
+     */
+    public static byte[] hash(byte[] prevHash, long chainSeq, AuditLog auditLog) {
+        MessageDigest digest = sha256();
+        try (DataOutputStream out = new DataOutputStream(new DigestOutputStream(OutputStream.nullOutputStream(), digest))) {
+            out.write(prevHash != null ? prevHash : GENESIS);
+            out.writeLong(chainSeq);
+            writeString(out, auditLog.getEntityType());
+            out.writeLong(auditLog.getEntityId());
+            writeString(out, auditLog.getAction().name());
+            if (auditLog.getChangedBy() != null) {
+                out.writeBoolean(true);
+                out.writeLong(auditLog.getChangedBy());
+            } else {
+                out.writeBoolean(false);
+            }
+            writeString(out, canonicalJson(auditLog.getOldData()));
+            writeString(out, canonicalJson(auditLog.getNewData()));
+            writeString(out, canonicalJson(auditLog.getChanges()));
+            writeString(out, auditLog.getChangeSummary());
+            writeString(out, auditLog.getIpAddress());
+            writeString(out, auditLog.getUserAgent());
+            LocalDateTime createdAt = storedTime(auditLog.getCreatedAt());
+            out.writeLong(createdAt.toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(createdAt.getNano() / 1000);
+            if (auditLog.getCorrelationId() != null) {
+                writeString(out, auditLog.getCorrelationId());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return digest.digest();
+    }
+    
+    /**
+     * Canonical text of a JSON document: equal for any two texts {@code jsonb} treats as equal.
+     */
+    static String canonicalJson(String json) {
+        if (json == null) {
+            return null;
+        }
+        try {
+            return CANONICAL_JSON.writeValueAsString(CANONICAL_JSON.readTree(json));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Audit log JSON is not valid: " + e.getOriginalMessage(), e);
+        }
+    }
+    
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+    
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
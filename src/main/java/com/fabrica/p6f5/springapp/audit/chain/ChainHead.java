@@ -0,0 +1,66 @@
+package com.fabrica.p6f5.springapp.audit.chain;
+
+/**
+ * Last link of an audit chain, as kept in {@code audit_chain_heads}, and the anchor
+ * the chain continues from once its oldest rows have been archived or dropped.
+ */
+public final class ChainHead {
+    
+    private final ChainKey key;
+    private long length;
+    private byte[] hash;
+    private final long anchorSeq;
+    private final byte[] anchorHash;
+    
+    public ChainHead(ChainKey key, long length, byte[] hash) {
+        this(key, length, hash, 0, null);
+    }
+    
+    public ChainHead(ChainKey key, long length, byte[] hash, long anchorSeq, byte[] anchorHash) {
+        this.key = key;
+        this.length = length;
+        this.hash = hash;
+        this.anchorSeq = anchorSeq;
+        this.anchorHash = anchorHash;
+    }
+    
+    public ChainKey getKey() {
+        return key;
+    }
+    
+    /**
+     * Number of rows ever appended to the chain.
+     */
+    public long getLength() {
+        return length;
+    }
+    
+    /**
+     * Hash of the last row, or null for an empty chain.
+     */
+    public byte[] getHash() {
+        return hash;
+    }
+    
+    /**
+     * Position of the last row archived or dropped, or 0 when the chain is complete.
+     */
+    public long getAnchorSeq() {
+        return anchorSeq;
+    }
+    
+    /**
+     * Hash of the last row archived or dropped, or null when the chain is complete.
+     */
+    public byte[] getAnchorHash() {
+        return anchorHash;
+    }
+    
+    /**
+     * Move the head to a newly appended row.
+     */
+    public void advance(long newLength, byte[] newHash) {
+        this.length = newLength;
+        this.hash = newHash;
+    }
+}
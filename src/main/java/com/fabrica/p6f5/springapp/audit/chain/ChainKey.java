@@ -0,0 +1,17 @@
+package com.fabrica.p6f5.springapp.audit.chain;
+
+/**
+ * Identity of an audit chain: every entity has its own chain, so writers of different
+ * entities never wait on each other.
+ */
+public record ChainKey(long entityId, String entityType) implements Comparable<ChainKey> {
+    
+    /**
+     * Chain order used for locking heads and streaming rows: entity ID, then type.
+     */
+    @Override
+    public int compareTo(ChainKey other) {
+        int byId = Long.compare(entityId, other.entityId);
+        return byId != 0 ? byId : entityType.compareTo(other.entityType);
+    }
+}
@@ -0,0 +1,162 @@
+package com.fabrica.p6f5.springapp.audit.chain;
+
+import com.fabrica.p6f5.springapp.audit.dto.BrokenLink;
+import com.fabrica.p6f5.springapp.audit.model.AuditLog;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Walks the rows of a set of audit chains and records the first broken link of each.
+ * <p>
+ * Rows must arrive grouped by chain and in chain order. The first row of a chain must
+ * follow the anchor recorded on its head when older rows were archived or dropped by
+ * partition retention, so rows deleted from the start are caught like any other gap.
+ * The last row of every chain is checked against the chain head, which catches rows
+ * removed from or appended to the end; a head without rows must equal its anchor.
+ * Not thread-safe; use one verifier per slice of chains.
+ */
+public final class ChainVerifier {
+    
+    private final Map<ChainKey, ChainHead> heads;
+    private final int maxBrokenLinks;
+    private final List<BrokenLink> brokenLinks = new ArrayList<>();
+    private final Set<ChainKey> seen = new HashSet<>();
+    
+    private long rows;
+    private long chains;
+    private long anchoredChains;
+    private long brokenChains;
+    
+    private ChainKey currentKey;
+    private AuditLog lastRow;
+    private boolean currentBroken;
+    
+    /**
+     * @param heads the heads of the chains being verified
+     * @param maxBrokenLinks how many broken links to keep; the rest are only counted
+     */
+    public ChainVerifier(Map<ChainKey, ChainHead> heads, int maxBrokenLinks) {
+        this.heads = heads;
+        this.maxBrokenLinks = maxBrokenLinks;
+    }
+    
+    /**
+     * Verify the next row.
+     */
+    public void accept(AuditLog row) {
+        rows++;
+        ChainKey key = new ChainKey(row.getEntityId(), row.getEntityType());
+        if (!key.equals(currentKey)) {
+            finishChain();
+            startChain(key, row);
+            return;
+        }
+        if (currentBroken) {
+            lastRow = row;
+            return;
+        }
+        if (row.getChainSeq() != lastRow.getChainSeq() + 1) {
+            broken(row, BrokenLink.Reason.SEQUENCE_GAP);
+        } else if (!Arrays.equals(row.getPrevHash(), lastRow.getRowHash())) {
+            broken(row, BrokenLink.Reason.LINK_MISMATCH);
+        } else {
+            checkHash(row);
+        }
+        lastRow = row;
+    }
+    
+    /**
+     * Finish the last chain. Call once after the last row.
+     */
+    public ChainVerifier finish() {
+        finishChain();
+        currentKey = null;
+        for (ChainHead head : heads.values()) {
+            if (!seen.contains(head.getKey()) && (head.getLength() != head.getAnchorSeq()
+                    || !Arrays.equals(head.getHash(), head.getAnchorHash()))) {
+                // Every row of the chain is gone, but not through archiving or retention
+                chains++;
+                brokenChain(head.getKey().entityType(), head.getKey().entityId(), null, head.getLength(), null,
+                            BrokenLink.Reason.HEAD_MISMATCH);
+            }
+        }
+        return this;
+    }
+    
+    private void startChain(ChainKey key, AuditLog row) {
+        chains++;
+        seen.add(key);
+        currentKey = key;
+        currentBroken = false;
+        lastRow = row;
+        ChainHead head = heads.get(key);
+        long anchorSeq = head != null ? head.getAnchorSeq() : 0;
+        if (anchorSeq > 0) {
+            anchoredChains++;
+        }
+        if (row.getChainSeq() != anchorSeq + 1) {
+            broken(row, BrokenLink.Reason.SEQUENCE_GAP);
+        } else if (!Arrays.equals(row.getPrevHash(), head != null ? head.getAnchorHash() : null)) {
+            broken(row, BrokenLink.Reason.LINK_MISMATCH);
+        } else {
+            checkHash(row);
+        }
+    }
+    
+    private void checkHash(AuditLog row) {
+        byte[] expected = AuditChain.hash(row.getPrevHash(), row.getChainSeq(), row);
+        if (!Arrays.equals(expected, row.getRowHash())) {
+            broken(row, BrokenLink.Reason.HASH_MISMATCH);
+        }
+    }
+    
+    private void finishChain() {
+        if (currentKey == null || currentBroken) {
+            return;
+        }
+        ChainHead head = heads.get(currentKey);
+        if (head == null || head.getLength() != lastRow.getChainSeq()
+                || !Arrays.equals(head.getHash(), lastRow.getRowHash())) {
+            broken(lastRow, BrokenLink.Reason.HEAD_MISMATCH);
+        }
+    }
+    
+    private void broken(AuditLog row, BrokenLink.Reason reason) {
+        currentBroken = true;
+        brokenChain(row.getEntityType(), row.getEntityId(), row.getId(), row.getChainSeq(), row.getCreatedAt(), reason);
+    }
+    
+    private void brokenChain(String entityType, Long entityId, Long auditLogId, Long chainSeq,
+                             LocalDateTime createdAt, BrokenLink.Reason reason) {
+        brokenChains++;
+        if (brokenLinks.size() < maxBrokenLinks) {
+            brokenLinks.add(new BrokenLink(entityType, entityId, auditLogId, chainSeq, createdAt, reason));
+        }
+    }
+    
+    public long getRows() {
+        return rows;
+    }
+    
+    public long getChains() {
+        return chains;
+    }
+    
+    public long getAnchoredChains() {
+        return anchoredChains;
+    }
+    
+    public long getBrokenChains() {
+        return brokenChains;
+    }
+    
+    public List<BrokenLink> getBrokenLinks() {
+        return brokenLinks;
+    }
+}
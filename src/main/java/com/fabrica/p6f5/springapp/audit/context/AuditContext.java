@@ -0,0 +1,93 @@
+package com.fabrica.p6f5.springapp.audit.context;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Client details of the request being served, recorded on every audit row it produces.
+ * <p>
+ * Held in a thread local, which also works for virtual threads: {@link AuditContextFilter}
+ * opens a scope per request and {@link #current()} hands back the same instance without
+ * allocating. Work handed to another executor carries the context along when the task is
+ * wrapped with {@link #wrap(Runnable)} or {@link #wrap(Callable)}.
+ */
+public final class AuditContext {
+    
+    /** Context of work not started by a request: scheduled jobs, startup tasks. */
+    public static final AuditContext NONE = new AuditContext(null, null, null);
+    
+    private static final ThreadLocal<AuditContext> CURRENT = new ThreadLocal<>();
+    
+    private final String ipAddress;
+    private final String userAgent;
+    private final String correlationId;
+    
+    public AuditContext(String ipAddress, String userAgent, String correlationId) {
+        this.ipAddress = ipAddress;
+        this.userAgent = userAgent;
+        this.correlationId = correlationId;
+    }
+    
+    /**
+     * Context of the current thread, or {@link #NONE}.
+     */
+    public static AuditContext current() {
+        AuditContext context = CURRENT.get();
+        return context != null ? context : NONE;
+    }
+    
+    /**
+     * Make the given context current until the returned scope is closed, which
+     * restores the previous one.
+     */
+    public static Scope open(AuditContext context) {
+        AuditContext previous = CURRENT.get();
+        CURRENT.set(context);
+        return previous != null ? () -> CURRENT.set(previous) : CURRENT::remove;
+    }
+    
+    /**
+     * Task that runs with the caller's current context, whichever thread runs it.
+     */
+    public static Runnable wrap(Runnable task) {
+        AuditContext context = current();
+        return () -> {
+            try (Scope scope = open(context)) {
+                task.run();
+            }
+        };
+    }
+    
+    /**
+     * Task that runs with the caller's current context, whichever thread runs it.
+     */
+    public static <T> Callable<T> wrap(Callable<T> task) {
+        AuditContext context = current();
+        return () -> {
+            try (Scope scope = open(context)) {
+                return task.call();
+            }
+        };
+    }
+    
+    public String getIpAddress() {
+        return ipAddress;
+    }
+    
+    public String getUserAgent() {
+        return userAgent;
+    }
+    
+    public String getCorrelationId() {
+        return correlationId;
+    }
+    
+    /**
+     * An open context; closing it restores the previous one.
+     */
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+        
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,61 @@
+package com.fabrica.p6f5.springapp.audit.context;
+
+import com.fabrica.p6f5.springapp.util.Constants;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Audit Context Filter following Single Responsibility Principle.
+ * Captures the client IP, user agent and correlation ID of each request into
+ * {@link AuditContext}, and echoes the correlation ID on the response.
+ * <p>
+ * The client IP is the remote address; behind a proxy, set
+ * {@code server.forward-headers-strategy} so it reflects the forwarded client.
+ * A well-formed incoming correlation ID is kept, otherwise a new one is generated.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class AuditContextFilter extends OncePerRequestFilter {
+    
+    private static final Pattern CORRELATION_ID = Pattern.compile("[A-Za-z0-9._:-]{1,64}");
+    
+    /** Width of the audit IP column; an IPv6 address with a zone ID can be longer. */
+    private static final int MAX_IP_ADDRESS_LENGTH = 45;
+    
+    /** Longest user agent kept; real ones are a few hundred characters. */
+    private static final int MAX_USER_AGENT_LENGTH = 512;
+    
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        String correlationId = correlationId(request.getHeader(Constants.CORRELATION_ID_HEADER));
+        response.setHeader(Constants.CORRELATION_ID_HEADER, correlationId);
+        
+        AuditContext context = new AuditContext(truncate(request.getRemoteAddr(), MAX_IP_ADDRESS_LENGTH),
+                                                truncate(request.getHeader(Constants.USER_AGENT_HEADER), MAX_USER_AGENT_LENGTH),
+                                                correlationId);
+        try (AuditContext.Scope scope = AuditContext.open(context)) {
+            filterChain.doFilter(request, response);
+        }
+    }
+    
+    private static String correlationId(String header) {
+        return header != null && CORRELATION_ID.matcher(header).matches() ? header : UUID.randomUUID().toString();
+    }
+    
+    private static String truncate(String value, int maxLength) {
+        return value != null && value.length() > maxLength ? value.substring(0, maxLength) : value;
+    }
+}
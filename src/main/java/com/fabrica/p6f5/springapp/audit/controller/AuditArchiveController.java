@@ -0,0 +1,40 @@
+package com.fabrica.p6f5.springapp.audit.controller;
+
+import com.fabrica.p6f5.springapp.audit.dto.ArchiveReport;
+import com.fabrica.p6f5.springapp.audit.service.AuditArchiveService;
+import com.fabrica.p6f5.springapp.dto.ApiResponse;
+import com.fabrica.p6f5.springapp.util.ResponseUtils;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Audit Archive Controller following Single Responsibility Principle.
+ * Handles audit archiving HTTP requests.
+ */
+@RestController
+@RequestMapping("/api/v1/audit/archive")
+@Tag(name = "Audit API", description = "API for audit storage maintenance")
+public class AuditArchiveController {
+    
+    private final AuditArchiveService auditArchiveService;
+    
+    public AuditArchiveController(AuditArchiveService auditArchiveService) {
+        this.auditArchiveService = auditArchiveService;
+    }
+    
+    /**
+     * Archive old audit rows now (Admin only)
+     */
+    @PostMapping("/run")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Archive old audit rows",
+               description = "Moves audit logs and invoice history past the archive age into compressed segment files")
+    public ResponseEntity<ApiResponse<ArchiveReport>> archive() {
+        return ResponseUtils.success(auditArchiveService.archiveOldRows(), "Audit rows archived successfully");
+    }
+}
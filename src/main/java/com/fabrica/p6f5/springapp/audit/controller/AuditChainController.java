@@ -0,0 +1,40 @@
+package com.fabrica.p6f5.springapp.audit.controller;
+
+import com.fabrica.p6f5.springapp.audit.dto.ChainVerificationReport;
+import com.fabrica.p6f5.springapp.audit.service.AuditChainService;
+import com.fabrica.p6f5.springapp.dto.ApiResponse;
+import com.fabrica.p6f5.springapp.util.ResponseUtils;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Audit Chain Controller following Single Responsibility Principle.
+ * Handles audit chain verification HTTP requests.
+ */
+@RestController
+@RequestMapping("/api/v1/audit/chain")
+@Tag(name = "Audit API", description = "API for audit storage maintenance")
+public class AuditChainController {
+    
+    private final AuditChainService auditChainService;
+    
+    public AuditChainController(AuditChainService auditChainService) {
+        this.auditChainService = auditChainService;
+    }
+    
+    /**
+     * Verify the audit hash chains now (Admin only)
+     */
+    @PostMapping("/verify")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Verify audit hash chains",
+               description = "Recomputes every audit row hash in parallel and reports the first broken link")
+    public ResponseEntity<ApiResponse<ChainVerificationReport>> verify() {
+        return ResponseUtils.success(auditChainService.verify(), "Audit chains verified successfully");
+    }
+}
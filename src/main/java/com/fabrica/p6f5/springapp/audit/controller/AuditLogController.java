@@ -0,0 +1,59 @@
+package com.fabrica.p6f5.springapp.audit.controller;
+
+import com.fabrica.p6f5.springapp.audit.dto.AuditLogPage;
+import com.fabrica.p6f5.springapp.audit.dto.AuditSearchCriteria;
+import com.fabrica.p6f5.springapp.audit.model.AuditLog;
+import com.fabrica.p6f5.springapp.audit.service.AuditSearchService;
+import com.fabrica.p6f5.springapp.dto.ApiResponse;
+import com.fabrica.p6f5.springapp.util.ResponseUtils;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+
+/**
+ * Audit Log Controller following Single Responsibility Principle.
+ * Handles audit log search HTTP requests.
+ */
+@RestController
+@RequestMapping("/api/v1/audit/logs")
+@Tag(name = "Audit API", description = "API for searching the audit trail")
+public class AuditLogController {
+    
+    private final AuditSearchService auditSearchService;
+    
+    public AuditLogController(AuditSearchService auditSearchService) {
+        this.auditSearchService = auditSearchService;
+    }
+    
+    /**
+     * Search audit logs
+     */
+    @GetMapping
+    @Operation(summary = "Search audit logs", description = "Retrieves a keyset page of audit log summaries, newest first, with optional filters")
+    public ResponseEntity<ApiResponse<AuditLogPage>> searchAuditLogs(
+            @Parameter(description = "Entity type, e.g. Invoice") @RequestParam(required = false) String entityType,
+            @Parameter(description = "Entity ID") @RequestParam(required = false) Long entityId,
+            @Parameter(description = "ID of the user who made the change") @RequestParam(required = false) Long changedBy,
+            @Parameter(description = "Audit action, e.g. ISSUE") @RequestParam(required = false) String action,
+            @Parameter(description = "Correlation ID of the request that made the change") @RequestParam(required = false) String correlationId,
+            @Parameter(description = "Start of the time window (inclusive)") @RequestParam(required = false)
+                @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "End of the time window (exclusive)") @RequestParam(required = false)
+                @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @Parameter(description = "Cursor returned by the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (max 500)") @RequestParam(required = false) Integer limit,
+            @Parameter(description = "Include the old and new JSON payloads") @RequestParam(defaultValue = "false") boolean includeData) {
+        AuditLog.AuditAction auditAction = action != null ? AuditLog.AuditAction.valueOf(action.toUpperCase()) : null;
+        AuditSearchCriteria criteria = new AuditSearchCriteria(entityType, entityId, changedBy, auditAction, correlationId, from, to);
+        AuditLogPage page = auditSearchService.search(criteria, cursor, limit, includeData);
+        return ResponseUtils.success(page, "Audit logs retrieved successfully");
+    }
+}
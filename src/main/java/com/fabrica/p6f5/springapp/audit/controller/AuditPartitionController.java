@@ -0,0 +1,40 @@
+package com.fabrica.p6f5.springapp.audit.controller;
+
+import com.fabrica.p6f5.springapp.audit.dto.PartitionMaintenanceReport;
+import com.fabrica.p6f5.springapp.audit.service.AuditPartitionService;
+import com.fabrica.p6f5.springapp.dto.ApiResponse;
+import com.fabrica.p6f5.springapp.util.ResponseUtils;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Audit Partition Controller following Single Responsibility Principle.
+ * Handles audit partition maintenance HTTP requests.
+ */
+@RestController
+@RequestMapping("/api/v1/audit/partitions")
+@Tag(name = "Audit API", description = "API for audit storage maintenance")
+public class AuditPartitionController {
+    
+    private final AuditPartitionService auditPartitionService;
+    
+    public AuditPartitionController(AuditPartitionService auditPartitionService) {
+        this.auditPartitionService = auditPartitionService;
+    }
+    
+    /**
+     * Run partition maintenance now (Admin only)
+     */
+    @PostMapping("/maintain")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Maintain audit partitions",
+               description = "Creates upcoming monthly partitions and detaches partitions past retention")
+    public ResponseEntity<ApiResponse<PartitionMaintenanceReport>> maintain() {
+        return ResponseUtils.success(auditPartitionService.maintainPartitions(), "Audit partitions maintained successfully");
+    }
+}
@@ -0,0 +1,69 @@
+package com.fabrica.p6f5.springapp.audit.diff;
+
+import com.fabrica.p6f5.springapp.audit.dto.FieldChange;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.NullNode;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Structural diff of two JSON documents, such as two invoice history snapshots.
+ * <p>
+ * Objects are compared key by key and arrays index by index; each differing leaf is
+ * reported with its path, e.g. {@code items[1].quantity}. Numbers are compared by value,
+ * so {@code 10.0} equals {@code 10.00}. A missing value is reported as null.
+ */
+public final class JsonDiff {
+    
+    private JsonDiff() {
+    }
+    
+    /**
+     * @param ignoredFields object keys to skip at any depth, e.g. timestamps that differ in every version
+     */
+    public static List<FieldChange> diff(JsonNode before, JsonNode after, Set<String> ignoredFields) {
+        List<FieldChange> changes = new ArrayList<>();
+        walk("", orNull(before), orNull(after), ignoredFields, changes);
+        return changes;
+    }
+    
+    private static void walk(String path, JsonNode before, JsonNode after, Set<String> ignoredFields,
+                             List<FieldChange> changes) {
+        if (before.isObject() && after.isObject()) {
+            Set<String> names = new LinkedHashSet<>();
+            before.fieldNames().forEachRemaining(names::add);
+            after.fieldNames().forEachRemaining(names::add);
+            for (String name : names) {
+                if (!ignoredFields.contains(name)) {
+                    walk(path.isEmpty() ? name : path + "." + name,
+                         orNull(before.get(name)), orNull(after.get(name)), ignoredFields, changes);
+                }
+            }
+        } else if (before.isArray() && after.isArray()) {
+            Iterator<JsonNode> beforeItems = before.elements();
+            Iterator<JsonNode> afterItems = after.elements();
+            for (int i = 0; beforeItems.hasNext() || afterItems.hasNext(); i++) {
+                walk(path + "[" + i + "]", beforeItems.hasNext() ? beforeItems.next() : NullNode.getInstance(),
+                     afterItems.hasNext() ? afterItems.next() : NullNode.getInstance(), ignoredFields, changes);
+            }
+        } else if (before.isNumber() && after.isNumber()) {
+            if (before.decimalValue().compareTo(after.decimalValue()) != 0) {
+                changes.add(new FieldChange(path, before, after));
+            }
+        } else if (!before.equals(after)) {
+            changes.add(new FieldChange(path, valueOf(before), valueOf(after)));
+        }
+    }
+    
+    private static JsonNode orNull(JsonNode node) {
+        return node == null || node.isMissingNode() ? NullNode.getInstance() : node;
+    }
+    
+    private static JsonNode valueOf(JsonNode node) {
+        return node.isNull() ? null : node;
+    }
+}
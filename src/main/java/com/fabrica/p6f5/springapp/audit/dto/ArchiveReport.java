@@ -0,0 +1,27 @@
+package com.fabrica.p6f5.springapp.audit.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DTO describing one audit archiving run.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchiveReport {
+    
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private List<String> segments = new ArrayList<>();
+    private Map<String, Long> archivedRows = new LinkedHashMap<>();
+    private Map<String, Long> deletedRows = new LinkedHashMap<>();
+    private long bytesWritten;
+}
@@ -0,0 +1,22 @@
+package com.fabrica.p6f5.springapp.audit.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Keyset page of audit log search results.
+ * Audit logs are ordered by time, so the cursor is opaque rather than a plain ID;
+ * pass {@code nextCursor} back as the cursor parameter to fetch the following page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditLogPage {
+    
+    private List<AuditLogSummary> items;
+    private String nextCursor;
+    private boolean hasMore;
+}
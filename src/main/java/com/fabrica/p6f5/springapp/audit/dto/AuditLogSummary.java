@@ -0,0 +1,36 @@
+package com.fabrica.p6f5.springapp.audit.dto;
+
+import com.fabrica.p6f5.springapp.audit.model.AuditLog;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lightweight audit log projection for searches. The compact field diff is always
+ * included; the full JSONB snapshots only when they were asked for.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditLogSummary {
+    
+    private Long id;
+    private String entityType;
+    private Long entityId;
+    private AuditLog.AuditAction action;
+    private Long changedBy;
+    private String changes;
+    private String changeSummary;
+    private String ipAddress;
+    private String correlationId;
+    private LocalDateTime createdAt;
+    
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String oldData;
+    
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String newData;
+}
@@ -0,0 +1,25 @@
+package com.fabrica.p6f5.springapp.audit.dto;
+
+import com.fabrica.p6f5.springapp.audit.model.AuditLog;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO for audit log search filters. Null fields do not filter; the time window is [from, to).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditSearchCriteria {
+    
+    private String entityType;
+    private Long entityId;
+    private Long changedBy;
+    private AuditLog.AuditAction action;
+    private String correlationId;
+    private LocalDateTime from;
+    private LocalDateTime to;
+}
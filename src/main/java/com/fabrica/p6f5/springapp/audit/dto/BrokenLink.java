@@ -0,0 +1,40 @@
+package com.fabrica.p6f5.springapp.audit.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO for the first row of an audit chain that fails verification.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BrokenLink {
+    
+    private String entityType;
+    private Long entityId;
+    private Long auditLogId;
+    private Long chainSeq;
+    private LocalDateTime createdAt;
+    private Reason reason;
+    
+    /**
+     * Why a link is broken
+     */
+    public enum Reason {
+        /** The row's content no longer matches its hash. */
+        HASH_MISMATCH,
+        /** The row does not point at the hash of the row before it. */
+        LINK_MISMATCH,
+        /** Rows are missing or duplicated in the chain, or its first row does not follow the anchor. */
+        SEQUENCE_GAP,
+        /**
+         * The last row does not match the recorded chain head: rows were removed from or added at the end.
+         * Reported without an audit log ID when every row of the chain is gone.
+         */
+        HEAD_MISMATCH
+    }
+}
@@ -0,0 +1,34 @@
+package com.fabrica.p6f5.springapp.audit.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO describing one verification of the audit hash chains.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChainVerificationReport {
+    
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private int slices;
+    private long rows;
+    private long chains;
+    private long anchoredChains;
+    private long brokenChains;
+    private BrokenLink firstBrokenLink;
+    private List<BrokenLink> brokenLinks = new ArrayList<>();
+    private double rowsPerSecond;
+    private long elapsedMillis;
+    
+    public boolean isValid() {
+        return brokenChains == 0;
+    }
+}
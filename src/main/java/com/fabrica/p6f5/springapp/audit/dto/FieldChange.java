@@ -0,0 +1,18 @@
+package com.fabrica.p6f5.springapp.audit.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+/**
+ * DTO for one changed field: its path and the values before and after.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FieldChange {
+    
+    private String field;
+    private Object from;
+    private Object to;
+}
@@ -0,0 +1,27 @@
+package com.fabrica.p6f5.springapp.audit.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DTO describing one run of audit partition maintenance.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PartitionMaintenanceReport {
+    
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private List<String> created = new ArrayList<>();
+    private List<String> detached = new ArrayList<>();
+    private List<String> dropped = new ArrayList<>();
+    private Map<String, Long> defaultPartitionRows = new LinkedHashMap<>();
+}
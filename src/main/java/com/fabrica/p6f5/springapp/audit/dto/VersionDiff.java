@@ -0,0 +1,21 @@
+package com.fabrica.p6f5.springapp.audit.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for the field-level differences between two versions of an invoice.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VersionDiff {
+    
+    private Long invoiceId;
+    private Integer fromVersion;
+    private Integer toVersion;
+    private List<FieldChange> changes;
+}
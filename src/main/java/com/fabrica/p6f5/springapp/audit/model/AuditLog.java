@@ -46,6 +46,10 @@ public class AuditLog {
     @Column(name = "new_data", columnDefinition = "jsonb")
     private String newData;
     
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "changes", columnDefinition = "jsonb")
+    private String changes;
+    
     @Column(name = "change_summary", columnDefinition = "TEXT")
     private String changeSummary;
     
@@ -55,12 +59,26 @@ public class AuditLog {
     @Column(name = "user_agent", columnDefinition = "TEXT")
     private String userAgent;
     
+    @Column(name = "correlation_id", length = 64)
+    private String correlationId;
+    
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
     
+    @Column(name = "chain_seq", updatable = false)
+    private Long chainSeq;
+    
+    @Column(name = "prev_hash", updatable = false)
+    private byte[] prevHash;
+    
+    @Column(name = "row_hash", updatable = false)
+    private byte[] rowHash;
+    
     @PrePersist
     protected void onCreate() {
-        createdAt = LocalDateTime.now();
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
     }
     
     /**
@@ -72,7 +90,8 @@ public class AuditLog {
         DELETE,
         ISSUE,
         REVERT,
-        PUBLISH
+        PUBLISH,
+        PAYMENT
     }
 }
 
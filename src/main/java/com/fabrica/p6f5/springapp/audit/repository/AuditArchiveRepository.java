@@ -0,0 +1,179 @@
+package com.fabrica.p6f5.springapp.audit.repository;
+
+import com.fabrica.p6f5.springapp.audit.model.AuditLog;
+import com.fabrica.p6f5.springapp.audit.model.InvoiceHistory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Audit Archive Repository.
+ * Streams old audit and history rows out of Postgres for archiving and deletes them afterwards.
+ * Streaming only uses a server-side cursor inside a transaction; callers wrap it in one.
+ */
+@Repository
+public class AuditArchiveRepository {
+    
+    private static final int FETCH_SIZE = 1000;
+    
+    private static final String OLDEST_AUDIT_LOG_SQL = "SELECT MIN(created_at) FROM audit_logs";
+    
+    private static final String OLDEST_HISTORY_SQL = "SELECT MIN(created_at) FROM invoice_history";
+    
+    private static final String STREAM_AUDIT_LOGS_SQL =
+        "SELECT audit_log_id, entity_type, entity_id, action, changed_by, old_data, new_data, changes, " +
+        "change_summary, ip_address, user_agent, correlation_id, created_at, chain_seq, prev_hash, row_hash " +
+        "FROM audit_logs WHERE created_at >= ? AND created_at < ? ORDER BY entity_id, created_at, audit_log_id";
+    
+    private static final String STREAM_HISTORY_SQL =
+        "SELECT history_id, invoice_id, version, fiscal_folio, invoice_number, invoice_data, " +
+        "created_by, created_at, is_reverted FROM invoice_history " +
+        "WHERE created_at >= ? AND created_at < ? ORDER BY invoice_id, version, history_id";
+    
+    /**
+     * Deletes archived rows and, in the same statement, moves the anchor of each chain they
+     * belonged to onto the last deleted row, so verification expects the chain to resume after it.
+     * The redundant entity_id bounds let the batch range-scan idx_audit_chain.
+     */
+    private static final String DELETE_AUDIT_LOGS_SQL =
+        "WITH deleted AS (" +
+        "DELETE FROM audit_logs WHERE created_at >= ? AND created_at < ? AND entity_id BETWEEN ? AND ? " +
+        "AND (entity_id, audit_log_id) > (?, ?) AND (entity_id, audit_log_id) <= (?, ?) " +
+        "RETURNING entity_id, entity_type, chain_seq, row_hash), " +
+        "anchored AS (" +
+        "UPDATE audit_chain_heads h SET anchor_seq = l.chain_seq, anchor_hash = l.row_hash " +
+        "FROM (SELECT DISTINCT ON (entity_id, entity_type) entity_id, entity_type, chain_seq, row_hash " +
+        "FROM deleted WHERE chain_seq IS NOT NULL ORDER BY entity_id, entity_type, chain_seq DESC) l " +
+        "WHERE h.entity_id = l.entity_id AND h.entity_type = l.entity_type AND h.anchor_seq < l.chain_seq) " +
+        "SELECT COUNT(*) FROM deleted";
+    
+    private static final String DELETE_HISTORY_SQL =
+        "DELETE FROM invoice_history WHERE created_at >= ? AND created_at < ? AND invoice_id BETWEEN ? AND ? " +
+        "AND (invoice_id, history_id) > (?, ?) AND (invoice_id, history_id) <= (?, ?)";
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    public AuditArchiveRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+    
+    public Optional<LocalDateTime> findOldestAuditLog() {
+        return oldest(OLDEST_AUDIT_LOG_SQL);
+    }
+    
+    public Optional<LocalDateTime> findOldestInvoiceHistory() {
+        return oldest(OLDEST_HISTORY_SQL);
+    }
+    
+    /**
+     * Stream the audit logs created in [from, to) ordered by entity ID.
+     */
+    public void streamAuditLogs(LocalDateTime from, LocalDateTime to, Consumer<AuditLog> consumer) {
+        stream(STREAM_AUDIT_LOGS_SQL, from, to, rs -> consumer.accept(mapAuditLog(rs)));
+    }
+    
+    /**
+     * Stream the history versions created in [from, to) ordered by invoice ID and version.
+     */
+    public void streamInvoiceHistory(LocalDateTime from, LocalDateTime to, Consumer<InvoiceHistory> consumer) {
+        stream(STREAM_HISTORY_SQL, from, to, rs -> consumer.accept(mapInvoiceHistory(rs)));
+    }
+    
+    /**
+     * Delete the archived audit logs of [from, to) with (entity_id, audit_log_id) after
+     * ({@code afterKey}, {@code afterId}) and up to ({@code lastKey}, {@code lastId}), and anchor
+     * their chains on the last deleted rows. The time range keeps the delete on the month's partition.
+     */
+    public int deleteAuditLogs(LocalDateTime from, LocalDateTime to, long afterKey, long afterId,
+                               long lastKey, long lastId) {
+        Integer deleted = jdbcTemplate.query(
+            connection -> deleteStatement(connection, DELETE_AUDIT_LOGS_SQL, from, to, afterKey, afterId, lastKey, lastId),
+            rs -> rs.next() ? rs.getInt(1) : 0);
+        return deleted != null ? deleted : 0;
+    }
+    
+    /**
+     * Delete the archived history versions of [from, to) with (invoice_id, history_id) after
+     * ({@code afterKey}, {@code afterId}) and up to ({@code lastKey}, {@code lastId}).
+     * The time range keeps the delete on the month's partition.
+     */
+    public int deleteInvoiceHistory(LocalDateTime from, LocalDateTime to, long afterKey, long afterId,
+                                    long lastKey, long lastId) {
+        return jdbcTemplate.update(
+            connection -> deleteStatement(connection, DELETE_HISTORY_SQL, from, to, afterKey, afterId, lastKey, lastId));
+    }
+    
+    private Optional<LocalDateTime> oldest(String sql) {
+        Timestamp oldest = jdbcTemplate.queryForObject(sql, Timestamp.class);
+        return Optional.ofNullable(oldest).map(Timestamp::toLocalDateTime);
+    }
+    
+    private void stream(String sql, LocalDateTime from, LocalDateTime to, RowCallbackHandler handler) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql);
+            ps.setFetchSize(FETCH_SIZE);
+            ps.setTimestamp(1, Timestamp.valueOf(from));
+            ps.setTimestamp(2, Timestamp.valueOf(to));
+            return ps;
+        }, handler);
+    }
+    
+    private static PreparedStatement deleteStatement(Connection connection, String sql, LocalDateTime from,
+                                                     LocalDateTime to, long afterKey, long afterId,
+                                                     long lastKey, long lastId) throws SQLException {
+        PreparedStatement ps = connection.prepareStatement(sql);
+        ps.setTimestamp(1, Timestamp.valueOf(from));
+        ps.setTimestamp(2, Timestamp.valueOf(to));
+        ps.setLong(3, afterKey);
+        ps.setLong(4, lastKey);
+        ps.setLong(5, afterKey);
+        ps.setLong(6, afterId);
+        ps.setLong(7, lastKey);
+        ps.setLong(8, lastId);
+        return ps;
+    }
+    
+    private static AuditLog mapAuditLog(ResultSet rs) throws SQLException {
+        AuditLog auditLog = new AuditLog();
+        auditLog.setId(rs.getLong("audit_log_id"));
+        auditLog.setEntityType(rs.getString("entity_type"));
+        auditLog.setEntityId(rs.getLong("entity_id"));
+        auditLog.setAction(AuditLog.AuditAction.valueOf(rs.getString("action")));
+        auditLog.setChangedBy(rs.getObject("changed_by", Long.class));
+        auditLog.setOldData(rs.getString("old_data"));
+        auditLog.setNewData(rs.getString("new_data"));
+        auditLog.setChanges(rs.getString("changes"));
+        auditLog.setChangeSummary(rs.getString("change_summary"));
+        auditLog.setIpAddress(rs.getString("ip_address"));
+        auditLog.setUserAgent(rs.getString("user_agent"));
+        auditLog.setCorrelationId(rs.getString("correlation_id"));
+        auditLog.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
+        auditLog.setChainSeq(rs.getObject("chain_seq", Long.class));
+        auditLog.setPrevHash(rs.getBytes("prev_hash"));
+        auditLog.setRowHash(rs.getBytes("row_hash"));
+        return auditLog;
+    }
+    
+    private static InvoiceHistory mapInvoiceHistory(ResultSet rs) throws SQLException {
+        InvoiceHistory history = new InvoiceHistory();
+        history.setId(rs.getLong("history_id"));
+        history.setInvoiceId(rs.getLong("invoice_id"));
+        history.setVersion(rs.getInt("version"));
+        history.setFiscalFolio(rs.getString("fiscal_folio"));
+        history.setInvoiceNumber(rs.getString("invoice_number"));
+        history.setInvoiceData(rs.getString("invoice_data"));
+        history.setCreatedBy(rs.getLong("created_by"));
+        history.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
+        history.setIsReverted(rs.getBoolean("is_reverted"));
+        return history;
+    }
+}
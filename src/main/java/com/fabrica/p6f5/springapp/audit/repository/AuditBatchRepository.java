@@ -0,0 +1,99 @@
+package com.fabrica.p6f5.springapp.audit.repository;
+
+import com.fabrica.p6f5.springapp.audit.model.AuditLog;
+import com.fabrica.p6f5.springapp.audit.model.InvoiceHistory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Audit Batch Repository.
+ * Writes history and audit rows with JDBC batching for bulk operations.
+ */
+@Repository
+public class AuditBatchRepository {
+    
+    private static final int BATCH_SIZE = 500;
+    
+    private static final String INSERT_HISTORY_SQL =
+        "INSERT INTO invoice_history (invoice_id, version, fiscal_folio, invoice_number, " +
+        "invoice_data, created_by, created_at, is_reverted) VALUES (?, ?, ?, ?, CAST(? AS jsonb), ?, ?, ?)";
+    
+    private static final String INSERT_AUDIT_LOG_SQL =
+        "INSERT INTO audit_logs (entity_type, entity_id, action, changed_by, old_data, new_data, " +
+        "changes, change_summary, ip_address, user_agent, created_at, chain_seq, prev_hash, row_hash, correlation_id) " +
+        "VALUES (?, ?, ?, ?, CAST(? AS jsonb), CAST(? AS jsonb), CAST(? AS jsonb), ?, ?, ?, ?, ?, ?, ?, ?)";
+    
+    private static final String MARK_REVERTED_SQL =
+        "UPDATE invoice_history SET is_reverted = TRUE " +
+        "WHERE invoice_id = ? AND version > ? AND created_at >= ? AND is_reverted IS NOT TRUE";
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    public AuditBatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+    
+    /**
+     * Insert invoice history rows in JDBC batches.
+     */
+    public void insertInvoiceHistories(List<InvoiceHistory> histories) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_HISTORY_SQL, histories, BATCH_SIZE, (ps, history) -> {
+            ps.setLong(1, history.getInvoiceId());
+            ps.setInt(2, history.getVersion());
+            ps.setString(3, history.getFiscalFolio());
+            ps.setString(4, history.getInvoiceNumber());
+            ps.setString(5, history.getInvoiceData());
+            ps.setLong(6, history.getCreatedBy());
+            ps.setTimestamp(7, history.getCreatedAt() != null ? Timestamp.valueOf(history.getCreatedAt()) : now);
+            ps.setBoolean(8, Boolean.TRUE.equals(history.getIsReverted()));
+        });
+    }
+    
+    /**
+     * Insert audit log rows in JDBC batches.
+     */
+    public void insertAuditLogs(List<AuditLog> auditLogs) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_AUDIT_LOG_SQL, auditLogs, BATCH_SIZE, (ps, auditLog) -> {
+            ps.setString(1, auditLog.getEntityType());
+            ps.setLong(2, auditLog.getEntityId());
+            ps.setString(3, auditLog.getAction().name());
+            if (auditLog.getChangedBy() != null) {
+                ps.setLong(4, auditLog.getChangedBy());
+            } else {
+                ps.setNull(4, Types.BIGINT);
+            }
+            ps.setString(5, auditLog.getOldData());
+            ps.setString(6, auditLog.getNewData());
+            ps.setString(7, auditLog.getChanges());
+            ps.setString(8, auditLog.getChangeSummary());
+            ps.setString(9, auditLog.getIpAddress());
+            ps.setString(10, auditLog.getUserAgent());
+            ps.setTimestamp(11, auditLog.getCreatedAt() != null ? Timestamp.valueOf(auditLog.getCreatedAt()) : now);
+            if (auditLog.getChainSeq() != null) {
+                ps.setLong(12, auditLog.getChainSeq());
+            } else {
+                ps.setNull(12, Types.BIGINT);
+            }
+            ps.setBytes(13, auditLog.getPrevHash());
+            ps.setBytes(14, auditLog.getRowHash());
+            ps.setString(15, auditLog.getCorrelationId());
+        });
+    }
+    
+    /**
+     * Flag the versions of an invoice after the given one as reverted. The creation
+     * time bound lets Postgres skip the monthly partitions before it.
+     * 
+     * @return the number of history rows flagged
+     */
+    public int markVersionsReverted(Long invoiceId, Integer afterVersion, LocalDateTime since) {
+        return jdbcTemplate.update(MARK_REVERTED_SQL, invoiceId, afterVersion, Timestamp.valueOf(since));
+    }
+}
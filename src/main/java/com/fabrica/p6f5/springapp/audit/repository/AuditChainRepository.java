@@ -0,0 +1,177 @@
+package com.fabrica.p6f5.springapp.audit.repository;
+
+import com.fabrica.p6f5.springapp.audit.chain.ChainHead;
+import com.fabrica.p6f5.springapp.audit.chain.ChainKey;
+import com.fabrica.p6f5.springapp.audit.model.AuditLog;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Audit Chain Repository.
+ * Locks and advances audit chain heads, and streams chained rows for verification.
+ * Streaming only uses a server-side cursor inside a transaction; callers wrap it in one.
+ */
+@Repository
+public class AuditChainRepository {
+    
+    private static final int FETCH_SIZE = 5000;
+    
+    /**
+     * Creates missing heads and row-locks all of them in one statement. The no-op update is
+     * what takes the lock on existing heads; heads are locked in key order so two writers
+     * sharing entities cannot deadlock.
+     */
+    private static final String LOCK_HEADS_SQL =
+        "INSERT INTO audit_chain_heads (entity_id, entity_type) " +
+        "SELECT k.entity_id, k.entity_type FROM unnest(?::bigint[], ?::text[]) AS k(entity_id, entity_type) " +
+        "ORDER BY k.entity_id, k.entity_type " +
+        "ON CONFLICT (entity_id, entity_type) DO UPDATE SET chain_length = audit_chain_heads.chain_length " +
+        "RETURNING entity_id, entity_type, chain_length, head_hash, anchor_seq, anchor_hash";
+    
+    private static final String ADVANCE_HEADS_SQL =
+        "UPDATE audit_chain_heads AS h SET chain_length = a.chain_length, head_hash = decode(a.head_hash, 'hex'), " +
+        "updated_at = ? " +
+        "FROM unnest(?::bigint[], ?::text[], ?::bigint[], ?::text[]) AS a(entity_id, entity_type, chain_length, head_hash) " +
+        "WHERE h.entity_id = a.entity_id AND h.entity_type = a.entity_type";
+    
+    /** Every chained row has a head, and heads outlive their rows, so the heads span every chain. */
+    private static final String ENTITY_ID_RANGE_SQL =
+        "SELECT MIN(entity_id), MAX(entity_id) FROM audit_chain_heads";
+    
+    private static final String FIND_HEADS_SQL =
+        "SELECT entity_id, entity_type, chain_length, head_hash, anchor_seq, anchor_hash FROM audit_chain_heads " +
+        "WHERE entity_id >= ? AND entity_id < ?";
+    
+    private static final String STREAM_CHAINS_SQL =
+        "SELECT audit_log_id, entity_type, entity_id, action, changed_by, old_data, new_data, changes, " +
+        "change_summary, ip_address, user_agent, correlation_id, created_at, chain_seq, prev_hash, row_hash " +
+        "FROM audit_logs " +
+        "WHERE chain_seq IS NOT NULL AND entity_id >= ? AND entity_id < ? " +
+        "ORDER BY entity_id, entity_type, chain_seq";
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    public AuditChainRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+    
+    /**
+     * Lock the heads of the given chains until the end of the transaction, creating empty
+     * heads for new chains.
+     * 
+     * @param keys distinct chain keys
+     */
+    public Map<ChainKey, ChainHead> lockHeads(List<ChainKey> keys) {
+        Long[] entityIds = keys.stream().map(ChainKey::entityId).toArray(Long[]::new);
+        String[] entityTypes = keys.stream().map(ChainKey::entityType).toArray(String[]::new);
+        Map<ChainKey, ChainHead> heads = new HashMap<>();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(LOCK_HEADS_SQL);
+            ps.setArray(1, connection.createArrayOf("bigint", entityIds));
+            ps.setArray(2, connection.createArrayOf("text", entityTypes));
+            return ps;
+        }, rs -> {
+            ChainHead head = mapHead(rs);
+            heads.put(head.getKey(), head);
+        });
+        return heads;
+    }
+    
+    /**
+     * Store the new last link of each chain.
+     */
+    public void advanceHeads(Collection<ChainHead> heads, LocalDateTime updatedAt) {
+        HexFormat hex = HexFormat.of();
+        Long[] entityIds = heads.stream().map(head -> head.getKey().entityId()).toArray(Long[]::new);
+        String[] entityTypes = heads.stream().map(head -> head.getKey().entityType()).toArray(String[]::new);
+        Long[] lengths = heads.stream().map(ChainHead::getLength).toArray(Long[]::new);
+        String[] hashes = heads.stream().map(head -> hex.formatHex(head.getHash())).toArray(String[]::new);
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(ADVANCE_HEADS_SQL);
+            ps.setTimestamp(1, Timestamp.valueOf(updatedAt));
+            ps.setArray(2, connection.createArrayOf("bigint", entityIds));
+            ps.setArray(3, connection.createArrayOf("text", entityTypes));
+            ps.setArray(4, connection.createArrayOf("bigint", lengths));
+            ps.setArray(5, connection.createArrayOf("text", hashes));
+            return ps;
+        });
+    }
+    
+    /**
+     * Lowest and highest entity ID with a chain, if any.
+     */
+    public Optional<long[]> findEntityIdRange() {
+        return Optional.ofNullable(jdbcTemplate.queryForObject(ENTITY_ID_RANGE_SQL, (rs, rowNum) -> {
+            long min = rs.getLong(1);
+            return rs.wasNull() ? null : new long[] {min, rs.getLong(2)};
+        }));
+    }
+    
+    /**
+     * Heads of the chains with entity IDs in [fromId, toId).
+     */
+    public Map<ChainKey, ChainHead> findHeads(long fromId, long toId) {
+        Map<ChainKey, ChainHead> heads = new HashMap<>();
+        jdbcTemplate.query(FIND_HEADS_SQL, rs -> {
+            ChainHead head = mapHead(rs);
+            heads.put(head.getKey(), head);
+        }, fromId, toId);
+        return heads;
+    }
+    
+    /**
+     * Stream the chained rows of entities with IDs in [fromId, toId), grouped by chain
+     * and in chain order.
+     */
+    public void streamChains(long fromId, long toId, Consumer<AuditLog> consumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(STREAM_CHAINS_SQL);
+            ps.setFetchSize(FETCH_SIZE);
+            ps.setLong(1, fromId);
+            ps.setLong(2, toId);
+            return ps;
+        }, rs -> {
+            consumer.accept(mapAuditLog(rs));
+        });
+    }
+    
+    private static ChainHead mapHead(ResultSet rs) throws SQLException {
+        return new ChainHead(new ChainKey(rs.getLong("entity_id"), rs.getString("entity_type")),
+                             rs.getLong("chain_length"), rs.getBytes("head_hash"),
+                             rs.getLong("anchor_seq"), rs.getBytes("anchor_hash"));
+    }
+    
+    private static AuditLog mapAuditLog(ResultSet rs) throws SQLException {
+        AuditLog auditLog = new AuditLog();
+        auditLog.setId(rs.getLong("audit_log_id"));
+        auditLog.setEntityType(rs.getString("entity_type"));
+        auditLog.setEntityId(rs.getLong("entity_id"));
+        auditLog.setAction(AuditLog.AuditAction.valueOf(rs.getString("action")));
+        auditLog.setChangedBy(rs.getObject("changed_by", Long.class));
+        auditLog.setOldData(rs.getString("old_data"));
+        auditLog.setNewData(rs.getString("new_data"));
+        auditLog.setChanges(rs.getString("changes"));
+        auditLog.setChangeSummary(rs.getString("change_summary"));
+        auditLog.setIpAddress(rs.getString("ip_address"));
+        auditLog.setUserAgent(rs.getString("user_agent"));
+        auditLog.setCorrelationId(rs.getString("correlation_id"));
+        auditLog.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
+        auditLog.setChainSeq(rs.getLong("chain_seq"));
+        auditLog.setPrevHash(rs.getBytes("prev_hash"));
+        auditLog.setRowHash(rs.getBytes("row_hash"));
+        return auditLog;
+    }
+}
@@ -23,8 +23,21 @@ public interface AuditLogRepository extends JpaRepository<AuditLog, Long> {
      */
     List<AuditLog> findByEntityTypeAndEntityIdOrderByCreatedAtDesc(String entityType, Long entityId);
     
+    /**
+     * Find the audit logs of an entity written since a point in time. The lower
+     * bound lets Postgres skip the monthly partitions before it.
+     * 
+     * @param entityType the entity type
+     * @param entityId the entity ID
+     * @param since the earliest creation time
+     * @return list of audit logs for the entity
+     */
+    List<AuditLog> findByEntityTypeAndEntityIdAndCreatedAtGreaterThanEqualOrderByCreatedAtDesc(
+        String entityType, Long entityId, LocalDateTime since);
+    
     /**
      * Find all audit logs by action.
+     * Unbounded; listings should page through {@link AuditSearchRepository} instead.
      * 
      * @param action the audit action
      * @return list of audit logs with the specified action
@@ -33,6 +46,7 @@ public interface AuditLogRepository extends JpaRepository<AuditLog, Long> {
     
     /**
      * Find all audit logs by user.
+     * Unbounded; listings should page through {@link AuditSearchRepository} instead.
      * 
      * @param userId the user ID
      * @return list of audit logs by the user
@@ -40,7 +54,9 @@ public interface AuditLogRepository extends JpaRepository<AuditLog, Long> {
     List<AuditLog> findByChangedByOrderByCreatedAtDesc(Long userId);
     
     /**
-     * Find audit logs within a date range.
+     * Find audit logs within a date range. Only the monthly partitions overlapping
+     * the range are scanned. Unbounded; listings should page through
+     * {@link AuditSearchRepository} instead.
      * 
      * @param startDate the start date
      * @param endDate the end date
@@ -0,0 +1,121 @@
+package com.fabrica.p6f5.springapp.audit.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Audit Partition Repository.
+ * Manages the monthly range partitions of {@code audit_logs} and {@code invoice_history}.
+ * Partitions are named {@code <table>_pYYYYMM}; the catch-all is {@code <table>_default}.
+ */
+@Repository
+public class AuditPartitionRepository {
+    
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+    
+    private static final String ENSURE_PARTITION_SQL = "SELECT ensure_monthly_partition(?, ?)";
+    
+    private static final String FIND_PARTITIONS_SQL =
+        "SELECT c.relname FROM pg_inherits i " +
+        "JOIN pg_class c ON c.oid = i.inhrelid " +
+        "JOIN pg_class p ON p.oid = i.inhparent " +
+        "WHERE p.relname = ? ORDER BY c.relname";
+    
+    /**
+     * Anchors every audit chain with rows in a partition on its last row there; formatted
+     * with the quoted partition name.
+     */
+    private static final String ANCHOR_CHAINS_SQL =
+        "UPDATE audit_chain_heads h SET anchor_seq = l.chain_seq, anchor_hash = l.row_hash " +
+        "FROM (SELECT DISTINCT ON (entity_id, entity_type) entity_id, entity_type, chain_seq, row_hash " +
+        "FROM %s WHERE chain_seq IS NOT NULL ORDER BY entity_id, entity_type, chain_seq DESC) l " +
+        "WHERE h.entity_id = l.entity_id AND h.entity_type = l.entity_type AND h.anchor_seq < l.chain_seq";
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    public AuditPartitionRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+    
+    /**
+     * Create the partition for a month if it does not exist yet.
+     * 
+     * @return true if the partition was created
+     */
+    public boolean ensureMonthlyPartition(String table, YearMonth month) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(ENSURE_PARTITION_SQL, Boolean.class,
+            table, Date.valueOf(month.atDay(1))));
+    }
+    
+    /**
+     * Find the names of the partitions currently attached to a table.
+     */
+    public List<String> findPartitions(String table) {
+        return jdbcTemplate.queryForList(FIND_PARTITIONS_SQL, String.class, table);
+    }
+    
+    /**
+     * Detach a partition; it stays in the database as a standalone table.
+     */
+    public void detachPartition(String table, String partition) {
+        jdbcTemplate.execute("ALTER TABLE " + quote(table) + " DETACH PARTITION " + quote(partition));
+    }
+    
+    /**
+     * Record the last row each audit chain has in a partition as the chain's anchor, before
+     * the partition leaves the table. Run in the same transaction as the detach.
+     * 
+     * @return the number of chains anchored
+     */
+    public int anchorChains(String partition) {
+        return jdbcTemplate.update(String.format(ANCHOR_CHAINS_SQL, quote(partition)));
+    }
+    
+    /**
+     * Drop a detached partition table.
+     */
+    public void dropTable(String partition) {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + quote(partition));
+    }
+    
+    /**
+     * Count the rows that fell into the default partition because their month had no partition.
+     */
+    public long countDefaultRows(String table) {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + quote(defaultPartition(table)),
+            Long.class);
+        return count != null ? count : 0L;
+    }
+    
+    public static String partitionName(String table, YearMonth month) {
+        return table + "_p" + month.format(SUFFIX);
+    }
+    
+    /**
+     * Month covered by a monthly partition name, or null for other partitions.
+     */
+    public static YearMonth monthOf(String table, String partition) {
+        String prefix = table + "_p";
+        if (!partition.startsWith(prefix) || partition.length() != prefix.length() + 6) {
+            return null;
+        }
+        try {
+            return YearMonth.parse(partition.substring(prefix.length()), SUFFIX);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+    
+    public static String defaultPartition(String table) {
+        return table + "_default";
+    }
+    
+    private static String quote(String identifier) {
+        return "\"" + identifier.replace("\"", "\"\"") + "\"";
+    }
+}
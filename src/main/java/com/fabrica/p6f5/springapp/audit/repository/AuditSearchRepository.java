@@ -0,0 +1,112 @@
+package com.fabrica.p6f5.springapp.audit.repository;
+
+import com.fabrica.p6f5.springapp.audit.dto.AuditLogSummary;
+import com.fabrica.p6f5.springapp.audit.dto.AuditSearchCriteria;
+import com.fabrica.p6f5.springapp.audit.model.AuditLog;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Audit Search Repository.
+ * Keyset queries over {@code audit_logs} ordered by {@code (created_at, audit_log_id)} descending.
+ * Every filter combination is served by an index ending in those two columns (V20), and
+ * the time bounds, including the cursor's, prune the monthly partitions outside them.
+ */
+@Repository
+public class AuditSearchRepository {
+    
+    private static final String SUMMARY_COLUMNS =
+        "SELECT audit_log_id, entity_type, entity_id, action, changed_by, changes, change_summary, ip_address, " +
+        "correlation_id, created_at";
+    
+    private static final String DATA_COLUMNS = ", old_data, new_data";
+    
+    private static final String ORDER_BY = " ORDER BY created_at DESC, audit_log_id DESC LIMIT ?";
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    public AuditSearchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+    
+    /**
+     * Find a page of audit logs matching the criteria.
+     * 
+     * @param criteria the filters
+     * @param beforeTime creation time of the last row of the previous page, or null for the first page
+     * @param beforeId ID of the last row of the previous page, or null for the first page
+     * @param limit the number of rows to fetch
+     * @param includeData whether to read the old and new JSONB payloads
+     * @return matching rows, newest first
+     */
+    public List<AuditLogSummary> search(AuditSearchCriteria criteria, LocalDateTime beforeTime, Long beforeId,
+                                        int limit, boolean includeData) {
+        StringBuilder sql = new StringBuilder(SUMMARY_COLUMNS);
+        if (includeData) {
+            sql.append(DATA_COLUMNS);
+        }
+        sql.append(" FROM audit_logs WHERE TRUE");
+        List<Object> args = new ArrayList<>();
+        if (criteria.getEntityType() != null) {
+            sql.append(" AND entity_type = ?");
+            args.add(criteria.getEntityType());
+        }
+        if (criteria.getEntityId() != null) {
+            sql.append(" AND entity_id = ?");
+            args.add(criteria.getEntityId());
+        }
+        if (criteria.getChangedBy() != null) {
+            sql.append(" AND changed_by = ?");
+            args.add(criteria.getChangedBy());
+        }
+        if (criteria.getAction() != null) {
+            sql.append(" AND action = ?");
+            args.add(criteria.getAction().name());
+        }
+        if (criteria.getCorrelationId() != null) {
+            sql.append(" AND correlation_id = ?");
+            args.add(criteria.getCorrelationId());
+        }
+        if (criteria.getFrom() != null) {
+            sql.append(" AND created_at >= ?");
+            args.add(Timestamp.valueOf(criteria.getFrom()));
+        }
+        if (criteria.getTo() != null) {
+            sql.append(" AND created_at < ?");
+            args.add(Timestamp.valueOf(criteria.getTo()));
+        }
+        if (beforeTime != null) {
+            // The plain bound prunes partitions; the row comparison is the exact keyset condition
+            sql.append(" AND created_at <= ? AND (created_at, audit_log_id) < (?, ?)");
+            args.add(Timestamp.valueOf(beforeTime));
+            args.add(Timestamp.valueOf(beforeTime));
+            args.add(beforeId);
+        }
+        sql.append(ORDER_BY);
+        args.add(limit);
+        
+        return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> {
+            AuditLogSummary summary = new AuditLogSummary();
+            summary.setId(rs.getLong("audit_log_id"));
+            summary.setEntityType(rs.getString("entity_type"));
+            summary.setEntityId(rs.getLong("entity_id"));
+            summary.setAction(AuditLog.AuditAction.valueOf(rs.getString("action")));
+            summary.setChangedBy(rs.getObject("changed_by", Long.class));
+            summary.setChanges(rs.getString("changes"));
+            summary.setChangeSummary(rs.getString("change_summary"));
+            summary.setIpAddress(rs.getString("ip_address"));
+            summary.setCorrelationId(rs.getString("correlation_id"));
+            summary.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
+            if (includeData) {
+                summary.setOldData(rs.getString("old_data"));
+                summary.setNewData(rs.getString("new_data"));
+            }
+            return summary;
+        }, args.toArray());
+    }
+}
@@ -4,6 +4,7 @@ import com.fabrica.p6f5.springapp.audit.model.InvoiceHistory;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,6 +23,17 @@ public interface InvoiceHistoryRepository extends JpaRepository<InvoiceHistory,
      */
     List<InvoiceHistory> findByInvoiceIdOrderByVersionDesc(Long invoiceId);
     
+    /**
+     * Find the versions of an invoice written since a point in time. The lower
+     * bound lets Postgres skip the monthly partitions before it.
+     * 
+     * @param invoiceId the invoice ID
+     * @param since the earliest creation time
+     * @return list of versions ordered by version number descending
+     */
+    List<InvoiceHistory> findByInvoiceIdAndCreatedAtGreaterThanEqualOrderByVersionDesc(Long invoiceId,
+                                                                                       LocalDateTime since);
+    
     /**
      * Find a specific version of an invoice.
      * 
@@ -31,6 +43,17 @@ public interface InvoiceHistoryRepository extends JpaRepository<InvoiceHistory,
      */
     Optional<InvoiceHistory> findByInvoiceIdAndVersion(Long invoiceId, Integer version);
     
+    /**
+     * Find a specific version of an invoice written since a point in time.
+     * 
+     * @param invoiceId the invoice ID
+     * @param version the version number
+     * @param since the earliest creation time
+     * @return Optional containing the invoice history if found
+     */
+    Optional<InvoiceHistory> findByInvoiceIdAndVersionAndCreatedAtGreaterThanEqual(Long invoiceId, Integer version,
+                                                                                   LocalDateTime since);
+    
     /**
      * Find the latest version of an invoice.
      * 
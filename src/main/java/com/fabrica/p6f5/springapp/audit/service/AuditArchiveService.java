@@ -0,0 +1,242 @@
+package com.fabrica.p6f5.springapp.audit.service;
+
+import com.fabrica.p6f5.springapp.audit.archive.ArchiveCodec;
+import com.fabrica.p6f5.springapp.audit.archive.AuditArchive;
+import com.fabrica.p6f5.springapp.audit.archive.SegmentWriter;
+import com.fabrica.p6f5.springapp.audit.dto.ArchiveReport;
+import com.fabrica.p6f5.springapp.audit.repository.AuditArchiveRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Audit Archive Service following Single Responsibility Principle.
+ * Moves audit logs and invoice history older than {@code billing.archive.after-months}
+ * out of Postgres into compressed segment files, one calendar month at a time.
+ * <p>
+ * A month is streamed into segments, the segments are synced and published to
+ * {@link AuditArchive}, and only then are the rows deleted in batches. A crash in
+ * between leaves rows both archived and in the database; readers skip the duplicates.
+ * <p>
+ * The stream records its (key, ID) position every {@code billing.archive.delete-batch-size}
+ * rows, and each delete covers the keyset range between two positions, so memory grows
+ * with the number of batches rather than the number of rows. Months past the cutoff no
+ * longer receive rows, so the ranges hold exactly the streamed rows.
+ */
+@Service
+public class AuditArchiveService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(AuditArchiveService.class);
+    
+    /** Segments are memory-mapped whole, so each stays well below the 2 GB mapping limit. */
+    private static final long MAX_SEGMENT_BYTES = Integer.MAX_VALUE / 2;
+    
+    private final AuditArchiveRepository auditArchiveRepository;
+    private final AuditArchive auditArchive;
+    private final TransactionTemplate readOnlyTransaction;
+    
+    @Value("${billing.archive.enabled:false}")
+    private boolean enabled;
+    
+    @Value("${billing.archive.after-months:12}")
+    private int afterMonths;
+    
+    @Value("${billing.archive.delete-batch-size:5000}")
+    private int deleteBatchSize;
+    
+    @Value("${billing.archive.block-bytes:65536}")
+    private int blockBytes;
+    
+    @Value("${billing.archive.segment-max-bytes:1073741824}")
+    private long segmentMaxBytes;
+    
+    public AuditArchiveService(AuditArchiveRepository auditArchiveRepository,
+                               AuditArchive auditArchive,
+                               TransactionTemplate transactionTemplate) {
+        this.auditArchiveRepository = auditArchiveRepository;
+        this.auditArchive = auditArchive;
+        this.readOnlyTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+    
+    /**
+     * Nightly archiving, when enabled.
+     */
+    @Scheduled(cron = "${billing.archive.cron:0 45 2 * * *}")
+    public void scheduledArchive() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            archiveOldRows();
+        } catch (Exception e) {
+            logger.error("Audit archiving failed: {}", e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Archive every month older than the cutoff, oldest first.
+     */
+    public synchronized ArchiveReport archiveOldRows() {
+        ArchiveReport report = new ArchiveReport();
+        report.setStartedAt(LocalDateTime.now());
+        if (afterMonths <= 0) {
+            report.setFinishedAt(LocalDateTime.now());
+            return report;
+        }
+        YearMonth cutoff = YearMonth.now().minusMonths(afterMonths);
+        
+        archiveTable(AuditPartitionService.AUDIT_LOGS_TABLE, auditArchiveRepository.findOldestAuditLog(),
+                     cutoff, report);
+        archiveTable(AuditPartitionService.INVOICE_HISTORY_TABLE, auditArchiveRepository.findOldestInvoiceHistory(),
+                     cutoff, report);
+        
+        report.setFinishedAt(LocalDateTime.now());
+        if (!report.getSegments().isEmpty()) {
+            logger.info("Audit archive run: archived {}, deleted {}, {} bytes in {} segments",
+                        report.getArchivedRows(), report.getDeletedRows(), report.getBytesWritten(),
+                        report.getSegments().size());
+        }
+        return report;
+    }
+    
+    private void archiveTable(String table, Optional<LocalDateTime> oldest, YearMonth cutoff, ArchiveReport report) {
+        report.getArchivedRows().put(table, 0L);
+        report.getDeletedRows().put(table, 0L);
+        if (oldest.isEmpty()) {
+            return;
+        }
+        for (YearMonth month = YearMonth.from(oldest.get()); month.isBefore(cutoff); month = month.plusMonths(1)) {
+            archiveMonth(table, month, report);
+        }
+    }
+    
+    private void archiveMonth(String table, YearMonth month, ArchiveReport report) {
+        LocalDateTime from = month.atDay(1).atStartOfDay();
+        LocalDateTime to = month.plusMonths(1).atDay(1).atStartOfDay();
+        MonthArchiver archiver = new MonthArchiver(table, month);
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                if (AuditPartitionService.AUDIT_LOGS_TABLE.equals(table)) {
+                    auditArchiveRepository.streamAuditLogs(from, to, auditLog -> archiver.append(
+                        auditLog.getEntityId(), auditLog.getCreatedAt(), ArchiveCodec.encode(auditLog), auditLog.getId()));
+                } else {
+                    auditArchiveRepository.streamInvoiceHistory(from, to, history -> archiver.append(
+                        history.getInvoiceId(), history.getCreatedAt(), ArchiveCodec.encode(history), history.getId()));
+                }
+            });
+            archiver.finish();
+        } finally {
+            archiver.close();
+        }
+        if (archiver.rows == 0) {
+            return;
+        }
+        report.getSegments().addAll(archiver.segments);
+        report.setBytesWritten(report.getBytesWritten() + archiver.bytesWritten);
+        report.getArchivedRows().merge(table, archiver.rows, Long::sum);
+        
+        List<long[]> boundaries = archiver.deleteBoundaries();
+        long deleted = 0;
+        long[] after = {archiver.firstKey, Long.MIN_VALUE};
+        for (long[] last : boundaries) {
+            deleted += AuditPartitionService.AUDIT_LOGS_TABLE.equals(table)
+                ? auditArchiveRepository.deleteAuditLogs(from, to, after[0], after[1], last[0], last[1])
+                : auditArchiveRepository.deleteInvoiceHistory(from, to, after[0], after[1], last[0], last[1]);
+            after = last;
+        }
+        report.getDeletedRows().merge(table, deleted, Long::sum);
+        logger.debug("Archived {} rows of {} for {} into {}", archiver.rows, table, month, archiver.segments);
+    }
+    
+    /**
+     * Writes one month of a table, rolling to a new segment at {@code segment-max-bytes}
+     * and publishing each finished segment.
+     */
+    private class MonthArchiver {
+        
+        private final String table;
+        private final YearMonth month;
+        private final List<long[]> boundaries = new ArrayList<>();
+        private final List<String> segments = new ArrayList<>();
+        private SegmentWriter writer;
+        private long bytesWritten;
+        private long rows;
+        private long firstKey;
+        private long lastKey;
+        
+        MonthArchiver(String table, YearMonth month) {
+            this.table = table;
+            this.month = month;
+        }
+        
+        void append(long key, LocalDateTime createdAt, byte[] record, long id) {
+            try {
+                if (writer != null && writer.getDataBytes() >= Math.min(segmentMaxBytes, MAX_SEGMENT_BYTES)) {
+                    finish();
+                }
+                if (writer == null) {
+                    writer = auditArchive.newWriter(table, month, blockBytes);
+                }
+                writer.append(key, ArchiveCodec.toMillis(createdAt), record);
+                if (rows++ == 0) {
+                    firstKey = key;
+                }
+                lastKey = key;
+                if (rows % deleteBatchSize == 0) {
+                    boundaries.add(new long[] {key, id});
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        
+        void finish() {
+            if (writer == null) {
+                return;
+            }
+            try {
+                writer.finish();
+                auditArchive.publish(table, writer.getIndexFile());
+                bytesWritten += writer.getDataBytes();
+                segments.add(writer.getIndexFile().getFileName().toString());
+                writer = null;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        
+        /**
+         * The ends of the delete batches in (key, ID) order. Within a key the stream follows
+         * creation time rather than ID, hence the sort; the last batch takes every ID of the last key.
+         */
+        List<long[]> deleteBoundaries() {
+            List<long[]> sorted = new ArrayList<>(boundaries);
+            sorted.add(new long[] {lastKey, Long.MAX_VALUE});
+            sorted.sort(Comparator.<long[]>comparingLong(boundary -> boundary[0]).thenComparingLong(boundary -> boundary[1]));
+            return sorted;
+        }
+        
+        void close() {
+            if (writer != null) {
+                try {
+                    writer.close();
+                } catch (IOException e) {
+                    logger.warn("Could not discard unfinished segment {}: {}", writer.getIndexFile(), e.getMessage());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.fabrica.p6f5.springapp.audit.service;
+
+import com.fabrica.p6f5.springapp.audit.chain.AuditChain;
+import com.fabrica.p6f5.springapp.audit.chain.ChainHead;
+import com.fabrica.p6f5.springapp.audit.chain.ChainKey;
+import com.fabrica.p6f5.springapp.audit.chain.ChainVerifier;
+import com.fabrica.p6f5.springapp.audit.dto.BrokenLink;
+import com.fabrica.p6f5.springapp.audit.dto.ChainVerificationReport;
+import com.fabrica.p6f5.springapp.audit.model.AuditLog;
+import com.fabrica.p6f5.springapp.audit.repository.AuditChainRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Audit Chain Service following Single Responsibility Principle.
+ * Seals audit log rows into per-entity hash chains and verifies the chains.
+ * <p>
+ * Sealing locks only the heads of the chains being appended to, so writers on
+ * different entities never wait for each other. Verification splits the entity ID
+ * range into slices checked in parallel; a chain never spans two slices, and each
+ * slice reads its rows and heads from one snapshot.
+ */
+@Service
+public class AuditChainService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(AuditChainService.class);
+    
+    /** Slices per verifier thread, so a slice of dense entities does not hold up the run. */
+    private static final int SLICES_PER_THREAD = 4;
+    
+    private final AuditChainRepository auditChainRepository;
+    private final TransactionTemplate snapshotTransaction;
+    
+    @Value("${billing.audit-chain.parallelism:4}")
+    private int parallelism;
+    
+    @Value("${billing.audit-chain.max-broken-links:100}")
+    private int maxBrokenLinks;
+    
+    private ForkJoinPool pool;
+    
+    public AuditChainService(AuditChainRepository auditChainRepository, TransactionTemplate transactionTemplate) {
+        this.auditChainRepository = auditChainRepository;
+        this.snapshotTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.snapshotTransaction.setReadOnly(true);
+        this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    }
+    
+    /**
+     * Append audit log rows to their entities' chains: set their creation time, chain
+     * position, previous hash and hash, and advance the chain heads. The rows must be
+     * inserted in the same transaction; the head locks are held until it ends.
+     */
+    @Transactional
+    public void seal(List<AuditLog> auditLogs) {
+        if (auditLogs.isEmpty()) {
+            return;
+        }
+        TreeSet<ChainKey> keys = new TreeSet<>();
+        auditLogs.forEach(auditLog -> keys.add(new ChainKey(auditLog.getEntityId(), auditLog.getEntityType())));
+        Map<ChainKey, ChainHead> heads = auditChainRepository.lockHeads(new ArrayList<>(keys));
+        
+        LocalDateTime now = AuditChain.storedTime(LocalDateTime.now());
+        for (AuditLog auditLog : auditLogs) {
+            auditLog.setCreatedAt(auditLog.getCreatedAt() != null ? AuditChain.storedTime(auditLog.getCreatedAt()) : now);
+            ChainHead head = heads.get(new ChainKey(auditLog.getEntityId(), auditLog.getEntityType()));
+            long chainSeq = head.getLength() + 1;
+            byte[] rowHash = AuditChain.hash(head.getHash(), chainSeq, auditLog);
+            auditLog.setChainSeq(chainSeq);
+            auditLog.setPrevHash(head.getHash());
+            auditLog.setRowHash(rowHash);
+            head.advance(chainSeq, rowHash);
+        }
+        auditChainRepository.advanceHeads(heads.values(), now);
+    }
+    
+    /**
+     * Verify every audit chain and report the broken links, earliest first.
+     */
+    public ChainVerificationReport verify() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        long start = System.nanoTime();
+        ChainVerificationReport report = new ChainVerificationReport();
+        report.setStartedAt(startedAt);
+        
+        auditChainRepository.findEntityIdRange().ifPresent(range -> {
+            long from = range[0];
+            long to = range[1] + 1;
+            int slices = (int) Math.min(Math.max(1, parallelism) * SLICES_PER_THREAD, to - from);
+            long sliceWidth = Math.ceilDiv(to - from, slices);
+            report.setSlices((int) Math.ceilDiv(to - from, sliceWidth));
+            List<ChainVerifier> verifiers = pool.invoke(new SliceTask(from, to, sliceWidth));
+            
+            List<BrokenLink> brokenLinks = new ArrayList<>();
+            for (ChainVerifier verifier : verifiers) {
+                report.setRows(report.getRows() + verifier.getRows());
+                report.setChains(report.getChains() + verifier.getChains());
+                report.setAnchoredChains(report.getAnchoredChains() + verifier.getAnchoredChains());
+                report.setBrokenChains(report.getBrokenChains() + verifier.getBrokenChains());
+                brokenLinks.addAll(verifier.getBrokenLinks());
+            }
+            // Chains that lost every row have no row time; they sort first
+            brokenLinks.sort(Comparator.comparing(BrokenLink::getCreatedAt, Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparing(BrokenLink::getAuditLogId, Comparator.nullsFirst(Comparator.naturalOrder())));
+            report.setBrokenLinks(new ArrayList<>(brokenLinks.subList(0, Math.min(maxBrokenLinks, brokenLinks.size()))));
+            report.setFirstBrokenLink(brokenLinks.isEmpty() ? null : brokenLinks.get(0));
+        });
+        
+        long elapsedNanos = System.nanoTime() - start;
+        report.setFinishedAt(LocalDateTime.now());
+        report.setElapsedMillis(elapsedNanos / 1_000_000);
+        report.setRowsPerSecond(elapsedNanos > 0 ? report.getRows() * 1_000_000_000.0 / elapsedNanos : 0);
+        if (report.isValid()) {
+            logger.info("Verified {} audit rows in {} chains in {} ms", report.getRows(), report.getChains(),
+                        report.getElapsedMillis());
+        } else {
+            logger.warn("Audit chain verification found {} broken chains, first at audit log {}",
+                        report.getBrokenChains(), report.getFirstBrokenLink().getAuditLogId());
+        }
+        return report;
+    }
+    
+    private ChainVerifier verifySlice(long fromId, long toId) {
+        return snapshotTransaction.execute(status -> {
+            ChainVerifier verifier = new ChainVerifier(auditChainRepository.findHeads(fromId, toId), maxBrokenLinks);
+            auditChainRepository.streamChains(fromId, toId, verifier::accept);
+            return verifier.finish();
+        });
+    }
+    
+    /**
+     * Verifies the entity ID range [fromId, toId), splitting it until each part fits in one slice.
+     */
+    private class SliceTask extends RecursiveTask<List<ChainVerifier>> {
+        
+        private final long fromId;
+        private final long toId;
+        private final long sliceWidth;
+        
+        SliceTask(long fromId, long toId, long sliceWidth) {
+            this.fromId = fromId;
+            this.toId = toId;
+            this.sliceWidth = sliceWidth;
+        }
+        
+        @Override
+        protected List<ChainVerifier> compute() {
+            long slices = Math.ceilDiv(toId - fromId, sliceWidth);
+            if (slices <= 1) {
+                return List.of(verifySlice(fromId, toId));
+            }
+            long middle = fromId + slices / 2 * sliceWidth;
+            SliceTask upper = new SliceTask(middle, toId, sliceWidth);
+            upper.fork();
+            List<ChainVerifier> verifiers = new ArrayList<>(new SliceTask(fromId, middle, sliceWidth).compute());
+            verifiers.addAll(upper.join());
+            return verifiers;
+        }
+    }
+    
+    @PostConstruct
+    void startPool() {
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        pool = new ForkJoinPool(threads);
+    }
+    
+    @PreDestroy
+    void shutdownPool() {
+        pool.shutdown();
+    }
+}
@@ -0,0 +1,67 @@
+package com.fabrica.p6f5.springapp.audit.service;
+
+import com.fabrica.p6f5.springapp.audit.diff.JsonDiff;
+import com.fabrica.p6f5.springapp.audit.dto.FieldChange;
+import com.fabrica.p6f5.springapp.audit.dto.VersionDiff;
+import com.fabrica.p6f5.springapp.audit.model.InvoiceHistory;
+import com.fabrica.p6f5.springapp.exception.ResourceNotFoundException;
+import com.fabrica.p6f5.springapp.util.Constants;
+import com.fabrica.p6f5.springapp.util.LruCache;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Audit Diff Service following Single Responsibility Principle.
+ * Computes field-level diffs between invoice history versions on the server.
+ * History versions never change once written, so diffs are cached by the pair of
+ * history row IDs.
+ */
+@Service
+public class AuditDiffService {
+    
+    /** Bookkeeping keys that differ between any two versions (items are recreated on every edit). */
+    private static final Set<String> IGNORED_FIELDS = Set.of("id", "createdAt", "updatedAt", "version");
+    
+    private final AuditService auditService;
+    private final ObjectMapper objectMapper;
+    private final LruCache<String, List<FieldChange>> diffs;
+    
+    public AuditDiffService(AuditService auditService, ObjectMapper objectMapper,
+                            @Value("${billing.audit.diff-cache-size:1000}") int cacheSize) {
+        this.auditService = auditService;
+        this.objectMapper = objectMapper;
+        this.diffs = new LruCache<>(cacheSize);
+    }
+    
+    /**
+     * Diff two versions of an invoice, archived versions included.
+     * 
+     * @throws ResourceNotFoundException if either version does not exist
+     */
+    public VersionDiff diffInvoiceVersions(Long invoiceId, Integer fromVersion, Integer toVersion) {
+        InvoiceHistory from = findVersion(invoiceId, fromVersion);
+        InvoiceHistory to = findVersion(invoiceId, toVersion);
+        List<FieldChange> changes = diffs.computeIfAbsent(from.getId() + ":" + to.getId(), key -> diff(from, to));
+        return new VersionDiff(invoiceId, fromVersion, toVersion, changes);
+    }
+    
+    private InvoiceHistory findVersion(Long invoiceId, Integer version) {
+        return auditService.getInvoiceHistoryVersion(invoiceId, version)
+            .orElseThrow(() -> new ResourceNotFoundException(
+                String.format(Constants.INVOICE_VERSION_NOT_FOUND, version, invoiceId)));
+    }
+    
+    private List<FieldChange> diff(InvoiceHistory from, InvoiceHistory to) {
+        try {
+            return List.copyOf(JsonDiff.diff(objectMapper.readTree(from.getInvoiceData()),
+                                             objectMapper.readTree(to.getInvoiceData()), IGNORED_FIELDS));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Invalid invoice history snapshot " + from.getId() + " or " + to.getId(), e);
+        }
+    }
+}
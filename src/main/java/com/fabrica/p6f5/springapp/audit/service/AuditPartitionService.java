@@ -0,0 +1,142 @@
+package com.fabrica.p6f5.springapp.audit.service;
+
+import com.fabrica.p6f5.springapp.audit.dto.PartitionMaintenanceReport;
+import com.fabrica.p6f5.springapp.audit.repository.AuditPartitionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+
+/**
+ * Audit Partition Service following Single Responsibility Principle.
+ * Keeps monthly partitions of the audit tables created ahead of time and
+ * detaches partitions that fall out of the retention window. Audit chains with
+ * rows in a detached partition are anchored on their last row there, so
+ * verification can still tell retention from tampering.
+ */
+@Service
+public class AuditPartitionService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(AuditPartitionService.class);
+    
+    public static final String AUDIT_LOGS_TABLE = "audit_logs";
+    public static final String INVOICE_HISTORY_TABLE = "invoice_history";
+    
+    private final AuditPartitionRepository auditPartitionRepository;
+    private final TransactionTemplate transactionTemplate;
+    
+    @Value("${billing.partitions.months-ahead:3}")
+    private int monthsAhead;
+    
+    @Value("${billing.partitions.audit-retention-months:24}")
+    private int auditRetentionMonths;
+    
+    @Value("${billing.partitions.history-retention-months:0}")
+    private int historyRetentionMonths;
+    
+    @Value("${billing.partitions.drop-detached:false}")
+    private boolean dropDetached;
+    
+    public AuditPartitionService(AuditPartitionRepository auditPartitionRepository,
+                                 TransactionTemplate transactionTemplate) {
+        this.auditPartitionRepository = auditPartitionRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+    
+    /**
+     * Make sure the coming months have partitions once the application is up.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void maintainOnStartup() {
+        scheduledMaintenance();
+    }
+    
+    /**
+     * Daily partition maintenance.
+     */
+    @Scheduled(cron = "${billing.partitions.cron:0 15 2 * * *}")
+    public void scheduledMaintenance() {
+        try {
+            maintainPartitions();
+        } catch (Exception e) {
+            logger.error("Audit partition maintenance failed: {}", e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Create partitions for the current month and {@code months-ahead} months after
+     * it, then apply retention. Every partition is handled in its own transaction, so a failure
+     * leaves the partitions handled so far in place.
+     */
+    public synchronized PartitionMaintenanceReport maintainPartitions() {
+        PartitionMaintenanceReport report = new PartitionMaintenanceReport();
+        report.setStartedAt(LocalDateTime.now());
+        YearMonth current = YearMonth.now();
+        
+        maintainTable(AUDIT_LOGS_TABLE, current, auditRetentionMonths, report);
+        maintainTable(INVOICE_HISTORY_TABLE, current, historyRetentionMonths, report);
+        
+        report.setFinishedAt(LocalDateTime.now());
+        if (!report.getCreated().isEmpty() || !report.getDetached().isEmpty()) {
+            logger.info("Audit partitions maintained: created {}, detached {}, dropped {}",
+                        report.getCreated(), report.getDetached(), report.getDropped());
+        }
+        return report;
+    }
+    
+    private void maintainTable(String table, YearMonth current, int retentionMonths,
+                               PartitionMaintenanceReport report) {
+        for (int i = 0; i <= monthsAhead; i++) {
+            YearMonth month = current.plusMonths(i);
+            if (auditPartitionRepository.ensureMonthlyPartition(table, month)) {
+                report.getCreated().add(AuditPartitionRepository.partitionName(table, month));
+            }
+        }
+        
+        if (retentionMonths > 0) {
+            YearMonth cutoff = current.minusMonths(retentionMonths);
+            for (String partition : auditPartitionRepository.findPartitions(table)) {
+                YearMonth month = AuditPartitionRepository.monthOf(table, partition);
+                if (month == null || !month.isBefore(cutoff)) {
+                    continue;
+                }
+                detach(table, partition);
+                report.getDetached().add(partition);
+                if (dropDetached) {
+                    auditPartitionRepository.dropTable(partition);
+                    report.getDropped().add(partition);
+                }
+            }
+        }
+        
+        long defaultRows = auditPartitionRepository.countDefaultRows(table);
+        report.getDefaultPartitionRows().put(table, defaultRows);
+        if (defaultRows > 0) {
+            logger.warn("{} rows of {} are in the default partition; their months have no partition yet",
+                        defaultRows, table);
+        }
+    }
+    
+    /**
+     * Detach a partition. For audit logs the chain anchors move in the same transaction,
+     * so they never point past rows that are still attached.
+     */
+    private void detach(String table, String partition) {
+        if (!AUDIT_LOGS_TABLE.equals(table)) {
+            auditPartitionRepository.detachPartition(table, partition);
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            int anchored = auditPartitionRepository.anchorChains(partition);
+            auditPartitionRepository.detachPartition(table, partition);
+            logger.info("Anchored {} audit chains on partition {} before detaching it", anchored, partition);
+        });
+    }
+}
@@ -0,0 +1,90 @@
+package com.fabrica.p6f5.springapp.audit.service;
+
+import com.fabrica.p6f5.springapp.audit.dto.AuditLogPage;
+import com.fabrica.p6f5.springapp.audit.dto.AuditLogSummary;
+import com.fabrica.p6f5.springapp.audit.dto.AuditSearchCriteria;
+import com.fabrica.p6f5.springapp.audit.repository.AuditSearchRepository;
+import com.fabrica.p6f5.springapp.exception.BusinessException;
+import com.fabrica.p6f5.springapp.util.Constants;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Audit Search Service following Single Responsibility Principle.
+ * Serves filtered audit log searches as keyset pages of lightweight summaries.
+ */
+@Service
+public class AuditSearchService {
+    
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int MAX_PAGE_SIZE = 500;
+    
+    private static final char CURSOR_SEPARATOR = '|';
+    
+    private final AuditSearchRepository auditSearchRepository;
+    
+    public AuditSearchService(AuditSearchRepository auditSearchRepository) {
+        this.auditSearchRepository = auditSearchRepository;
+    }
+    
+    /**
+     * Search audit logs, newest first.
+     * 
+     * @param criteria the filters
+     * @param cursor the cursor from the previous page, or null for the first page
+     * @param limit the page size, clamped to {@link #MAX_PAGE_SIZE}
+     * @param includeData whether to return the old and new JSON payloads
+     * @return the page of matching audit logs
+     */
+    public AuditLogPage search(AuditSearchCriteria criteria, String cursor, Integer limit, boolean includeData) {
+        if (criteria.getFrom() != null && criteria.getTo() != null && !criteria.getTo().isAfter(criteria.getFrom())) {
+            throw new BusinessException(String.format(Constants.AUDIT_INVALID_TIME_WINDOW,
+                criteria.getTo(), criteria.getFrom()));
+        }
+        int pageSize = clampPageSize(limit);
+        LocalDateTime beforeTime = null;
+        Long beforeId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            String decoded = decodeCursor(cursor);
+            int separator = decoded.indexOf(CURSOR_SEPARATOR);
+            try {
+                beforeTime = LocalDateTime.parse(decoded.substring(0, separator));
+                beforeId = Long.parseLong(decoded.substring(separator + 1));
+            } catch (RuntimeException e) {
+                throw new BusinessException(String.format(Constants.AUDIT_INVALID_CURSOR, cursor));
+            }
+        }
+        
+        List<AuditLogSummary> rows = auditSearchRepository.search(criteria, beforeTime, beforeId, pageSize + 1,
+                                                                 includeData);
+        boolean hasMore = rows.size() > pageSize;
+        List<AuditLogSummary> items = hasMore ? new ArrayList<>(rows.subList(0, pageSize)) : rows;
+        String nextCursor = hasMore ? encodeCursor(items.get(items.size() - 1)) : null;
+        return new AuditLogPage(items, nextCursor, hasMore);
+    }
+    
+    private static String encodeCursor(AuditLogSummary last) {
+        String value = last.getCreatedAt().toString() + CURSOR_SEPARATOR + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private static String decodeCursor(String cursor) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException(String.format(Constants.AUDIT_INVALID_CURSOR, cursor));
+        }
+    }
+    
+    private int clampPageSize(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
+}
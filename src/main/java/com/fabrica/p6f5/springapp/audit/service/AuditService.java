@@ -1,17 +1,31 @@
 package com.fabrica.p6f5.springapp.audit.service;
 
+import com.fabrica.p6f5.springapp.audit.archive.AuditArchive;
+import com.fabrica.p6f5.springapp.audit.context.AuditContext;
+import com.fabrica.p6f5.springapp.audit.diff.InvoiceDiff;
 import com.fabrica.p6f5.springapp.audit.model.AuditLog;
 import com.fabrica.p6f5.springapp.audit.model.InvoiceHistory;
+import com.fabrica.p6f5.springapp.audit.repository.AuditBatchRepository;
 import com.fabrica.p6f5.springapp.audit.repository.AuditLogRepository;
 import com.fabrica.p6f5.springapp.audit.repository.InvoiceHistoryRepository;
+import com.fabrica.p6f5.springapp.invoice.model.Invoice;
+import com.fabrica.p6f5.springapp.invoice.repository.InvoiceRepository;
+import com.fabrica.p6f5.springapp.util.Constants;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Audit Service following Single Responsibility Principle.
@@ -22,24 +36,107 @@ public class AuditService {
     
     private static final Logger logger = LoggerFactory.getLogger(AuditService.class);
     
+    /** Slack below an invoice's creation time, covering clock skew between writers. */
+    private static final long CREATION_SLACK_DAYS = 1;
+    
     private final AuditLogRepository auditLogRepository;
     private final InvoiceHistoryRepository invoiceHistoryRepository;
+    private final AuditBatchRepository auditBatchRepository;
+    private final InvoiceRepository invoiceRepository;
+    private final AuditArchive auditArchive;
+    private final AuditChainService auditChainService;
     private final ObjectMapper objectMapper;
     
+    @Value("${billing.audit.full-snapshots:false}")
+    private boolean fullSnapshots;
+    
     public AuditService(AuditLogRepository auditLogRepository, 
                         InvoiceHistoryRepository invoiceHistoryRepository,
+                        AuditBatchRepository auditBatchRepository,
+                        InvoiceRepository invoiceRepository,
+                        AuditArchive auditArchive,
+                        AuditChainService auditChainService,
                         ObjectMapper objectMapper) {
         this.auditLogRepository = auditLogRepository;
         this.invoiceHistoryRepository = invoiceHistoryRepository;
+        this.auditBatchRepository = auditBatchRepository;
+        this.invoiceRepository = invoiceRepository;
+        this.auditArchive = auditArchive;
+        this.auditChainService = auditChainService;
         this.objectMapper = objectMapper;
     }
     
     /**
-     * Log an audit event
+     * Log an audit event, appended to its entity's hash chain
      */
     @Transactional
     public AuditLog logEvent(String entityType, Long entityId, AuditLog.AuditAction action, 
                             Long changedBy, Object oldData, Object newData, String changeSummary) {
+        AuditLog auditLog = buildAuditLog(entityType, entityId, action, changedBy, oldData, newData, changeSummary);
+        auditChainService.seal(List.of(auditLog));
+        return auditLogRepository.save(auditLog);
+    }
+    
+    /**
+     * Log a change to an invoice as a field-level diff of its business fields.
+     * The full before and after snapshots are only kept with {@code billing.audit.full-snapshots}.
+     */
+    @Transactional
+    public AuditLog logInvoiceChange(AuditLog.AuditAction action, Long changedBy, Invoice before, Invoice after,
+                                     String changeSummary) {
+        AuditLog auditLog = buildInvoiceChange(action, changedBy, before, after, changeSummary);
+        auditChainService.seal(List.of(auditLog));
+        return auditLogRepository.save(auditLog);
+    }
+    
+    /**
+     * Save invoice history version
+     */
+    @Transactional
+    public InvoiceHistory saveInvoiceHistory(Long invoiceId, Integer version, String fiscalFolio,
+                                             String invoiceNumber, Object invoiceData, Long createdBy) {
+        return invoiceHistoryRepository.save(buildInvoiceHistory(invoiceId, version, fiscalFolio, invoiceNumber, invoiceData, createdBy));
+    }
+    
+    /**
+     * Flag the versions of an invoice newer than the one it was reverted to. Versions
+     * already moved to the archive keep their flag as archived.
+     * 
+     * @return the number of versions flagged
+     */
+    @Transactional
+    public int markInvoiceVersionsReverted(Long invoiceId, Integer revertedToVersion) {
+        return invoiceLowerBound(invoiceId)
+            .map(since -> auditBatchRepository.markVersionsReverted(invoiceId, revertedToVersion, since))
+            .orElse(0);
+    }
+    
+    /**
+     * Log many audit events with JDBC batching
+     */
+    @Transactional
+    public void logEvents(List<AuditLog> auditLogs) {
+        if (!auditLogs.isEmpty()) {
+            auditChainService.seal(auditLogs);
+            auditBatchRepository.insertAuditLogs(auditLogs);
+        }
+    }
+    
+    /**
+     * Save many invoice history versions with JDBC batching
+     */
+    @Transactional
+    public void saveInvoiceHistories(List<InvoiceHistory> histories) {
+        if (!histories.isEmpty()) {
+            auditBatchRepository.insertInvoiceHistories(histories);
+        }
+    }
+    
+    /**
+     * Build an audit log entry without saving it, carrying the client details of the current request
+     */
+    public AuditLog buildAuditLog(String entityType, Long entityId, AuditLog.AuditAction action,
+                                  Long changedBy, Object oldData, Object newData, String changeSummary) {
         try {
             AuditLog auditLog = new AuditLog();
             auditLog.setEntityType(entityType);
@@ -47,6 +144,10 @@ public class AuditService {
             auditLog.setAction(action);
             auditLog.setChangedBy(changedBy);
             auditLog.setChangeSummary(changeSummary);
+            AuditContext context = AuditContext.current();
+            auditLog.setIpAddress(context.getIpAddress());
+            auditLog.setUserAgent(context.getUserAgent());
+            auditLog.setCorrelationId(context.getCorrelationId());
             
             if (oldData != null) {
                 auditLog.setOldData(objectMapper.writeValueAsString(oldData));
@@ -55,7 +156,7 @@ public class AuditService {
                 auditLog.setNewData(objectMapper.writeValueAsString(newData));
             }
             
-            return auditLogRepository.save(auditLog);
+            return auditLog;
         } catch (Exception e) {
             logger.error("Error logging audit event: {}", e.getMessage(), e);
             throw new RuntimeException("Failed to log audit event", e);
@@ -63,11 +164,27 @@ public class AuditService {
     }
     
     /**
-     * Save invoice history version
+     * Build the audit entry of an invoice change without saving it, as {@link #logInvoiceChange} records it
      */
-    @Transactional
-    public InvoiceHistory saveInvoiceHistory(Long invoiceId, Integer version, String fiscalFolio,
-                                             String invoiceNumber, Object invoiceData, Long createdBy) {
+    public AuditLog buildInvoiceChange(AuditLog.AuditAction action, Long changedBy, Invoice before, Invoice after,
+                                       String changeSummary) {
+        AuditLog auditLog = fullSnapshots
+            ? buildAuditLog(Constants.ENTITY_TYPE_INVOICE, after.getId(), action, changedBy, before, after, changeSummary)
+            : buildAuditLog(Constants.ENTITY_TYPE_INVOICE, after.getId(), action, changedBy, null, null, changeSummary);
+        try {
+            auditLog.setChanges(objectMapper.writeValueAsString(InvoiceDiff.compare(before, after)));
+        } catch (Exception e) {
+            logger.error("Error computing invoice diff: {}", e.getMessage(), e);
+            throw new RuntimeException("Failed to log audit event", e);
+        }
+        return auditLog;
+    }
+    
+    /**
+     * Build an invoice history version without saving it
+     */
+    public InvoiceHistory buildInvoiceHistory(Long invoiceId, Integer version, String fiscalFolio,
+                                              String invoiceNumber, Object invoiceData, Long createdBy) {
         try {
             InvoiceHistory history = new InvoiceHistory();
             history.setInvoiceId(invoiceId);
@@ -77,7 +194,7 @@ public class AuditService {
             history.setInvoiceData(objectMapper.writeValueAsString(invoiceData));
             history.setCreatedBy(createdBy);
             
-            return invoiceHistoryRepository.save(history);
+            return history;
         } catch (Exception e) {
             logger.error("Error saving invoice history: {}", e.getMessage(), e);
             throw new RuntimeException("Failed to save invoice history", e);
@@ -85,38 +202,96 @@ public class AuditService {
     }
     
     /**
-     * Get audit logs for an entity
+     * Get audit logs for an entity, including archived ones. Invoice lookups start
+     * at the invoice's creation month, so older partitions and segments are skipped.
      */
     public List<AuditLog> getAuditLogs(String entityType, Long entityId) {
-        return auditLogRepository.findByEntityTypeAndEntityIdOrderByCreatedAtDesc(entityType, entityId);
+        Optional<LocalDateTime> since = Constants.ENTITY_TYPE_INVOICE.equals(entityType)
+            ? invoiceLowerBound(entityId) : Optional.empty();
+        List<AuditLog> logs = since
+            .map(bound -> auditLogRepository.findByEntityTypeAndEntityIdAndCreatedAtGreaterThanEqualOrderByCreatedAtDesc(
+                entityType, entityId, bound))
+            .orElseGet(() -> auditLogRepository.findByEntityTypeAndEntityIdOrderByCreatedAtDesc(entityType, entityId));
+        
+        List<AuditLog> archived = auditArchive.findAuditLogs(entityType, entityId, since.orElse(null));
+        if (archived.isEmpty()) {
+            return logs;
+        }
+        Set<Long> ids = new HashSet<>();
+        logs.forEach(auditLog -> ids.add(auditLog.getId()));
+        List<AuditLog> merged = new ArrayList<>(logs);
+        archived.stream().filter(auditLog -> ids.add(auditLog.getId())).forEach(merged::add);
+        merged.sort(Comparator.comparing(AuditLog::getCreatedAt).reversed());
+        return merged;
     }
     
     /**
-     * Get invoice history
+     * Get invoice history, including archived versions. Only partitions and
+     * segments since the invoice was created are scanned.
      */
     public List<InvoiceHistory> getInvoiceHistory(Long invoiceId) {
-        return invoiceHistoryRepository.findByInvoiceIdOrderByVersionDesc(invoiceId);
+        Optional<LocalDateTime> since = invoiceLowerBound(invoiceId);
+        List<InvoiceHistory> history = since
+            .map(bound -> invoiceHistoryRepository.findByInvoiceIdAndCreatedAtGreaterThanEqualOrderByVersionDesc(
+                invoiceId, bound))
+            .orElseGet(() -> invoiceHistoryRepository.findByInvoiceIdOrderByVersionDesc(invoiceId));
+        
+        List<InvoiceHistory> archived = auditArchive.findInvoiceHistory(invoiceId, since.orElse(null));
+        if (archived.isEmpty()) {
+            return history;
+        }
+        Set<Long> ids = new HashSet<>();
+        history.forEach(version -> ids.add(version.getId()));
+        List<InvoiceHistory> merged = new ArrayList<>(history);
+        archived.stream().filter(version -> ids.add(version.getId())).forEach(merged::add);
+        merged.sort(Comparator.comparing(InvoiceHistory::getVersion).reversed());
+        return merged;
     }
     
     /**
-     * Get specific version of invoice history
+     * Get specific version of invoice history, from the archive if it is no longer in the database
      */
     public Optional<InvoiceHistory> getInvoiceHistoryVersion(Long invoiceId, Integer version) {
-        return invoiceHistoryRepository.findByInvoiceIdAndVersion(invoiceId, version);
+        Optional<LocalDateTime> since = invoiceLowerBound(invoiceId);
+        Optional<InvoiceHistory> stored = since.isPresent()
+            ? invoiceHistoryRepository.findByInvoiceIdAndVersionAndCreatedAtGreaterThanEqual(invoiceId, version, since.get())
+            : invoiceHistoryRepository.findByInvoiceIdAndVersion(invoiceId, version);
+        if (stored.isPresent()) {
+            return stored;
+        }
+        return auditArchive.findInvoiceHistory(invoiceId, since.orElse(null)).stream()
+            .filter(archived -> version.equals(archived.getVersion()))
+            .findFirst();
     }
     
     /**
-     * Get latest version of invoice
+     * Get latest version of invoice, from the archive if every version has been archived
      */
     public Optional<InvoiceHistory> getLatestInvoiceVersion(Long invoiceId) {
-        return invoiceHistoryRepository.findFirstByInvoiceIdOrderByVersionDesc(invoiceId);
+        Optional<InvoiceHistory> latest = invoiceHistoryRepository.findFirstByInvoiceIdOrderByVersionDesc(invoiceId);
+        if (latest.isPresent()) {
+            return latest;
+        }
+        return auditArchive.findInvoiceHistory(invoiceId, null).stream()
+            .max(Comparator.comparing(InvoiceHistory::getVersion));
     }
     
     /**
-     * Get version count for an invoice
+     * Get version count for an invoice, archived versions included
      */
     public long getInvoiceVersionCount(Long invoiceId) {
-        return invoiceHistoryRepository.countByInvoiceId(invoiceId);
+        if (auditArchive.findInvoiceHistory(invoiceId, null).isEmpty()) {
+            return invoiceHistoryRepository.countByInvoiceId(invoiceId);
+        }
+        return getInvoiceHistory(invoiceId).size();
+    }
+    
+    /**
+     * Earliest time an audit row of the invoice can carry: its creation time,
+     * less some slack, truncated to the day.
+     */
+    private Optional<LocalDateTime> invoiceLowerBound(Long invoiceId) {
+        return invoiceRepository.findCreatedAtById(invoiceId)
+            .map(createdAt -> createdAt.minusDays(CREATION_SLACK_DAYS).truncatedTo(ChronoUnit.DAYS));
     }
 }
-
@@ -0,0 +1,87 @@
+package com.fabrica.p6f5.springapp.billing.controller;
+
+import com.fabrica.p6f5.springapp.billing.dto.BillingRunResponse;
+import com.fabrica.p6f5.springapp.billing.dto.StartBillingRunRequest;
+import com.fabrica.p6f5.springapp.billing.service.BillingRunService;
+import com.fabrica.p6f5.springapp.dto.ApiResponse;
+import com.fabrica.p6f5.springapp.entity.User;
+import com.fabrica.p6f5.springapp.util.ResponseUtils;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Billing Run Controller following Single Responsibility Principle.
+ * Handles usage-based billing run HTTP requests.
+ */
+@RestController
+@RequestMapping("/api/v1/billing-runs")
+@Tag(name = "Billing Run API", description = "API for usage-based invoice generation from shipments")
+public class BillingRunController {
+    
+    private static final Logger logger = LoggerFactory.getLogger(BillingRunController.class);
+    
+    private final BillingRunService billingRunService;
+    
+    public BillingRunController(BillingRunService billingRunService) {
+        this.billingRunService = billingRunService;
+    }
+    
+    /**
+     * Start a billing run (Admin only)
+     */
+    @PostMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Start a billing run", description = "Generates draft invoices from unlinked delivered shipments of a period in the background")
+    public ResponseEntity<ApiResponse<BillingRunResponse>> startRun(
+            @Valid @RequestBody StartBillingRunRequest request,
+            @AuthenticationPrincipal User user) {
+        logger.info("Starting billing run for {} to {} by user: {}", request.getPeriodStart(), request.getPeriodEnd(), user.getUsername());
+        BillingRunResponse response = billingRunService.startRun(request, user.getId());
+        return ResponseUtils.created(response, "Billing run started");
+    }
+    
+    /**
+     * Resume a billing run (Admin only)
+     */
+    @PostMapping("/{runId}/resume")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Resume a billing run", description = "Continues a failed or interrupted run; already billed shipments are skipped")
+    public ResponseEntity<ApiResponse<BillingRunResponse>> resumeRun(
+            @Parameter(description = "Billing run ID") @PathVariable Long runId,
+            @AuthenticationPrincipal User user) {
+        logger.info("Resuming billing run {} by user: {}", runId, user.getUsername());
+        BillingRunResponse response = billingRunService.resumeRun(runId);
+        return ResponseUtils.success(response, "Billing run resumed");
+    }
+    
+    /**
+     * Get a billing run
+     */
+    @GetMapping("/{runId}")
+    @Operation(summary = "Get a billing run", description = "Retrieves the progress of a billing run")
+    public ResponseEntity<ApiResponse<BillingRunResponse>> getRun(
+            @Parameter(description = "Billing run ID") @PathVariable Long runId) {
+        BillingRunResponse response = billingRunService.getRun(runId);
+        return ResponseUtils.success(response, "Billing run retrieved successfully");
+    }
+    
+    /**
+     * Get recent billing runs
+     */
+    @GetMapping
+    @Operation(summary = "Get recent billing runs", description = "Retrieves the 20 most recent billing runs")
+    public ResponseEntity<ApiResponse<List<BillingRunResponse>>> getRecentRuns() {
+        List<BillingRunResponse> response = billingRunService.getRecentRuns();
+        return ResponseUtils.success(response, "Billing runs retrieved successfully");
+    }
+}
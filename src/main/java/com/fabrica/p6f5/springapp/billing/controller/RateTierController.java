@@ -0,0 +1,72 @@
+package com.fabrica.p6f5.springapp.billing.controller;
+
+import com.fabrica.p6f5.springapp.billing.dto.RateTierRequest;
+import com.fabrica.p6f5.springapp.billing.model.RateTier;
+import com.fabrica.p6f5.springapp.billing.service.RatingService;
+import com.fabrica.p6f5.springapp.dto.ApiResponse;
+import com.fabrica.p6f5.springapp.util.ResponseUtils;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Rate Tier Controller following Single Responsibility Principle.
+ * Handles rate table HTTP requests.
+ */
+@RestController
+@RequestMapping("/api/v1/rates")
+@Tag(name = "Rate API", description = "API for managing shipment rate tiers")
+public class RateTierController {
+    
+    private final RatingService ratingService;
+    
+    public RateTierController(RatingService ratingService) {
+        this.ratingService = ratingService;
+    }
+    
+    /**
+     * Get active rate tiers
+     */
+    @GetMapping
+    @Operation(summary = "Get active rate tiers", description = "Retrieves all active rate tiers")
+    public ResponseEntity<ApiResponse<List<RateTier>>> getActiveTiers() {
+        return ResponseUtils.success(ratingService.getActiveTiers(), "Rate tiers retrieved successfully");
+    }
+    
+    /**
+     * Create a rate tier (Admin only)
+     */
+    @PostMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Create a rate tier", description = "Adds a tier and hot-swaps the compiled rate cards")
+    public ResponseEntity<ApiResponse<RateTier>> createTier(@Valid @RequestBody RateTierRequest request) {
+        return ResponseUtils.created(ratingService.createTier(request), "Rate tier created successfully");
+    }
+    
+    /**
+     * Deactivate a rate tier (Admin only)
+     */
+    @DeleteMapping("/{tierId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Deactivate a rate tier", description = "Deactivates a tier and hot-swaps the compiled rate cards")
+    public ResponseEntity<ApiResponse<RateTier>> deactivateTier(
+            @Parameter(description = "Rate tier ID") @PathVariable Long tierId) {
+        return ResponseUtils.success(ratingService.deactivateTier(tierId), "Rate tier deactivated successfully");
+    }
+    
+    /**
+     * Reload rate cards (Admin only)
+     */
+    @PostMapping("/reload")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Reload rate cards", description = "Recompiles the rate cards from the rate tables")
+    public ResponseEntity<ApiResponse<Integer>> reload() {
+        return ResponseUtils.success(ratingService.reload(), "Rate cards reloaded successfully");
+    }
+}
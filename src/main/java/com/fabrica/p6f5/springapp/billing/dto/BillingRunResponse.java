@@ -0,0 +1,55 @@
+package com.fabrica.p6f5.springapp.billing.dto;
+
+import com.fabrica.p6f5.springapp.billing.model.BillingRun;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * DTO for billing run responses.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BillingRunResponse {
+    
+    private Long id;
+    private LocalDate periodStart;
+    private LocalDate periodEnd;
+    private String currency;
+    private String status;
+    private Integer clientsTotal;
+    private Integer clientsDone;
+    private Integer invoicesCreated;
+    private Long shipmentsBilled;
+    private Long shipmentsUnpriced;
+    private Long startedBy;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private String errorMessage;
+    
+    /**
+     * Convert BillingRun entity to BillingRunResponse DTO
+     */
+    public static BillingRunResponse fromEntity(BillingRun run) {
+        BillingRunResponse response = new BillingRunResponse();
+        response.setId(run.getId());
+        response.setPeriodStart(run.getPeriodStart());
+        response.setPeriodEnd(run.getPeriodEnd());
+        response.setCurrency(run.getCurrency());
+        response.setStatus(run.getStatus().toString());
+        response.setClientsTotal(run.getClientsTotal());
+        response.setClientsDone(run.getClientsDone());
+        response.setInvoicesCreated(run.getInvoicesCreated());
+        response.setShipmentsBilled(run.getShipmentsBilled());
+        response.setShipmentsUnpriced(run.getShipmentsUnpriced());
+        response.setStartedBy(run.getStartedBy());
+        response.setStartedAt(run.getStartedAt());
+        response.setFinishedAt(run.getFinishedAt());
+        response.setErrorMessage(run.getErrorMessage());
+        return response;
+    }
+}
@@ -0,0 +1,39 @@
+package com.fabrica.p6f5.springapp.billing.dto;
+
+import com.fabrica.p6f5.springapp.billing.model.RateTier;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO for creating a rate tier.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RateTierRequest {
+    
+    private String clientName;
+    
+    @NotNull(message = "Basis is required")
+    private RateTier.RateBasis basis;
+    
+    @NotNull(message = "Minimum value is required")
+    @PositiveOrZero(message = "Minimum value must be positive or zero")
+    private BigDecimal minValue;
+    
+    private BigDecimal maxValue;
+    
+    @NotNull(message = "Unit price is required")
+    @PositiveOrZero(message = "Unit price must be positive or zero")
+    private BigDecimal unitPrice;
+    
+    @PositiveOrZero(message = "Minimum charge must be positive or zero")
+    private BigDecimal minCharge;
+    
+    private String currency;
+}
@@ -0,0 +1,25 @@
+package com.fabrica.p6f5.springapp.billing.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * DTO for starting a billing run over a period.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StartBillingRunRequest {
+    
+    @NotNull(message = "Period start is required")
+    private LocalDate periodStart;
+    
+    @NotNull(message = "Period end is required")
+    private LocalDate periodEnd;
+    
+    private String currency;
+}
@@ -0,0 +1,86 @@
+package com.fabrica.p6f5.springapp.billing.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * BillingRun entity following Single Responsibility Principle.
+ * Tracks one pass that turns unlinked delivered shipments of a period into drafts.
+ */
+@Entity
+@Table(name = "billing_runs")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BillingRun {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "billing_run_id")
+    private Long id;
+    
+    @NotNull(message = "Period start is required")
+    @Column(name = "period_start", nullable = false)
+    private LocalDate periodStart;
+    
+    @NotNull(message = "Period end is required")
+    @Column(name = "period_end", nullable = false)
+    private LocalDate periodEnd;
+    
+    @Column(name = "currency", nullable = false, length = 10)
+    private String currency = "USD";
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "run_status", nullable = false, length = 20)
+    private RunStatus status = RunStatus.RUNNING;
+    
+    @Column(name = "clients_total", nullable = false)
+    private Integer clientsTotal = 0;
+    
+    @Column(name = "clients_done", nullable = false)
+    private Integer clientsDone = 0;
+    
+    @Column(name = "invoices_created", nullable = false)
+    private Integer invoicesCreated = 0;
+    
+    @Column(name = "shipments_billed", nullable = false)
+    private Long shipmentsBilled = 0L;
+    
+    @Column(name = "shipments_unpriced", nullable = false)
+    private Long shipmentsUnpriced = 0L;
+    
+    @NotNull(message = "Started by is required")
+    @Column(name = "started_by", nullable = false)
+    private Long startedBy;
+    
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+    
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+    
+    @Column(name = "error_message", columnDefinition = "TEXT")
+    private String errorMessage;
+    
+    @PrePersist
+    protected void onCreate() {
+        if (startedAt == null) {
+            startedAt = LocalDateTime.now();
+        }
+    }
+    
+    /**
+     * Billing run status enum
+     */
+    public enum RunStatus {
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+}
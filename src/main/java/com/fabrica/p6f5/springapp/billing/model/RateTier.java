@@ -0,0 +1,85 @@
+package com.fabrica.p6f5.springapp.billing.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * RateTier entity following Single Responsibility Principle.
+ * Prices a shipment per kilogram or cubic meter within a [minValue, maxValue) range.
+ * Tiers with a client name override the default tiers of the same basis for that client.
+ */
+@Entity
+@Table(name = "rate_tiers")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RateTier {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "rate_tier_id")
+    private Long id;
+    
+    @Column(name = "client_name")
+    private String clientName;
+    
+    @NotNull(message = "Basis is required")
+    @Enumerated(EnumType.STRING)
+    @Column(name = "basis", nullable = false, length = 20)
+    private RateBasis basis;
+    
+    @NotNull(message = "Minimum value is required")
+    @PositiveOrZero(message = "Minimum value must be positive or zero")
+    @Column(name = "min_value", nullable = false, precision = 10, scale = 2)
+    private BigDecimal minValue = BigDecimal.ZERO;
+    
+    @Column(name = "max_value", precision = 10, scale = 2)
+    private BigDecimal maxValue;
+    
+    @NotNull(message = "Unit price is required")
+    @PositiveOrZero(message = "Unit price must be positive or zero")
+    @Column(name = "unit_price", nullable = false, precision = 10, scale = 4)
+    private BigDecimal unitPrice;
+    
+    @PositiveOrZero(message = "Minimum charge must be positive or zero")
+    @Column(name = "min_charge", nullable = false, precision = 10, scale = 2)
+    private BigDecimal minCharge = BigDecimal.ZERO;
+    
+    @Column(name = "currency", nullable = false, length = 10)
+    private String currency = "USD";
+    
+    @Column(name = "active", nullable = false)
+    private Boolean active = true;
+    
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now();
+    }
+    
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+    
+    /**
+     * Rate basis enum
+     */
+    public enum RateBasis {
+        WEIGHT,
+        VOLUME
+    }
+}
@@ -0,0 +1,180 @@
+package com.fabrica.p6f5.springapp.billing.rating;
+
+import com.fabrica.p6f5.springapp.billing.model.RateTier;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rate tiers of one currency compiled into an immutable lookup structure.
+ * Each basis is a set of non-overlapping ranges held in sorted primitive arrays
+ * and searched with a binary search; client overrides are a hash map to a
+ * pre-merged schedule. Pricing a shipment does not allocate.
+ * <p>
+ * A shipment is charged on whichever basis, weight or volume, costs more; each
+ * basis charge is value times the tier unit price, but at least the tier minimum,
+ * in minor units of the card's currency.
+ */
+public final class RateCard implements ShipmentPricer {
+    
+    public static final RateCard EMPTY = new RateCard(new Schedule(Tiers.NONE, Tiers.NONE), Map.of(), 0);
+    
+    private static final int VALUE_SCALE = 2;
+    private static final int UNIT_PRICE_SCALE = 4;
+    
+    private final Schedule defaults;
+    private final Map<String, Schedule> clientSchedules;
+    private final int tierCount;
+    
+    private RateCard(Schedule defaults, Map<String, Schedule> clientSchedules, int tierCount) {
+        this.defaults = defaults;
+        this.clientSchedules = clientSchedules;
+        this.tierCount = tierCount;
+    }
+    
+    /**
+     * Compile the active tiers of one currency.
+     * 
+     * @param scale minor-unit digits of the currency, see {@link com.fabrica.p6f5.springapp.money.CurrencyRules#scaleOf}
+     * @throws IllegalArgumentException when tiers of the same client and basis overlap
+     */
+    public static RateCard compile(List<RateTier> tiers, int scale) {
+        Map<String, List<RateTier>> byClient = new HashMap<>();
+        List<RateTier> defaultTiers = new ArrayList<>();
+        for (RateTier tier : tiers) {
+            if (tier.getClientName() == null) {
+                defaultTiers.add(tier);
+            } else {
+                byClient.computeIfAbsent(tier.getClientName(), k -> new ArrayList<>()).add(tier);
+            }
+        }
+        
+        Tiers defaultWeight = Tiers.compile(defaultTiers, RateTier.RateBasis.WEIGHT, null, scale);
+        Tiers defaultVolume = Tiers.compile(defaultTiers, RateTier.RateBasis.VOLUME, null, scale);
+        Schedule defaults = new Schedule(defaultWeight, defaultVolume);
+        
+        Map<String, Schedule> clientSchedules = new HashMap<>();
+        for (Map.Entry<String, List<RateTier>> entry : byClient.entrySet()) {
+            Tiers weight = Tiers.compile(entry.getValue(), RateTier.RateBasis.WEIGHT, entry.getKey(), scale);
+            Tiers volume = Tiers.compile(entry.getValue(), RateTier.RateBasis.VOLUME, entry.getKey(), scale);
+            clientSchedules.put(entry.getKey(), new Schedule(
+                weight.isEmpty() ? defaultWeight : weight,
+                volume.isEmpty() ? defaultVolume : volume));
+        }
+        return new RateCard(defaults, Map.copyOf(clientSchedules), tiers.size());
+    }
+    
+    @Override
+    public long priceMinor(String clientName, long weightCents, long volumeCents) {
+        Schedule schedule = clientName != null ? clientSchedules.getOrDefault(clientName, defaults) : defaults;
+        long weightCharge = schedule.weight.charge(weightCents);
+        long volumeCharge = schedule.volume.charge(volumeCents);
+        return Math.max(weightCharge, volumeCharge);
+    }
+    
+    public int getTierCount() {
+        return tierCount;
+    }
+    
+    public int getClientOverrideCount() {
+        return clientSchedules.size();
+    }
+    
+    /**
+     * Weight and volume tiers that apply to one client.
+     */
+    private record Schedule(Tiers weight, Tiers volume) {
+    }
+    
+    /**
+     * Non-overlapping [lower, upper) ranges of one basis, sorted by lower bound.
+     */
+    static final class Tiers {
+        
+        static final Tiers NONE = new Tiers(new long[0], new long[0], new long[0], new long[0], 1L);
+        
+        private final long[] lower;
+        private final long[] upper;
+        private final long[] unitPrice;
+        private final long[] minCharge;
+        private final long divisor;
+        
+        private Tiers(long[] lower, long[] upper, long[] unitPrice, long[] minCharge, long divisor) {
+            this.lower = lower;
+            this.upper = upper;
+            this.unitPrice = unitPrice;
+            this.minCharge = minCharge;
+            this.divisor = divisor;
+        }
+        
+        /**
+         * @param scale minor-unit digits of the currency; charges are value times unit price
+         *              divided by 10^(value scale + unit price scale - currency scale)
+         */
+        static Tiers compile(List<RateTier> tiers, RateTier.RateBasis basis, String clientName, int scale) {
+            if (scale < 0 || scale > VALUE_SCALE + UNIT_PRICE_SCALE) {
+                throw new IllegalArgumentException("Unsupported currency scale " + scale);
+            }
+            List<RateTier> selected = tiers.stream()
+                .filter(tier -> tier.getBasis() == basis)
+                .sorted(Comparator.comparing(RateTier::getMinValue))
+                .toList();
+            int size = selected.size();
+            long[] lower = new long[size];
+            long[] upper = new long[size];
+            long[] unitPrice = new long[size];
+            long[] minCharge = new long[size];
+            for (int i = 0; i < size; i++) {
+                RateTier tier = selected.get(i);
+                lower[i] = toScaled(tier.getMinValue(), VALUE_SCALE);
+                upper[i] = tier.getMaxValue() != null ? toScaled(tier.getMaxValue(), VALUE_SCALE) : Long.MAX_VALUE;
+                unitPrice[i] = toScaled(tier.getUnitPrice(), UNIT_PRICE_SCALE);
+                minCharge[i] = toScaled(tier.getMinCharge(), scale);
+                if (i > 0 && upper[i - 1] > lower[i]) {
+                    throw new IllegalArgumentException(String.format("Overlapping %s tiers for %s at %s",
+                        basis, clientName != null ? clientName : "default rates", tier.getMinValue()));
+                }
+            }
+            return new Tiers(lower, upper, unitPrice, minCharge,
+                BigDecimal.TEN.pow(VALUE_SCALE + UNIT_PRICE_SCALE - scale).longValueExact());
+        }
+        
+        boolean isEmpty() {
+            return lower.length == 0;
+        }
+        
+        /**
+         * Charge in minor units for a value in hundredths, or UNPRICED when no range contains it.
+         */
+        long charge(long value) {
+            int index = Arrays.binarySearch(lower, value);
+            if (index < 0) {
+                index = -index - 2;
+            }
+            if (index < 0 || value >= upper[index]) {
+                return UNPRICED;
+            }
+            return Math.max(scaledCharge(value, unitPrice[index]), minCharge[index]);
+        }
+        
+        private long scaledCharge(long value, long price) {
+            try {
+                return Math.addExact(Math.multiplyExact(value, price), divisor / 2) / divisor;
+            } catch (ArithmeticException e) {
+                return BigDecimal.valueOf(value).multiply(BigDecimal.valueOf(price))
+                    .divide(BigDecimal.valueOf(divisor), 0, RoundingMode.HALF_UP)
+                    .longValueExact();
+            }
+        }
+        
+        private static long toScaled(BigDecimal value, int scale) {
+            return value.setScale(scale, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.fabrica.p6f5.springapp.billing.rating;
+
+/**
+ * Prices one delivered shipment. Implementations are immutable and thread-safe
+ * so a billing run can share one instance across its client partitions.
+ * Weights and volumes are exchanged as longs in hundredths and prices in minor
+ * units of the pricer's currency, to keep rating allocation-free.
+ */
+public interface ShipmentPricer {
+    
+    /**
+     * Returned when no rate applies to a shipment.
+     */
+    long UNPRICED = -1L;
+    
+    /**
+     * Price a shipment.
+     * 
+     * @param clientName the billed client
+     * @param weightCents the total weight in hundredths of a kilogram
+     * @param volumeCents the total volume in hundredths of a cubic meter
+     * @return the line price in minor units of the currency, or {@link #UNPRICED}
+     */
+    long priceMinor(String clientName, long weightCents, long volumeCents);
+}
@@ -0,0 +1,197 @@
+package com.fabrica.p6f5.springapp.billing.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Billing Run Batch Repository.
+ * Set-based JDBC operations used by billing runs: claiming shipments and
+ * writing drafts, items and shipment links with one statement each.
+ */
+@Repository
+public class BillingRunBatchRepository {
+    
+    private static final String UNLINKED_DELIVERED =
+        "FROM shipments s WHERE s.shipment_status = 'DELIVERED' AND s.created_at >= ? AND s.created_at < ? " +
+        "AND NOT EXISTS (SELECT 1 FROM invoice_shipments l WHERE l.shipment_id = s.shipment_id)";
+    
+    private static final String FIND_CLIENTS_SQL =
+        "SELECT DISTINCT s.client_name " + UNLINKED_DELIVERED + " ORDER BY s.client_name";
+    
+    private static final String FIND_CLIENT_REGIONS_SQL =
+        "SELECT DISTINCT ON (client_name) client_name, tax_region FROM invoices " +
+        "WHERE client_name = ANY(?) AND tax_region IS NOT NULL ORDER BY client_name, invoice_id DESC";
+    
+    private static final String CLAIM_SHIPMENTS_SQL =
+        "SELECT s.shipment_id, s.tracking_number, (s.total_weight * 100)::bigint AS weight_cents, " +
+        "(s.total_volume * 100)::bigint AS volume_cents " + UNLINKED_DELIVERED +
+        " AND s.client_name = ? AND s.shipment_id > ? ORDER BY s.shipment_id LIMIT ? FOR UPDATE OF s SKIP LOCKED";
+    
+    private static final String FIND_LINKED_SQL =
+        "SELECT shipment_id FROM invoice_shipments WHERE shipment_id = ANY(?)";
+    
+    private static final String INSERT_DRAFT_SQL =
+        "INSERT INTO invoices (invoice_number, client_name, invoice_date, due_date, subtotal, tax_amount, " +
+        "total_amount, tax_region, currency, invoice_status, created_by, billing_run_id, created_at, updated_at) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 'DRAFT', ?, ?, ?, ?) RETURNING invoice_id";
+    
+    private static final String INSERT_ITEMS_SQL =
+        "INSERT INTO invoice_items (invoice_id, shipment_id, description, quantity, unit_price, total_price, " +
+        "tax_amount, created_at) " +
+        "SELECT ?, t.shipment_id, t.description, 1, t.price, t.price, t.tax, ? " +
+        "FROM unnest(?::bigint[], ?::text[], ?::numeric[], ?::numeric[]) AS t(shipment_id, description, price, tax)";
+    
+    private static final String INSERT_LINKS_SQL =
+        "INSERT INTO invoice_shipments (invoice_id, shipment_id, created_at) SELECT ?, unnest(?::bigint[]), ?";
+    
+    private static final String RECORD_PROGRESS_SQL =
+        "UPDATE billing_runs SET invoices_created = invoices_created + ?, shipments_billed = shipments_billed + ?, " +
+        "shipments_unpriced = shipments_unpriced + ? WHERE billing_run_id = ?";
+    
+    private static final String RECORD_CLIENT_DONE_SQL =
+        "UPDATE billing_runs SET clients_done = clients_done + 1 WHERE billing_run_id = ?";
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    public BillingRunBatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+    
+    /**
+     * Find clients with unlinked delivered shipments in a period.
+     */
+    public List<String> findClientsToBill(LocalDate periodStart, LocalDate periodEnd) {
+        return jdbcTemplate.queryForList(FIND_CLIENTS_SQL, String.class,
+            Timestamp.valueOf(periodStart.atStartOfDay()), Timestamp.valueOf(periodEnd.atStartOfDay()));
+    }
+    
+    /**
+     * Find the tax region of each client's most recent invoice that has one.
+     * 
+     * @return client name to tax region; clients without such an invoice are absent
+     */
+    public Map<String, String> findClientRegions(List<String> clientNames) {
+        Map<String, String> regions = new HashMap<>();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(FIND_CLIENT_REGIONS_SQL);
+            ps.setArray(1, connection.createArrayOf("text", clientNames.toArray()));
+            return ps;
+        }, rs -> {
+            regions.put(rs.getString("client_name"), rs.getString("tax_region"));
+        });
+        return regions;
+    }
+    
+    /**
+     * Lock the next unlinked delivered shipments of a client, skipping rows
+     * another run or node already holds.
+     * 
+     * @param afterId the last shipment ID already seen by this run
+     * @param limit the maximum number of shipments
+     * @return the claimed shipments ordered by ID
+     */
+    public List<BillableShipment> claimShipments(String clientName, LocalDate periodStart, LocalDate periodEnd,
+                                                 long afterId, int limit) {
+        return jdbcTemplate.query(CLAIM_SHIPMENTS_SQL,
+            (rs, rowNum) -> new BillableShipment(
+                rs.getLong("shipment_id"),
+                rs.getString("tracking_number"),
+                rs.getLong("weight_cents"),
+                rs.getLong("volume_cents")),
+            Timestamp.valueOf(periodStart.atStartOfDay()), Timestamp.valueOf(periodEnd.atStartOfDay()),
+            clientName, afterId, limit);
+    }
+    
+    /**
+     * Find which of the given shipments are linked to an invoice.
+     * <p>
+     * Run after {@link #claimShipments}: when a claimed row was locked by a run that
+     * has since committed, PostgreSQL re-checks the row itself but not the NOT EXISTS
+     * subquery, so the claim can return a shipment that run has just billed. This
+     * statement takes a fresh snapshot and sees those links.
+     */
+    public List<Long> findLinked(Long[] shipmentIds) {
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(FIND_LINKED_SQL);
+            ps.setArray(1, connection.createArrayOf("bigint", shipmentIds));
+            return ps;
+        }, (rs, rowNum) -> rs.getLong("shipment_id"));
+    }
+    
+    /**
+     * Insert a draft invoice for a billing run.
+     * 
+     * @return the new invoice ID
+     */
+    public Long insertDraft(String invoiceNumber, String clientName, LocalDate invoiceDate, LocalDate dueDate,
+                            BigDecimal subtotal, BigDecimal taxAmount, String taxRegion, String currency,
+                            Long createdBy, Long billingRunId) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        return jdbcTemplate.queryForObject(INSERT_DRAFT_SQL, Long.class,
+            invoiceNumber, clientName, Date.valueOf(invoiceDate), Date.valueOf(dueDate),
+            subtotal, taxAmount, subtotal.add(taxAmount), taxRegion, currency, createdBy, billingRunId, now, now);
+    }
+    
+    /**
+     * Insert the items of a draft and link its shipments, one statement each.
+     */
+    public void insertItemsAndLinks(Long invoiceId, Long[] shipmentIds, String[] descriptions,
+                                    BigDecimal[] prices, BigDecimal[] taxes) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(INSERT_ITEMS_SQL);
+            ps.setLong(1, invoiceId);
+            ps.setTimestamp(2, now);
+            ps.setArray(3, connection.createArrayOf("bigint", shipmentIds));
+            ps.setArray(4, connection.createArrayOf("text", descriptions));
+            ps.setArray(5, connection.createArrayOf("numeric", prices));
+            ps.setArray(6, connection.createArrayOf("numeric", taxes));
+            return ps;
+        });
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(INSERT_LINKS_SQL);
+            ps.setLong(1, invoiceId);
+            ps.setArray(2, connection.createArrayOf("bigint", shipmentIds));
+            ps.setTimestamp(3, now);
+            return ps;
+        });
+    }
+    
+    /**
+     * Add chunk results to the run counters.
+     */
+    public void recordProgress(Long billingRunId, int invoices, long billed, long unpriced) {
+        jdbcTemplate.update(RECORD_PROGRESS_SQL, invoices, billed, unpriced, billingRunId);
+    }
+    
+    /**
+     * Count a client as fully processed.
+     */
+    public void recordClientDone(Long billingRunId) {
+        jdbcTemplate.update(RECORD_CLIENT_DONE_SQL, billingRunId);
+    }
+    
+    /**
+     * Shipment claimed for billing.
+     */
+    @Data
+    @AllArgsConstructor
+    public static class BillableShipment {
+        private long id;
+        private String trackingNumber;
+        private long weightCents;
+        private long volumeCents;
+    }
+}
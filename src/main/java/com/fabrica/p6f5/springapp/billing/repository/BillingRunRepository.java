@@ -0,0 +1,22 @@
+package com.fabrica.p6f5.springapp.billing.repository;
+
+import com.fabrica.p6f5.springapp.billing.model.BillingRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Billing Run Repository interface following Dependency Inversion Principle.
+ * Defines data access operations for billing runs.
+ */
+@Repository
+public interface BillingRunRepository extends JpaRepository<BillingRun, Long> {
+    
+    /**
+     * Find the most recent billing runs.
+     * 
+     * @return the last 20 runs, newest first
+     */
+    List<BillingRun> findTop20ByOrderByIdDesc();
+}
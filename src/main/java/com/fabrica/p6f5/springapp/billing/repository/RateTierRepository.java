@@ -0,0 +1,31 @@
+package com.fabrica.p6f5.springapp.billing.repository;
+
+import com.fabrica.p6f5.springapp.billing.model.RateTier;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Rate Tier Repository interface following Dependency Inversion Principle.
+ * Defines data access operations for rate tiers.
+ */
+@Repository
+public interface RateTierRepository extends JpaRepository<RateTier, Long> {
+    
+    /**
+     * Find all active tiers.
+     * 
+     * @return active tiers ordered by currency, basis and lower bound
+     */
+    List<RateTier> findByActiveTrueOrderByCurrencyAscBasisAscMinValueAsc();
+    
+    /**
+     * Fingerprint of the rate table used to detect changes: row count and last update.
+     * 
+     * @return a single row of {count, max(updatedAt)}
+     */
+    @Query("SELECT COUNT(r), MAX(r.updatedAt) FROM RateTier r")
+    List<Object[]> findFingerprint();
+}
@@ -0,0 +1,357 @@
+package com.fabrica.p6f5.springapp.billing.service;
+
+import com.fabrica.p6f5.springapp.audit.context.AuditContext;
+import com.fabrica.p6f5.springapp.audit.model.AuditLog;
+import com.fabrica.p6f5.springapp.audit.service.AuditService;
+import com.fabrica.p6f5.springapp.billing.dto.BillingRunResponse;
+import com.fabrica.p6f5.springapp.billing.dto.StartBillingRunRequest;
+import com.fabrica.p6f5.springapp.billing.model.BillingRun;
+import com.fabrica.p6f5.springapp.billing.rating.ShipmentPricer;
+import com.fabrica.p6f5.springapp.billing.repository.BillingRunBatchRepository;
+import com.fabrica.p6f5.springapp.billing.repository.BillingRunBatchRepository.BillableShipment;
+import com.fabrica.p6f5.springapp.billing.repository.BillingRunRepository;
+import com.fabrica.p6f5.springapp.events.dto.InvoiceEvent;
+import com.fabrica.p6f5.springapp.events.dto.InvoiceState;
+import com.fabrica.p6f5.springapp.events.service.InvoiceEventService;
+import com.fabrica.p6f5.springapp.exception.BusinessException;
+import com.fabrica.p6f5.springapp.exception.ResourceNotFoundException;
+import com.fabrica.p6f5.springapp.invoice.model.Invoice;
+import com.fabrica.p6f5.springapp.money.CurrencyRules;
+import com.fabrica.p6f5.springapp.tax.engine.TaxPolicy;
+import com.fabrica.p6f5.springapp.tax.service.TaxService;
+import com.fabrica.p6f5.springapp.util.Constants;
+import com.fabrica.p6f5.springapp.util.InvoiceUtils;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+/**
+ * Billing Run Service following Single Responsibility Principle.
+ * Turns unlinked DELIVERED shipments of a period into priced drafts, one or more
+ * per client. Clients are processed in parallel partitions; within a client,
+ * shipments are claimed in chunks with SKIP LOCKED and each chunk becomes one
+ * draft in its own transaction. Only unlinked shipments are ever picked up, so a
+ * failed or interrupted run can be resumed without double billing; claimed
+ * shipments are re-checked for links after locking, and a unique index on the
+ * link table rejects any second link that still slips through.
+ * <p>
+ * Every client's tax policy is resolved before anything is billed, from the region
+ * of the client's latest invoice or else {@code billing.tax.default-region}; a run
+ * with a client that cannot be taxed fails up front without creating drafts.
+ */
+@Service
+public class BillingRunService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(BillingRunService.class);
+    
+    private final BillingRunRepository billingRunRepository;
+    private final BillingRunBatchRepository billingRunBatchRepository;
+    private final RatingService ratingService;
+    private final TaxService taxService;
+    private final AuditService auditService;
+    private final InvoiceEventService invoiceEventService;
+    private final TransactionTemplate transactionTemplate;
+    private final Set<Long> activeRuns = ConcurrentHashMap.newKeySet();
+    
+    @Value("${billing.runs.parallelism:4}")
+    private int parallelism;
+    
+    @Value("${billing.runs.max-lines-per-invoice:1000}")
+    private int maxLinesPerInvoice;
+    
+    @Value("${billing.runs.payment-terms-days:30}")
+    private int paymentTermsDays;
+    
+    private ExecutorService coordinator;
+    private ExecutorService workers;
+    
+    public BillingRunService(BillingRunRepository billingRunRepository,
+                             BillingRunBatchRepository billingRunBatchRepository,
+                             RatingService ratingService,
+                             TaxService taxService,
+                             AuditService auditService,
+                             InvoiceEventService invoiceEventService,
+                             TransactionTemplate transactionTemplate) {
+        this.billingRunRepository = billingRunRepository;
+        this.billingRunBatchRepository = billingRunBatchRepository;
+        this.ratingService = ratingService;
+        this.taxService = taxService;
+        this.auditService = auditService;
+        this.invoiceEventService = invoiceEventService;
+        this.transactionTemplate = transactionTemplate;
+    }
+    
+    @PostConstruct
+    void startExecutors() {
+        coordinator = Executors.newSingleThreadExecutor();
+        workers = Executors.newFixedThreadPool(Math.max(1, parallelism));
+    }
+    
+    @PreDestroy
+    void stopExecutors() {
+        coordinator.shutdownNow();
+        workers.shutdownNow();
+    }
+    
+    /**
+     * Start a billing run in the background.
+     */
+    public BillingRunResponse startRun(StartBillingRunRequest request, Long startedBy) {
+        if (!request.getPeriodEnd().isAfter(request.getPeriodStart())) {
+            throw new BusinessException(String.format(Constants.BILLING_RUN_INVALID_PERIOD,
+                request.getPeriodEnd(), request.getPeriodStart()));
+        }
+        BillingRun run = new BillingRun();
+        run.setPeriodStart(request.getPeriodStart());
+        run.setPeriodEnd(request.getPeriodEnd());
+        run.setCurrency(request.getCurrency() != null ? request.getCurrency() : Constants.DEFAULT_CURRENCY);
+        run.setStartedBy(startedBy);
+        BillingRun savedRun = billingRunRepository.save(run);
+        
+        logger.info("Starting billing run {} for {} to {}", savedRun.getId(), run.getPeriodStart(), run.getPeriodEnd());
+        coordinator.submit(AuditContext.wrap(() -> executeRun(savedRun.getId())));
+        return BillingRunResponse.fromEntity(savedRun);
+    }
+    
+    /**
+     * Resume a failed or interrupted run. Shipments it already billed are linked
+     * and therefore skipped.
+     */
+    public BillingRunResponse resumeRun(Long runId) {
+        if (activeRuns.contains(runId)) {
+            throw new BusinessException(String.format(Constants.BILLING_RUN_ALREADY_RUNNING, runId));
+        }
+        BillingRun run = findRun(runId);
+        run.setStatus(BillingRun.RunStatus.RUNNING);
+        run.setFinishedAt(null);
+        run.setErrorMessage(null);
+        BillingRun savedRun = billingRunRepository.save(run);
+        
+        logger.info("Resuming billing run {}", runId);
+        coordinator.submit(AuditContext.wrap(() -> executeRun(runId)));
+        return BillingRunResponse.fromEntity(savedRun);
+    }
+    
+    /**
+     * Get a billing run by ID.
+     */
+    public BillingRunResponse getRun(Long runId) {
+        return BillingRunResponse.fromEntity(findRun(runId));
+    }
+    
+    /**
+     * Get the most recent billing runs.
+     */
+    public List<BillingRunResponse> getRecentRuns() {
+        return billingRunRepository.findTop20ByOrderByIdDesc().stream()
+            .map(BillingRunResponse::fromEntity)
+            .collect(Collectors.toList());
+    }
+    
+    private BillingRun findRun(Long runId) {
+        return billingRunRepository.findById(runId)
+            .orElseThrow(() -> new ResourceNotFoundException(Constants.BILLING_RUN_NOT_FOUND + runId));
+    }
+    
+    /**
+     * Run every client partition and record the outcome on the run.
+     */
+    private void executeRun(Long runId) {
+        if (!activeRuns.add(runId)) {
+            return;
+        }
+        long start = System.nanoTime();
+        List<String> errors = new ArrayList<>();
+        try {
+            BillingRun run = findRun(runId);
+            ShipmentPricer pricer = ratingService.currentPricer(run.getCurrency());
+            List<String> clients = billingRunBatchRepository.findClientsToBill(run.getPeriodStart(), run.getPeriodEnd());
+            Map<String, TaxPolicy> taxPolicies = resolveTaxPolicies(clients, errors);
+            if (!errors.isEmpty()) {
+                logger.error("Billing run {} stopped before billing: {} client(s) without a tax policy",
+                            runId, errors.size());
+                return;
+            }
+            run.setClientsTotal(run.getClientsDone() + clients.size());
+            billingRunRepository.save(run);
+            
+            List<Callable<String>> partitions = new ArrayList<>(clients.size());
+            for (String client : clients) {
+                TaxPolicy taxPolicy = taxPolicies.get(client);
+                partitions.add(AuditContext.wrap(() -> billClient(run, client, pricer, taxPolicy)));
+            }
+            for (Future<String> outcome : workers.invokeAll(partitions)) {
+                String error = outcome.get();
+                if (error != null) {
+                    errors.add(error);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            errors.add("Interrupted");
+        } catch (Exception e) {
+            logger.error("Billing run {} failed: {}", runId, e.getMessage(), e);
+            errors.add(e.getMessage());
+        } finally {
+            finishRun(runId, errors, (System.nanoTime() - start) / 1_000_000);
+            activeRuns.remove(runId);
+        }
+    }
+    
+    private void finishRun(Long runId, List<String> errors, long elapsedMillis) {
+        BillingRun run = findRun(runId);
+        run.setFinishedAt(LocalDateTime.now());
+        if (errors.isEmpty()) {
+            run.setStatus(BillingRun.RunStatus.COMPLETED);
+        } else {
+            run.setStatus(BillingRun.RunStatus.FAILED);
+            run.setErrorMessage(String.join("; ", errors.subList(0, Math.min(errors.size(), 20))));
+        }
+        billingRunRepository.save(run);
+        logger.info("Billing run {} {}: {} invoices, {} shipments billed, {} unpriced in {} ms",
+                   runId, run.getStatus(), run.getInvoicesCreated(), run.getShipmentsBilled(),
+                   run.getShipmentsUnpriced(), elapsedMillis);
+    }
+    
+    /**
+     * Resolve the tax policy of every client, using the region of the client's latest
+     * invoice and falling back to the default region.
+     * 
+     * @param errors receives one configuration error per client that cannot be taxed
+     */
+    private Map<String, TaxPolicy> resolveTaxPolicies(List<String> clients, List<String> errors) {
+        Map<String, String> regions = clients.isEmpty() ? Map.of() : billingRunBatchRepository.findClientRegions(clients);
+        Map<String, TaxPolicy> policies = new HashMap<>();
+        for (String client : clients) {
+            try {
+                policies.put(client, taxService.policyFor(regions.get(client), client));
+            } catch (BusinessException e) {
+                errors.add(e.getMessage());
+            }
+        }
+        return policies;
+    }
+    
+    /**
+     * Bill every claimable shipment of one client.
+     * 
+     * @return null on success, otherwise the error for the run summary
+     */
+    private String billClient(BillingRun run, String clientName, ShipmentPricer pricer, TaxPolicy taxPolicy) {
+        long[] cursor = {0L};
+        try {
+            while (true) {
+                Integer claimed = transactionTemplate.execute(status -> billChunk(run, clientName, pricer, taxPolicy, cursor));
+                if (claimed == null || claimed < maxLinesPerInvoice) {
+                    break;
+                }
+            }
+            billingRunBatchRepository.recordClientDone(run.getId());
+            return null;
+        } catch (Exception e) {
+            logger.error("Billing run {} failed for client {}: {}", run.getId(), clientName, e.getMessage(), e);
+            return clientName + ": " + e.getMessage();
+        }
+    }
+    
+    /**
+     * Claim, price and invoice one chunk of a client's shipments.
+     * 
+     * @param cursor holds the last shipment ID seen; unpriced shipments are passed over
+     * @return the number of shipments claimed
+     */
+    private int billChunk(BillingRun run, String clientName, ShipmentPricer pricer, TaxPolicy taxPolicy, long[] cursor) {
+        List<BillableShipment> claimed = billingRunBatchRepository.claimShipments(
+            clientName, run.getPeriodStart(), run.getPeriodEnd(), cursor[0], maxLinesPerInvoice);
+        if (claimed.isEmpty()) {
+            return 0;
+        }
+        cursor[0] = claimed.get(claimed.size() - 1).getId();
+        Set<Long> linked = new HashSet<>(billingRunBatchRepository.findLinked(
+            claimed.stream().map(BillableShipment::getId).toArray(Long[]::new)));
+        
+        int scale = CurrencyRules.scaleOf(run.getCurrency());
+        List<Long> shipmentIds = new ArrayList<>(claimed.size());
+        List<String> descriptions = new ArrayList<>(claimed.size());
+        long[] pricesMinor = new long[claimed.size()];
+        long subtotalMinor = 0;
+        int unpriced = 0;
+        for (BillableShipment shipment : claimed) {
+            if (linked.contains(shipment.getId())) {
+                continue;
+            }
+            long priceMinor = pricer.priceMinor(clientName, shipment.getWeightCents(), shipment.getVolumeCents());
+            if (priceMinor <= 0) {
+                unpriced++;
+                continue;
+            }
+            pricesMinor[shipmentIds.size()] = priceMinor;
+            shipmentIds.add(shipment.getId());
+            descriptions.add(String.format(Constants.BILLING_RUN_ITEM_DESCRIPTION, shipment.getTrackingNumber(),
+                BigDecimal.valueOf(shipment.getWeightCents(), 2), BigDecimal.valueOf(shipment.getVolumeCents(), 2)));
+            subtotalMinor += priceMinor;
+        }
+        if (shipmentIds.isEmpty()) {
+            billingRunBatchRepository.recordProgress(run.getId(), 0, 0, unpriced);
+            return claimed.size();
+        }
+        
+        long[] taxesMinor = taxPolicy.taxMinor(Arrays.copyOf(pricesMinor, shipmentIds.size()));
+        BigDecimal[] prices = new BigDecimal[taxesMinor.length];
+        BigDecimal[] taxes = new BigDecimal[taxesMinor.length];
+        long taxMinor = 0;
+        for (int i = 0; i < taxesMinor.length; i++) {
+            prices[i] = BigDecimal.valueOf(pricesMinor[i], scale);
+            taxes[i] = BigDecimal.valueOf(taxesMinor[i], scale);
+            taxMinor += taxesMinor[i];
+        }
+        BigDecimal subtotal = BigDecimal.valueOf(subtotalMinor, scale);
+        BigDecimal taxAmount = BigDecimal.valueOf(taxMinor, scale);
+        
+        LocalDate invoiceDate = LocalDate.now();
+        String invoiceNumber = InvoiceUtils.generateInvoiceNumber();
+        Long invoiceId = billingRunBatchRepository.insertDraft(invoiceNumber, clientName,
+            invoiceDate, invoiceDate.plusDays(paymentTermsDays), subtotal, taxAmount, taxPolicy.getRegion(),
+            run.getCurrency(), run.getStartedBy(), run.getId());
+        billingRunBatchRepository.insertItemsAndLinks(invoiceId, shipmentIds.toArray(new Long[0]),
+            descriptions.toArray(new String[0]), prices, taxes);
+        billingRunBatchRepository.recordProgress(run.getId(), 1, shipmentIds.size(), unpriced);
+        
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("billingRunId", run.getId());
+        summary.put("clientName", clientName);
+        summary.put("items", shipmentIds.size());
+        summary.put("subtotal", subtotal);
+        summary.put("taxAmount", taxAmount);
+        summary.put("currency", run.getCurrency());
+        auditService.logEvent(Constants.ENTITY_TYPE_INVOICE, invoiceId, AuditLog.AuditAction.CREATE,
+            run.getStartedBy(), null, summary, String.format(Constants.AUDIT_BILLING_RUN_DRAFT, run.getId()));
+        InvoiceState created = new InvoiceState(invoiceId, invoiceNumber, null, clientName, run.getStartedBy(),
+            Invoice.InvoiceStatus.DRAFT.toString(), run.getCurrency(), invoiceDate, invoiceDate.plusDays(paymentTermsDays),
+            subtotal, taxAmount, subtotal.add(taxAmount), BigDecimal.ZERO, null, 1, LocalDateTime.now());
+        invoiceEventService.recordStates(InvoiceEvent.Type.CREATED, List.of(created));
+        return claimed.size();
+    }
+}
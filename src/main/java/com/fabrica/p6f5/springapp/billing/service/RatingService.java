@@ -0,0 +1,162 @@
+package com.fabrica.p6f5.springapp.billing.service;
+
+import com.fabrica.p6f5.springapp.billing.dto.RateTierRequest;
+import com.fabrica.p6f5.springapp.billing.model.RateTier;
+import com.fabrica.p6f5.springapp.billing.rating.RateCard;
+import com.fabrica.p6f5.springapp.billing.rating.ShipmentPricer;
+import com.fabrica.p6f5.springapp.billing.repository.RateTierRepository;
+import com.fabrica.p6f5.springapp.exception.BusinessException;
+import com.fabrica.p6f5.springapp.exception.ResourceNotFoundException;
+import com.fabrica.p6f5.springapp.money.CurrencyRules;
+import com.fabrica.p6f5.springapp.util.Constants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Rating Service following Single Responsibility Principle.
+ * Compiles the active rate tiers into one {@link RateCard} per currency and
+ * publishes them as an immutable map behind an atomic reference. Readers never
+ * lock; a reload builds a complete new map and swaps it in one step, and a
+ * rate table that fails to compile leaves the current cards in place.
+ */
+@Service
+public class RatingService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(RatingService.class);
+    
+    private final RateTierRepository rateTierRepository;
+    private final AtomicReference<Map<String, RateCard>> rateCards = new AtomicReference<>(Map.of());
+    private volatile List<Object> loadedFingerprint;
+    
+    public RatingService(RateTierRepository rateTierRepository) {
+        this.rateTierRepository = rateTierRepository;
+    }
+    
+    /**
+     * Get the current pricer for a currency. The returned card is immutable, so a
+     * billing run keeps consistent rates even if the tables change mid-run.
+     */
+    public ShipmentPricer currentPricer(String currency) {
+        return rateCards.get().getOrDefault(currency, RateCard.EMPTY);
+    }
+    
+    /**
+     * Compile the rate cards once the application is up.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        try {
+            reload();
+        } catch (Exception e) {
+            logger.error("Failed to load rate cards: {}", e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Reload when the rate table changed, including edits made by other nodes.
+     */
+    @Scheduled(fixedDelayString = "${billing.rates.refresh-interval-ms:60000}")
+    public void refreshIfChanged() {
+        try {
+            if (!Objects.equals(fingerprint(), loadedFingerprint)) {
+                reload();
+            }
+        } catch (Exception e) {
+            logger.error("Failed to refresh rate cards: {}", e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Compile every active tier and swap the rate cards in atomically.
+     * 
+     * @return the number of compiled currencies
+     */
+    public synchronized int reload() {
+        List<Object> fingerprint = fingerprint();
+        Map<String, RateCard> compiled = compile(rateTierRepository.findByActiveTrueOrderByCurrencyAscBasisAscMinValueAsc());
+        rateCards.set(compiled);
+        loadedFingerprint = fingerprint;
+        logger.info("Loaded rate cards for currencies {}", compiled.keySet());
+        return compiled.size();
+    }
+    
+    /**
+     * Get the active tiers.
+     */
+    public List<RateTier> getActiveTiers() {
+        return rateTierRepository.findByActiveTrueOrderByCurrencyAscBasisAscMinValueAsc();
+    }
+    
+    /**
+     * Create a tier after checking that the resulting rate table still compiles.
+     * The cards are recompiled inside the transaction, so a reload that fails
+     * rolls the new tier back; if the commit itself fails, the changed
+     * fingerprint makes the next scheduled refresh restore the committed cards.
+     */
+    @Transactional
+    public RateTier createTier(RateTierRequest request) {
+        RateTier tier = new RateTier();
+        tier.setClientName(request.getClientName());
+        tier.setBasis(request.getBasis());
+        tier.setMinValue(request.getMinValue());
+        tier.setMaxValue(request.getMaxValue());
+        tier.setUnitPrice(request.getUnitPrice());
+        tier.setMinCharge(request.getMinCharge() != null ? request.getMinCharge() : BigDecimal.ZERO);
+        tier.setCurrency(request.getCurrency() != null ? request.getCurrency() : Constants.DEFAULT_CURRENCY);
+        
+        List<RateTier> candidate = new ArrayList<>(rateTierRepository.findByActiveTrueOrderByCurrencyAscBasisAscMinValueAsc());
+        candidate.add(tier);
+        try {
+            compile(candidate);
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException(e.getMessage());
+        }
+        
+        RateTier saved = rateTierRepository.save(tier);
+        reload();
+        return saved;
+    }
+    
+    /**
+     * Deactivate a tier and recompile the cards in the same transaction.
+     */
+    @Transactional
+    public RateTier deactivateTier(Long tierId) {
+        RateTier tier = rateTierRepository.findById(tierId)
+            .orElseThrow(() -> new ResourceNotFoundException(Constants.RATE_TIER_NOT_FOUND + tierId));
+        tier.setActive(false);
+        RateTier saved = rateTierRepository.save(tier);
+        reload();
+        return saved;
+    }
+    
+    private static Map<String, RateCard> compile(List<RateTier> tiers) {
+        Map<String, List<RateTier>> byCurrency = new HashMap<>();
+        for (RateTier tier : tiers) {
+            byCurrency.computeIfAbsent(tier.getCurrency(), k -> new ArrayList<>()).add(tier);
+        }
+        Map<String, RateCard> cards = new HashMap<>();
+        byCurrency.forEach((currency, currencyTiers) -> cards.put(currency,
+            RateCard.compile(currencyTiers, CurrencyRules.scaleOf(currency))));
+        return Map.copyOf(cards);
+    }
+    
+    private List<Object> fingerprint() {
+        List<Object[]> rows = rateTierRepository.findFingerprint();
+        return rows.isEmpty() ? List.of() : Arrays.asList(rows.get(0));
+    }
+}
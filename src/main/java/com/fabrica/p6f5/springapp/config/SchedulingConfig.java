@@ -0,0 +1,13 @@
+package com.fabrica.p6f5.springapp.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Scheduling Configuration.
+ * Enables the background jobs of the service modules.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
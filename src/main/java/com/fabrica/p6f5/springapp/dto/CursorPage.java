@@ -0,0 +1,33 @@
+package com.fabrica.p6f5.springapp.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Generic keyset page DTO.
+ * Pass {@code nextCursor} back as the cursor parameter to fetch the following page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+    
+    private List<T> items;
+    private Long nextCursor;
+    private boolean hasMore;
+    
+    /**
+     * Build a page from a result fetched with one extra row to detect more data.
+     */
+    public static <T> CursorPage<T> of(List<T> rows, int limit, Function<T, Long> cursorOf) {
+        boolean hasMore = rows.size() > limit;
+        List<T> items = hasMore ? new ArrayList<>(rows.subList(0, limit)) : rows;
+        Long nextCursor = hasMore ? cursorOf.apply(items.get(items.size() - 1)) : null;
+        return new CursorPage<>(items, nextCursor, hasMore);
+    }
+}
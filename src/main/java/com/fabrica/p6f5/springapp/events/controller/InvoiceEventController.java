@@ -0,0 +1,74 @@
+package com.fabrica.p6f5.springapp.events.controller;
+
+import com.fabrica.p6f5.springapp.dto.ApiResponse;
+import com.fabrica.p6f5.springapp.entity.User;
+import com.fabrica.p6f5.springapp.events.dto.InvoiceEvent;
+import com.fabrica.p6f5.springapp.events.dto.InvoiceEventPage;
+import com.fabrica.p6f5.springapp.events.service.InvoiceEventFeed;
+import com.fabrica.p6f5.springapp.events.service.InvoiceStreamHub;
+import com.fabrica.p6f5.springapp.events.stream.InvoiceStreamFilter;
+import com.fabrica.p6f5.springapp.util.ResponseUtils;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Set;
+
+/**
+ * Invoice Event Controller following Single Responsibility Principle.
+ * Handles invoice event stream HTTP requests.
+ */
+@RestController
+@RequestMapping("/api/v1/events")
+@Tag(name = "Invoice Events API", description = "API for consuming invoice lifecycle events")
+public class InvoiceEventController {
+    
+    private final InvoiceEventFeed invoiceEventFeed;
+    private final InvoiceStreamHub invoiceStreamHub;
+    
+    public InvoiceEventController(InvoiceEventFeed invoiceEventFeed, InvoiceStreamHub invoiceStreamHub) {
+        this.invoiceEventFeed = invoiceEventFeed;
+        this.invoiceStreamHub = invoiceStreamHub;
+    }
+    
+    /**
+     * Read invoice events after a cursor
+     */
+    @GetMapping
+    @Operation(summary = "Read invoice events",
+               description = "Returns published invoice events after the cursor in stream order, waiting for new ones when caught up")
+    public DeferredResult<ResponseEntity<ApiResponse<InvoiceEventPage>>> getEvents(
+            @Parameter(description = "Last sequence number seen; 0 reads from the beginning") @RequestParam(defaultValue = "0") long after,
+            @Parameter(description = "Page size (max 1000)") @RequestParam(defaultValue = "100") int limit,
+            @Parameter(description = "Milliseconds to wait for new events when caught up") @RequestParam(defaultValue = "20000") long waitMs) {
+        return invoiceEventFeed.longPoll(after, limit, waitMs,
+            page -> ResponseUtils.success(page, "Invoice events retrieved successfully"));
+    }
+    
+    /**
+     * Stream invoice events as Server-Sent Events
+     */
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream invoice events",
+               description = "Pushes invoice events as Server-Sent Events, resuming after Last-Event-ID when given")
+    public SseEmitter streamEvents(
+            @Parameter(description = "Only invoices of this client") @RequestParam(required = false) String clientName,
+            @Parameter(description = "Only invoices created by the current user") @RequestParam(defaultValue = "false") boolean mine,
+            @Parameter(description = "Only these event types") @RequestParam(required = false) Set<InvoiceEvent.Type> types,
+            @Parameter(description = "Sequence number to resume after, for clients that cannot send Last-Event-ID") @RequestParam(required = false) Long after,
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId,
+            @AuthenticationPrincipal User user) {
+        InvoiceStreamFilter filter = new InvoiceStreamFilter(clientName, mine ? user.getId() : null, types);
+        return invoiceStreamHub.subscribe(filter, lastEventId != null ? lastEventId : after);
+    }
+}
@@ -0,0 +1,41 @@
+package com.fabrica.p6f5.springapp.events.dto;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO for one invoice lifecycle event of the outbox.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvoiceEvent {
+    
+    private Long eventId;
+    /** Position in the published stream; null until the relay publishes the event. */
+    private Long seq;
+    private Long invoiceId;
+    private Type type;
+    private Integer invoiceVersion;
+    /** {@link InvoiceState} of the invoice after the transition, as JSON. */
+    @JsonRawValue
+    private String payload;
+    private String correlationId;
+    private LocalDateTime createdAt;
+    private LocalDateTime publishedAt;
+    
+    /**
+     * Invoice lifecycle transition
+     */
+    public enum Type {
+        CREATED,
+        UPDATED,
+        ISSUED,
+        PDF_GENERATED,
+        PAID
+    }
+}
@@ -0,0 +1,22 @@
+package com.fabrica.p6f5.springapp.events.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO for a page of the invoice event stream.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvoiceEventPage {
+    
+    private List<InvoiceEvent> events = new ArrayList<>();
+    /** Cursor to pass as {@code after} for the next page: the last sequence number seen. */
+    private long nextCursor;
+    private boolean hasMore;
+}
@@ -0,0 +1,55 @@
+package com.fabrica.p6f5.springapp.events.dto;
+
+import com.fabrica.p6f5.springapp.invoice.dto.InvoiceResponse;
+import com.fabrica.p6f5.springapp.invoice.model.Invoice;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * DTO for the invoice header carried by an event, so consumers need not read the invoice back.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvoiceState {
+    
+    private Long id;
+    private String invoiceNumber;
+    private String fiscalFolio;
+    private String clientName;
+    private Long createdBy;
+    private String status;
+    private String currency;
+    private LocalDate invoiceDate;
+    private LocalDate dueDate;
+    private BigDecimal subtotal;
+    private BigDecimal taxAmount;
+    private BigDecimal totalAmount;
+    private BigDecimal amountPaid;
+    private String pdfUrl;
+    private Integer version;
+    private LocalDateTime updatedAt;
+    
+    public static InvoiceState fromEntity(Invoice invoice) {
+        return new InvoiceState(invoice.getId(), invoice.getInvoiceNumber(), invoice.getFiscalFolio(),
+                                invoice.getClientName(), invoice.getCreatedBy(), invoice.getStatus().toString(),
+                                invoice.getCurrency(), invoice.getInvoiceDate(), invoice.getDueDate(),
+                                invoice.getSubtotal(), invoice.getTaxAmount(), invoice.getTotalAmount(),
+                                invoice.getAmountPaid(), invoice.getPdfUrl(), invoice.getVersion(),
+                                invoice.getUpdatedAt());
+    }
+    
+    public static InvoiceState fromResponse(InvoiceResponse invoice) {
+        return new InvoiceState(invoice.getId(), invoice.getInvoiceNumber(), invoice.getFiscalFolio(),
+                                invoice.getClientName(), invoice.getCreatedBy(), invoice.getStatus(),
+                                invoice.getCurrency(), invoice.getInvoiceDate(), invoice.getDueDate(),
+                                invoice.getSubtotal(), invoice.getTaxAmount(), invoice.getTotalAmount(),
+                                invoice.getAmountPaid(), invoice.getPdfUrl(), invoice.getVersion(),
+                                invoice.getUpdatedAt());
+    }
+}
@@ -0,0 +1,125 @@
+package com.fabrica.p6f5.springapp.events.repository;
+
+import com.fabrica.p6f5.springapp.events.dto.InvoiceEvent;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Invoice Event Repository.
+ * Writes outbox events and serves the published stream with keyset reads on {@code seq}.
+ */
+@Repository
+public class InvoiceEventRepository {
+    
+    private static final int BATCH_SIZE = 500;
+    
+    private static final String INSERT_EVENT_SQL =
+        "INSERT INTO invoice_events (invoice_id, event_type, invoice_version, payload, correlation_id, created_at) " +
+        "VALUES (?, ?, ?, CAST(? AS jsonb), ?, ?)";
+    
+    /** Only one relay publishes at a time, across instances; the lock ends with the transaction. */
+    private static final String TRY_LOCK_RELAY_SQL =
+        "SELECT pg_try_advisory_xact_lock(hashtext('invoice_event_relay'))";
+    
+    private static final String LAST_SEQ_SQL = "SELECT COALESCE(MAX(seq), 0) FROM invoice_events";
+    
+    private static final String EVENT_COLUMNS =
+        "SELECT event_id, seq, invoice_id, event_type, invoice_version, payload::text AS payload, correlation_id, " +
+        "created_at, published_at FROM invoice_events";
+    
+    private static final String FIND_PENDING_SQL =
+        EVENT_COLUMNS + " WHERE seq IS NULL ORDER BY event_id LIMIT ?";
+    
+    private static final String ASSIGN_SEQ_SQL =
+        "UPDATE invoice_events AS e SET seq = a.seq, published_at = ? " +
+        "FROM unnest(?::bigint[], ?::bigint[]) AS a(event_id, seq) WHERE e.event_id = a.event_id";
+    
+    private static final String FIND_AFTER_SQL =
+        EVENT_COLUMNS + " WHERE seq > ? ORDER BY seq LIMIT ?";
+    
+    private static final RowMapper<InvoiceEvent> EVENT_MAPPER = (rs, rowNum) -> {
+        Timestamp publishedAt = rs.getTimestamp("published_at");
+        return new InvoiceEvent(rs.getLong("event_id"), rs.getObject("seq", Long.class), rs.getLong("invoice_id"),
+                                InvoiceEvent.Type.valueOf(rs.getString("event_type")),
+                                rs.getObject("invoice_version", Integer.class), rs.getString("payload"),
+                                rs.getString("correlation_id"), rs.getTimestamp("created_at").toLocalDateTime(),
+                                publishedAt != null ? publishedAt.toLocalDateTime() : null);
+    };
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    public InvoiceEventRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+    
+    /**
+     * Insert unpublished events.
+     */
+    public void insertEvents(List<InvoiceEvent> events) {
+        jdbcTemplate.batchUpdate(INSERT_EVENT_SQL, events, BATCH_SIZE, (ps, event) -> {
+            ps.setLong(1, event.getInvoiceId());
+            ps.setString(2, event.getType().name());
+            if (event.getInvoiceVersion() != null) {
+                ps.setInt(3, event.getInvoiceVersion());
+            } else {
+                ps.setNull(3, Types.INTEGER);
+            }
+            ps.setString(4, event.getPayload());
+            ps.setString(5, event.getCorrelationId());
+            ps.setTimestamp(6, Timestamp.valueOf(event.getCreatedAt()));
+        });
+    }
+    
+    /**
+     * Take the relay lock for the current transaction.
+     * 
+     * @return false if another relay holds it
+     */
+    public boolean tryLockRelay() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(TRY_LOCK_RELAY_SQL, Boolean.class));
+    }
+    
+    /**
+     * Highest published sequence number, or 0.
+     */
+    public long findLastSeq() {
+        Long seq = jdbcTemplate.queryForObject(LAST_SEQ_SQL, Long.class);
+        return seq != null ? seq : 0;
+    }
+    
+    /**
+     * Oldest committed events not yet published.
+     */
+    public List<InvoiceEvent> findPending(int limit) {
+        return jdbcTemplate.query(FIND_PENDING_SQL, EVENT_MAPPER, limit);
+    }
+    
+    /**
+     * Store the sequence numbers and publication time of a published batch.
+     */
+    public void assignSequence(List<InvoiceEvent> events, LocalDateTime publishedAt) {
+        Long[] eventIds = events.stream().map(InvoiceEvent::getEventId).toArray(Long[]::new);
+        Long[] seqs = events.stream().map(InvoiceEvent::getSeq).toArray(Long[]::new);
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(ASSIGN_SEQ_SQL);
+            ps.setTimestamp(1, Timestamp.valueOf(publishedAt));
+            ps.setArray(2, connection.createArrayOf("bigint", eventIds));
+            ps.setArray(3, connection.createArrayOf("bigint", seqs));
+            return ps;
+        });
+    }
+    
+    /**
+     * Published events after the given sequence number, in stream order.
+     */
+    public List<InvoiceEvent> findAfter(long afterSeq, int limit) {
+        return jdbcTemplate.query(FIND_AFTER_SQL, EVENT_MAPPER, afterSeq, limit);
+    }
+}
@@ -0,0 +1,240 @@
+package com.fabrica.p6f5.springapp.events.service;
+
+import com.fabrica.p6f5.springapp.events.dto.InvoiceEvent;
+import com.fabrica.p6f5.springapp.events.dto.InvoiceEventPage;
+import com.fabrica.p6f5.springapp.events.repository.InvoiceEventRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * Invoice Event Feed following Single Responsibility Principle.
+ * Serves the published event stream to consumers with keyset reads, long-polling
+ * when they are caught up.
+ * <p>
+ * HTTP consumers wait through {@link #longPoll}, which parks the request as a
+ * {@link DeferredResult} and frees the servlet thread; one waker thread completes the
+ * parked requests as soon as the local relay publishes, and checks the last sequence
+ * number every {@code billing.events.recheck-ms} to see batches published by other
+ * instances. At most {@code billing.events.max-long-polls} requests wait at once;
+ * beyond that a caught-up consumer gets an empty page immediately. The blocking
+ * {@link #poll} is kept for the in-process stream pump, which owns its thread.
+ */
+@Service
+public class InvoiceEventFeed {
+    
+    private static final Logger logger = LoggerFactory.getLogger(InvoiceEventFeed.class);
+    
+    /** Largest page served. */
+    public static final int MAX_LIMIT = 1000;
+    
+    private final InvoiceEventRepository invoiceEventRepository;
+    private final Semaphore longPolls;
+    private final Object monitor = new Object();
+    private final Set<Waiter<?>> waiters = ConcurrentHashMap.newKeySet();
+    private final long maxWaitMillis;
+    private final long recheckMillis;
+    
+    private volatile long publishedSeq;
+    private ScheduledExecutorService waker;
+    
+    public InvoiceEventFeed(InvoiceEventRepository invoiceEventRepository,
+                            @Value("${billing.events.max-long-polls:100}") int maxLongPolls,
+                            @Value("${billing.events.max-wait-ms:30000}") long maxWaitMillis,
+                            @Value("${billing.events.recheck-ms:1000}") long recheckMillis) {
+        this.invoiceEventRepository = invoiceEventRepository;
+        this.longPolls = new Semaphore(maxLongPolls);
+        this.maxWaitMillis = maxWaitMillis;
+        this.recheckMillis = Math.max(1, recheckMillis);
+    }
+    
+    /**
+     * Events published after the cursor without holding the calling thread: the result is
+     * completed by the waker when an event arrives, or with an empty page after the wait.
+     * 
+     * @param afterSeq the last sequence number the consumer has seen, 0 to start from the beginning
+     * @param limit the page size, capped at {@link #MAX_LIMIT}
+     * @param waitMillis how long to wait when there is nothing new, capped at {@code billing.events.max-wait-ms}
+     * @param toResponse turns the page into the response body
+     */
+    public <T> DeferredResult<T> longPoll(long afterSeq, int limit, long waitMillis,
+                                          Function<InvoiceEventPage, T> toResponse) {
+        int pageSize = Math.min(Math.max(1, limit), MAX_LIMIT);
+        long mark = publishedSeq;
+        List<InvoiceEvent> events = invoiceEventRepository.findAfter(afterSeq, pageSize + 1);
+        long wait = Math.min(Math.max(0, waitMillis), maxWaitMillis);
+        if (!events.isEmpty() || wait == 0 || !longPolls.tryAcquire()) {
+            DeferredResult<T> result = new DeferredResult<>();
+            result.setResult(toResponse.apply(page(afterSeq, events, pageSize)));
+            return result;
+        }
+        DeferredResult<T> result = new DeferredResult<>(wait, toResponse.apply(page(afterSeq, events, pageSize)));
+        Waiter<T> waiter = new Waiter<>(afterSeq, pageSize, result, toResponse);
+        result.onTimeout(() -> finish(waiter));
+        result.onCompletion(() -> finish(waiter));
+        waiters.add(waiter);
+        if (publishedSeq != mark) {
+            waker.execute(() -> wake(publishedSeq));
+        }
+        return result;
+    }
+    
+    /**
+     * Events published after the cursor, waiting up to {@code waitMillis} for the first one.
+     * Blocks the calling thread while waiting; request handlers use {@link #longPoll}.
+     * 
+     * @param afterSeq the last sequence number the consumer has seen, 0 to start from the beginning
+     * @param limit the page size, capped at {@link #MAX_LIMIT}
+     * @param waitMillis how long to wait when there is nothing new, capped at {@code billing.events.max-wait-ms}
+     */
+    public InvoiceEventPage poll(long afterSeq, int limit, long waitMillis) {
+        int pageSize = Math.min(Math.max(1, limit), MAX_LIMIT);
+        long mark = publishedSeq;
+        List<InvoiceEvent> events = invoiceEventRepository.findAfter(afterSeq, pageSize + 1);
+        long wait = Math.min(Math.max(0, waitMillis), maxWaitMillis);
+        if (events.isEmpty() && wait > 0 && longPolls.tryAcquire()) {
+            try {
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(wait);
+                long remaining;
+                while (events.isEmpty() && (remaining = deadline - System.nanoTime()) > 0) {
+                    awaitPublish(mark, Math.min(TimeUnit.NANOSECONDS.toMillis(remaining) + 1, recheckMillis));
+                    mark = publishedSeq;
+                    events = invoiceEventRepository.findAfter(afterSeq, pageSize + 1);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                longPolls.release();
+            }
+        }
+        return page(afterSeq, events, pageSize);
+    }
+    
+    /**
+     * Wake waiting polls after the relay committed a batch ending at the given sequence number.
+     */
+    public void published(long lastSeq) {
+        synchronized (monitor) {
+            if (lastSeq > publishedSeq) {
+                publishedSeq = lastSeq;
+            }
+            monitor.notifyAll();
+        }
+        if (!waiters.isEmpty()) {
+            waker.execute(() -> wake(lastSeq));
+        }
+    }
+    
+    /**
+     * Complete the waiting requests that are behind the given sequence number.
+     */
+    private void wake(long lastSeq) {
+        for (Waiter<?> waiter : waiters) {
+            if (waiter.afterSeq < lastSeq) {
+                try {
+                    List<InvoiceEvent> events = invoiceEventRepository.findAfter(waiter.afterSeq, waiter.pageSize + 1);
+                    if (!events.isEmpty() && finish(waiter)) {
+                        waiter.complete(page(waiter.afterSeq, events, waiter.pageSize));
+                    }
+                } catch (RuntimeException e) {
+                    logger.warn("Invoice event poll after {} failed, waiting for the next wake: {}",
+                                waiter.afterSeq, e.getMessage());
+                }
+            }
+        }
+    }
+    
+    /**
+     * Look for batches published by other instances.
+     */
+    private void recheck() {
+        if (waiters.isEmpty()) {
+            return;
+        }
+        try {
+            wake(invoiceEventRepository.findLastSeq());
+        } catch (RuntimeException e) {
+            logger.warn("Invoice event recheck failed: {}", e.getMessage());
+        }
+    }
+    
+    /**
+     * Stop tracking a waiter and give its slot back; true for the one caller that gets to answer it.
+     */
+    private boolean finish(Waiter<?> waiter) {
+        if (!waiter.done.compareAndSet(false, true)) {
+            return false;
+        }
+        waiters.remove(waiter);
+        longPolls.release();
+        return true;
+    }
+    
+    /**
+     * Wait until a batch is published after {@code mark} was read, or the timeout passes.
+     */
+    private void awaitPublish(long mark, long timeoutMillis) throws InterruptedException {
+        synchronized (monitor) {
+            if (publishedSeq == mark) {
+                monitor.wait(timeoutMillis);
+            }
+        }
+    }
+    
+    @PostConstruct
+    void start() {
+        waker = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("invoice-feed-waker").daemon().factory());
+        waker.scheduleWithFixedDelay(this::recheck, recheckMillis, recheckMillis, TimeUnit.MILLISECONDS);
+    }
+    
+    @PreDestroy
+    void stop() {
+        waker.shutdownNow();
+    }
+    
+    private static InvoiceEventPage page(long afterSeq, List<InvoiceEvent> events, int pageSize) {
+        boolean hasMore = events.size() > pageSize;
+        List<InvoiceEvent> items = hasMore ? new ArrayList<>(events.subList(0, pageSize)) : events;
+        long nextCursor = items.isEmpty() ? afterSeq : items.get(items.size() - 1).getSeq();
+        return new InvoiceEventPage(items, nextCursor, hasMore);
+    }
+    
+    /**
+     * A request parked until events arrive after its cursor.
+     */
+    private static final class Waiter<T> {
+        
+        private final long afterSeq;
+        private final int pageSize;
+        private final DeferredResult<T> result;
+        private final Function<InvoiceEventPage, T> toResponse;
+        private final AtomicBoolean done = new AtomicBoolean();
+        
+        private Waiter(long afterSeq, int pageSize, DeferredResult<T> result, Function<InvoiceEventPage, T> toResponse) {
+            this.afterSeq = afterSeq;
+            this.pageSize = pageSize;
+            this.result = result;
+            this.toResponse = toResponse;
+        }
+        
+        private void complete(InvoiceEventPage page) {
+            result.setResult(toResponse.apply(page));
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.fabrica.p6f5.springapp.events.service;
+
+import com.fabrica.p6f5.springapp.events.dto.InvoiceEvent;
+import com.fabrica.p6f5.springapp.events.repository.InvoiceEventRepository;
+import com.fabrica.p6f5.springapp.events.sink.InvoiceEventSink;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Invoice Event Relay following Single Responsibility Principle.
+ * Publishes committed outbox events to the configured sink in batches.
+ * <p>
+ * Each batch is numbered, handed to the sink and marked published in one transaction
+ * holding an advisory lock, so one relay runs at a time across instances and sequence
+ * numbers become visible in order: a consumer reading past its cursor never skips an event.
+ */
+@Service
+public class InvoiceEventRelay {
+    
+    private static final Logger logger = LoggerFactory.getLogger(InvoiceEventRelay.class);
+    
+    private final InvoiceEventRepository invoiceEventRepository;
+    private final InvoiceEventSink invoiceEventSink;
+    private final InvoiceEventFeed invoiceEventFeed;
+    private final TransactionTemplate transactionTemplate;
+    
+    @Value("${billing.events.relay-enabled:true}")
+    private boolean enabled;
+    
+    @Value("${billing.events.relay-batch-size:500}")
+    private int batchSize;
+    
+    public InvoiceEventRelay(InvoiceEventRepository invoiceEventRepository,
+                             InvoiceEventSink invoiceEventSink,
+                             InvoiceEventFeed invoiceEventFeed,
+                             TransactionTemplate transactionTemplate) {
+        this.invoiceEventRepository = invoiceEventRepository;
+        this.invoiceEventSink = invoiceEventSink;
+        this.invoiceEventFeed = invoiceEventFeed;
+        this.transactionTemplate = transactionTemplate;
+    }
+    
+    /**
+     * Publish pending events, when enabled.
+     */
+    @Scheduled(fixedDelayString = "${billing.events.relay-interval-ms:500}")
+    public void scheduledRelay() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            relayPending();
+        } catch (Exception e) {
+            logger.error("Invoice event relay failed: {}", e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Publish every pending event, batch by batch.
+     * 
+     * @return the number of events published
+     */
+    public int relayPending() {
+        int total = 0;
+        int relayed;
+        do {
+            relayed = relayBatch();
+            total += relayed;
+        } while (relayed == batchSize);
+        if (total > 0) {
+            logger.debug("Relayed {} invoice events", total);
+        }
+        return total;
+    }
+    
+    private int relayBatch() {
+        List<InvoiceEvent> batch = transactionTemplate.execute(status -> {
+            if (!invoiceEventRepository.tryLockRelay()) {
+                return List.<InvoiceEvent>of();
+            }
+            List<InvoiceEvent> pending = invoiceEventRepository.findPending(batchSize);
+            if (pending.isEmpty()) {
+                return pending;
+            }
+            long seq = invoiceEventRepository.findLastSeq();
+            LocalDateTime publishedAt = LocalDateTime.now();
+            for (InvoiceEvent event : pending) {
+                event.setSeq(++seq);
+                event.setPublishedAt(publishedAt);
+            }
+            invoiceEventRepository.assignSequence(pending, publishedAt);
+            invoiceEventSink.publish(pending);
+            return pending;
+        });
+        if (batch == null || batch.isEmpty()) {
+            return 0;
+        }
+        invoiceEventFeed.published(batch.get(batch.size() - 1).getSeq());
+        return batch.size();
+    }
+}
@@ -0,0 +1,102 @@
+package com.fabrica.p6f5.springapp.events.service;
+
+import com.fabrica.p6f5.springapp.audit.context.AuditContext;
+import com.fabrica.p6f5.springapp.events.dto.InvoiceEvent;
+import com.fabrica.p6f5.springapp.events.dto.InvoiceState;
+import com.fabrica.p6f5.springapp.events.repository.InvoiceEventRepository;
+import com.fabrica.p6f5.springapp.invoice.model.Invoice;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Invoice Event Service following Single Responsibility Principle.
+ * Writes invoice lifecycle events to the outbox in the transaction that makes the change,
+ * so an event exists if and only if its change commits.
+ */
+@Service
+public class InvoiceEventService {
+    
+    private final InvoiceEventRepository invoiceEventRepository;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+    
+    public InvoiceEventService(InvoiceEventRepository invoiceEventRepository,
+                               ObjectMapper objectMapper,
+                               EntityManager entityManager) {
+        this.invoiceEventRepository = invoiceEventRepository;
+        this.objectMapper = objectMapper;
+        this.entityManager = entityManager;
+    }
+    
+    /**
+     * Record a transition of an invoice. A managed invoice is flushed first, so the event
+     * carries the version the change commits with.
+     */
+    @Transactional
+    public void record(InvoiceEvent.Type type, Invoice invoice) {
+        flushIfManaged(List.of(invoice));
+        invoiceEventRepository.insertEvents(List.of(event(type, InvoiceState.fromEntity(invoice))));
+    }
+    
+    /**
+     * Record payments applied to invoices: PAID for those now settled, UPDATED for the rest.
+     */
+    @Transactional
+    public void recordPayments(Collection<Invoice> invoices) {
+        if (invoices.isEmpty()) {
+            return;
+        }
+        flushIfManaged(invoices);
+        List<InvoiceEvent> events = new ArrayList<>(invoices.size());
+        for (Invoice invoice : invoices) {
+            InvoiceEvent.Type type = invoice.getStatus() == Invoice.InvoiceStatus.PAID
+                ? InvoiceEvent.Type.PAID : InvoiceEvent.Type.UPDATED;
+            events.add(event(type, InvoiceState.fromEntity(invoice)));
+        }
+        invoiceEventRepository.insertEvents(events);
+    }
+    
+    /**
+     * Record the same transition of many invoices changed with set-based SQL.
+     */
+    @Transactional
+    public void recordStates(InvoiceEvent.Type type, List<InvoiceState> states) {
+        if (states.isEmpty()) {
+            return;
+        }
+        List<InvoiceEvent> events = new ArrayList<>(states.size());
+        for (InvoiceState state : states) {
+            events.add(event(type, state));
+        }
+        invoiceEventRepository.insertEvents(events);
+    }
+    
+    private InvoiceEvent event(InvoiceEvent.Type type, InvoiceState state) {
+        try {
+            InvoiceEvent event = new InvoiceEvent();
+            event.setInvoiceId(state.getId());
+            event.setType(type);
+            event.setInvoiceVersion(state.getVersion());
+            event.setPayload(objectMapper.writeValueAsString(state));
+            event.setCorrelationId(AuditContext.current().getCorrelationId());
+            event.setCreatedAt(LocalDateTime.now());
+            return event;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize invoice event", e);
+        }
+    }
+    
+    private void flushIfManaged(Collection<Invoice> invoices) {
+        if (invoices.stream().anyMatch(entityManager::contains)) {
+            entityManager.flush();
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.fabrica.p6f5.springapp.events.service;
+
+import com.fabrica.p6f5.springapp.events.dto.InvoiceEvent;
+import com.fabrica.p6f5.springapp.events.dto.InvoiceEventPage;
+import com.fabrica.p6f5.springapp.events.repository.InvoiceEventRepository;
+import com.fabrica.p6f5.springapp.events.stream.InvoiceStreamEvent;
+import com.fabrica.p6f5.springapp.events.stream.InvoiceStreamFilter;
+import com.fabrica.p6f5.springapp.events.stream.InvoiceStreamSubscription;
+import com.fabrica.p6f5.springapp.events.stream.SseInvoiceStreamChannel;
+import com.fabrica.p6f5.springapp.exception.BusinessException;
+import com.fabrica.p6f5.springapp.util.Constants;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Invoice Stream Hub following Single Responsibility Principle.
+ * Pushes published invoice events to Server-Sent Events subscribers.
+ * <p>
+ * One pump thread per instance long-polls the event feed and offers each batch to every
+ * subscription, so the database load does not grow with the number of connections. Each
+ * subscription writes from its own virtual thread, which costs next to nothing while the
+ * connection is idle; the request thread is released as soon as the stream is opened.
+ */
+@Service
+public class InvoiceStreamHub {
+    
+    private static final Logger logger = LoggerFactory.getLogger(InvoiceStreamHub.class);
+    
+    private static final long PUMP_RETRY_MILLIS = 1000;
+    
+    private final InvoiceEventRepository invoiceEventRepository;
+    private final InvoiceEventFeed invoiceEventFeed;
+    private final ObjectMapper objectMapper;
+    private final Set<InvoiceStreamSubscription> subscriptions = ConcurrentHashMap.newKeySet();
+    
+    @Value("${billing.events.stream.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${billing.events.stream.max-subscribers:10000}")
+    private int maxSubscribers;
+    
+    @Value("${billing.events.stream.queue-capacity:256}")
+    private int queueCapacity;
+    
+    @Value("${billing.events.stream.heartbeat-ms:15000}")
+    private long heartbeatMillis;
+    
+    @Value("${billing.events.stream.timeout-ms:1800000}")
+    private long timeoutMillis;
+    
+    @Value("${billing.events.stream.retry-ms:3000}")
+    private long retryMillis;
+    
+    @Value("${billing.events.stream.max-replay:10000}")
+    private int maxReplay;
+    
+    private ExecutorService connections;
+    private Thread pump;
+    private volatile boolean running;
+    
+    public InvoiceStreamHub(InvoiceEventRepository invoiceEventRepository,
+                            InvoiceEventFeed invoiceEventFeed,
+                            ObjectMapper objectMapper) {
+        this.invoiceEventRepository = invoiceEventRepository;
+        this.invoiceEventFeed = invoiceEventFeed;
+        this.objectMapper = objectMapper;
+    }
+    
+    /**
+     * Open a stream of the events matching the filter.
+     * 
+     * @param lastEventId the last event the client received, to resume after it; null for live events only
+     * @throws BusinessException if streaming is disabled or the subscriber limit is reached
+     */
+    public SseEmitter subscribe(InvoiceStreamFilter filter, Long lastEventId) {
+        if (!enabled) {
+            throw new BusinessException(Constants.EVENT_STREAM_DISABLED);
+        }
+        if (subscriptions.size() >= maxSubscribers) {
+            throw new BusinessException(String.format(Constants.EVENT_STREAM_FULL, maxSubscribers));
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        InvoiceStreamSubscription subscription = new InvoiceStreamSubscription(filter, lastEventId,
+            new SseInvoiceStreamChannel(emitter, retryMillis), this::replay, queueCapacity, heartbeatMillis,
+            maxReplay, subscriptions::remove);
+        emitter.onCompletion(subscription::close);
+        emitter.onTimeout(subscription::close);
+        emitter.onError(error -> subscription.close());
+        subscriptions.add(subscription);
+        connections.execute(subscription);
+        return emitter;
+    }
+    
+    /**
+     * Number of open streams.
+     */
+    public int getSubscriberCount() {
+        return subscriptions.size();
+    }
+    
+    private List<InvoiceStreamEvent> replay(long afterSeq, int limit) {
+        return toStreamEvents(invoiceEventRepository.findAfter(afterSeq, limit));
+    }
+    
+    /**
+     * Follow the feed from the current end of the stream and fan each batch out.
+     */
+    private void pump() {
+        long cursor = -1;
+        while (running) {
+            try {
+                if (cursor < 0) {
+                    cursor = invoiceEventRepository.findLastSeq();
+                }
+                InvoiceEventPage page = invoiceEventFeed.poll(cursor, InvoiceEventFeed.MAX_LIMIT, Long.MAX_VALUE);
+                if (!page.getEvents().isEmpty()) {
+                    List<InvoiceStreamEvent> events = toStreamEvents(page.getEvents());
+                    for (InvoiceStreamSubscription subscription : subscriptions) {
+                        events.forEach(subscription::offer);
+                    }
+                }
+                cursor = page.getNextCursor();
+            } catch (RuntimeException e) {
+                logger.warn("Invoice stream pump failed, retrying: {}", e.getMessage());
+                try {
+                    Thread.sleep(PUMP_RETRY_MILLIS);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+    
+    private List<InvoiceStreamEvent> toStreamEvents(List<InvoiceEvent> events) {
+        List<InvoiceStreamEvent> streamEvents = new ArrayList<>(events.size());
+        for (InvoiceEvent event : events) {
+            try {
+                JsonNode payload = objectMapper.readTree(event.getPayload());
+                JsonNode createdBy = payload.path("createdBy");
+                streamEvents.add(new InvoiceStreamEvent(event, payload.path("clientName").asText(null),
+                                                        createdBy.isNumber() ? createdBy.asLong() : null));
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Invalid payload in invoice event " + event.getEventId(), e);
+            }
+        }
+        return streamEvents;
+    }
+    
+    @PostConstruct
+    void start() {
+        connections = Executors.newVirtualThreadPerTaskExecutor();
+        if (enabled) {
+            running = true;
+            // A platform thread: the feed waits on a monitor, which would pin a virtual thread's carrier
+            pump = Thread.ofPlatform().name("invoice-stream-pump").daemon().start(this::pump);
+        }
+    }
+    
+    @PreDestroy
+    void stop() {
+        running = false;
+        if (pump != null) {
+            pump.interrupt();
+        }
+        subscriptions.forEach(InvoiceStreamSubscription::close);
+        connections.shutdown();
+    }
+}
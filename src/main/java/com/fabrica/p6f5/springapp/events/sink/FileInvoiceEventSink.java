@@ -0,0 +1,61 @@
+package com.fabrica.p6f5.springapp.events.sink;
+
+import com.fabrica.p6f5.springapp.events.dto.InvoiceEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Appends published events to a file as JSON lines, synced before the batch is
+ * marked published. A crash after the sync repeats the batch; consumers dedupe on {@code seq}.
+ */
+@Component
+@ConditionalOnProperty(name = "billing.events.sink", havingValue = "file")
+public class FileInvoiceEventSink implements InvoiceEventSink {
+    
+    private final ObjectMapper objectMapper;
+    private final Path file;
+    
+    public FileInvoiceEventSink(ObjectMapper objectMapper,
+                                @Value("${billing.events.file:events/invoice-events.ndjson}") String file) {
+        this.objectMapper = objectMapper;
+        this.file = Paths.get(file);
+    }
+    
+    @Override
+    public void publish(List<InvoiceEvent> events) {
+        try {
+            ByteArrayOutputStream lines = new ByteArrayOutputStream(events.size() * 512);
+            for (InvoiceEvent event : events) {
+                lines.write(objectMapper.writeValueAsBytes(event));
+                lines.write('\n');
+            }
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                                                        StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                ByteBuffer buffer = ByteBuffer.wrap(lines.toByteArray());
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to append invoice events to " + file, e);
+        }
+    }
+}
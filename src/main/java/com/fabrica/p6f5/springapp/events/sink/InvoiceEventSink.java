@@ -0,0 +1,19 @@
+package com.fabrica.p6f5.springapp.events.sink;
+
+import com.fabrica.p6f5.springapp.events.dto.InvoiceEvent;
+
+import java.util.List;
+
+/**
+ * Destination the relay publishes invoice events to, selected with {@code billing.events.sink}.
+ * <p>
+ * A batch is published inside the relay transaction: if {@link #publish} throws, the batch
+ * stays unpublished and is offered again, so sinks see every event at least once.
+ */
+public interface InvoiceEventSink {
+    
+    /**
+     * Publish a batch of events, in stream order.
+     */
+    void publish(List<InvoiceEvent> events);
+}
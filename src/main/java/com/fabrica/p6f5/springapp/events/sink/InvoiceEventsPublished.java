@@ -0,0 +1,21 @@
+package com.fabrica.p6f5.springapp.events.sink;
+
+import com.fabrica.p6f5.springapp.events.dto.InvoiceEvent;
+
+import java.util.List;
+
+/**
+ * Application event carrying a published batch of invoice events to in-process listeners.
+ */
+public class InvoiceEventsPublished {
+    
+    private final List<InvoiceEvent> events;
+    
+    public InvoiceEventsPublished(List<InvoiceEvent> events) {
+        this.events = List.copyOf(events);
+    }
+    
+    public List<InvoiceEvent> getEvents() {
+        return events;
+    }
+}
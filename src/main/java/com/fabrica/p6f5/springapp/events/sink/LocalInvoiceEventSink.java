@@ -0,0 +1,29 @@
+package com.fabrica.p6f5.springapp.events.sink;
+
+import com.fabrica.p6f5.springapp.events.dto.InvoiceEvent;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Local broker stand-in: hands each published batch to in-process
+ * {@code @EventListener}s of {@link InvoiceEventsPublished}. Listeners run on the relay
+ * thread, so a listener that throws holds the batch back until it succeeds.
+ */
+@Component
+@ConditionalOnProperty(name = "billing.events.sink", havingValue = "local", matchIfMissing = true)
+public class LocalInvoiceEventSink implements InvoiceEventSink {
+    
+    private final ApplicationEventPublisher eventPublisher;
+    
+    public LocalInvoiceEventSink(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+    
+    @Override
+    public void publish(List<InvoiceEvent> events) {
+        eventPublisher.publishEvent(new InvoiceEventsPublished(events));
+    }
+}
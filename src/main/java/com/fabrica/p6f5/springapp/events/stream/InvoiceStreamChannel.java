@@ -0,0 +1,31 @@
+package com.fabrica.p6f5.springapp.events.stream;
+
+import com.fabrica.p6f5.springapp.events.dto.InvoiceEvent;
+
+import java.io.IOException;
+
+/**
+ * Connection to one stream client. Only the subscription's own thread writes to it.
+ */
+public interface InvoiceStreamChannel {
+    
+    /**
+     * Send an event, identified by its sequence number so the client can resume after it.
+     */
+    void send(InvoiceEvent event) throws IOException;
+    
+    /**
+     * Keep an idle connection open through proxies and detect clients that went away.
+     */
+    void heartbeat() throws IOException;
+    
+    /**
+     * Tell the client events were skipped and it should reload the invoices it shows.
+     */
+    void resync() throws IOException;
+    
+    /**
+     * Close the connection; the client reconnects with its last event ID.
+     */
+    void complete();
+}
@@ -0,0 +1,14 @@
+package com.fabrica.p6f5.springapp.events.stream;
+
+import com.fabrica.p6f5.springapp.events.dto.InvoiceEvent;
+
+/**
+ * A published event with the fields streams filter on, read from its payload once by the hub
+ * rather than once per subscriber.
+ */
+public record InvoiceStreamEvent(InvoiceEvent event, String clientName, Long createdBy) {
+    
+    public long seq() {
+        return event.getSeq();
+    }
+}
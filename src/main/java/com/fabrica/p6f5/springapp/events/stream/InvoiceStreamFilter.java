@@ -0,0 +1,34 @@
+package com.fabrica.p6f5.springapp.events.stream;
+
+import com.fabrica.p6f5.springapp.events.dto.InvoiceEvent;
+
+import java.util.EnumSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Selects the events a stream subscriber receives. Unset criteria match everything.
+ */
+public final class InvoiceStreamFilter {
+    
+    private final String clientName;
+    private final Long createdBy;
+    private final Set<InvoiceEvent.Type> types;
+    
+    /**
+     * @param clientName only invoices of this client, or null for all clients
+     * @param createdBy only invoices created by this user, or null for all users
+     * @param types only these event types; null or empty for all types
+     */
+    public InvoiceStreamFilter(String clientName, Long createdBy, Set<InvoiceEvent.Type> types) {
+        this.clientName = clientName;
+        this.createdBy = createdBy;
+        this.types = types == null || types.isEmpty() ? EnumSet.allOf(InvoiceEvent.Type.class) : EnumSet.copyOf(types);
+    }
+    
+    public boolean matches(InvoiceStreamEvent event) {
+        return types.contains(event.event().getType())
+            && (clientName == null || clientName.equals(event.clientName()))
+            && (createdBy == null || Objects.equals(createdBy, event.createdBy()));
+    }
+}
@@ -0,0 +1,142 @@
+package com.fabrica.p6f5.springapp.events.stream;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * One client's invoice event stream.
+ * <p>
+ * The hub offers every published event; matching ones are queued and written by the
+ * subscription's own thread, so a slow client never holds up the others. A client that
+ * falls a full queue behind is disconnected and resumes with its last event ID.
+ * <p>
+ * A resuming client is sent the events after its last event ID from the outbox first, then
+ * the queued live events. The queue is filled from the moment of subscribing, so nothing
+ * falls between the two; events at or before the cursor are skipped, so the overlap is sent
+ * once. Past {@code maxReplay} events the replay stops and the client is told to resync.
+ */
+public final class InvoiceStreamSubscription implements Runnable {
+    
+    /** Events read from the outbox per replay query. */
+    static final int REPLAY_PAGE_SIZE = 500;
+    
+    private static final InvoiceStreamEvent CLOSED = new InvoiceStreamEvent(null, null, null);
+    
+    /**
+     * Reads published events after a sequence number, in order.
+     */
+    @FunctionalInterface
+    public interface ReplaySource {
+        List<InvoiceStreamEvent> after(long seq, int limit);
+    }
+    
+    private final InvoiceStreamFilter filter;
+    private final InvoiceStreamChannel channel;
+    private final ReplaySource replaySource;
+    private final BlockingQueue<InvoiceStreamEvent> queue;
+    private final long heartbeatMillis;
+    private final int maxReplay;
+    private final Consumer<InvoiceStreamSubscription> onClose;
+    private final Long lastEventId;
+    
+    private volatile boolean closed;
+    private long cursor;
+    
+    /**
+     * @param lastEventId the last event the client received, or null to send live events only
+     * @param onClose called once when the subscription ends
+     */
+    public InvoiceStreamSubscription(InvoiceStreamFilter filter, Long lastEventId, InvoiceStreamChannel channel,
+                                     ReplaySource replaySource, int queueCapacity, long heartbeatMillis,
+                                     int maxReplay, Consumer<InvoiceStreamSubscription> onClose) {
+        this.filter = filter;
+        this.lastEventId = lastEventId;
+        this.channel = channel;
+        this.replaySource = replaySource;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity + 1);
+        this.heartbeatMillis = heartbeatMillis;
+        this.maxReplay = maxReplay;
+        this.onClose = onClose;
+    }
+    
+    /**
+     * Queue a published event if it matches, disconnecting the client if its queue is full.
+     * Called by the hub in sequence order.
+     */
+    public void offer(InvoiceStreamEvent event) {
+        if (closed || !filter.matches(event)) {
+            return;
+        }
+        if (queue.remainingCapacity() <= 1 || !queue.offer(event)) {
+            close();
+        }
+    }
+    
+    /**
+     * End the subscription; the writing thread completes the connection.
+     */
+    public void close() {
+        if (!closed) {
+            closed = true;
+            queue.clear();
+            queue.offer(CLOSED);
+        }
+    }
+    
+    public boolean isClosed() {
+        return closed;
+    }
+    
+    /**
+     * Write the stream until the subscription is closed or the client goes away.
+     */
+    @Override
+    public void run() {
+        try {
+            if (lastEventId != null) {
+                cursor = lastEventId;
+                replay();
+            }
+            while (!closed) {
+                InvoiceStreamEvent event = queue.poll(heartbeatMillis, TimeUnit.MILLISECONDS);
+                if (event == null) {
+                    channel.heartbeat();
+                } else if (event != CLOSED && event.seq() > cursor) {
+                    channel.send(event.event());
+                    cursor = event.seq();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | RuntimeException e) {
+            // The client went away; it reconnects with its last event ID
+        } finally {
+            closed = true;
+            channel.complete();
+            onClose.accept(this);
+        }
+    }
+    
+    private void replay() throws IOException {
+        int replayed = 0;
+        List<InvoiceStreamEvent> page;
+        do {
+            if (replayed >= maxReplay) {
+                channel.resync();
+                return;
+            }
+            page = replaySource.after(cursor, REPLAY_PAGE_SIZE);
+            for (InvoiceStreamEvent event : page) {
+                if (filter.matches(event)) {
+                    channel.send(event.event());
+                }
+                cursor = event.seq();
+            }
+            replayed += page.size();
+        } while (page.size() == REPLAY_PAGE_SIZE && !closed);
+    }
+}
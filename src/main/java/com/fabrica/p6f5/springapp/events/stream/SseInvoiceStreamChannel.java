@@ -0,0 +1,49 @@
+package com.fabrica.p6f5.springapp.events.stream;
+
+import com.fabrica.p6f5.springapp.events.dto.InvoiceEvent;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+
+/**
+ * Stream channel over Server-Sent Events. Events are named after their type and carry their
+ * sequence number as ID, which the browser sends back as {@code Last-Event-ID} on reconnect.
+ */
+public class SseInvoiceStreamChannel implements InvoiceStreamChannel {
+    
+    /** Event name telling the client to reload its invoices. */
+    public static final String RESYNC_EVENT = "RESYNC";
+    
+    private final SseEmitter emitter;
+    private final long retryMillis;
+    
+    public SseInvoiceStreamChannel(SseEmitter emitter, long retryMillis) {
+        this.emitter = emitter;
+        this.retryMillis = retryMillis;
+    }
+    
+    @Override
+    public void send(InvoiceEvent event) throws IOException {
+        emitter.send(SseEmitter.event()
+            .id(String.valueOf(event.getSeq()))
+            .name(event.getType().name())
+            .reconnectTime(retryMillis)
+            .data(event, MediaType.APPLICATION_JSON));
+    }
+    
+    @Override
+    public void heartbeat() throws IOException {
+        emitter.send(SseEmitter.event().comment("heartbeat"));
+    }
+    
+    @Override
+    public void resync() throws IOException {
+        emitter.send(SseEmitter.event().name(RESYNC_EVENT).data("{}", MediaType.APPLICATION_JSON));
+    }
+    
+    @Override
+    public void complete() {
+        emitter.complete();
+    }
+}
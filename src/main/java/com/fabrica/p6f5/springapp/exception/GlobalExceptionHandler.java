@@ -1,12 +1,15 @@
 package com.fabrica.p6f5.springapp.exception;
 
 import com.fabrica.p6f5.springapp.dto.ApiResponse;
+import com.fabrica.p6f5.springapp.util.Constants;
 import com.fabrica.p6f5.springapp.util.ResponseUtils;
 import jakarta.validation.ConstraintViolationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
@@ -40,6 +43,15 @@ public class GlobalExceptionHandler {
         return ResponseUtils.error(ex.getMessage(), HttpStatus.BAD_REQUEST);
     }
     
+    /**
+     * Handle a stale version detected by JPA when a concurrent edit committed first
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ApiResponse<?>> handleOptimisticLockingFailure(OptimisticLockingFailureException ex) {
+        logger.error("Optimistic locking failure: {}", ex.getMessage());
+        return ResponseUtils.error(Constants.INVOICE_MODIFIED, HttpStatus.BAD_REQUEST);
+    }
+    
     /**
      * Handle MethodArgumentNotValidException
      */
@@ -70,6 +82,15 @@ public class GlobalExceptionHandler {
         return ResponseUtils.error("Constraint violation: " + ex.getMessage(), HttpStatus.BAD_REQUEST);
     }
     
+    /**
+     * Handle AccessDeniedException raised by method security for an authenticated caller
+     */
+    @ExceptionHandler(AccessDeniedException.class)
+    public ResponseEntity<ApiResponse<?>> handleAccessDenied(AccessDeniedException ex) {
+        logger.error("Access denied: {}", ex.getMessage());
+        return ResponseUtils.error("Access denied", HttpStatus.FORBIDDEN);
+    }
+    
     /**
      * Handle all other exceptions
      */
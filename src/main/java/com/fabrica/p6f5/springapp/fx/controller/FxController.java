@@ -0,0 +1,92 @@
+package com.fabrica.p6f5.springapp.fx.controller;
+
+import com.fabrica.p6f5.springapp.dto.ApiResponse;
+import com.fabrica.p6f5.springapp.fx.dto.FxConversionResponse;
+import com.fabrica.p6f5.springapp.fx.dto.FxRateRequest;
+import com.fabrica.p6f5.springapp.fx.dto.ReceivablesReport;
+import com.fabrica.p6f5.springapp.fx.model.FxRate;
+import com.fabrica.p6f5.springapp.fx.service.FxService;
+import com.fabrica.p6f5.springapp.util.ResponseUtils;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * FX Controller following Single Responsibility Principle.
+ * Handles exchange rate and currency conversion HTTP requests.
+ */
+@RestController
+@RequestMapping("/api/v1/fx")
+@Tag(name = "FX API", description = "API for exchange rates and multi-currency totals")
+public class FxController {
+    
+    private final FxService fxService;
+    
+    public FxController(FxService fxService) {
+        this.fxService = fxService;
+    }
+    
+    /**
+     * Get exchange rates
+     */
+    @GetMapping("/rates")
+    @Operation(summary = "Get exchange rates", description = "Retrieves the rates stored in the rate table")
+    public ResponseEntity<ApiResponse<List<FxRate>>> getRates() {
+        return ResponseUtils.success(fxService.getRates(), "Exchange rates retrieved successfully");
+    }
+    
+    /**
+     * Save an exchange rate (Admin only)
+     */
+    @PostMapping("/rates")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Save an exchange rate", description = "Creates or replaces the rate of a pair on a date and reloads the rates")
+    public ResponseEntity<ApiResponse<FxRate>> saveRate(@Valid @RequestBody FxRateRequest request) {
+        return ResponseUtils.created(fxService.saveRate(request), "Exchange rate saved successfully");
+    }
+    
+    /**
+     * Reload exchange rates (Admin only)
+     */
+    @PostMapping("/rates/reload")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Reload exchange rates", description = "Reloads the rates from the rate table and rate file")
+    public ResponseEntity<ApiResponse<Integer>> reload() {
+        return ResponseUtils.success(fxService.reload(), "Exchange rates reloaded successfully");
+    }
+    
+    /**
+     * Convert an amount
+     */
+    @GetMapping("/convert")
+    @Operation(summary = "Convert an amount", description = "Converts an amount with the rate effective on a date")
+    public ResponseEntity<ApiResponse<FxConversionResponse>> convert(
+            @Parameter(description = "Amount to convert") @RequestParam BigDecimal amount,
+            @Parameter(description = "Source currency") @RequestParam String from,
+            @Parameter(description = "Target currency") @RequestParam String to,
+            @Parameter(description = "Rate date, defaults to today")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseUtils.success(fxService.convert(amount, from, to, date), "Amount converted successfully");
+    }
+    
+    /**
+     * Get receivables in a reporting currency
+     */
+    @GetMapping("/receivables")
+    @Operation(summary = "Get receivables", description = "Sums outstanding ISSUED invoices converted into a reporting currency")
+    public ResponseEntity<ApiResponse<ReceivablesReport>> getReceivables(
+            @Parameter(description = "Reporting currency") @RequestParam(defaultValue = "USD") String currency,
+            @Parameter(description = "Rate date, defaults to today")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOf) {
+        return ResponseUtils.success(fxService.getReceivables(currency, asOf), "Receivables retrieved successfully");
+    }
+}
@@ -0,0 +1,24 @@
+package com.fabrica.p6f5.springapp.fx.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * DTO for a single currency conversion.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FxConversionResponse {
+    
+    private BigDecimal amount;
+    private String fromCurrency;
+    private String toCurrency;
+    private LocalDate date;
+    private BigDecimal rate;
+    private BigDecimal convertedAmount;
+}
@@ -0,0 +1,33 @@
+package com.fabrica.p6f5.springapp.fx.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * DTO for creating or replacing an exchange rate.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FxRateRequest {
+    
+    @NotBlank(message = "Base currency is required")
+    private String baseCurrency;
+    
+    @NotBlank(message = "Quote currency is required")
+    private String quoteCurrency;
+    
+    @NotNull(message = "Rate is required")
+    @Positive(message = "Rate must be positive")
+    private BigDecimal rate;
+    
+    @NotNull(message = "Effective date is required")
+    private LocalDate effectiveDate;
+}
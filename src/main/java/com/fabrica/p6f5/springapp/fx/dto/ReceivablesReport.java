@@ -0,0 +1,42 @@
+package com.fabrica.p6f5.springapp.fx.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO for outstanding receivables converted into a reporting currency.
+ * Currencies without a rate on the report date are listed but left out of the total.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReceivablesReport {
+    
+    private String reportingCurrency;
+    private LocalDate asOf;
+    private long invoiceCount;
+    private BigDecimal totalOutstanding;
+    private List<CurrencyReceivable> currencies = new ArrayList<>();
+    private List<String> unconvertedCurrencies = new ArrayList<>();
+    
+    /**
+     * Nested DTO for the receivables of one invoice currency
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CurrencyReceivable {
+        
+        private String currency;
+        private long invoiceCount;
+        private BigDecimal outstanding;
+        private BigDecimal rate;
+        private BigDecimal convertedOutstanding;
+    }
+}
@@ -0,0 +1,68 @@
+package com.fabrica.p6f5.springapp.fx.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * FxRate entity following Single Responsibility Principle.
+ * One unit of the base currency is worth {@code rate} units of the quote currency
+ * from the effective date until the next rate of the same pair.
+ */
+@Entity
+@Table(name = "fx_rates")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FxRate {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "fx_rate_id")
+    private Long id;
+    
+    @NotBlank(message = "Base currency is required")
+    @Column(name = "base_currency", nullable = false, length = 10)
+    private String baseCurrency;
+    
+    @NotBlank(message = "Quote currency is required")
+    @Column(name = "quote_currency", nullable = false, length = 10)
+    private String quoteCurrency;
+    
+    @NotNull(message = "Rate is required")
+    @Positive(message = "Rate must be positive")
+    @Column(name = "rate", nullable = false, precision = 20, scale = 10)
+    private BigDecimal rate;
+    
+    @NotNull(message = "Effective date is required")
+    @Column(name = "effective_date", nullable = false)
+    private LocalDate effectiveDate;
+    
+    @Column(name = "source", nullable = false, length = 50)
+    private String source = "MANUAL";
+    
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now();
+    }
+    
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
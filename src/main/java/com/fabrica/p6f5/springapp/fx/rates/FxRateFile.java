@@ -0,0 +1,79 @@
+package com.fabrica.p6f5.springapp.fx.rates;
+
+import com.fabrica.p6f5.springapp.fx.model.FxRate;
+import com.fabrica.p6f5.springapp.util.Constants;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Reader for a local CSV file of exchange rates.
+ * Each line is {@code base,quote,rate,effective_date}; blank lines, lines starting
+ * with {@code #} and a header line starting with {@code base} are skipped.
+ */
+public final class FxRateFile {
+    
+    public static final String SOURCE = "FILE";
+    
+    private static final String HEADER_PREFIX = "base";
+    private static final String COMMENT_PREFIX = "#";
+    private static final int COLUMNS = 4;
+    
+    private FxRateFile() {
+        // Utility class - prevent instantiation
+    }
+    
+    /**
+     * Read every rate in the file.
+     * 
+     * @throws IllegalArgumentException when a line cannot be parsed
+     */
+    public static List<FxRate> read(Path file) throws IOException {
+        List<FxRate> rates = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                String trimmed = line.trim();
+                if (trimmed.isEmpty() || trimmed.startsWith(COMMENT_PREFIX)
+                        || trimmed.regionMatches(true, 0, HEADER_PREFIX, 0, HEADER_PREFIX.length())) {
+                    continue;
+                }
+                rates.add(parse(trimmed, file, lineNumber));
+            }
+        }
+        return rates;
+    }
+    
+    private static FxRate parse(String line, Path file, int lineNumber) {
+        String[] columns = line.split(",");
+        if (columns.length != COLUMNS) {
+            throw new IllegalArgumentException(
+                String.format(Constants.FX_RATES_FILE_INVALID, file.getFileName(), lineNumber, line));
+        }
+        try {
+            FxRate rate = new FxRate();
+            rate.setBaseCurrency(columns[0].trim().toUpperCase(Locale.ROOT));
+            rate.setQuoteCurrency(columns[1].trim().toUpperCase(Locale.ROOT));
+            rate.setRate(new BigDecimal(columns[2].trim()));
+            rate.setEffectiveDate(LocalDate.parse(columns[3].trim()));
+            rate.setSource(SOURCE);
+            if (rate.getRate().signum() <= 0 || rate.getBaseCurrency().equals(rate.getQuoteCurrency())) {
+                throw new IllegalArgumentException(line);
+            }
+            return rate;
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException(
+                String.format(Constants.FX_RATES_FILE_INVALID, file.getFileName(), lineNumber, line), e);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.fabrica.p6f5.springapp.fx.rates;
+
+import com.fabrica.p6f5.springapp.fx.model.FxRate;
+import com.fabrica.p6f5.springapp.money.CurrencyRules;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Exchange rates compiled into an immutable lookup structure.
+ * Each currency pair holds its effective dates as sorted epoch days next to the
+ * rates, so the rate on a date is a binary search. A pair without a direct rate
+ * is served by the inverse of the opposite pair, or crossed through the pivot
+ * currency. Converting many amounts takes one lookup and then one multiply each.
+ */
+public final class FxRateSnapshot {
+    
+    public static final FxRateSnapshot EMPTY = new FxRateSnapshot(Map.of(), null, 0);
+    
+    private static final MathContext CROSS_RATE_CONTEXT = MathContext.DECIMAL128;
+    
+    private final Map<String, PairRates> pairs;
+    private final String pivotCurrency;
+    private final int rateCount;
+    
+    private FxRateSnapshot(Map<String, PairRates> pairs, String pivotCurrency, int rateCount) {
+        this.pairs = pairs;
+        this.pivotCurrency = pivotCurrency;
+        this.rateCount = rateCount;
+    }
+    
+    /**
+     * Compile a list of rates. When the same pair and date appears twice, the later entry wins.
+     */
+    public static FxRateSnapshot compile(List<FxRate> rates, String pivotCurrency) {
+        Map<String, Map<Long, BigDecimal>> byPair = new HashMap<>();
+        for (FxRate rate : rates) {
+            byPair.computeIfAbsent(key(rate.getBaseCurrency(), rate.getQuoteCurrency()), k -> new HashMap<>())
+                .put(rate.getEffectiveDate().toEpochDay(), rate.getRate());
+        }
+        Map<String, PairRates> pairs = new HashMap<>();
+        int count = 0;
+        for (Map.Entry<String, Map<Long, BigDecimal>> entry : byPair.entrySet()) {
+            List<Map.Entry<Long, BigDecimal>> dated = new ArrayList<>(entry.getValue().entrySet());
+            dated.sort(Map.Entry.comparingByKey(Comparator.naturalOrder()));
+            long[] days = new long[dated.size()];
+            BigDecimal[] values = new BigDecimal[dated.size()];
+            for (int i = 0; i < dated.size(); i++) {
+                days[i] = dated.get(i).getKey();
+                values[i] = dated.get(i).getValue();
+            }
+            pairs.put(entry.getKey(), new PairRates(days, values));
+            count += days.length;
+        }
+        return new FxRateSnapshot(Map.copyOf(pairs), pivotCurrency, count);
+    }
+    
+    /**
+     * Rate to convert one unit of {@code from} into {@code to} on a date.
+     * 
+     * @return the rate, or null when no direct, inverse or pivot rate is effective on that date
+     */
+    public BigDecimal rate(String from, String to, LocalDate date) {
+        if (from.equals(to)) {
+            return BigDecimal.ONE;
+        }
+        long day = date.toEpochDay();
+        BigDecimal direct = pairRate(from, to, day);
+        if (direct != null || pivotCurrency == null || from.equals(pivotCurrency) || to.equals(pivotCurrency)) {
+            return direct;
+        }
+        BigDecimal toPivot = pairRate(from, pivotCurrency, day);
+        BigDecimal fromPivot = toPivot != null ? pairRate(pivotCurrency, to, day) : null;
+        return fromPivot != null ? toPivot.multiply(fromPivot, CROSS_RATE_CONTEXT) : null;
+    }
+    
+    /**
+     * Convert an amount and round it to the scale of the target currency.
+     * 
+     * @return the converted amount, or null when no rate is available
+     */
+    public BigDecimal convert(BigDecimal amount, String from, String to, LocalDate date) {
+        BigDecimal rate = rate(from, to, date);
+        return rate != null ? convert(amount, rate, to) : null;
+    }
+    
+    /**
+     * Convert an amount with a known rate and round it to the scale of the target currency.
+     */
+    public static BigDecimal convert(BigDecimal amount, BigDecimal rate, String to) {
+        return CurrencyRules.round(amount.multiply(rate), to);
+    }
+    
+    public int getRateCount() {
+        return rateCount;
+    }
+    
+    public int getPairCount() {
+        return pairs.size();
+    }
+    
+    private BigDecimal pairRate(String from, String to, long day) {
+        PairRates direct = pairs.get(key(from, to));
+        BigDecimal rate = direct != null ? direct.on(day) : null;
+        if (rate != null) {
+            return rate;
+        }
+        PairRates inverse = pairs.get(key(to, from));
+        BigDecimal inverseRate = inverse != null ? inverse.on(day) : null;
+        return inverseRate != null ? BigDecimal.ONE.divide(inverseRate, CROSS_RATE_CONTEXT) : null;
+    }
+    
+    private static String key(String base, String quote) {
+        return base + '/' + quote;
+    }
+    
+    /**
+     * Rates of one pair in effective-date order.
+     */
+    private record PairRates(long[] days, BigDecimal[] rates) {
+        
+        BigDecimal on(long day) {
+            int index = Arrays.binarySearch(days, day);
+            if (index < 0) {
+                index = -index - 2;
+            }
+            return index >= 0 ? rates[index] : null;
+        }
+    }
+}
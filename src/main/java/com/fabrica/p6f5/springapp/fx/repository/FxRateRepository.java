@@ -0,0 +1,41 @@
+package com.fabrica.p6f5.springapp.fx.repository;
+
+import com.fabrica.p6f5.springapp.fx.model.FxRate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * FX Rate Repository interface following Dependency Inversion Principle.
+ * Defines data access operations for exchange rates.
+ */
+@Repository
+public interface FxRateRepository extends JpaRepository<FxRate, Long> {
+    
+    /**
+     * Find all rates.
+     * 
+     * @return rates ordered by pair and effective date
+     */
+    List<FxRate> findAllByOrderByBaseCurrencyAscQuoteCurrencyAscEffectiveDateAsc();
+    
+    /**
+     * Find the rate of a pair on an exact effective date.
+     * 
+     * @return Optional containing the rate if found
+     */
+    Optional<FxRate> findByBaseCurrencyAndQuoteCurrencyAndEffectiveDate(
+        String baseCurrency, String quoteCurrency, LocalDate effectiveDate);
+    
+    /**
+     * Fingerprint of the rate table used to detect changes: row count and last update.
+     * 
+     * @return a single row of {count, max(updatedAt)}
+     */
+    @Query("SELECT COUNT(r), MAX(r.updatedAt) FROM FxRate r")
+    List<Object[]> findFingerprint();
+}
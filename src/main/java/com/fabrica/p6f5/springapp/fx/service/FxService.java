@@ -0,0 +1,225 @@
+package com.fabrica.p6f5.springapp.fx.service;
+
+import com.fabrica.p6f5.springapp.exception.BusinessException;
+import com.fabrica.p6f5.springapp.fx.dto.FxConversionResponse;
+import com.fabrica.p6f5.springapp.fx.dto.FxRateRequest;
+import com.fabrica.p6f5.springapp.fx.dto.ReceivablesReport;
+import com.fabrica.p6f5.springapp.fx.model.FxRate;
+import com.fabrica.p6f5.springapp.fx.rates.FxRateFile;
+import com.fabrica.p6f5.springapp.fx.rates.FxRateSnapshot;
+import com.fabrica.p6f5.springapp.fx.repository.FxRateRepository;
+import com.fabrica.p6f5.springapp.invoice.model.Invoice;
+import com.fabrica.p6f5.springapp.invoice.repository.InvoiceRepository;
+import com.fabrica.p6f5.springapp.money.CurrencyRules;
+import com.fabrica.p6f5.springapp.util.Constants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * FX Service following Single Responsibility Principle.
+ * Compiles the dated rates of the {@code fx_rates} table, plus an optional local
+ * CSV file, into an immutable {@link FxRateSnapshot} published through an atomic
+ * reference. Conversions read the current snapshot without locking; a reload
+ * builds a new snapshot and swaps it in one step, and a file that fails to parse
+ * leaves the current snapshot in place.
+ */
+@Service
+public class FxService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(FxService.class);
+    
+    private final FxRateRepository fxRateRepository;
+    private final InvoiceRepository invoiceRepository;
+    private final AtomicReference<FxRateSnapshot> snapshot = new AtomicReference<>(FxRateSnapshot.EMPTY);
+    private volatile List<Object> loadedFingerprint;
+    
+    @Value("${billing.fx.rates-file:}")
+    private String ratesFile;
+    
+    @Value("${billing.fx.pivot-currency:USD}")
+    private String pivotCurrency;
+    
+    public FxService(FxRateRepository fxRateRepository, InvoiceRepository invoiceRepository) {
+        this.fxRateRepository = fxRateRepository;
+        this.invoiceRepository = invoiceRepository;
+    }
+    
+    /**
+     * Get the current rate snapshot. The snapshot is immutable, so a caller
+     * converting many amounts sees one consistent set of rates.
+     */
+    public FxRateSnapshot currentRates() {
+        return snapshot.get();
+    }
+    
+    /**
+     * Load the rates once the application is up.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        try {
+            reload();
+        } catch (Exception e) {
+            logger.error("Failed to load FX rates: {}", e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Reload when the rate table or the rate file changed.
+     */
+    @Scheduled(fixedDelayString = "${billing.fx.refresh-interval-ms:60000}")
+    public void refreshIfChanged() {
+        try {
+            if (!Objects.equals(fingerprint(), loadedFingerprint)) {
+                reload();
+            }
+        } catch (Exception e) {
+            logger.error("Failed to refresh FX rates: {}", e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Load every rate and swap the snapshot in atomically. File rates win over
+     * table rates of the same pair and date.
+     * 
+     * @return the number of loaded rates
+     */
+    public synchronized int reload() {
+        List<Object> fingerprint = fingerprint();
+        List<FxRate> rates = new ArrayList<>(fxRateRepository.findAllByOrderByBaseCurrencyAscQuoteCurrencyAscEffectiveDateAsc());
+        Path file = ratesFilePath();
+        if (file != null && Files.isRegularFile(file)) {
+            try {
+                rates.addAll(FxRateFile.read(file));
+            } catch (IOException | IllegalArgumentException e) {
+                throw new BusinessException(e.getMessage());
+            }
+        }
+        FxRateSnapshot compiled = FxRateSnapshot.compile(rates, pivotCurrency);
+        snapshot.set(compiled);
+        loadedFingerprint = fingerprint;
+        logger.info("Loaded {} FX rates for {} currency pairs", compiled.getRateCount(), compiled.getPairCount());
+        return compiled.getRateCount();
+    }
+    
+    /**
+     * Get the rates stored in the rate table.
+     */
+    public List<FxRate> getRates() {
+        return fxRateRepository.findAllByOrderByBaseCurrencyAscQuoteCurrencyAscEffectiveDateAsc();
+    }
+    
+    /**
+     * Create a rate, or replace the rate of the same pair and date.
+     */
+    public FxRate saveRate(FxRateRequest request) {
+        String base = normalize(request.getBaseCurrency());
+        String quote = normalize(request.getQuoteCurrency());
+        if (base.equals(quote)) {
+            throw new BusinessException(Constants.FX_RATE_SAME_CURRENCY);
+        }
+        FxRate rate = fxRateRepository
+            .findByBaseCurrencyAndQuoteCurrencyAndEffectiveDate(base, quote, request.getEffectiveDate())
+            .orElseGet(FxRate::new);
+        rate.setBaseCurrency(base);
+        rate.setQuoteCurrency(quote);
+        rate.setEffectiveDate(request.getEffectiveDate());
+        rate.setRate(request.getRate());
+        FxRate saved = fxRateRepository.save(rate);
+        reload();
+        return saved;
+    }
+    
+    /**
+     * Convert an amount on a date.
+     */
+    public FxConversionResponse convert(BigDecimal amount, String from, String to, LocalDate date) {
+        String fromCurrency = normalize(from);
+        String toCurrency = normalize(to);
+        LocalDate on = date != null ? date : LocalDate.now();
+        BigDecimal rate = requireRate(snapshot.get(), fromCurrency, toCurrency, on);
+        return new FxConversionResponse(amount, fromCurrency, toCurrency, on, rate,
+            FxRateSnapshot.convert(amount, rate, toCurrency));
+    }
+    
+    /**
+     * Get the outstanding amount of ISSUED invoices converted into a reporting currency.
+     * Amounts are summed per currency in the database, so only one conversion per
+     * currency is needed however many invoices are open.
+     */
+    public ReceivablesReport getReceivables(String reportingCurrency, LocalDate asOf) {
+        String target = normalize(reportingCurrency != null ? reportingCurrency : Constants.DEFAULT_CURRENCY);
+        LocalDate on = asOf != null ? asOf : LocalDate.now();
+        FxRateSnapshot rates = snapshot.get();
+        
+        ReceivablesReport report = new ReceivablesReport();
+        report.setReportingCurrency(target);
+        report.setAsOf(on);
+        BigDecimal total = BigDecimal.ZERO;
+        for (InvoiceRepository.CurrencyTotal row : invoiceRepository.sumOutstandingByCurrency(Invoice.InvoiceStatus.ISSUED)) {
+            String currency = row.getCurrency() != null ? row.getCurrency() : Constants.DEFAULT_CURRENCY;
+            BigDecimal outstanding = row.getOutstanding() != null ? row.getOutstanding() : BigDecimal.ZERO;
+            BigDecimal rate = rates.rate(currency, target, on);
+            BigDecimal converted = rate != null ? FxRateSnapshot.convert(outstanding, rate, target) : null;
+            report.getCurrencies().add(new ReceivablesReport.CurrencyReceivable(
+                currency, row.getInvoiceCount(), outstanding, rate, converted));
+            report.setInvoiceCount(report.getInvoiceCount() + row.getInvoiceCount());
+            if (converted != null) {
+                total = total.add(converted);
+            } else {
+                report.getUnconvertedCurrencies().add(currency);
+            }
+        }
+        report.setTotalOutstanding(CurrencyRules.round(total, target));
+        return report;
+    }
+    
+    private static BigDecimal requireRate(FxRateSnapshot rates, String from, String to, LocalDate date) {
+        BigDecimal rate = rates.rate(from, to, date);
+        if (rate == null) {
+            throw new BusinessException(String.format(Constants.FX_RATE_NOT_AVAILABLE, from, to, date));
+        }
+        return rate;
+    }
+    
+    private static String normalize(String currency) {
+        return currency.trim().toUpperCase(Locale.ROOT);
+    }
+    
+    private Path ratesFilePath() {
+        return ratesFile == null || ratesFile.isBlank() ? null : Paths.get(ratesFile);
+    }
+    
+    private List<Object> fingerprint() {
+        List<Object[]> rows = fxRateRepository.findFingerprint();
+        List<Object> fingerprint = new ArrayList<>(rows.isEmpty() ? List.of() : Arrays.asList(rows.get(0)));
+        Path file = ratesFilePath();
+        if (file != null && Files.isRegularFile(file)) {
+            try {
+                fingerprint.add(Files.getLastModifiedTime(file));
+                fingerprint.add(Files.size(file));
+            } catch (IOException e) {
+                fingerprint.add(e.getMessage());
+            }
+        }
+        return fingerprint;
+    }
+}
@@ -0,0 +1,43 @@
+package com.fabrica.p6f5.springapp.graphql.config;
+
+import com.fabrica.p6f5.springapp.service.AuthService;
+import org.springframework.graphql.server.WebGraphQlInterceptor;
+import org.springframework.graphql.server.WebGraphQlRequest;
+import org.springframework.graphql.server.WebGraphQlResponse;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.util.Map;
+
+/**
+ * GraphQL Caller Interceptor.
+ * Identifies who a GraphQL request is charged to: the authenticated user, or the
+ * remote address when no user is bound to the request.
+ */
+@Component
+public class GraphQlCallerInterceptor implements WebGraphQlInterceptor {
+    
+    private final AuthService authService;
+    
+    public GraphQlCallerInterceptor(AuthService authService) {
+        this.authService = authService;
+    }
+    
+    @Override
+    public Mono<WebGraphQlResponse> intercept(WebGraphQlRequest request, Chain chain) {
+        String caller = authService.getCurrentUser()
+            .map(user -> "user:" + user.getId())
+            .orElseGet(() -> "address:" + remoteHost(request.getRemoteAddress()));
+        request.configureExecutionInput((input, builder) ->
+            builder.graphQLContext(Map.of(QueryCostInstrumentation.CALLER_KEY, caller)).build());
+        return chain.next(request);
+    }
+    
+    private static String remoteHost(InetSocketAddress address) {
+        if (address == null) {
+            return "unknown";
+        }
+        return address.getAddress() != null ? address.getAddress().getHostAddress() : address.getHostString();
+    }
+}
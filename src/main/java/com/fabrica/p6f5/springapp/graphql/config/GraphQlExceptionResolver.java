@@ -0,0 +1,35 @@
+package com.fabrica.p6f5.springapp.graphql.config;
+
+import com.fabrica.p6f5.springapp.exception.BusinessException;
+import com.fabrica.p6f5.springapp.exception.ResourceNotFoundException;
+import graphql.GraphQLError;
+import graphql.GraphqlErrorBuilder;
+import graphql.schema.DataFetchingEnvironment;
+import org.springframework.graphql.execution.DataFetcherExceptionResolverAdapter;
+import org.springframework.graphql.execution.ErrorType;
+import org.springframework.stereotype.Component;
+
+/**
+ * GraphQL Exception Resolver.
+ * Maps service exceptions to GraphQL errors the same way GlobalExceptionHandler
+ * maps them to HTTP responses.
+ */
+@Component
+public class GraphQlExceptionResolver extends DataFetcherExceptionResolverAdapter {
+    
+    @Override
+    protected GraphQLError resolveToSingleError(Throwable ex, DataFetchingEnvironment env) {
+        ErrorType errorType;
+        if (ex instanceof ResourceNotFoundException) {
+            errorType = ErrorType.NOT_FOUND;
+        } else if (ex instanceof BusinessException) {
+            errorType = ErrorType.BAD_REQUEST;
+        } else {
+            return null;
+        }
+        return GraphqlErrorBuilder.newError(env)
+            .errorType(errorType)
+            .message(ex.getMessage())
+            .build();
+    }
+}
@@ -0,0 +1,75 @@
+package com.fabrica.p6f5.springapp.graphql.config;
+
+import graphql.GraphQLContext;
+import graphql.execution.CoercedVariables;
+import graphql.language.StringValue;
+import graphql.language.Value;
+import graphql.schema.Coercing;
+import graphql.schema.CoercingParseLiteralException;
+import graphql.schema.CoercingParseValueException;
+import graphql.schema.CoercingSerializeException;
+import graphql.schema.GraphQLScalarType;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.graphql.execution.RuntimeWiringConfigurer;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * GraphQL Scalar Configuration.
+ * Registers the Decimal, Date and DateTime scalars of the schema. All three travel
+ * as strings so amounts keep their exact scale.
+ */
+@Configuration
+public class GraphQlScalarConfig {
+    
+    @Bean
+    public RuntimeWiringConfigurer scalarWiringConfigurer() {
+        return wiring -> wiring
+            .scalar(stringScalar("Decimal", "Exact decimal amount", BigDecimal.class, BigDecimal::new,
+                BigDecimal::toPlainString))
+            .scalar(stringScalar("Date", "ISO-8601 date", LocalDate.class, LocalDate::parse, LocalDate::toString))
+            .scalar(stringScalar("DateTime", "ISO-8601 local date-time", LocalDateTime.class, LocalDateTime::parse,
+                LocalDateTime::toString));
+    }
+    
+    private static <T> GraphQLScalarType stringScalar(String name, String description, Class<T> type,
+                                                      Function<String, T> parser, Function<T, String> formatter) {
+        Coercing<T, String> coercing = new Coercing<>() {
+            
+            @Override
+            public String serialize(Object dataFetcherResult, GraphQLContext context, Locale locale) {
+                if (type.isInstance(dataFetcherResult)) {
+                    return formatter.apply(type.cast(dataFetcherResult));
+                }
+                throw new CoercingSerializeException("Expected " + name + " but was " + dataFetcherResult);
+            }
+            
+            @Override
+            public T parseValue(Object input, GraphQLContext context, Locale locale) {
+                try {
+                    return parser.apply(input.toString());
+                } catch (RuntimeException e) {
+                    throw new CoercingParseValueException("Invalid " + name + ": " + input, e);
+                }
+            }
+            
+            @Override
+            public T parseLiteral(Value<?> input, CoercedVariables variables, GraphQLContext context, Locale locale) {
+                if (!(input instanceof StringValue stringValue)) {
+                    throw new CoercingParseLiteralException("Expected a string literal for " + name);
+                }
+                try {
+                    return parser.apply(stringValue.getValue());
+                } catch (RuntimeException e) {
+                    throw new CoercingParseLiteralException("Invalid " + name + ": " + stringValue.getValue(), e);
+                }
+            }
+        };
+        return GraphQLScalarType.newScalar().name(name).description(description).coercing(coercing).build();
+    }
+}
@@ -0,0 +1,29 @@
+package com.fabrica.p6f5.springapp.graphql.config;
+
+import com.fabrica.p6f5.springapp.graphql.persisted.PersistedDocumentCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.graphql.GraphQlSourceBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Persisted Query Configuration.
+ * Plugs the persisted document cache into the GraphQL engine, so repeated
+ * documents skip parsing and validation and clients may send a hash instead of
+ * the query text.
+ */
+@Configuration
+public class PersistedQueryConfig {
+    
+    @Bean
+    public PersistedDocumentCache persistedDocumentCache(MeterRegistry meterRegistry,
+                                                         @Value("${billing.graphql.documents.cache-size:1000}") int cacheSize) {
+        return new PersistedDocumentCache(meterRegistry, cacheSize);
+    }
+    
+    @Bean
+    public GraphQlSourceBuilderCustomizer persistedDocumentCustomizer(PersistedDocumentCache persistedDocumentCache) {
+        return builder -> builder.configureGraphQl(graphQl -> graphQl.preparsedDocumentProvider(persistedDocumentCache));
+    }
+}
@@ -0,0 +1,215 @@
+package com.fabrica.p6f5.springapp.graphql.config;
+
+import com.fabrica.p6f5.springapp.graphql.cost.CostBudget;
+import com.fabrica.p6f5.springapp.graphql.cost.QueryCost;
+import com.fabrica.p6f5.springapp.graphql.cost.QueryCostCalculator;
+import com.fabrica.p6f5.springapp.util.Constants;
+import graphql.ExecutionResult;
+import graphql.ExecutionResultImpl;
+import graphql.GraphQLContext;
+import graphql.execution.AbortExecutionException;
+import graphql.execution.ExecutionContext;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimpleInstrumentationContext;
+import graphql.execution.instrumentation.SimplePerformantInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationExecuteOperationParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationExecutionParameters;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Query Cost Instrumentation.
+ * Prices every operation before it runs, rejects operations that are too deep or
+ * too costly, charges the rest against the caller's budget and records latency
+ * per operation.
+ */
+@Component
+public class QueryCostInstrumentation extends SimplePerformantInstrumentation {
+    
+    private static final Logger logger = LoggerFactory.getLogger(QueryCostInstrumentation.class);
+    
+    /** GraphQL context key holding the caller the budget is charged to. */
+    public static final String CALLER_KEY = "billing.graphql.caller";
+    
+    private static final String COST_KEY = "billing.graphql.cost";
+    private static final String REMAINING_KEY = "billing.graphql.remaining";
+    private static final String OPERATION_KEY = "billing.graphql.operation";
+    private static final String REJECTED_KEY = "billing.graphql.rejected";
+    private static final String ANONYMOUS = "anonymous";
+    private static final String OTHER_OPERATION = "other";
+    private static final int MAX_OPERATION_TAGS = 200;
+    
+    /** Relations that load JSON payloads weigh more than a plain batch load. */
+    private static final Map<String, Integer> FIELD_WEIGHTS = Map.of(
+        "Invoice.history", 2,
+        "Invoice.auditLogs", 2,
+        "Query.invoiceHistory", 2,
+        "Query.auditLogs", 2);
+    
+    private final MeterRegistry meterRegistry;
+    private final QueryCostCalculator calculator;
+    private final CostBudget budget;
+    private final int maxDepth;
+    private final long maxCost;
+    private final Set<String> operationTags = ConcurrentHashMap.newKeySet();
+    
+    public QueryCostInstrumentation(MeterRegistry meterRegistry,
+                                    @Value("${billing.graphql.max-depth:10}") int maxDepth,
+                                    @Value("${billing.graphql.max-cost:10000}") long maxCost,
+                                    @Value("${billing.graphql.budget.capacity:50000}") long budgetCapacity,
+                                    @Value("${billing.graphql.budget.refill-per-second:500}") long refillPerSecond,
+                                    @Value("${billing.graphql.cost.default-list-size:10}") int defaultListSize) {
+        if (maxCost > budgetCapacity) {
+            throw new IllegalArgumentException("billing.graphql.max-cost must not exceed the budget capacity");
+        }
+        this.meterRegistry = meterRegistry;
+        this.calculator = new QueryCostCalculator(FIELD_WEIGHTS, defaultListSize);
+        this.budget = new CostBudget(budgetCapacity, refillPerSecond);
+        this.maxDepth = maxDepth;
+        this.maxCost = maxCost;
+    }
+    
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecution(InstrumentationExecutionParameters parameters,
+                                                                  InstrumentationState state) {
+        long start = System.nanoTime();
+        GraphQLContext context = parameters.getGraphQLContext();
+        String requestedOperation = parameters.getOperation();
+        return SimpleInstrumentationContext.whenCompleted((result, throwable) ->
+            recordLatency(context, requestedOperation, result, throwable, System.nanoTime() - start));
+    }
+    
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecuteOperation(
+            InstrumentationExecuteOperationParameters parameters, InstrumentationState state) {
+        ExecutionContext executionContext = parameters.getExecutionContext();
+        GraphQLContext context = executionContext.getGraphQLContext();
+        String operation = executionContext.getOperationDefinition().getName();
+        if (operation != null) {
+            context.put(OPERATION_KEY, operation);
+        }
+        
+        QueryCost cost = calculator.calculate(executionContext.getGraphQLSchema(), executionContext.getDocument(),
+            operation, executionContext.getCoercedVariables());
+        context.put(COST_KEY, cost);
+        if (cost.getDepth() > maxDepth) {
+            reject(context, "depth", String.format(Constants.GRAPHQL_QUERY_TOO_DEEP, cost.getDepth(), maxDepth));
+        }
+        if (cost.getCost() > maxCost) {
+            reject(context, "cost", String.format(Constants.GRAPHQL_QUERY_TOO_COSTLY, cost.getCost(), maxCost));
+        }
+        
+        String caller = context.getOrDefault(CALLER_KEY, ANONYMOUS);
+        long remaining = budget.tryConsume(caller, cost.getCost(), System.nanoTime());
+        if (remaining < 0) {
+            long available = -1 - remaining;
+            reject(context, "budget", String.format(Constants.GRAPHQL_BUDGET_EXHAUSTED, cost.getCost(), available,
+                budget.secondsUntilAvailable(available, cost.getCost())));
+        }
+        context.put(REMAINING_KEY, remaining);
+        
+        DistributionSummary.builder("graphql.operation.cost")
+            .description("Static cost of admitted GraphQL operations")
+            .tag("operation", operationTag(operation))
+            .register(meterRegistry)
+            .record(cost.getCost());
+        return super.beginExecuteOperation(parameters, state);
+    }
+    
+    /**
+     * Report the charged cost and the caller's remaining budget in the response extensions.
+     */
+    @Override
+    public CompletableFuture<ExecutionResult> instrumentExecutionResult(ExecutionResult executionResult,
+                                                                       InstrumentationExecutionParameters parameters,
+                                                                       InstrumentationState state) {
+        GraphQLContext context = parameters.getGraphQLContext();
+        QueryCost cost = context.get(COST_KEY);
+        if (cost == null) {
+            return CompletableFuture.completedFuture(executionResult);
+        }
+        Map<String, Object> extension = new LinkedHashMap<>();
+        extension.put("requested", cost.getCost());
+        extension.put("depth", cost.getDepth());
+        extension.put("limit", maxCost);
+        Long remaining = context.get(REMAINING_KEY);
+        if (remaining != null) {
+            extension.put("remaining", remaining);
+        }
+        return CompletableFuture.completedFuture(ExecutionResultImpl.newExecutionResult()
+            .from(executionResult)
+            .addExtension("cost", extension)
+            .build());
+    }
+    
+    /**
+     * Drop the budgets of callers that have been idle long enough to refill.
+     */
+    @Scheduled(fixedDelayString = "${billing.graphql.budget.evict-interval-ms:60000}")
+    public void evictIdleBudgets() {
+        budget.evictIdle(System.nanoTime());
+    }
+    
+    private void reject(GraphQLContext context, String reason, String message) {
+        context.put(REJECTED_KEY, reason);
+        Counter.builder("graphql.operation.rejected")
+            .description("GraphQL operations rejected by the cost analyzer")
+            .tag("reason", reason)
+            .register(meterRegistry)
+            .increment();
+        logger.debug("Rejected GraphQL operation from {}: {}", context.getOrDefault(CALLER_KEY, ANONYMOUS), message);
+        throw new AbortExecutionException(message);
+    }
+    
+    private void recordLatency(GraphQLContext context, String requestedOperation, ExecutionResult result,
+                               Throwable throwable, long nanos) {
+        String outcome;
+        if (context.hasKey(REJECTED_KEY)) {
+            outcome = "rejected";
+        } else if (throwable != null || result == null || !result.getErrors().isEmpty()) {
+            outcome = "error";
+        } else {
+            outcome = "success";
+        }
+        String operation = context.getOrDefault(OPERATION_KEY, requestedOperation);
+        Timer.builder("graphql.operation")
+            .description("GraphQL operation latency")
+            .tag("operation", operationTag(operation))
+            .tag("outcome", outcome)
+            .publishPercentileHistogram()
+            .register(meterRegistry)
+            .record(nanos, TimeUnit.NANOSECONDS);
+    }
+    
+    /**
+     * Operation names come from clients, so only the first few distinct names get their own tag.
+     */
+    private String operationTag(String operation) {
+        if (operation == null || operation.isEmpty()) {
+            return ANONYMOUS;
+        }
+        if (operationTags.contains(operation)) {
+            return operation;
+        }
+        if (operationTags.size() < MAX_OPERATION_TAGS) {
+            operationTags.add(operation);
+            return operation;
+        }
+        return OTHER_OPERATION;
+    }
+}
@@ -0,0 +1,85 @@
+package com.fabrica.p6f5.springapp.graphql.controller;
+
+import com.fabrica.p6f5.springapp.exception.BusinessException;
+import com.fabrica.p6f5.springapp.util.Constants;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Helpers shared by the GraphQL controllers for paging arguments and for lining
+ * batch loader results up with the keys they were requested for.
+ */
+final class BatchResults {
+    
+    static final int DEFAULT_PAGE_SIZE = 20;
+    static final int MAX_PAGE_SIZE = 100;
+    
+    private BatchResults() {
+    }
+    
+    /**
+     * Group rows by key, returning one (possibly empty) list per requested key.
+     */
+    static <T> List<List<T>> grouped(List<Long> keys, List<T> rows, Function<T, Long> keyOf) {
+        Map<Long, List<T>> byKey = new HashMap<>();
+        for (T row : rows) {
+            byKey.computeIfAbsent(keyOf.apply(row), k -> new ArrayList<>()).add(row);
+        }
+        List<List<T>> results = new ArrayList<>(keys.size());
+        for (Long key : keys) {
+            results.add(byKey.getOrDefault(key, List.of()));
+        }
+        return results;
+    }
+    
+    /**
+     * Look up one value per requested key; missing keys resolve to null.
+     */
+    static <T> List<T> aligned(List<Long> keys, Map<Long, T> byKey) {
+        List<T> results = new ArrayList<>(keys.size());
+        for (Long key : keys) {
+            results.add(key != null ? byKey.get(key) : null);
+        }
+        return results;
+    }
+    
+    /**
+     * Index rows by their ID.
+     */
+    static <T> Map<Long, T> indexed(List<T> rows, Function<T, Long> idOf) {
+        Map<Long, T> byId = new HashMap<>();
+        for (T row : rows) {
+            byId.put(idOf.apply(row), row);
+        }
+        return byId;
+    }
+    
+    /**
+     * Validate the requested page size, defaulting when absent.
+     */
+    static int pageSize(Integer first) {
+        int size = first != null ? first : DEFAULT_PAGE_SIZE;
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new BusinessException(String.format(Constants.GRAPHQL_INVALID_PAGE_SIZE, MAX_PAGE_SIZE));
+        }
+        return size;
+    }
+    
+    /**
+     * Decode an {@code after} cursor into the keyset ID it stands for.
+     */
+    static long afterId(String after) {
+        if (after == null || after.isEmpty()) {
+            return 0L;
+        }
+        try {
+            return Long.parseLong(after);
+        } catch (NumberFormatException e) {
+            throw new BusinessException(String.format(Constants.GRAPHQL_INVALID_CURSOR, after));
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.fabrica.p6f5.springapp.graphql.controller;
+
+import com.fabrica.p6f5.springapp.graphql.dto.AuditLogNode;
+import com.fabrica.p6f5.springapp.graphql.dto.Connection;
+import com.fabrica.p6f5.springapp.graphql.dto.InvoiceHistoryNode;
+import com.fabrica.p6f5.springapp.graphql.dto.InvoiceItemNode;
+import com.fabrica.p6f5.springapp.graphql.dto.InvoiceNode;
+import com.fabrica.p6f5.springapp.graphql.dto.ShipmentNode;
+import com.fabrica.p6f5.springapp.graphql.repository.GraphQueryRepository;
+import com.fabrica.p6f5.springapp.util.Constants;
+import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.BatchMapping;
+import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.stereotype.Controller;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Invoice GraphQL Controller.
+ * Resolves invoice queries; nested relations are batch loaded so a page of
+ * invoices costs one statement per selected relation.
+ */
+@Controller
+public class InvoiceGraphController {
+    
+    private static final LocalDateTime UNBOUNDED = LocalDateTime.of(1970, 1, 1, 0, 0);
+    
+    private final GraphQueryRepository graphQueryRepository;
+    
+    public InvoiceGraphController(GraphQueryRepository graphQueryRepository) {
+        this.graphQueryRepository = graphQueryRepository;
+    }
+    
+    @QueryMapping
+    public InvoiceNode invoice(@Argument Long id) {
+        List<InvoiceNode> invoices = graphQueryRepository.findInvoicesByIds(List.of(id));
+        return invoices.isEmpty() ? null : invoices.get(0);
+    }
+    
+    @QueryMapping
+    public Connection<InvoiceNode> invoices(@Argument Integer first, @Argument String after, @Argument String status) {
+        int pageSize = BatchResults.pageSize(first);
+        List<InvoiceNode> rows = graphQueryRepository.findInvoicePage(BatchResults.afterId(after), pageSize + 1, status);
+        return Connection.of(rows, pageSize, InvoiceNode::getId);
+    }
+    
+    @QueryMapping
+    public List<InvoiceHistoryNode> invoiceHistory(@Argument Long invoiceId) {
+        return graphQueryRepository.findHistoryByInvoiceIds(List.of(invoiceId), UNBOUNDED);
+    }
+    
+    @QueryMapping
+    public List<AuditLogNode> auditLogs(@Argument String entityType, @Argument Long entityId) {
+        return graphQueryRepository.findAuditLogsByEntityIds(entityType, List.of(entityId), UNBOUNDED);
+    }
+    
+    @BatchMapping(typeName = "Invoice", field = "items")
+    public List<List<InvoiceItemNode>> items(List<InvoiceNode> invoices) {
+        List<Long> invoiceIds = idsOf(invoices);
+        return BatchResults.grouped(invoiceIds, graphQueryRepository.findItemsByInvoiceIds(invoiceIds),
+            InvoiceItemNode::getInvoiceId);
+    }
+    
+    @BatchMapping(typeName = "Invoice", field = "shipments")
+    public List<List<ShipmentNode>> shipments(List<InvoiceNode> invoices) {
+        List<Long> invoiceIds = idsOf(invoices);
+        Map<Long, List<ShipmentNode>> shipments = graphQueryRepository.findShipmentsByInvoiceIds(invoiceIds);
+        List<List<ShipmentNode>> results = new ArrayList<>(invoiceIds.size());
+        for (Long invoiceId : invoiceIds) {
+            results.add(shipments.getOrDefault(invoiceId, List.of()));
+        }
+        return results;
+    }
+    
+    @BatchMapping(typeName = "Invoice", field = "history")
+    public List<List<InvoiceHistoryNode>> history(List<InvoiceNode> invoices) {
+        List<Long> invoiceIds = idsOf(invoices);
+        return BatchResults.grouped(invoiceIds,
+            graphQueryRepository.findHistoryByInvoiceIds(invoiceIds, createdSince(invoices)),
+            InvoiceHistoryNode::getInvoiceId);
+    }
+    
+    @BatchMapping(typeName = "Invoice", field = "auditLogs")
+    public List<List<AuditLogNode>> auditLogs(List<InvoiceNode> invoices) {
+        List<Long> invoiceIds = idsOf(invoices);
+        return BatchResults.grouped(invoiceIds,
+            graphQueryRepository.findAuditLogsByEntityIds(Constants.ENTITY_TYPE_INVOICE, invoiceIds,
+                createdSince(invoices)),
+            AuditLogNode::getEntityId);
+    }
+    
+    @BatchMapping(typeName = "InvoiceItem", field = "shipment")
+    public List<ShipmentNode> shipment(List<InvoiceItemNode> items) {
+        List<Long> shipmentIds = new ArrayList<>(items.size());
+        Set<Long> distinctIds = new LinkedHashSet<>();
+        for (InvoiceItemNode item : items) {
+            shipmentIds.add(item.getShipmentId());
+            if (item.getShipmentId() != null) {
+                distinctIds.add(item.getShipmentId());
+            }
+        }
+        if (distinctIds.isEmpty()) {
+            return BatchResults.aligned(shipmentIds, Map.of());
+        }
+        return BatchResults.aligned(shipmentIds, BatchResults.indexed(
+            graphQueryRepository.findShipmentsByIds(distinctIds), ShipmentNode::getId));
+    }
+    
+    /**
+     * Earliest creation time in a batch, less a day of slack. Audit rows of an
+     * invoice are never older than the invoice, so this prunes older partitions.
+     */
+    private static LocalDateTime createdSince(List<InvoiceNode> invoices) {
+        LocalDateTime since = null;
+        for (InvoiceNode invoice : invoices) {
+            if (invoice.getCreatedAt() == null) {
+                return UNBOUNDED;
+            }
+            if (since == null || invoice.getCreatedAt().isBefore(since)) {
+                since = invoice.getCreatedAt();
+            }
+        }
+        return since != null ? since.minusDays(1).truncatedTo(ChronoUnit.DAYS) : UNBOUNDED;
+    }
+    
+    private static List<Long> idsOf(List<InvoiceNode> invoices) {
+        List<Long> ids = new ArrayList<>(invoices.size());
+        for (InvoiceNode invoice : invoices) {
+            ids.add(invoice.getId());
+        }
+        return ids;
+    }
+}
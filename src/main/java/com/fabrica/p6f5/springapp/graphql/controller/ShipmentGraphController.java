@@ -0,0 +1,49 @@
+package com.fabrica.p6f5.springapp.graphql.controller;
+
+import com.fabrica.p6f5.springapp.graphql.dto.Connection;
+import com.fabrica.p6f5.springapp.graphql.dto.InvoiceNode;
+import com.fabrica.p6f5.springapp.graphql.dto.ShipmentNode;
+import com.fabrica.p6f5.springapp.graphql.repository.GraphQueryRepository;
+import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.BatchMapping;
+import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.stereotype.Controller;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shipment GraphQL Controller.
+ * Resolves shipment queries and batch loads the invoice each shipment is linked to.
+ */
+@Controller
+public class ShipmentGraphController {
+    
+    private final GraphQueryRepository graphQueryRepository;
+    
+    public ShipmentGraphController(GraphQueryRepository graphQueryRepository) {
+        this.graphQueryRepository = graphQueryRepository;
+    }
+    
+    @QueryMapping
+    public ShipmentNode shipment(@Argument Long id) {
+        List<ShipmentNode> shipments = graphQueryRepository.findShipmentsByIds(List.of(id));
+        return shipments.isEmpty() ? null : shipments.get(0);
+    }
+    
+    @QueryMapping
+    public Connection<ShipmentNode> shipments(@Argument Integer first, @Argument String after, @Argument String status) {
+        int pageSize = BatchResults.pageSize(first);
+        List<ShipmentNode> rows = graphQueryRepository.findShipmentPage(BatchResults.afterId(after), pageSize + 1, status);
+        return Connection.of(rows, pageSize, ShipmentNode::getId);
+    }
+    
+    @BatchMapping(typeName = "Shipment", field = "invoice")
+    public List<InvoiceNode> invoice(List<ShipmentNode> shipments) {
+        List<Long> shipmentIds = new ArrayList<>(shipments.size());
+        for (ShipmentNode shipment : shipments) {
+            shipmentIds.add(shipment.getId());
+        }
+        return BatchResults.aligned(shipmentIds, graphQueryRepository.findInvoicesByShipmentIds(shipmentIds));
+    }
+}
@@ -0,0 +1,107 @@
+package com.fabrica.p6f5.springapp.graphql.cost;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-caller query cost budget.
+ * <p>
+ * Each caller has a token bucket of {@code capacity} cost units that refills at
+ * {@code refillPerSecond}. A query is admitted only if its whole cost fits in the
+ * bucket; rejected queries take nothing. A bucket is only read and changed inside
+ * the map's per-key compute, so charges and eviction of the same caller never interleave.
+ */
+public class CostBudget {
+    
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    
+    private final long capacity;
+    private final long refillPerSecond;
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+    
+    public CostBudget(long capacity, long refillPerSecond) {
+        if (capacity <= 0 || refillPerSecond <= 0) {
+            throw new IllegalArgumentException("Budget capacity and refill rate must be positive");
+        }
+        this.capacity = capacity;
+        this.refillPerSecond = refillPerSecond;
+    }
+    
+    /**
+     * Take {@code cost} units from the caller's bucket.
+     * 
+     * @return the units left after the charge, or -1 - available when the cost does not fit
+     */
+    public long tryConsume(String caller, long cost, long nowNanos) {
+        long[] outcome = new long[1];
+        buckets.compute(caller, (key, current) -> {
+            Bucket bucket = current != null ? current : new Bucket(capacity, nowNanos);
+            refill(bucket, nowNanos);
+            if (cost > bucket.tokens) {
+                outcome[0] = -1 - bucket.tokens;
+            } else {
+                bucket.tokens -= cost;
+                outcome[0] = bucket.tokens;
+            }
+            return bucket;
+        });
+        return outcome[0];
+    }
+    
+    /**
+     * Seconds until a bucket holding {@code available} units can pay {@code cost}.
+     */
+    public long secondsUntilAvailable(long available, long cost) {
+        long missing = Math.min(cost, capacity) - available;
+        return missing <= 0 ? 0 : (missing + refillPerSecond - 1) / refillPerSecond;
+    }
+    
+    /**
+     * Drop buckets that have refilled completely; they are recreated full on demand.
+     */
+    public void evictIdle(long nowNanos) {
+        for (String caller : buckets.keySet()) {
+            buckets.computeIfPresent(caller, (key, bucket) -> {
+                refill(bucket, nowNanos);
+                return bucket.tokens >= capacity ? null : bucket;
+            });
+        }
+    }
+    
+    public long getCapacity() {
+        return capacity;
+    }
+    
+    int size() {
+        return buckets.size();
+    }
+    
+    private void refill(Bucket bucket, long nowNanos) {
+        long elapsed = nowNanos - bucket.refilledAt;
+        if (elapsed <= 0) {
+            return;
+        }
+        long missing = capacity - bucket.tokens;
+        if (missing == 0 || elapsed >= missing * NANOS_PER_SECOND / refillPerSecond) {
+            bucket.tokens = capacity;
+            bucket.refilledAt = nowNanos;
+            return;
+        }
+        long units = elapsed * refillPerSecond / NANOS_PER_SECOND;
+        if (units > 0) {
+            bucket.tokens += units;
+            bucket.refilledAt += units * NANOS_PER_SECOND / refillPerSecond;
+        }
+    }
+    
+    private static final class Bucket {
+        
+        private long tokens;
+        private long refilledAt;
+        
+        private Bucket(long tokens, long refilledAt) {
+            this.tokens = tokens;
+            this.refilledAt = refilledAt;
+        }
+    }
+}
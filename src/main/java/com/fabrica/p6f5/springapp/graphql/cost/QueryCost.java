@@ -0,0 +1,23 @@
+package com.fabrica.p6f5.springapp.graphql.cost;
+
+/**
+ * Static cost and depth of a GraphQL operation, computed before it runs.
+ */
+public final class QueryCost {
+    
+    private final long cost;
+    private final int depth;
+    
+    public QueryCost(long cost, int depth) {
+        this.cost = cost;
+        this.depth = depth;
+    }
+    
+    public long getCost() {
+        return cost;
+    }
+    
+    public int getDepth() {
+        return depth;
+    }
+}
@@ -0,0 +1,127 @@
+package com.fabrica.p6f5.springapp.graphql.cost;
+
+import graphql.analysis.QueryTraverser;
+import graphql.analysis.QueryVisitorFieldEnvironment;
+import graphql.analysis.QueryVisitorStub;
+import graphql.execution.CoercedVariables;
+import graphql.language.Document;
+import graphql.schema.GraphQLFieldsContainer;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.GraphQLType;
+import graphql.schema.GraphQLTypeUtil;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Computes the cost of a GraphQL operation from field weights and page sizes.
+ * <p>
+ * A field costs its weight plus its children's cost times the number of rows it
+ * fans out to: the {@code first} argument for paged fields, a default list size
+ * for other list fields and one for everything else. Connection {@code edges}
+ * are already counted by their paged parent. Leaf fields and connection wrappers
+ * are free, object fields weigh one (one batch load) unless overridden by
+ * {@code Type.field}. Introspection ({@code __schema}, {@code __type}) is free and
+ * does not count towards the depth.
+ */
+public class QueryCostCalculator {
+    
+    private static final String PAGE_SIZE_ARGUMENT = "first";
+    private static final String EDGES_FIELD = "edges";
+    private static final String INTROSPECTION_PREFIX = "__";
+    private static final Set<String> CONNECTION_FIELDS = Set.of(EDGES_FIELD, "node", "pageInfo");
+    
+    private final Map<String, Integer> fieldWeights;
+    private final int defaultListSize;
+    
+    public QueryCostCalculator(Map<String, Integer> fieldWeights, int defaultListSize) {
+        this.fieldWeights = Map.copyOf(fieldWeights);
+        this.defaultListSize = defaultListSize;
+    }
+    
+    /**
+     * Calculate the cost and depth of one operation of a document.
+     * 
+     * @param operationName the operation to analyse, or null for the only one
+     */
+    public QueryCost calculate(GraphQLSchema schema, Document document, String operationName,
+                               CoercedVariables variables) {
+        QueryTraverser traverser = QueryTraverser.newQueryTraverser()
+            .schema(schema)
+            .document(document)
+            .operationName(operationName)
+            .coercedVariables(variables)
+            .build();
+        
+        Map<QueryVisitorFieldEnvironment, Long> childCosts = new HashMap<>();
+        int[] maxDepth = {0};
+        traverser.visitPostOrder(new QueryVisitorStub() {
+            @Override
+            public void visitField(QueryVisitorFieldEnvironment env) {
+                if (env.isTypeNameIntrospectionField()) {
+                    return;
+                }
+                long cost = fieldCost(env, childCosts.getOrDefault(env, 0L));
+                childCosts.merge(env.getParentEnvironment(), cost, QueryCostCalculator::saturatedAdd);
+                if (!isIntrospection(env)) {
+                    maxDepth[0] = Math.max(maxDepth[0], depthOf(env));
+                }
+            }
+        });
+        return new QueryCost(childCosts.getOrDefault(null, 0L), maxDepth[0]);
+    }
+    
+    private long fieldCost(QueryVisitorFieldEnvironment env, long childCost) {
+        if (env.getFieldDefinition().getName().startsWith(INTROSPECTION_PREFIX)) {
+            return 0L;
+        }
+        GraphQLType type = GraphQLTypeUtil.unwrapNonNull(env.getFieldDefinition().getType());
+        if (!(GraphQLTypeUtil.unwrapAll(type) instanceof GraphQLFieldsContainer)) {
+            return 0L;
+        }
+        String name = env.getFieldDefinition().getName();
+        String key = env.getFieldsContainer().getName() + "." + name;
+        long weight = fieldWeights.getOrDefault(key, CONNECTION_FIELDS.contains(name) ? 0 : 1);
+        return saturatedAdd(weight, saturatedMultiply(fanOut(env, type), childCost));
+    }
+    
+    private long fanOut(QueryVisitorFieldEnvironment env, GraphQLType type) {
+        Object pageSize = env.getArguments().get(PAGE_SIZE_ARGUMENT);
+        if (pageSize instanceof Number number) {
+            return Math.max(number.longValue(), 0L);
+        }
+        if (!GraphQLTypeUtil.isList(type) || EDGES_FIELD.equals(env.getFieldDefinition().getName())) {
+            return 1L;
+        }
+        return defaultListSize;
+    }
+    
+    private static boolean isIntrospection(QueryVisitorFieldEnvironment env) {
+        for (QueryVisitorFieldEnvironment current = env; current != null; current = current.getParentEnvironment()) {
+            if (current.getFieldDefinition().getName().startsWith(INTROSPECTION_PREFIX)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static int depthOf(QueryVisitorFieldEnvironment env) {
+        int depth = 0;
+        for (QueryVisitorFieldEnvironment current = env; current != null; current = current.getParentEnvironment()) {
+            depth++;
+        }
+        return depth;
+    }
+    
+    private static long saturatedAdd(long a, long b) {
+        long sum = a + b;
+        return ((a ^ sum) & (b ^ sum)) < 0 ? Long.MAX_VALUE : sum;
+    }
+    
+    private static long saturatedMultiply(long a, long b) {
+        long high = Math.multiplyHigh(a, b);
+        long product = a * b;
+        return high != 0 || product < 0 ? Long.MAX_VALUE : product;
+    }
+}
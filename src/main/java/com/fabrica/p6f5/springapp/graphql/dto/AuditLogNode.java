@@ -0,0 +1,27 @@
+package com.fabrica.p6f5.springapp.graphql.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * GraphQL view of an audit log entry.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditLogNode {
+    
+    private Long id;
+    private String entityType;
+    private Long entityId;
+    private String action;
+    private Long changedBy;
+    private String changeSummary;
+    private String oldData;
+    private String newData;
+    private String changes;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,62 @@
+package com.fabrica.p6f5.springapp.graphql.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Generic GraphQL cursor connection DTO.
+ * Cursors are the keyset ID of the node; pass {@code pageInfo.endCursor} as {@code after}
+ * to fetch the following page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Connection<T> {
+    
+    private List<Edge<T>> edges;
+    private PageInfo pageInfo;
+    
+    /**
+     * Build a connection from a result fetched with one extra row to detect more data.
+     */
+    public static <T> Connection<T> of(List<T> rows, int first, Function<T, Long> cursorOf) {
+        boolean hasNextPage = rows.size() > first;
+        int size = Math.min(rows.size(), first);
+        List<Edge<T>> edges = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            T node = rows.get(i);
+            edges.add(new Edge<>(String.valueOf(cursorOf.apply(node)), node));
+        }
+        String endCursor = edges.isEmpty() ? null : edges.get(edges.size() - 1).getCursor();
+        return new Connection<>(edges, new PageInfo(hasNextPage, endCursor));
+    }
+    
+    /**
+     * Nested DTO for a connection edge
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Edge<T> {
+        
+        private String cursor;
+        private T node;
+    }
+    
+    /**
+     * Nested DTO for connection paging state
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PageInfo {
+        
+        private boolean hasNextPage;
+        private String endCursor;
+    }
+}
@@ -0,0 +1,26 @@
+package com.fabrica.p6f5.springapp.graphql.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * GraphQL view of an invoice history version.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvoiceHistoryNode {
+    
+    private Long id;
+    private Long invoiceId;
+    private Integer version;
+    private String invoiceNumber;
+    private String fiscalFolio;
+    private String invoiceData;
+    private Long createdBy;
+    private LocalDateTime createdAt;
+    private Boolean isReverted;
+}
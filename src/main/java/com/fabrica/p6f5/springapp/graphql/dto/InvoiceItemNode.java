@@ -0,0 +1,25 @@
+package com.fabrica.p6f5.springapp.graphql.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * GraphQL view of an invoice item. The shipment is resolved from {@code shipmentId} by a batch loader.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvoiceItemNode {
+    
+    private Long id;
+    private Long invoiceId;
+    private Long shipmentId;
+    private String description;
+    private Integer quantity;
+    private BigDecimal unitPrice;
+    private BigDecimal totalPrice;
+    private BigDecimal taxAmount;
+}
@@ -0,0 +1,35 @@
+package com.fabrica.p6f5.springapp.graphql.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * GraphQL view of an invoice. Relations are resolved by batch loaders, not held here.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvoiceNode {
+    
+    private Long id;
+    private String invoiceNumber;
+    private String fiscalFolio;
+    private String clientName;
+    private LocalDate invoiceDate;
+    private LocalDate dueDate;
+    private BigDecimal subtotal;
+    private BigDecimal taxAmount;
+    private BigDecimal totalAmount;
+    private BigDecimal amountPaid;
+    private String currency;
+    private String taxRegion;
+    private String status;
+    private Integer version;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,28 @@
+package com.fabrica.p6f5.springapp.graphql.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * GraphQL view of a shipment.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShipmentNode {
+    
+    private Long id;
+    private String trackingNumber;
+    private String clientName;
+    private String originAddress;
+    private String destinationAddress;
+    private BigDecimal totalWeight;
+    private BigDecimal totalVolume;
+    private String status;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,165 @@
+package com.fabrica.p6f5.springapp.graphql.persisted;
+
+import com.fabrica.p6f5.springapp.util.LruCache;
+import graphql.ExecutionInput;
+import graphql.ParseAndValidate;
+import graphql.ParseAndValidateResult;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.PreparsedDocumentProvider;
+import graphql.execution.preparsed.persisted.PersistedQueryIdInvalid;
+import graphql.execution.preparsed.persisted.PersistedQueryNotFound;
+import graphql.schema.GraphQLSchema;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Persisted Document Cache.
+ * <p>
+ * Keeps parsed and validated documents in a bounded LRU keyed by the SHA-256 of
+ * the query text, and implements automatic persisted queries: a request carrying
+ * {@code extensions.persistedQuery.sha256Hash} may omit the query once the server
+ * has seen it. Unknown hashes answer {@code PersistedQueryNotFound} so the client
+ * resends the full query. Documents with errors are never cached.
+ */
+public class PersistedDocumentCache implements PreparsedDocumentProvider {
+    
+    private static final String PERSISTED_QUERY_EXTENSION = "persistedQuery";
+    private static final String HASH_KEY = "sha256Hash";
+    
+    private final LruCache<String, CachedDocument> documents;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter notFound;
+    private final Counter parseTimeSaved;
+    private final Timer parseTime;
+    
+    public PersistedDocumentCache(MeterRegistry meterRegistry, int capacity) {
+        this.documents = new LruCache<>(capacity);
+        this.hits = cacheCounter(meterRegistry, "hit");
+        this.misses = cacheCounter(meterRegistry, "miss");
+        this.notFound = cacheCounter(meterRegistry, "not_found");
+        this.parseTimeSaved = Counter.builder("graphql.documents.parse.saved")
+            .description("Parse and validation time skipped thanks to cached documents")
+            .baseUnit("seconds")
+            .register(meterRegistry);
+        this.parseTime = Timer.builder("graphql.documents.parse")
+            .description("Parse and validation time of uncached documents")
+            .register(meterRegistry);
+        Gauge.builder("graphql.documents.cache.size", documents, LruCache::size)
+            .description("Documents held in the persisted document cache")
+            .register(meterRegistry);
+        Gauge.builder("graphql.documents.cache.evictions", documents, LruCache::getEvictions)
+            .description("Documents evicted from the persisted document cache")
+            .register(meterRegistry);
+    }
+    
+    @Override
+    public CompletableFuture<PreparsedDocumentEntry> getDocumentAsync(
+            ExecutionInput executionInput, Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidateFunction) {
+        String query = executionInput.getQuery();
+        String requestedHash = requestedHash(executionInput);
+        boolean hasQuery = query != null && !query.isBlank();
+        
+        if (!hasQuery && requestedHash == null) {
+            return CompletableFuture.completedFuture(parseAndValidateFunction.apply(executionInput));
+        }
+        if (!hasQuery) {
+            CachedDocument cached = documents.get(requestedHash);
+            if (cached == null) {
+                notFound.increment();
+                return CompletableFuture.completedFuture(
+                    new PreparsedDocumentEntry(new PersistedQueryNotFound(requestedHash)));
+            }
+            return CompletableFuture.completedFuture(hit(cached));
+        }
+        
+        String hash = sha256(query);
+        if (requestedHash != null && !requestedHash.equalsIgnoreCase(hash)) {
+            return CompletableFuture.completedFuture(
+                new PreparsedDocumentEntry(new PersistedQueryIdInvalid(requestedHash)));
+        }
+        CachedDocument cached = documents.get(hash);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(hit(cached));
+        }
+        misses.increment();
+        long start = System.nanoTime();
+        PreparsedDocumentEntry entry = parseAndValidateFunction.apply(executionInput);
+        long elapsed = System.nanoTime() - start;
+        parseTime.record(elapsed, TimeUnit.NANOSECONDS);
+        if (!entry.hasErrors()) {
+            documents.put(hash, new CachedDocument(entry, elapsed));
+        }
+        return CompletableFuture.completedFuture(entry);
+    }
+    
+    /**
+     * Parse, validate and cache a known query ahead of its first request.
+     * 
+     * @return true if the query is valid against the schema and was cached
+     */
+    public boolean preload(GraphQLSchema schema, String query) {
+        long start = System.nanoTime();
+        ParseAndValidateResult result = ParseAndValidate.parseAndValidate(schema,
+            ExecutionInput.newExecutionInput(query).build());
+        long elapsed = System.nanoTime() - start;
+        if (result.isFailure()) {
+            return false;
+        }
+        documents.put(sha256(query),
+            new CachedDocument(new PreparsedDocumentEntry(result.getDocument()), elapsed));
+        return true;
+    }
+    
+    /**
+     * SHA-256 of a query as lower-case hex, the persisted query ID clients send.
+     */
+    public static String sha256(String query) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(query.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+    
+    public int size() {
+        return documents.size();
+    }
+    
+    private PreparsedDocumentEntry hit(CachedDocument cached) {
+        hits.increment();
+        parseTimeSaved.increment(cached.parseNanos() / 1_000_000_000.0);
+        return cached.entry();
+    }
+    
+    private static String requestedHash(ExecutionInput executionInput) {
+        Map<String, Object> extensions = executionInput.getExtensions();
+        if (extensions == null || !(extensions.get(PERSISTED_QUERY_EXTENSION) instanceof Map<?, ?> persistedQuery)) {
+            return null;
+        }
+        Object hash = persistedQuery.get(HASH_KEY);
+        return hash instanceof String value && !value.isBlank() ? value.toLowerCase() : null;
+    }
+    
+    private static Counter cacheCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("graphql.documents.cache")
+            .description("Document cache lookups")
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+    
+    private record CachedDocument(PreparsedDocumentEntry entry, long parseNanos) {
+    }
+}
@@ -0,0 +1,84 @@
+package com.fabrica.p6f5.springapp.graphql.persisted;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.Resource;
+import org.springframework.graphql.execution.GraphQlSource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Persisted Query Manifest.
+ * Preloads the document cache at startup from an Apollo persisted query manifest
+ * ({@code {"operations": [{"id": sha256, "name": ..., "body": query}]}}), so the
+ * frontend's known operations are served by hash from the first request.
+ */
+@Component
+public class PersistedQueryManifest {
+    
+    private static final Logger logger = LoggerFactory.getLogger(PersistedQueryManifest.class);
+    
+    private final PersistedDocumentCache documentCache;
+    private final GraphQlSource graphQlSource;
+    private final ObjectMapper objectMapper;
+    
+    @Value("${billing.graphql.persisted-queries.manifest:classpath:graphql/persisted-queries.json}")
+    private Resource manifest;
+    
+    public PersistedQueryManifest(PersistedDocumentCache documentCache, GraphQlSource graphQlSource,
+                                  ObjectMapper objectMapper) {
+        this.documentCache = documentCache;
+        this.graphQlSource = graphQlSource;
+        this.objectMapper = objectMapper;
+    }
+    
+    /**
+     * Load the manifest once the application is up.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        if (manifest == null || !manifest.exists()) {
+            return;
+        }
+        try {
+            int loaded = load();
+            logger.info("Preloaded {} persisted GraphQL queries from {}", loaded, manifest.getDescription());
+        } catch (Exception e) {
+            logger.error("Failed to load persisted query manifest {}: {}", manifest.getDescription(),
+                e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Parse, validate and cache every operation of the manifest.
+     * 
+     * @return the number of operations cached
+     */
+    public int load() throws IOException {
+        JsonNode root;
+        try (InputStream in = manifest.getInputStream()) {
+            root = objectMapper.readTree(in);
+        }
+        int loaded = 0;
+        for (JsonNode operation : root.path("operations")) {
+            String id = operation.path("id").asText();
+            String body = operation.path("body").asText();
+            String name = operation.path("name").asText(id);
+            if (body.isBlank() || !id.equalsIgnoreCase(PersistedDocumentCache.sha256(body))) {
+                logger.warn("Skipping persisted query {}: id is not the SHA-256 of its body", name);
+            } else if (!documentCache.preload(graphQlSource.schema(), body)) {
+                logger.warn("Skipping persisted query {}: not valid against the schema", name);
+            } else {
+                loaded++;
+            }
+        }
+        return loaded;
+    }
+}
@@ -0,0 +1,265 @@
+package com.fabrica.p6f5.springapp.graphql.repository;
+
+import com.fabrica.p6f5.springapp.graphql.dto.AuditLogNode;
+import com.fabrica.p6f5.springapp.graphql.dto.InvoiceHistoryNode;
+import com.fabrica.p6f5.springapp.graphql.dto.InvoiceItemNode;
+import com.fabrica.p6f5.springapp.graphql.dto.InvoiceNode;
+import com.fabrica.p6f5.springapp.graphql.dto.ShipmentNode;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * GraphQL Query Repository.
+ * Read queries behind the GraphQL API. Every relation loader takes the keys of a
+ * whole batch and answers with a single {@code = ANY(?)} statement, so the number
+ * of statements per request depends on the selection, not on the result size.
+ */
+@Repository
+public class GraphQueryRepository {
+    
+    private static final String INVOICE_COLUMNS =
+        "i.invoice_id, i.invoice_number, i.fiscal_folio, i.client_name, i.invoice_date, i.due_date, i.subtotal, " +
+        "i.tax_amount, i.total_amount, i.amount_paid, i.currency, i.tax_region, i.invoice_status, i.version, " +
+        "i.created_at, i.updated_at";
+    
+    private static final String SHIPMENT_COLUMNS =
+        "s.shipment_id, s.tracking_number, s.client_name, s.origin_address, s.destination_address, " +
+        "s.total_weight, s.total_volume, s.shipment_status, s.created_at, s.updated_at";
+    
+    private static final String INVOICES_BY_ID_SQL =
+        "SELECT " + INVOICE_COLUMNS + " FROM invoices i WHERE i.invoice_id = ANY(?)";
+    
+    private static final String INVOICE_PAGE_SQL =
+        "SELECT " + INVOICE_COLUMNS + " FROM invoices i WHERE i.invoice_id > ? ORDER BY i.invoice_id LIMIT ?";
+    
+    private static final String INVOICE_PAGE_BY_STATUS_SQL =
+        "SELECT " + INVOICE_COLUMNS + " FROM invoices i WHERE i.invoice_status = ? AND i.invoice_id > ? " +
+        "ORDER BY i.invoice_id LIMIT ?";
+    
+    private static final String INVOICES_BY_SHIPMENT_SQL =
+        "SELECT l.shipment_id AS key_id, " + INVOICE_COLUMNS + " FROM invoice_shipments l " +
+        "JOIN invoices i ON i.invoice_id = l.invoice_id WHERE l.shipment_id = ANY(?)";
+    
+    private static final String ITEMS_BY_INVOICE_SQL =
+        "SELECT item_id, invoice_id, shipment_id, description, quantity, unit_price, total_price, tax_amount " +
+        "FROM invoice_items WHERE invoice_id = ANY(?) ORDER BY invoice_id, item_id";
+    
+    private static final String SHIPMENTS_BY_ID_SQL =
+        "SELECT " + SHIPMENT_COLUMNS + " FROM shipments s WHERE s.shipment_id = ANY(?)";
+    
+    private static final String SHIPMENT_PAGE_SQL =
+        "SELECT " + SHIPMENT_COLUMNS + " FROM shipments s WHERE s.shipment_id > ? ORDER BY s.shipment_id LIMIT ?";
+    
+    private static final String SHIPMENT_PAGE_BY_STATUS_SQL =
+        "SELECT " + SHIPMENT_COLUMNS + " FROM shipments s WHERE s.shipment_status = ? AND s.shipment_id > ? " +
+        "ORDER BY s.shipment_id LIMIT ?";
+    
+    private static final String SHIPMENTS_BY_INVOICE_SQL =
+        "SELECT l.invoice_id AS key_id, " + SHIPMENT_COLUMNS + " FROM invoice_shipments l " +
+        "JOIN shipments s ON s.shipment_id = l.shipment_id WHERE l.invoice_id = ANY(?) ORDER BY l.invoice_id, s.shipment_id";
+    
+    private static final String HISTORY_BY_INVOICE_SQL =
+        "SELECT history_id, invoice_id, version, invoice_number, fiscal_folio, invoice_data::text AS invoice_data, " +
+        "created_by, created_at, is_reverted FROM invoice_history WHERE invoice_id = ANY(?) AND created_at >= ? " +
+        "ORDER BY invoice_id, version DESC";
+    
+    private static final String AUDIT_LOGS_BY_ENTITY_SQL =
+        "SELECT audit_log_id, entity_type, entity_id, action, changed_by, change_summary, old_data::text AS old_data, " +
+        "new_data::text AS new_data, changes::text AS changes, created_at FROM audit_logs " +
+        "WHERE entity_type = ? AND entity_id = ANY(?) " +
+        "AND created_at >= ? " +
+        "ORDER BY entity_id, audit_log_id DESC";
+    
+    private static final RowMapper<InvoiceNode> INVOICE_MAPPER = (rs, rowNum) -> new InvoiceNode(
+        rs.getLong("invoice_id"),
+        rs.getString("invoice_number"),
+        rs.getString("fiscal_folio"),
+        rs.getString("client_name"),
+        rs.getDate("invoice_date").toLocalDate(),
+        rs.getDate("due_date").toLocalDate(),
+        rs.getBigDecimal("subtotal"),
+        rs.getBigDecimal("tax_amount"),
+        rs.getBigDecimal("total_amount"),
+        rs.getBigDecimal("amount_paid"),
+        rs.getString("currency"),
+        rs.getString("tax_region"),
+        rs.getString("invoice_status"),
+        rs.getInt("version"),
+        toLocalDateTime(rs.getTimestamp("created_at")),
+        toLocalDateTime(rs.getTimestamp("updated_at")));
+    
+    private static final RowMapper<ShipmentNode> SHIPMENT_MAPPER = (rs, rowNum) -> new ShipmentNode(
+        rs.getLong("shipment_id"),
+        rs.getString("tracking_number"),
+        rs.getString("client_name"),
+        rs.getString("origin_address"),
+        rs.getString("destination_address"),
+        rs.getBigDecimal("total_weight"),
+        rs.getBigDecimal("total_volume"),
+        rs.getString("shipment_status"),
+        toLocalDateTime(rs.getTimestamp("created_at")),
+        toLocalDateTime(rs.getTimestamp("updated_at")));
+    
+    private static final RowMapper<InvoiceItemNode> ITEM_MAPPER = (rs, rowNum) -> new InvoiceItemNode(
+        rs.getLong("item_id"),
+        rs.getLong("invoice_id"),
+        rs.getObject("shipment_id", Long.class),
+        rs.getString("description"),
+        rs.getInt("quantity"),
+        rs.getBigDecimal("unit_price"),
+        rs.getBigDecimal("total_price"),
+        rs.getBigDecimal("tax_amount"));
+    
+    private static final RowMapper<InvoiceHistoryNode> HISTORY_MAPPER = (rs, rowNum) -> new InvoiceHistoryNode(
+        rs.getLong("history_id"),
+        rs.getLong("invoice_id"),
+        rs.getInt("version"),
+        rs.getString("invoice_number"),
+        rs.getString("fiscal_folio"),
+        rs.getString("invoice_data"),
+        rs.getLong("created_by"),
+        toLocalDateTime(rs.getTimestamp("created_at")),
+        rs.getBoolean("is_reverted"));
+    
+    private static final RowMapper<AuditLogNode> AUDIT_LOG_MAPPER = (rs, rowNum) -> new AuditLogNode(
+        rs.getLong("audit_log_id"),
+        rs.getString("entity_type"),
+        rs.getLong("entity_id"),
+        rs.getString("action"),
+        rs.getObject("changed_by", Long.class),
+        rs.getString("change_summary"),
+        rs.getString("old_data"),
+        rs.getString("new_data"),
+        rs.getString("changes"),
+        toLocalDateTime(rs.getTimestamp("created_at")));
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    public GraphQueryRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+    
+    /**
+     * Find invoices by ID.
+     */
+    public List<InvoiceNode> findInvoicesByIds(Collection<Long> invoiceIds) {
+        return jdbcTemplate.query(INVOICES_BY_ID_SQL, ps -> ps.setArray(1, idArray(ps.getConnection(), invoiceIds)),
+            INVOICE_MAPPER);
+    }
+    
+    /**
+     * Find a keyset page of invoices, optionally in one status.
+     * 
+     * @param afterId the last invoice ID of the previous page, or 0
+     * @param limit the maximum number of rows
+     */
+    public List<InvoiceNode> findInvoicePage(long afterId, int limit, String status) {
+        return status == null
+            ? jdbcTemplate.query(INVOICE_PAGE_SQL, INVOICE_MAPPER, afterId, limit)
+            : jdbcTemplate.query(INVOICE_PAGE_BY_STATUS_SQL, INVOICE_MAPPER, status, afterId, limit);
+    }
+    
+    /**
+     * Find the invoice each shipment is linked to.
+     * 
+     * @return linked invoices keyed by shipment ID
+     */
+    public Map<Long, InvoiceNode> findInvoicesByShipmentIds(Collection<Long> shipmentIds) {
+        Map<Long, InvoiceNode> invoices = new LinkedHashMap<>();
+        jdbcTemplate.query(INVOICES_BY_SHIPMENT_SQL, ps -> ps.setArray(1, idArray(ps.getConnection(), shipmentIds)),
+            (ResultSet rs) -> {
+                invoices.put(rs.getLong("key_id"), INVOICE_MAPPER.mapRow(rs, 0));
+            });
+        return invoices;
+    }
+    
+    /**
+     * Find the items of several invoices.
+     */
+    public List<InvoiceItemNode> findItemsByInvoiceIds(Collection<Long> invoiceIds) {
+        return jdbcTemplate.query(ITEMS_BY_INVOICE_SQL, ps -> ps.setArray(1, idArray(ps.getConnection(), invoiceIds)),
+            ITEM_MAPPER);
+    }
+    
+    /**
+     * Find shipments by ID.
+     */
+    public List<ShipmentNode> findShipmentsByIds(Collection<Long> shipmentIds) {
+        return jdbcTemplate.query(SHIPMENTS_BY_ID_SQL, ps -> ps.setArray(1, idArray(ps.getConnection(), shipmentIds)),
+            SHIPMENT_MAPPER);
+    }
+    
+    /**
+     * Find a keyset page of shipments, optionally in one status.
+     * 
+     * @param afterId the last shipment ID of the previous page, or 0
+     * @param limit the maximum number of rows
+     */
+    public List<ShipmentNode> findShipmentPage(long afterId, int limit, String status) {
+        return status == null
+            ? jdbcTemplate.query(SHIPMENT_PAGE_SQL, SHIPMENT_MAPPER, afterId, limit)
+            : jdbcTemplate.query(SHIPMENT_PAGE_BY_STATUS_SQL, SHIPMENT_MAPPER, status, afterId, limit);
+    }
+    
+    /**
+     * Find the shipments linked to several invoices.
+     * 
+     * @return linked shipments keyed by invoice ID
+     */
+    public Map<Long, List<ShipmentNode>> findShipmentsByInvoiceIds(Collection<Long> invoiceIds) {
+        Map<Long, List<ShipmentNode>> shipments = new LinkedHashMap<>();
+        jdbcTemplate.query(SHIPMENTS_BY_INVOICE_SQL, ps -> ps.setArray(1, idArray(ps.getConnection(), invoiceIds)),
+            (ResultSet rs) -> {
+                shipments.computeIfAbsent(rs.getLong("key_id"), k -> new ArrayList<>())
+                    .add(SHIPMENT_MAPPER.mapRow(rs, 0));
+            });
+        return shipments;
+    }
+    
+    /**
+     * Find the history versions of several invoices, newest first.
+     * 
+     * @param since lower bound on the creation time, so older monthly partitions are skipped
+     */
+    public List<InvoiceHistoryNode> findHistoryByInvoiceIds(Collection<Long> invoiceIds, LocalDateTime since) {
+        return jdbcTemplate.query(HISTORY_BY_INVOICE_SQL, ps -> {
+            ps.setArray(1, idArray(ps.getConnection(), invoiceIds));
+            ps.setTimestamp(2, Timestamp.valueOf(since));
+        }, HISTORY_MAPPER);
+    }
+    
+    /**
+     * Find the audit log entries of several entities of one type, newest first.
+     * 
+     * @param since lower bound on the creation time, so older monthly partitions are skipped
+     */
+    public List<AuditLogNode> findAuditLogsByEntityIds(String entityType, Collection<Long> entityIds,
+                                                       LocalDateTime since) {
+        return jdbcTemplate.query(AUDIT_LOGS_BY_ENTITY_SQL, ps -> {
+            ps.setString(1, entityType);
+            ps.setArray(2, idArray(ps.getConnection(), entityIds));
+            ps.setTimestamp(3, Timestamp.valueOf(since));
+        }, AUDIT_LOG_MAPPER);
+    }
+    
+    private static Array idArray(Connection connection, Collection<Long> ids) throws SQLException {
+        return connection.createArrayOf("bigint", ids.toArray(new Long[0]));
+    }
+    
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
@@ -2,10 +2,12 @@ package com.fabrica.p6f5.springapp.invoice.controller;
 
 import com.fabrica.p6f5.springapp.dto.ApiResponse;
 import com.fabrica.p6f5.springapp.entity.User;
+import com.fabrica.p6f5.springapp.invoice.dto.BulkIssuanceResult;
 import com.fabrica.p6f5.springapp.invoice.dto.CreateInvoiceRequest;
 import com.fabrica.p6f5.springapp.invoice.dto.InvoiceResponse;
 import com.fabrica.p6f5.springapp.invoice.dto.UpdateInvoiceRequest;
 import com.fabrica.p6f5.springapp.invoice.model.Invoice;
+import com.fabrica.p6f5.springapp.invoice.service.InvoiceIssuanceService;
 import com.fabrica.p6f5.springapp.invoice.service.InvoiceService;
 import com.fabrica.p6f5.springapp.pdf.service.PdfService;
 import com.fabrica.p6f5.springapp.util.ResponseUtils;
@@ -16,6 +18,7 @@ import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
@@ -33,10 +36,13 @@ public class InvoiceController {
     private static final Logger logger = LoggerFactory.getLogger(InvoiceController.class);
     
     private final InvoiceService invoiceService;
+    private final InvoiceIssuanceService invoiceIssuanceService;
     private final PdfService pdfService;
     
-    public InvoiceController(InvoiceService invoiceService, PdfService pdfService) {
+    public InvoiceController(InvoiceService invoiceService, InvoiceIssuanceService invoiceIssuanceService,
+                             PdfService pdfService) {
         this.invoiceService = invoiceService;
+        this.invoiceIssuanceService = invoiceIssuanceService;
         this.pdfService = pdfService;
     }
     
@@ -80,6 +86,20 @@ public class InvoiceController {
         return ResponseUtils.success(response, "Invoice issued successfully");
     }
     
+    /**
+     * Issue all ready drafts in bulk (Admin only)
+     */
+    @PostMapping("/issue-ready")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Issue ready drafts", description = "Issues drafts that are ready for issuance in chunks, safe to run on several nodes")
+    public ResponseEntity<ApiResponse<BulkIssuanceResult>> issueReadyDrafts(
+            @Parameter(description = "Maximum number of invoices to issue") @RequestParam(defaultValue = "1000") int limit,
+            @AuthenticationPrincipal User user) {
+        logger.info("Bulk issuing up to {} ready drafts by user: {}", limit, user.getUsername());
+        BulkIssuanceResult response = invoiceIssuanceService.issueReadyDrafts(user.getId(), limit);
+        return ResponseUtils.success(response, "Ready drafts issued successfully");
+    }
+    
     /**
      * Get invoice by ID
      */
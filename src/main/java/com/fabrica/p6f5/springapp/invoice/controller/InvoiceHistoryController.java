@@ -1,14 +1,21 @@
 package com.fabrica.p6f5.springapp.invoice.controller;
 
+import com.fabrica.p6f5.springapp.audit.dto.VersionDiff;
 import com.fabrica.p6f5.springapp.audit.model.InvoiceHistory;
+import com.fabrica.p6f5.springapp.audit.service.AuditDiffService;
 import com.fabrica.p6f5.springapp.audit.service.AuditService;
 import com.fabrica.p6f5.springapp.dto.ApiResponse;
+import com.fabrica.p6f5.springapp.entity.User;
 import com.fabrica.p6f5.springapp.invoice.dto.InvoiceHistoryResponse;
+import com.fabrica.p6f5.springapp.invoice.dto.InvoiceResponse;
+import com.fabrica.p6f5.springapp.invoice.dto.RevertPreview;
+import com.fabrica.p6f5.springapp.invoice.service.InvoiceRevertService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import com.fabrica.p6f5.springapp.util.ResponseUtils;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -25,9 +32,14 @@ import java.util.stream.Collectors;
 public class InvoiceHistoryController {
     
     private final AuditService auditService;
+    private final AuditDiffService auditDiffService;
+    private final InvoiceRevertService invoiceRevertService;
     
-    public InvoiceHistoryController(AuditService auditService) {
+    public InvoiceHistoryController(AuditService auditService, AuditDiffService auditDiffService,
+                                    InvoiceRevertService invoiceRevertService) {
         this.auditService = auditService;
+        this.auditDiffService = auditDiffService;
+        this.invoiceRevertService = invoiceRevertService;
     }
     
     /**
@@ -44,6 +56,19 @@ public class InvoiceHistoryController {
         return ResponseUtils.success(response, "Invoice history retrieved successfully");
     }
     
+    /**
+     * Diff two versions of an invoice
+     */
+    @GetMapping("/{invoiceId}/history/diff")
+    @Operation(summary = "Diff invoice versions", description = "Retrieves the field-level changes between two versions of an invoice")
+    public ResponseEntity<ApiResponse<VersionDiff>> diffInvoiceVersions(
+            @Parameter(description = "Invoice ID") @PathVariable Long invoiceId,
+            @Parameter(description = "Version to diff from") @RequestParam Integer from,
+            @Parameter(description = "Version to diff to") @RequestParam Integer to) {
+        VersionDiff diff = auditDiffService.diffInvoiceVersions(invoiceId, from, to);
+        return ResponseUtils.success(diff, "Invoice version diff retrieved successfully");
+    }
+    
     /**
      * Get specific version of invoice
      */
@@ -60,6 +85,32 @@ public class InvoiceHistoryController {
         return ResponseUtils.success(response, "Invoice version retrieved successfully");
     }
     
+    /**
+     * Preview reverting a draft to a prior version
+     */
+    @GetMapping("/{invoiceId}/history/{version}/revert")
+    @Operation(summary = "Preview invoice revert", description = "Shows the state a draft would be restored to and the fields that would change")
+    public ResponseEntity<ApiResponse<RevertPreview>> previewRevert(
+            @Parameter(description = "Invoice ID") @PathVariable Long invoiceId,
+            @Parameter(description = "Version to revert to") @PathVariable Integer version) {
+        RevertPreview preview = invoiceRevertService.previewRevert(invoiceId, version);
+        return ResponseUtils.success(preview, "Invoice revert preview retrieved successfully");
+    }
+    
+    /**
+     * Revert a draft to a prior version
+     */
+    @PostMapping("/{invoiceId}/history/{version}/revert")
+    @Operation(summary = "Revert invoice", description = "Restores a draft invoice to a prior version with optimistic concurrency control")
+    public ResponseEntity<ApiResponse<InvoiceResponse>> revertInvoice(
+            @Parameter(description = "Invoice ID") @PathVariable Long invoiceId,
+            @Parameter(description = "Version to revert to") @PathVariable Integer version,
+            @Parameter(description = "Current version of the draft, as last read") @RequestParam Integer currentVersion,
+            @AuthenticationPrincipal User user) {
+        InvoiceResponse response = invoiceRevertService.revertInvoice(invoiceId, version, currentVersion, user.getId());
+        return ResponseUtils.success(response, "Invoice reverted successfully");
+    }
+    
     /**
      * Convert InvoiceHistory to response DTO
      */
@@ -0,0 +1,42 @@
+package com.fabrica.p6f5.springapp.invoice.controller;
+
+import com.fabrica.p6f5.springapp.dto.ApiResponse;
+import com.fabrica.p6f5.springapp.invoice.dto.InvoiceChangePage;
+import com.fabrica.p6f5.springapp.invoice.service.InvoiceSyncService;
+import com.fabrica.p6f5.springapp.util.ResponseUtils;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Invoice Sync Controller following Single Responsibility Principle.
+ * Handles incremental invoice sync HTTP requests.
+ */
+@RestController
+@RequestMapping("/api/v1/invoices")
+@Tag(name = "Invoice Sync API", description = "API for syncing invoices incrementally")
+public class InvoiceSyncController {
+    
+    private final InvoiceSyncService invoiceSyncService;
+    
+    public InvoiceSyncController(InvoiceSyncService invoiceSyncService) {
+        this.invoiceSyncService = invoiceSyncService;
+    }
+    
+    /**
+     * Get invoices changed since a watermark
+     */
+    @GetMapping("/changes")
+    @Operation(summary = "Get invoice changes",
+               description = "Returns invoices changed and deleted since the watermark, oldest change first")
+    public ResponseEntity<ApiResponse<InvoiceChangePage>> getChanges(
+            @Parameter(description = "Watermark from the previous call; omit for a full sync") @RequestParam(required = false) String since,
+            @Parameter(description = "Page size (max 500)") @RequestParam(required = false) Integer limit) {
+        return ResponseUtils.success(invoiceSyncService.getChanges(since, limit), "Invoice changes retrieved successfully");
+    }
+}
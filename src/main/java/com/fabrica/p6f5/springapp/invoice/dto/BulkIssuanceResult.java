@@ -0,0 +1,25 @@
+package com.fabrica.p6f5.springapp.invoice.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO summarizing a bulk issuance run.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkIssuanceResult {
+    
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private int issued;
+    private int skipped;
+    private int chunks;
+    private Long firstInvoiceId;
+    private Long lastInvoiceId;
+    private long elapsedMillis;
+}
@@ -0,0 +1,22 @@
+package com.fabrica.p6f5.springapp.invoice.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for a page of invoice changes since a sync watermark.
+ * The watermark is opaque; pass it back to continue, and keep the last one between syncs.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvoiceChangePage {
+    
+    private List<InvoiceResponse> invoices;
+    private List<InvoiceTombstone> deleted;
+    private String watermark;
+    private boolean hasMore;
+}
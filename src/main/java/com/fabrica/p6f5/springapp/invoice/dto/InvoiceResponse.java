@@ -28,7 +28,9 @@ public class InvoiceResponse {
     private BigDecimal subtotal;
     private BigDecimal taxAmount;
     private BigDecimal totalAmount;
+    private BigDecimal amountPaid;
     private String currency;
+    private String taxRegion;
     private String status;
     private String pdfUrl;
     private Long createdBy;
@@ -52,7 +54,9 @@ public class InvoiceResponse {
         response.setSubtotal(invoice.getSubtotal());
         response.setTaxAmount(invoice.getTaxAmount());
         response.setTotalAmount(invoice.getTotalAmount());
+        response.setAmountPaid(invoice.getAmountPaid());
         response.setCurrency(invoice.getCurrency());
+        response.setTaxRegion(invoice.getTaxRegion());
         response.setStatus(invoice.getStatus().toString());
         response.setPdfUrl(invoice.getPdfUrl());
         response.setCreatedBy(invoice.getCreatedBy());
@@ -75,6 +79,15 @@ public class InvoiceResponse {
         return response;
     }
     
+    /**
+     * Copy this response. Items and shipment IDs are shared with the copy, not cloned.
+     */
+    public InvoiceResponse copy() {
+        return new InvoiceResponse(id, fiscalFolio, invoiceNumber, clientName, invoiceDate, dueDate, subtotal,
+            taxAmount, totalAmount, amountPaid, currency, taxRegion, status, pdfUrl, createdBy, createdAt,
+            updatedAt, version, items, shipmentIds);
+    }
+    
     /**
      * Nested DTO for invoice items
      */
@@ -89,6 +102,7 @@ public class InvoiceResponse {
         private Integer quantity;
         private BigDecimal unitPrice;
         private BigDecimal totalPrice;
+        private BigDecimal taxAmount;
         
         /**
          * Convert InvoiceItem entity to InvoiceItemResponse DTO
@@ -100,6 +114,7 @@ public class InvoiceResponse {
             response.setQuantity(item.getQuantity());
             response.setUnitPrice(item.getUnitPrice());
             response.setTotalPrice(item.getTotalPrice());
+            response.setTaxAmount(item.getTaxAmount());
             if (item.getShipment() != null) {
                 response.setShipmentId(item.getShipment().getId());
             }
@@ -0,0 +1,21 @@
+package com.fabrica.p6f5.springapp.invoice.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO for a deleted invoice reported by incremental sync.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvoiceTombstone {
+    
+    private Long invoiceId;
+    private String invoiceNumber;
+    private String fiscalFolio;
+    private LocalDateTime deletedAt;
+}
@@ -0,0 +1,23 @@
+package com.fabrica.p6f5.springapp.invoice.dto;
+
+import com.fabrica.p6f5.springapp.audit.dto.FieldChange;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO previewing the revert of a draft invoice to a prior version.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevertPreview {
+    
+    private Long invoiceId;
+    private Integer currentVersion;
+    private Integer targetVersion;
+    private UpdateInvoiceRequest restored;
+    private List<FieldChange> changes;
+}
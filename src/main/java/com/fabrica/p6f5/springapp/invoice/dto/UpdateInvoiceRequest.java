@@ -4,6 +4,7 @@ import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
+import com.fabrica.p6f5.springapp.money.InvoiceLine;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
@@ -35,8 +36,7 @@ public class UpdateInvoiceRequest {
     
     private List<Long> shipmentIds;
     
-    @NotNull(message = "Tax amount is required")
-    private BigDecimal taxAmount;
+    private String taxRegion;
     
     private String currency = "USD";
     
@@ -48,7 +48,7 @@ public class UpdateInvoiceRequest {
     @Data
     @NoArgsConstructor
     @AllArgsConstructor
-    public static class InvoiceItemRequest {
+    public static class InvoiceItemRequest implements InvoiceLine {
         
         private Long shipmentId;
         
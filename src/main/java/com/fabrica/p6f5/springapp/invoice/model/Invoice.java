@@ -63,9 +63,16 @@ public class Invoice {
     @Column(name = "total_amount", nullable = false, precision = 10, scale = 2)
     private BigDecimal totalAmount;
     
+    @PositiveOrZero(message = "Amount paid must be positive or zero")
+    @Column(name = "amount_paid", nullable = false, precision = 10, scale = 2)
+    private BigDecimal amountPaid = BigDecimal.ZERO;
+    
     @Column(name = "currency", length = 10)
     private String currency = "USD";
     
+    @Column(name = "tax_region", length = 50)
+    private String taxRegion;
+    
     @Enumerated(EnumType.STRING)
     @Column(name = "invoice_status", nullable = false, length = 50)
     private InvoiceStatus status = InvoiceStatus.DRAFT;
@@ -87,6 +94,15 @@ public class Invoice {
     @Column(name = "version")
     private Integer version = 1;
     
+    @Column(name = "item_count", insertable = false, updatable = false)
+    private Integer itemCount;
+    
+    @Column(name = "ready_for_issue", insertable = false, updatable = false)
+    private Boolean readyForIssue;
+    
+    @Column(name = "billing_run_id", updatable = false)
+    private Long billingRunId;
+    
     @OneToMany(mappedBy = "invoice", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<InvoiceItem> items = new ArrayList<>();
     
@@ -133,5 +149,30 @@ public class Invoice {
                items != null && !items.isEmpty() &&
                clientName != null && !clientName.trim().isEmpty();
     }
+    
+    /**
+     * Check if invoice can receive payments
+     */
+    public boolean canBePaid() {
+        return status == InvoiceStatus.ISSUED;
+    }
+    
+    /**
+     * Calculate the amount still owed on the invoice
+     */
+    public BigDecimal calculateOutstanding() {
+        BigDecimal paid = amountPaid != null ? amountPaid : BigDecimal.ZERO;
+        return totalAmount.subtract(paid);
+    }
+    
+    /**
+     * Apply a payment amount, moving the invoice to PAID once fully settled
+     */
+    public void applyPayment(BigDecimal amount) {
+        amountPaid = (amountPaid != null ? amountPaid : BigDecimal.ZERO).add(amount);
+        if (amountPaid.compareTo(totalAmount) >= 0) {
+            status = InvoiceStatus.PAID;
+        }
+    }
 }
 
@@ -1,5 +1,6 @@
 package com.fabrica.p6f5.springapp.invoice.model;
 
+import com.fabrica.p6f5.springapp.money.Money;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Min;
@@ -59,6 +60,10 @@ public class InvoiceItem {
     @Column(name = "total_price", nullable = false, precision = 10, scale = 2)
     private BigDecimal totalPrice;
     
+    @PositiveOrZero(message = "Tax amount must be positive or zero")
+    @Column(name = "tax_amount", nullable = false, precision = 10, scale = 2)
+    private BigDecimal taxAmount = BigDecimal.ZERO;
+    
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
     
@@ -66,7 +71,7 @@ public class InvoiceItem {
     protected void onCreate() {
         createdAt = LocalDateTime.now();
         if (totalPrice == null) {
-            totalPrice = unitPrice.multiply(BigDecimal.valueOf(quantity));
+            calculateTotal();
         }
     }
     
@@ -75,7 +80,7 @@ public class InvoiceItem {
      */
     public void calculateTotal() {
         if (unitPrice != null && quantity != null) {
-            totalPrice = unitPrice.multiply(BigDecimal.valueOf(quantity));
+            totalPrice = Money.lineTotal(unitPrice, quantity, invoice != null ? invoice.getCurrency() : null);
         }
     }
 }
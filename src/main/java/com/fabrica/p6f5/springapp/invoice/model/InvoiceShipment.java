@@ -1,6 +1,7 @@
 package com.fabrica.p6f5.springapp.invoice.model;
 
 import com.fabrica.p6f5.springapp.shipment.model.Shipment;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import lombok.Data;
@@ -28,6 +29,7 @@ public class InvoiceShipment {
     @NotNull(message = "Invoice is required")
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "invoice_id", nullable = false)
+    @JsonIgnore
     private Invoice invoice;
     
     @NotNull(message = "Shipment is required")
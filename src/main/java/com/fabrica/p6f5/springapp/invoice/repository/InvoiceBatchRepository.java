@@ -0,0 +1,166 @@
+package com.fabrica.p6f5.springapp.invoice.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Array;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Invoice Batch Repository.
+ * Set-based JDBC operations on invoices that would cost one statement per row through JPA.
+ */
+@Repository
+public class InvoiceBatchRepository {
+    
+    private static final String NEXT_FOLIO_NUMBER_SQL = "SELECT nextval('fiscal_folio_seq')";
+    
+    private static final String NEXT_FOLIO_NUMBERS_SQL =
+        "SELECT nextval('fiscal_folio_seq') FROM generate_series(1, ?)";
+    
+    private static final String MARK_ISSUED_SQL =
+        "UPDATE invoices AS i SET invoice_status = 'ISSUED', fiscal_folio = f.folio, " +
+        "version = i.version + 1, updated_at = ? " +
+        "FROM unnest(?::bigint[], ?::text[]) AS f(invoice_id, folio) " +
+        "WHERE i.invoice_id = f.invoice_id AND i.invoice_status = 'DRAFT'";
+    
+    private static final String REVERT_DRAFT_SQL =
+        "UPDATE invoices SET client_name = ?, invoice_date = ?, due_date = ?, currency = ?, tax_region = ?, " +
+        "subtotal = ?, tax_amount = ?, total_amount = ?, version = version + 1, updated_at = ? " +
+        "WHERE invoice_id = ? AND version = ? AND invoice_status = 'DRAFT'";
+    
+    private static final String DELETE_ITEMS_SQL = "DELETE FROM invoice_items WHERE invoice_id = ?";
+    
+    private static final String INSERT_ITEMS_SQL =
+        "INSERT INTO invoice_items (invoice_id, shipment_id, description, quantity, unit_price, total_price, " +
+        "tax_amount, created_at) " +
+        "SELECT ?, t.shipment_id, t.description, t.quantity, t.unit_price, t.total_price, t.tax, ? " +
+        "FROM unnest(?::bigint[], ?::text[], ?::int[], ?::numeric[], ?::numeric[], ?::numeric[]) WITH ORDINALITY " +
+        "AS t(shipment_id, description, quantity, unit_price, total_price, tax, position) ORDER BY t.position";
+    
+    private static final String DELETE_LINKS_SQL = "DELETE FROM invoice_shipments WHERE invoice_id = ?";
+    
+    private static final String INSERT_LINKS_SQL =
+        "INSERT INTO invoice_shipments (invoice_id, shipment_id, created_at) SELECT ?, unnest(?::bigint[]), ?";
+    
+    private static final String FIND_LINKED_ELSEWHERE_SQL =
+        "SELECT shipment_id FROM invoice_shipments WHERE shipment_id = ANY(?) AND invoice_id <> ? ORDER BY shipment_id";
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    public InvoiceBatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+    
+    /**
+     * Reserve one fiscal folio number.
+     * 
+     * @return the reserved sequence number
+     */
+    public long nextFiscalFolioNumber() {
+        return jdbcTemplate.queryForObject(NEXT_FOLIO_NUMBER_SQL, Long.class);
+    }
+    
+    /**
+     * Reserve a block of fiscal folio numbers in one round trip.
+     * 
+     * @param count the number of folios to reserve
+     * @return the reserved sequence numbers
+     */
+    public List<Long> nextFiscalFolioNumbers(int count) {
+        return jdbcTemplate.queryForList(NEXT_FOLIO_NUMBERS_SQL, Long.class, count);
+    }
+    
+    /**
+     * Move drafts to ISSUED with a single UPDATE.
+     * 
+     * @param invoiceIds the invoice IDs
+     * @param fiscalFolios the fiscal folio for each invoice, in the same order
+     * @param issuedAt the issuance timestamp
+     * @return the number of invoices updated
+     */
+    public int markIssued(Long[] invoiceIds, String[] fiscalFolios, LocalDateTime issuedAt) {
+        return jdbcTemplate.update(MARK_ISSUED_SQL, ps -> {
+            Array ids = ps.getConnection().createArrayOf("bigint", invoiceIds);
+            Array folios = ps.getConnection().createArrayOf("text", fiscalFolios);
+            ps.setTimestamp(1, Timestamp.valueOf(issuedAt));
+            ps.setArray(2, ids);
+            ps.setArray(3, folios);
+        });
+    }
+    
+    /**
+     * Overwrite the editable fields of a draft if it is still at the expected version,
+     * bumping the version. This is the optimistic lock of a revert: a concurrent edit
+     * either commits first and makes this match nothing, or waits on the row lock taken here.
+     * 
+     * @return the number of invoices updated, 0 if the draft changed or was issued meanwhile
+     */
+    public int revertDraft(Long invoiceId, Integer expectedVersion, String clientName, LocalDate invoiceDate,
+                           LocalDate dueDate, String currency, String taxRegion, BigDecimal subtotal,
+                           BigDecimal taxAmount, BigDecimal totalAmount, LocalDateTime revertedAt) {
+        return jdbcTemplate.update(REVERT_DRAFT_SQL, clientName, Date.valueOf(invoiceDate), Date.valueOf(dueDate),
+            currency, taxRegion, subtotal, taxAmount, totalAmount, Timestamp.valueOf(revertedAt),
+            invoiceId, expectedVersion);
+    }
+    
+    /**
+     * Replace the items of an invoice: one DELETE and one INSERT over unnested arrays,
+     * keeping the array order.
+     */
+    public void replaceItems(Long invoiceId, Long[] shipmentIds, String[] descriptions, Integer[] quantities,
+                             BigDecimal[] unitPrices, BigDecimal[] totalPrices, BigDecimal[] taxes,
+                             LocalDateTime createdAt) {
+        jdbcTemplate.update(DELETE_ITEMS_SQL, invoiceId);
+        if (descriptions.length == 0) {
+            return;
+        }
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(INSERT_ITEMS_SQL);
+            ps.setLong(1, invoiceId);
+            ps.setTimestamp(2, Timestamp.valueOf(createdAt));
+            ps.setArray(3, connection.createArrayOf("bigint", shipmentIds));
+            ps.setArray(4, connection.createArrayOf("text", descriptions));
+            ps.setArray(5, connection.createArrayOf("integer", quantities));
+            ps.setArray(6, connection.createArrayOf("numeric", unitPrices));
+            ps.setArray(7, connection.createArrayOf("numeric", totalPrices));
+            ps.setArray(8, connection.createArrayOf("numeric", taxes));
+            return ps;
+        });
+    }
+    
+    /**
+     * Replace the shipment links of an invoice with one DELETE and one INSERT.
+     */
+    public void replaceShipmentLinks(Long invoiceId, Long[] shipmentIds, LocalDateTime createdAt) {
+        jdbcTemplate.update(DELETE_LINKS_SQL, invoiceId);
+        if (shipmentIds.length == 0) {
+            return;
+        }
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(INSERT_LINKS_SQL);
+            ps.setLong(1, invoiceId);
+            ps.setArray(2, connection.createArrayOf("bigint", shipmentIds));
+            ps.setTimestamp(3, Timestamp.valueOf(createdAt));
+            return ps;
+        });
+    }
+    
+    /**
+     * Find which of the given shipments are linked to an invoice other than this one.
+     */
+    public List<Long> findShipmentsLinkedElsewhere(Long invoiceId, Long[] shipmentIds) {
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(FIND_LINKED_ELSEWHERE_SQL);
+            ps.setArray(1, connection.createArrayOf("bigint", shipmentIds));
+            ps.setLong(2, invoiceId);
+            return ps;
+        }, (rs, rowNum) -> rs.getLong(1));
+    }
+}
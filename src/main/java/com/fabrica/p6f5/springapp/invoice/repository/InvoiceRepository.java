@@ -1,11 +1,20 @@
 package com.fabrica.p6f5.springapp.invoice.repository;
 
 import com.fabrica.p6f5.springapp.invoice.model.Invoice;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -82,13 +91,17 @@ public interface InvoiceRepository extends JpaRepository<Invoice, Long> {
     boolean existsByInvoiceNumber(String invoiceNumber);
     
     /**
-     * Find all drafts that can be issued.
+     * Claim a page of drafts that can be issued. Rows are locked with
+     * FOR UPDATE SKIP LOCKED, so concurrent workers claim disjoint drafts.
+     * Backed by the trigger-maintained ready_for_issue flag and its partial index.
      * 
-     * @return list of draft invoices that can be issued
+     * @param pageable the maximum number of drafts to claim
+     * @return list of locked draft invoices that can be issued, ordered by ID
      */
-    @Query("SELECT i FROM Invoice i WHERE i.status = 'DRAFT' AND " +
-           "i.subtotal > 0 AND SIZE(i.items) > 0 AND i.clientName IS NOT NULL")
-    List<Invoice> findDraftsReadyForIssuance();
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT i FROM Invoice i WHERE i.readyForIssue = true ORDER BY i.id")
+    List<Invoice> findDraftsReadyForIssuance(Pageable pageable);
     
     /**
      * Count invoices by status.
@@ -97,5 +110,102 @@ public interface InvoiceRepository extends JpaRepository<Invoice, Long> {
      * @return count of invoices with the specified status
      */
     long countByStatus(Invoice.InvoiceStatus status);
+    
+    /**
+     * Find an invoice by ID and take a row lock on it.
+     * 
+     * @param id the invoice ID
+     * @return Optional containing the locked invoice if found
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Invoice i WHERE i.id = :id")
+    Optional<Invoice> findByIdForUpdate(@Param("id") Long id);
+    
+    /**
+     * Find invoices by ID and take row locks on them in ascending ID order,
+     * so concurrent callers always lock in the same sequence.
+     * 
+     * @param ids the invoice IDs
+     * @return list of locked invoices ordered by ID
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Invoice i WHERE i.id IN :ids ORDER BY i.id")
+    List<Invoice> findAllByIdInForUpdate(@Param("ids") Collection<Long> ids);
+    
+    /**
+     * Resolve invoice numbers or fiscal folios to invoice IDs.
+     * 
+     * @param references invoice numbers and/or fiscal folios
+     * @return lightweight references for the matching invoices
+     */
+    @Query("SELECT i.id AS id, i.invoiceNumber AS invoiceNumber, i.fiscalFolio AS fiscalFolio, " +
+           "i.currency AS currency FROM Invoice i WHERE i.invoiceNumber IN :refs OR i.fiscalFolio IN :refs")
+    List<InvoiceReference> findReferencesByNumberOrFolio(@Param("refs") Collection<String> references);
+    
+    /**
+     * Find the identifiers of all invoices in a status.
+     * 
+     * @param status the invoice status
+     * @return lightweight references for the invoices
+     */
+    @Query("SELECT i.id AS id, i.invoiceNumber AS invoiceNumber, i.fiscalFolio AS fiscalFolio, " +
+           "i.currency AS currency FROM Invoice i WHERE i.status = :status")
+    List<InvoiceReference> findReferencesByStatus(@Param("status") Invoice.InvoiceStatus status);
+    
+    /**
+     * Sum the outstanding amount of invoices in a status per currency.
+     * 
+     * @param status the invoice status
+     * @return one row per currency with the invoice count and the outstanding amount
+     */
+    @Query("SELECT i.currency AS currency, COUNT(i) AS invoiceCount, " +
+           "SUM(i.totalAmount - i.amountPaid) AS outstanding " +
+           "FROM Invoice i WHERE i.status = :status GROUP BY i.currency")
+    List<CurrencyTotal> sumOutstandingByCurrency(@Param("status") Invoice.InvoiceStatus status);
+    
+    /**
+     * Find when an invoice was created. Audit rows of an invoice are never older,
+     * which bounds lookups on the partitioned audit tables.
+     * 
+     * @param id the invoice ID
+     * @return Optional containing the creation time if the invoice exists
+     */
+    @Query("SELECT i.createdAt FROM Invoice i WHERE i.id = :id")
+    Optional<LocalDateTime> findCreatedAtById(@Param("id") Long id);
+    
+    /**
+     * Find invoices changed after a (updated_at, invoice_id) watermark and before a horizon,
+     * in watermark order. The leading bound on updatedAt alone lets the index on
+     * (updated_at, invoice_id) serve the range.
+     * 
+     * @param afterTime update time of the watermark
+     * @param afterId invoice ID of the watermark, breaking ties between equal update times
+     * @param before only invoices updated strictly before this time
+     * @param pageable the maximum number of invoices
+     * @return list of changed invoices ordered by update time and ID
+     */
+    @Query("SELECT i FROM Invoice i WHERE i.updatedAt >= :afterTime " +
+           "AND (i.updatedAt > :afterTime OR i.id > :afterId) AND i.updatedAt < :before " +
+           "ORDER BY i.updatedAt, i.id")
+    List<Invoice> findChangedSince(@Param("afterTime") LocalDateTime afterTime, @Param("afterId") Long afterId,
+                                   @Param("before") LocalDateTime before, Pageable pageable);
+    
+    /**
+     * Lightweight projection of an invoice's identifiers and currency.
+     */
+    interface InvoiceReference {
+        Long getId();
+        String getInvoiceNumber();
+        String getFiscalFolio();
+        String getCurrency();
+    }
+    
+    /**
+     * Outstanding amount of one currency.
+     */
+    interface CurrencyTotal {
+        String getCurrency();
+        Long getInvoiceCount();
+        BigDecimal getOutstanding();
+    }
 }
-
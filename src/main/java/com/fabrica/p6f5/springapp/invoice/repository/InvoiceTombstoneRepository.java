@@ -0,0 +1,38 @@
+package com.fabrica.p6f5.springapp.invoice.repository;
+
+import com.fabrica.p6f5.springapp.invoice.dto.InvoiceTombstone;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Invoice Tombstone Repository.
+ * Reads the deleted invoices recorded by the trg_invoice_tombstone trigger.
+ */
+@Repository
+public class InvoiceTombstoneRepository {
+    
+    private static final String FIND_DELETED_SINCE_SQL =
+        "SELECT invoice_id, invoice_number, fiscal_folio, deleted_at FROM invoice_tombstones " +
+        "WHERE (deleted_at, invoice_id) > (?, ?) AND deleted_at < ? " +
+        "ORDER BY deleted_at, invoice_id LIMIT ?";
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    public InvoiceTombstoneRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+    
+    /**
+     * Invoices deleted after a (deleted_at, invoice_id) watermark and before a horizon, in watermark order.
+     */
+    public List<InvoiceTombstone> findDeletedSince(LocalDateTime afterTime, long afterId, LocalDateTime before, int limit) {
+        return jdbcTemplate.query(FIND_DELETED_SINCE_SQL, (rs, rowNum) -> new InvoiceTombstone(
+                rs.getLong("invoice_id"), rs.getString("invoice_number"), rs.getString("fiscal_folio"),
+                rs.getTimestamp("deleted_at").toLocalDateTime()),
+            Timestamp.valueOf(afterTime), afterId, Timestamp.valueOf(before), limit);
+    }
+}
@@ -0,0 +1,103 @@
+package com.fabrica.p6f5.springapp.invoice.revert;
+
+import com.fabrica.p6f5.springapp.invoice.dto.UpdateInvoiceRequest;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reconstructs the editable state of a draft from an {@code invoice_history} snapshot.
+ * <p>
+ * Snapshots are the serialized {@code Invoice} entity, so items carry their shipment as a
+ * nested object and shipment links carry it under {@code shipment}. Dates are accepted both
+ * as ISO strings and as {@code [year, month, day]} arrays. Computed amounts (line totals, taxes,
+ * invoice totals) are not read: a revert recomputes them from the restored lines.
+ */
+public final class InvoiceSnapshot {
+    
+    private InvoiceSnapshot() {
+    }
+    
+    /**
+     * Read a snapshot into an update request.
+     * 
+     * @param snapshot the parsed {@code invoice_data} of a history row
+     * @param version the version the snapshot was taken at
+     * @return the restored state, with {@code version} set to the snapshot version
+     * @throws IllegalArgumentException if a required field is missing or malformed
+     */
+    public static UpdateInvoiceRequest toRequest(JsonNode snapshot, Integer version) {
+        UpdateInvoiceRequest request = new UpdateInvoiceRequest();
+        request.setClientName(requiredText(snapshot, "clientName"));
+        request.setInvoiceDate(date(snapshot.path("invoiceDate"), "invoiceDate"));
+        request.setDueDate(date(snapshot.path("dueDate"), "dueDate"));
+        request.setCurrency(snapshot.path("currency").isTextual() ? snapshot.path("currency").asText() : null);
+        request.setTaxRegion(snapshot.path("taxRegion").isTextual() ? snapshot.path("taxRegion").asText() : null);
+        request.setItems(items(snapshot.path("items")));
+        request.setShipmentIds(shipmentIds(snapshot.path("shipments")));
+        request.setVersion(version);
+        return request;
+    }
+    
+    private static List<UpdateInvoiceRequest.InvoiceItemRequest> items(JsonNode items) {
+        List<UpdateInvoiceRequest.InvoiceItemRequest> requests = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            JsonNode item = items.get(i);
+            String path = "items[" + i + "]";
+            if (!item.path("quantity").canConvertToInt() || !item.path("unitPrice").isNumber()) {
+                throw new IllegalArgumentException(path + " has no quantity or unit price");
+            }
+            requests.add(new UpdateInvoiceRequest.InvoiceItemRequest(
+                referencedId(item.path("shipment")),
+                requiredText(item, "description"),
+                item.path("quantity").intValue(),
+                item.path("unitPrice").decimalValue()));
+        }
+        return requests;
+    }
+    
+    private static List<Long> shipmentIds(JsonNode links) {
+        List<Long> ids = new ArrayList<>();
+        for (JsonNode link : links) {
+            Long id = referencedId(link.path("shipment"));
+            if (id == null) {
+                throw new IllegalArgumentException("shipments[" + ids.size() + "] has no shipment id");
+            }
+            ids.add(id);
+        }
+        return ids;
+    }
+    
+    /**
+     * ID of a serialized entity reference, or of a bare numeric reference.
+     */
+    private static Long referencedId(JsonNode reference) {
+        JsonNode id = reference.isObject() ? reference.path("id") : reference;
+        return id.canConvertToLong() ? id.longValue() : null;
+    }
+    
+    private static String requiredText(JsonNode node, String field) {
+        JsonNode value = node.path(field);
+        if (!value.isTextual()) {
+            throw new IllegalArgumentException(field + " is missing");
+        }
+        return value.asText();
+    }
+    
+    private static LocalDate date(JsonNode value, String field) {
+        try {
+            if (value.isTextual()) {
+                return LocalDate.parse(value.asText());
+            }
+            if (value.isArray() && value.size() == 3) {
+                return LocalDate.of(value.get(0).intValue(), value.get(1).intValue(), value.get(2).intValue());
+            }
+        } catch (DateTimeException e) {
+            throw new IllegalArgumentException(field + " is not a date: " + value, e);
+        }
+        throw new IllegalArgumentException(field + " is missing");
+    }
+}
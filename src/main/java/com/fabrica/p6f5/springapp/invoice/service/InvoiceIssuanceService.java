@@ -0,0 +1,204 @@
+package com.fabrica.p6f5.springapp.invoice.service;
+
+import com.fabrica.p6f5.springapp.audit.model.AuditLog;
+import com.fabrica.p6f5.springapp.audit.model.InvoiceHistory;
+import com.fabrica.p6f5.springapp.audit.service.AuditService;
+import com.fabrica.p6f5.springapp.events.dto.InvoiceEvent;
+import com.fabrica.p6f5.springapp.events.dto.InvoiceState;
+import com.fabrica.p6f5.springapp.events.service.InvoiceEventService;
+import com.fabrica.p6f5.springapp.invoice.dto.BulkIssuanceResult;
+import com.fabrica.p6f5.springapp.invoice.dto.InvoiceResponse;
+import com.fabrica.p6f5.springapp.invoice.model.Invoice;
+import com.fabrica.p6f5.springapp.invoice.repository.InvoiceBatchRepository;
+import com.fabrica.p6f5.springapp.invoice.repository.InvoiceRepository;
+import com.fabrica.p6f5.springapp.util.Constants;
+import com.fabrica.p6f5.springapp.util.InvoiceUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Invoice Issuance Service following Single Responsibility Principle.
+ * Issues ready drafts in bulk. Each chunk runs in its own transaction: drafts are
+ * claimed with SKIP LOCKED, folios are reserved as a block, statuses are updated
+ * with one statement and history/audit rows are written with JDBC batching.
+ * Several application nodes can run the job at once without double-issuing.
+ */
+@Service
+public class InvoiceIssuanceService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(InvoiceIssuanceService.class);
+    
+    private final InvoiceRepository invoiceRepository;
+    private final InvoiceBatchRepository invoiceBatchRepository;
+    private final AuditService auditService;
+    private final InvoiceEventService invoiceEventService;
+    private final TransactionTemplate transactionTemplate;
+    
+    @Value("${billing.issuance.scheduled-enabled:false}")
+    private boolean scheduledEnabled;
+    
+    @Value("${billing.issuance.chunk-size:500}")
+    private int chunkSize;
+    
+    @Value("${billing.issuance.max-per-run:50000}")
+    private int maxPerRun;
+    
+    public InvoiceIssuanceService(InvoiceRepository invoiceRepository,
+                                  InvoiceBatchRepository invoiceBatchRepository,
+                                  AuditService auditService,
+                                  InvoiceEventService invoiceEventService,
+                                  TransactionTemplate transactionTemplate) {
+        this.invoiceRepository = invoiceRepository;
+        this.invoiceBatchRepository = invoiceBatchRepository;
+        this.auditService = auditService;
+        this.invoiceEventService = invoiceEventService;
+        this.transactionTemplate = transactionTemplate;
+    }
+    
+    /**
+     * Issue ready drafts on a schedule.
+     */
+    @Scheduled(fixedDelayString = "${billing.issuance.interval-ms:60000}")
+    public void issueReadyDraftsOnSchedule() {
+        if (!scheduledEnabled) {
+            return;
+        }
+        try {
+            BulkIssuanceResult result = issueReadyDrafts(null, maxPerRun);
+            if (result.getIssued() > 0) {
+                logger.info("Scheduled issuance issued {} invoices in {} ms", result.getIssued(), result.getElapsedMillis());
+            }
+        } catch (Exception e) {
+            logger.error("Error during scheduled invoice issuance: {}", e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Issue up to {@code limit} ready drafts, one transaction per chunk.
+     * 
+     * @param issuedBy the issuing user, or null when run by the scheduler
+     * @param limit the maximum number of invoices to issue
+     * @return summary of the run
+     */
+    public BulkIssuanceResult issueReadyDrafts(Long issuedBy, int limit) {
+        BulkIssuanceResult result = new BulkIssuanceResult();
+        result.setStartedAt(LocalDateTime.now());
+        long start = System.nanoTime();
+        int max = Math.min(limit, maxPerRun);
+        
+        while (result.getIssued() < max) {
+            int claimSize = Math.min(chunkSize, max - result.getIssued());
+            int issuedBefore = result.getIssued();
+            Integer claimed = transactionTemplate.execute(status -> issueChunk(claimSize, issuedBy, result));
+            if (claimed == null || claimed == 0) {
+                break;
+            }
+            result.setChunks(result.getChunks() + 1);
+            if (claimed < claimSize || result.getIssued() == issuedBefore) {
+                break;
+            }
+        }
+        
+        result.setFinishedAt(LocalDateTime.now());
+        result.setElapsedMillis((System.nanoTime() - start) / 1_000_000);
+        logger.info("Bulk issuance finished: {} issued, {} skipped in {} chunks",
+                   result.getIssued(), result.getSkipped(), result.getChunks());
+        return result;
+    }
+    
+    /**
+     * Claim and issue one chunk of drafts inside the current transaction.
+     * 
+     * @return the number of drafts claimed
+     */
+    private int issueChunk(int claimSize, Long issuedBy, BulkIssuanceResult result) {
+        List<Invoice> claimed = invoiceRepository.findDraftsReadyForIssuance(PageRequest.of(0, claimSize));
+        if (claimed.isEmpty()) {
+            return 0;
+        }
+        
+        List<Invoice> drafts = new ArrayList<>(claimed.size());
+        int foliosNeeded = 0;
+        for (Invoice invoice : claimed) {
+            // The flag was read with the row lock held; Invoice.canBeIssued() would load every draft's items
+            if (Boolean.TRUE.equals(invoice.getReadyForIssue())) {
+                drafts.add(invoice);
+                if (invoice.getFiscalFolio() == null) {
+                    foliosNeeded++;
+                }
+            } else {
+                result.setSkipped(result.getSkipped() + 1);
+            }
+        }
+        if (drafts.isEmpty()) {
+            return claimed.size();
+        }
+        
+        Iterator<Long> folioNumbers = foliosNeeded > 0
+            ? invoiceBatchRepository.nextFiscalFolioNumbers(foliosNeeded).iterator()
+            : null;
+        Long[] invoiceIds = new Long[drafts.size()];
+        String[] fiscalFolios = new String[drafts.size()];
+        for (int i = 0; i < drafts.size(); i++) {
+            Invoice invoice = drafts.get(i);
+            invoiceIds[i] = invoice.getId();
+            fiscalFolios[i] = invoice.getFiscalFolio() != null
+                ? invoice.getFiscalFolio()
+                : InvoiceUtils.formatFiscalFolio(folioNumbers.next());
+        }
+        
+        LocalDateTime issuedAt = LocalDateTime.now();
+        int updated = invoiceBatchRepository.markIssued(invoiceIds, fiscalFolios, issuedAt);
+        if (updated != drafts.size()) {
+            throw new IllegalStateException("Expected to issue " + drafts.size() + " invoices but updated " + updated);
+        }
+        
+        writeHistoryAndAudit(drafts, fiscalFolios, issuedAt, issuedBy);
+        
+        if (result.getFirstInvoiceId() == null) {
+            result.setFirstInvoiceId(invoiceIds[0]);
+        }
+        result.setLastInvoiceId(invoiceIds[invoiceIds.length - 1]);
+        result.setIssued(result.getIssued() + drafts.size());
+        return claimed.size();
+    }
+    
+    /**
+     * Write history and audit rows for an issued chunk. Snapshots are built from
+     * DTOs so the managed entities stay untouched after the set-based update.
+     */
+    private void writeHistoryAndAudit(List<Invoice> drafts, String[] fiscalFolios, LocalDateTime issuedAt, Long issuedBy) {
+        List<InvoiceHistory> histories = new ArrayList<>(drafts.size());
+        List<AuditLog> auditLogs = new ArrayList<>(drafts.size());
+        List<InvoiceState> states = new ArrayList<>(drafts.size());
+        for (int i = 0; i < drafts.size(); i++) {
+            Invoice draft = drafts.get(i);
+            InvoiceResponse before = InvoiceResponse.fromEntity(draft);
+            InvoiceResponse after = before.copy();
+            after.setStatus(Invoice.InvoiceStatus.ISSUED.toString());
+            after.setFiscalFolio(fiscalFolios[i]);
+            after.setVersion(draft.getVersion() + 1);
+            after.setUpdatedAt(issuedAt);
+            
+            Long historyAuthor = issuedBy != null ? issuedBy : draft.getCreatedBy();
+            histories.add(auditService.buildInvoiceHistory(draft.getId(), draft.getVersion(), fiscalFolios[i],
+                draft.getInvoiceNumber(), after, historyAuthor));
+            auditLogs.add(auditService.buildAuditLog(Constants.ENTITY_TYPE_INVOICE, draft.getId(),
+                AuditLog.AuditAction.ISSUE, issuedBy, before, after, Constants.AUDIT_BULK_ISSUE));
+            states.add(InvoiceState.fromResponse(after));
+        }
+        auditService.saveInvoiceHistories(histories);
+        auditService.logEvents(auditLogs);
+        invoiceEventService.recordStates(InvoiceEvent.Type.ISSUED, states);
+    }
+}
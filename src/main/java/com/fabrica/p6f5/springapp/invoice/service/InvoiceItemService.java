@@ -8,6 +8,7 @@ import com.fabrica.p6f5.springapp.invoice.model.InvoiceItem;
 import com.fabrica.p6f5.springapp.invoice.repository.InvoiceItemRepository;
 import com.fabrica.p6f5.springapp.shipment.model.Shipment;
 import com.fabrica.p6f5.springapp.shipment.repository.ShipmentRepository;
+import com.fabrica.p6f5.springapp.tax.engine.TaxResult;
 import com.fabrica.p6f5.springapp.util.Constants;
 import com.fabrica.p6f5.springapp.util.InvoiceUtils;
 import org.springframework.stereotype.Service;
@@ -34,22 +35,34 @@ public class InvoiceItemService {
     /**
      * Add invoice items from create request.
      */
-    public void addInvoiceItems(Invoice invoice, List<CreateInvoiceRequest.InvoiceItemRequest> itemRequests) {
+    public void addInvoiceItems(Invoice invoice, List<CreateInvoiceRequest.InvoiceItemRequest> itemRequests, TaxResult tax) {
         List<InvoiceItem> items = InvoiceUtils.createInvoiceItems(itemRequests, invoice);
         linkItemsToShipments(items, itemRequests);
+        applyLineTaxes(items, tax);
         invoiceItemRepository.saveAll(items);
     }
     
     /**
      * Update invoice items from update request.
      */
-    public void updateInvoiceItems(Invoice invoice, Long invoiceId, List<UpdateInvoiceRequest.InvoiceItemRequest> itemRequests) {
+    public void updateInvoiceItems(Invoice invoice, Long invoiceId,
+                                   List<UpdateInvoiceRequest.InvoiceItemRequest> itemRequests, TaxResult tax) {
         invoiceItemRepository.deleteByInvoiceId(invoiceId);
         List<InvoiceItem> items = InvoiceUtils.createInvoiceItemsFromUpdate(itemRequests, invoice);
         linkItemsToShipmentsFromUpdate(items, itemRequests);
+        applyLineTaxes(items, tax);
         invoiceItemRepository.saveAll(items);
     }
     
+    /**
+     * Set the tax of each item, in request order.
+     */
+    private void applyLineTaxes(List<InvoiceItem> items, TaxResult tax) {
+        for (int i = 0; i < items.size(); i++) {
+            items.get(i).setTaxAmount(tax.getLineTax(i));
+        }
+    }
+    
     /**
      * Link items to shipments from create request.
      */
@@ -0,0 +1,260 @@
+package com.fabrica.p6f5.springapp.invoice.service;
+
+import com.fabrica.p6f5.springapp.audit.diff.InvoiceDiff;
+import com.fabrica.p6f5.springapp.audit.model.AuditLog;
+import com.fabrica.p6f5.springapp.audit.model.InvoiceHistory;
+import com.fabrica.p6f5.springapp.audit.service.AuditService;
+import com.fabrica.p6f5.springapp.events.dto.InvoiceEvent;
+import com.fabrica.p6f5.springapp.events.service.InvoiceEventService;
+import com.fabrica.p6f5.springapp.exception.BusinessException;
+import com.fabrica.p6f5.springapp.exception.ResourceNotFoundException;
+import com.fabrica.p6f5.springapp.invoice.dto.InvoiceResponse;
+import com.fabrica.p6f5.springapp.invoice.dto.RevertPreview;
+import com.fabrica.p6f5.springapp.invoice.dto.UpdateInvoiceRequest;
+import com.fabrica.p6f5.springapp.invoice.model.Invoice;
+import com.fabrica.p6f5.springapp.invoice.repository.InvoiceBatchRepository;
+import com.fabrica.p6f5.springapp.invoice.repository.InvoiceRepository;
+import com.fabrica.p6f5.springapp.invoice.revert.InvoiceSnapshot;
+import com.fabrica.p6f5.springapp.money.Money;
+import com.fabrica.p6f5.springapp.shipment.model.Shipment;
+import com.fabrica.p6f5.springapp.shipment.repository.ShipmentRepository;
+import com.fabrica.p6f5.springapp.tax.engine.TaxResult;
+import com.fabrica.p6f5.springapp.tax.service.TaxService;
+import com.fabrica.p6f5.springapp.util.Constants;
+import com.fabrica.p6f5.springapp.util.InvoiceUtils;
+import com.fabrica.p6f5.springapp.util.LruCache;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Invoice Revert Service following Single Responsibility Principle.
+ * Restores a draft to a prior history version in one transaction. The draft row is
+ * overwritten with a compare-and-set on its version, and items and shipment links are
+ * rewritten with one statement each. History versions never change once written, so the
+ * state reconstructed from each one is cached by invoice and version.
+ */
+@Service
+public class InvoiceRevertService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(InvoiceRevertService.class);
+    
+    private final InvoiceRepository invoiceRepository;
+    private final InvoiceBatchRepository invoiceBatchRepository;
+    private final ShipmentRepository shipmentRepository;
+    private final AuditService auditService;
+    private final InvoiceEventService invoiceEventService;
+    private final TaxService taxService;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+    private final LruCache<String, UpdateInvoiceRequest> restoredStates;
+    
+    public InvoiceRevertService(InvoiceRepository invoiceRepository,
+                                InvoiceBatchRepository invoiceBatchRepository,
+                                ShipmentRepository shipmentRepository,
+                                AuditService auditService,
+                                InvoiceEventService invoiceEventService,
+                                TaxService taxService,
+                                ObjectMapper objectMapper,
+                                EntityManager entityManager,
+                                @Value("${billing.revert.cache-size:1000}") int cacheSize) {
+        this.invoiceRepository = invoiceRepository;
+        this.invoiceBatchRepository = invoiceBatchRepository;
+        this.shipmentRepository = shipmentRepository;
+        this.auditService = auditService;
+        this.invoiceEventService = invoiceEventService;
+        this.taxService = taxService;
+        this.objectMapper = objectMapper;
+        this.entityManager = entityManager;
+        this.restoredStates = new LruCache<>(cacheSize);
+    }
+    
+    /**
+     * Preview reverting a draft: the state it would be restored to and the invoice
+     * fields that would change, with tax recomputed under the current rules.
+     */
+    public RevertPreview previewRevert(Long invoiceId, Integer targetVersion) {
+        Invoice invoice = findInvoiceById(invoiceId);
+        validateRevert(invoice, targetVersion);
+        UpdateInvoiceRequest restored = restoredState(invoiceId, targetVersion);
+    
+        Invoice reverted = InvoiceUtils.copyInvoice(invoice);
+        applyRestoredState(reverted, restored);
+        return new RevertPreview(invoiceId, invoice.getVersion(), targetVersion, restored,
+                                 InvoiceDiff.compare(invoice, reverted));
+    }
+    
+    /**
+     * Revert a draft to a prior version.
+     * 
+     * @param expectedVersion the version the caller last saw; the revert fails if the draft moved on
+     * @throws BusinessException if the draft was modified concurrently or cannot be reverted
+     */
+    @Transactional
+    public InvoiceResponse revertInvoice(Long invoiceId, Integer targetVersion, Integer expectedVersion, Long revertedBy) {
+        logger.info("Reverting draft invoice id: {} to version {}", invoiceId, targetVersion);
+    
+        Invoice invoice = findInvoiceById(invoiceId);
+        validateRevert(invoice, targetVersion);
+        if (!invoice.getVersion().equals(expectedVersion)) {
+            throw new BusinessException(Constants.INVOICE_MODIFIED);
+        }
+        UpdateInvoiceRequest restored = restoredState(invoiceId, targetVersion);
+        validateShipments(invoiceId, restored);
+    
+        Invoice before = InvoiceUtils.copyInvoice(invoice);
+        Invoice reverted = InvoiceUtils.copyInvoice(invoice);
+        TaxResult tax = applyRestoredState(reverted, restored);
+        LocalDateTime now = LocalDateTime.now();
+        int updated = invoiceBatchRepository.revertDraft(invoiceId, expectedVersion, reverted.getClientName(),
+            reverted.getInvoiceDate(), reverted.getDueDate(), reverted.getCurrency(), reverted.getTaxRegion(),
+            reverted.getSubtotal(), reverted.getTaxAmount(), reverted.getTotalAmount(), now);
+        if (updated == 0) {
+            throw new BusinessException(Constants.INVOICE_MODIFIED);
+        }
+        reverted.setVersion(expectedVersion + 1);
+        reverted.setUpdatedAt(now);
+    
+        // Snapshot the replaced state while the old items and links are still in place
+        auditService.saveInvoiceHistory(invoice.getId(), invoice.getVersion(), invoice.getFiscalFolio(),
+                                        invoice.getInvoiceNumber(), invoice, invoice.getCreatedBy());
+        rewriteItems(invoiceId, restored.getItems(), reverted.getCurrency(), tax, now);
+        invoiceBatchRepository.replaceShipmentLinks(invoiceId, restored.getShipmentIds().toArray(new Long[0]), now);
+    
+        auditService.markInvoiceVersionsReverted(invoiceId, targetVersion);
+        auditService.logInvoiceChange(AuditLog.AuditAction.REVERT, revertedBy, before, reverted,
+                                      String.format(Constants.AUDIT_REVERT, targetVersion));
+        invoiceEventService.record(InvoiceEvent.Type.UPDATED, reverted);
+    
+        // The loaded entity still holds the replaced items; read the reverted draft afresh
+        entityManager.detach(invoice);
+        logger.info("Draft invoice {} reverted to version {} as version {}", invoiceId, targetVersion, reverted.getVersion());
+        return InvoiceResponse.fromEntity(findInvoiceById(invoiceId));
+    }
+    
+    /**
+     * Validate that the invoice is a draft and the target is an earlier version.
+     */
+    private void validateRevert(Invoice invoice, Integer targetVersion) {
+        if (!invoice.canBeEdited()) {
+            throw new BusinessException(String.format(Constants.INVOICE_CANNOT_BE_EDITED, invoice.getStatus()));
+        }
+        if (targetVersion == null || targetVersion >= invoice.getVersion()) {
+            throw new BusinessException(String.format(Constants.INVOICE_REVERT_NOT_PRIOR,
+                                                      targetVersion, invoice.getId(), invoice.getVersion()));
+        }
+    }
+    
+    /**
+     * The state stored for a version, reconstructed once per version.
+     */
+    private UpdateInvoiceRequest restoredState(Long invoiceId, Integer version) {
+        return restoredStates.computeIfAbsent(invoiceId + ":" + version, key -> {
+            InvoiceHistory history = auditService.getInvoiceHistoryVersion(invoiceId, version)
+                .orElseThrow(() -> new ResourceNotFoundException(
+                    String.format(Constants.INVOICE_VERSION_NOT_FOUND, version, invoiceId)));
+            try {
+                return InvoiceSnapshot.toRequest(objectMapper.readTree(history.getInvoiceData()), version);
+            } catch (JsonProcessingException | IllegalArgumentException e) {
+                throw new BusinessException(
+                    String.format(Constants.INVOICE_SNAPSHOT_INVALID, version, invoiceId, e.getMessage()), e);
+            }
+        });
+    }
+    
+    /**
+     * Set the restored fields on an invoice and recompute its amounts and tax.
+     */
+    private TaxResult applyRestoredState(Invoice invoice, UpdateInvoiceRequest restored) {
+        invoice.setClientName(restored.getClientName());
+        invoice.setInvoiceDate(restored.getInvoiceDate());
+        invoice.setDueDate(restored.getDueDate());
+        invoice.setCurrency(restored.getCurrency() != null ? restored.getCurrency() : Constants.DEFAULT_CURRENCY);
+        invoice.setTaxRegion(restored.getTaxRegion());
+        invoice.setSubtotal(InvoiceUtils.calculateSubtotal(restored.getItems(), invoice.getCurrency()));
+    
+        TaxResult tax = taxService.calculate(invoice.getTaxRegion(), invoice.getClientName(), restored.getItems(),
+                                             invoice.getCurrency());
+        invoice.setTaxRegion(tax.getRegion());
+        invoice.setTaxAmount(tax.getTaxAmount());
+        invoice.setTotalAmount(invoice.getSubtotal().add(tax.getTaxAmount()));
+        return tax;
+    }
+    
+    /**
+     * Validate that every restored shipment still exists and that linked ones are not
+     * linked to another invoice by now.
+     */
+    private void validateShipments(Long invoiceId, UpdateInvoiceRequest restored) {
+        Set<Long> referenced = new LinkedHashSet<>(restored.getShipmentIds());
+        restored.getItems().stream()
+            .map(UpdateInvoiceRequest.InvoiceItemRequest::getShipmentId)
+            .filter(Objects::nonNull)
+            .forEach(referenced::add);
+        if (referenced.isEmpty()) {
+            return;
+        }
+    
+        Set<Long> existing = new HashSet<>();
+        shipmentRepository.findAllById(referenced).stream().map(Shipment::getId).forEach(existing::add);
+        for (Long shipmentId : referenced) {
+            if (!existing.contains(shipmentId)) {
+                throw new ResourceNotFoundException(Constants.SHIPMENT_NOT_FOUND + shipmentId);
+            }
+        }
+    
+        if (!restored.getShipmentIds().isEmpty()) {
+            List<Long> linkedElsewhere = invoiceBatchRepository.findShipmentsLinkedElsewhere(
+                invoiceId, restored.getShipmentIds().toArray(new Long[0]));
+            if (!linkedElsewhere.isEmpty()) {
+                throw new BusinessException(String.format(Constants.SHIPMENT_LINKED_TO_ANOTHER, linkedElsewhere.get(0)));
+            }
+        }
+    }
+    
+    /**
+     * Replace the items of the draft with the restored ones, priced and taxed like an update.
+     */
+    private void rewriteItems(Long invoiceId, List<UpdateInvoiceRequest.InvoiceItemRequest> items, String currency,
+                              TaxResult tax, LocalDateTime now) {
+        int count = items.size();
+        Long[] shipmentIds = new Long[count];
+        String[] descriptions = new String[count];
+        Integer[] quantities = new Integer[count];
+        BigDecimal[] unitPrices = new BigDecimal[count];
+        BigDecimal[] totalPrices = new BigDecimal[count];
+        BigDecimal[] taxes = new BigDecimal[count];
+        for (int i = 0; i < count; i++) {
+            UpdateInvoiceRequest.InvoiceItemRequest item = items.get(i);
+            shipmentIds[i] = item.getShipmentId();
+            descriptions[i] = item.getDescription();
+            quantities[i] = item.getQuantity();
+            unitPrices[i] = item.getUnitPrice();
+            totalPrices[i] = Money.lineTotal(item.getUnitPrice(), item.getQuantity(), currency);
+            taxes[i] = tax.getLineTax(i);
+        }
+        invoiceBatchRepository.replaceItems(invoiceId, shipmentIds, descriptions, quantities, unitPrices,
+                                            totalPrices, taxes, now);
+    }
+    
+    /**
+     * Find invoice by ID or throw exception.
+     */
+    private Invoice findInvoiceById(Long invoiceId) {
+        return invoiceRepository.findById(invoiceId)
+            .orElseThrow(() -> new ResourceNotFoundException(Constants.INVOICE_NOT_FOUND + invoiceId));
+    }
+}
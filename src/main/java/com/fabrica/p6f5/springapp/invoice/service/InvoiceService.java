@@ -2,6 +2,8 @@ package com.fabrica.p6f5.springapp.invoice.service;
 
 import com.fabrica.p6f5.springapp.audit.model.AuditLog;
 import com.fabrica.p6f5.springapp.audit.service.AuditService;
+import com.fabrica.p6f5.springapp.events.dto.InvoiceEvent;
+import com.fabrica.p6f5.springapp.events.service.InvoiceEventService;
 import com.fabrica.p6f5.springapp.exception.BusinessException;
 import com.fabrica.p6f5.springapp.exception.ResourceNotFoundException;
 import com.fabrica.p6f5.springapp.invoice.dto.CreateInvoiceRequest;
@@ -9,10 +11,14 @@ import com.fabrica.p6f5.springapp.invoice.dto.InvoiceResponse;
 import com.fabrica.p6f5.springapp.invoice.dto.UpdateInvoiceRequest;
 import com.fabrica.p6f5.springapp.invoice.model.Invoice;
 import com.fabrica.p6f5.springapp.invoice.model.InvoiceShipment;
+import com.fabrica.p6f5.springapp.invoice.repository.InvoiceBatchRepository;
 import com.fabrica.p6f5.springapp.invoice.repository.InvoiceRepository;
 import com.fabrica.p6f5.springapp.invoice.repository.InvoiceShipmentRepository;
+import com.fabrica.p6f5.springapp.money.InvoiceLine;
 import com.fabrica.p6f5.springapp.shipment.model.Shipment;
 import com.fabrica.p6f5.springapp.shipment.repository.ShipmentRepository;
+import com.fabrica.p6f5.springapp.tax.engine.TaxResult;
+import com.fabrica.p6f5.springapp.tax.service.TaxService;
 import com.fabrica.p6f5.springapp.util.Constants;
 import com.fabrica.p6f5.springapp.util.InvoiceUtils;
 import jakarta.transaction.Transactional;
@@ -20,7 +26,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -36,22 +41,31 @@ public class InvoiceService {
     private static final Logger logger = LoggerFactory.getLogger(InvoiceService.class);
     
     private final InvoiceRepository invoiceRepository;
+    private final InvoiceBatchRepository invoiceBatchRepository;
     private final InvoiceShipmentRepository invoiceShipmentRepository;
     private final ShipmentRepository shipmentRepository;
     private final AuditService auditService;
     private final InvoiceItemService invoiceItemService;
+    private final TaxService taxService;
+    private final InvoiceEventService invoiceEventService;
     
     public InvoiceService(
             InvoiceRepository invoiceRepository,
+            InvoiceBatchRepository invoiceBatchRepository,
             InvoiceShipmentRepository invoiceShipmentRepository,
             ShipmentRepository shipmentRepository,
             AuditService auditService,
-            InvoiceItemService invoiceItemService) {
+            InvoiceItemService invoiceItemService,
+            TaxService taxService,
+            InvoiceEventService invoiceEventService) {
         this.invoiceRepository = invoiceRepository;
+        this.invoiceBatchRepository = invoiceBatchRepository;
         this.invoiceShipmentRepository = invoiceShipmentRepository;
         this.shipmentRepository = shipmentRepository;
         this.auditService = auditService;
         this.invoiceItemService = invoiceItemService;
+        this.taxService = taxService;
+        this.invoiceEventService = invoiceEventService;
     }
     
     /**
@@ -62,12 +76,14 @@ public class InvoiceService {
         logger.info("Creating draft invoice for client: {}", request.getClientName());
         
         Invoice invoice = createInvoiceFromRequest(request, createdBy);
+        TaxResult tax = applyTax(invoice, request.getItems());
         Invoice savedInvoice = invoiceRepository.save(invoice);
         
-        invoiceItemService.addInvoiceItems(savedInvoice, request.getItems());
+        invoiceItemService.addInvoiceItems(savedInvoice, request.getItems(), tax);
         linkShipments(savedInvoice, request.getShipmentIds());
         
         logAuditEvent(savedInvoice, createdBy, AuditLog.AuditAction.CREATE, Constants.AUDIT_CREATE_DRAFT);
+        invoiceEventService.record(InvoiceEvent.Type.CREATED, savedInvoice);
         logger.info("Draft invoice created with id: {}", savedInvoice.getId());
         
         return getInvoiceResponse(savedInvoice.getId());
@@ -84,17 +100,24 @@ public class InvoiceService {
         invoice.setDueDate(request.getDueDate());
         invoice.setStatus(Invoice.InvoiceStatus.DRAFT);
         invoice.setCurrency(request.getCurrency() != null ? request.getCurrency() : Constants.DEFAULT_CURRENCY);
+        invoice.setTaxRegion(request.getTaxRegion());
         invoice.setCreatedBy(createdBy);
-        
-        BigDecimal subtotal = InvoiceUtils.calculateSubtotal(request.getItems());
-        BigDecimal taxAmount = request.getTaxAmount() != null ? request.getTaxAmount() : BigDecimal.ZERO;
-        invoice.setSubtotal(subtotal);
-        invoice.setTaxAmount(taxAmount);
-        invoice.setTotalAmount(subtotal.add(taxAmount));
+        invoice.setSubtotal(InvoiceUtils.calculateSubtotal(request.getItems(), invoice.getCurrency()));
         
         return invoice;
     }
     
+    /**
+     * Compute the tax of an invoice from the tax rules and set its tax and total amounts.
+     */
+    private TaxResult applyTax(Invoice invoice, List<? extends InvoiceLine> items) {
+        TaxResult tax = taxService.calculate(invoice.getTaxRegion(), invoice.getClientName(), items, invoice.getCurrency());
+        invoice.setTaxRegion(tax.getRegion());
+        invoice.setTaxAmount(tax.getTaxAmount());
+        invoice.setTotalAmount(invoice.getSubtotal().add(tax.getTaxAmount()));
+        return tax;
+    }
+    
     
     /**
      * Link shipments to invoice.
@@ -148,11 +171,13 @@ public class InvoiceService {
         Invoice oldInvoice = InvoiceUtils.copyInvoice(invoice);
         
         updateInvoiceFields(invoice, request);
-        invoiceItemService.updateInvoiceItems(invoice, invoiceId, request.getItems());
+        TaxResult tax = applyTax(invoice, request.getItems());
+        invoiceItemService.updateInvoiceItems(invoice, invoiceId, request.getItems(), tax);
         updateInvoiceShipments(invoice, invoiceId, request.getShipmentIds());
         
         Invoice updatedInvoice = invoiceRepository.save(invoice);
         logAuditEvent(updatedInvoice, updatedBy, AuditLog.AuditAction.UPDATE, Constants.AUDIT_UPDATE_DRAFT, oldInvoice);
+        invoiceEventService.record(InvoiceEvent.Type.UPDATED, updatedInvoice);
         
         logger.info("Draft invoice updated with id: {}", updatedInvoice.getId());
         return getInvoiceResponse(updatedInvoice.getId());
@@ -206,11 +231,8 @@ public class InvoiceService {
         invoice.setInvoiceDate(request.getInvoiceDate());
         invoice.setDueDate(request.getDueDate());
         invoice.setCurrency(request.getCurrency() != null ? request.getCurrency() : Constants.DEFAULT_CURRENCY);
-        invoice.setTaxAmount(request.getTaxAmount() != null ? request.getTaxAmount() : BigDecimal.ZERO);
-        
-        BigDecimal subtotal = InvoiceUtils.calculateSubtotal(request.getItems());
-        invoice.setSubtotal(subtotal);
-        invoice.setTotalAmount(subtotal.add(invoice.getTaxAmount()));
+        invoice.setTaxRegion(request.getTaxRegion());
+        invoice.setSubtotal(InvoiceUtils.calculateSubtotal(request.getItems(), invoice.getCurrency()));
     }
     
     
@@ -256,13 +278,15 @@ public class InvoiceService {
         
         Invoice invoice = findInvoiceById(invoiceId);
         validateInvoiceCanBeIssued(invoice);
+        Invoice draft = InvoiceUtils.copyInvoice(invoice);
         
         ensureFiscalFolioExists(invoice);
         invoice.setStatus(Invoice.InvoiceStatus.ISSUED);
         
         Invoice issuedInvoice = invoiceRepository.save(invoice);
         saveInvoiceHistoryOnIssue(issuedInvoice, issuedBy);
-        logAuditEvent(issuedInvoice, issuedBy, AuditLog.AuditAction.ISSUE, Constants.AUDIT_ISSUE, invoice);
+        logAuditEvent(issuedInvoice, issuedBy, AuditLog.AuditAction.ISSUE, Constants.AUDIT_ISSUE, draft);
+        invoiceEventService.record(InvoiceEvent.Type.ISSUED, issuedInvoice);
         
         logger.info("Invoice issued with fiscal folio: {}", issuedInvoice.getFiscalFolio());
         return getInvoiceResponse(issuedInvoice.getId());
@@ -278,11 +302,11 @@ public class InvoiceService {
     }
     
     /**
-     * Ensure fiscal folio exists, generate if not.
+     * Ensure fiscal folio exists, reserving one from the same sequence as bulk issuance if not.
      */
     private void ensureFiscalFolioExists(Invoice invoice) {
         if (invoice.getFiscalFolio() == null) {
-            invoice.setFiscalFolio(InvoiceUtils.generateFiscalFolio());
+            invoice.setFiscalFolio(InvoiceUtils.formatFiscalFolio(invoiceBatchRepository.nextFiscalFolioNumber()));
         }
     }
     
@@ -347,14 +371,14 @@ public class InvoiceService {
      * Log audit event.
      */
     private void logAuditEvent(Invoice invoice, Long userId, AuditLog.AuditAction action, String summary) {
-        logAuditEvent(invoice, userId, action, summary, null);
+        auditService.logEvent(Constants.ENTITY_TYPE_INVOICE, invoice.getId(), action, userId, null, invoice, summary);
     }
     
     /**
-     * Log audit event with old data.
+     * Log audit event as a field diff against the old state.
      */
     private void logAuditEvent(Invoice invoice, Long userId, AuditLog.AuditAction action, String summary, Invoice oldInvoice) {
-        auditService.logEvent(Constants.ENTITY_TYPE_INVOICE, invoice.getId(), action, userId, oldInvoice, invoice, summary);
+        auditService.logInvoiceChange(action, userId, oldInvoice, invoice, summary);
     }
 }
 
@@ -0,0 +1,132 @@
+package com.fabrica.p6f5.springapp.invoice.service;
+
+import com.fabrica.p6f5.springapp.exception.BusinessException;
+import com.fabrica.p6f5.springapp.invoice.dto.InvoiceChangePage;
+import com.fabrica.p6f5.springapp.invoice.dto.InvoiceResponse;
+import com.fabrica.p6f5.springapp.invoice.dto.InvoiceTombstone;
+import com.fabrica.p6f5.springapp.invoice.model.Invoice;
+import com.fabrica.p6f5.springapp.invoice.repository.InvoiceRepository;
+import com.fabrica.p6f5.springapp.invoice.repository.InvoiceTombstoneRepository;
+import com.fabrica.p6f5.springapp.util.Constants;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Invoice Sync Service following Single Responsibility Principle.
+ * Serves the invoices changed and deleted since a watermark, so integrators sync incrementally.
+ * <p>
+ * Changes are read in (time, invoice ID) order and only up to a horizon
+ * {@code billing.sync.settle-ms} in the past. An invoice's update time is taken before its
+ * transaction commits, so a change could otherwise become visible behind a watermark already
+ * handed out; the horizon must stay longer than the longest invoice transaction.
+ * <p>
+ * Update times come from the JVM clock but tombstones are stamped by the database clock, since
+ * invoices are only deleted outside the application. A database clock running behind the
+ * application eats into the horizon, so it must also cover that skew.
+ */
+@Service
+public class InvoiceSyncService {
+    
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int MAX_PAGE_SIZE = 500;
+    
+    private static final char WATERMARK_SEPARATOR = '|';
+    private static final LocalDateTime START = LocalDateTime.of(1970, 1, 1, 0, 0);
+    
+    private final InvoiceRepository invoiceRepository;
+    private final InvoiceTombstoneRepository invoiceTombstoneRepository;
+    private final long settleMillis;
+    
+    public InvoiceSyncService(InvoiceRepository invoiceRepository,
+                              InvoiceTombstoneRepository invoiceTombstoneRepository,
+                              @Value("${billing.sync.settle-ms:10000}") long settleMillis) {
+        this.invoiceRepository = invoiceRepository;
+        this.invoiceTombstoneRepository = invoiceTombstoneRepository;
+        this.settleMillis = settleMillis;
+    }
+    
+    /**
+     * Invoices changed or deleted after a watermark.
+     * 
+     * @param watermark the watermark returned by the previous call, or null to start from the beginning
+     * @param limit the page size, clamped to {@link #MAX_PAGE_SIZE}
+     * @return the changes, with the watermark to continue from
+     */
+    @Transactional(readOnly = true)
+    public InvoiceChangePage getChanges(String watermark, Integer limit) {
+        int pageSize = clampPageSize(limit);
+        LocalDateTime afterTime = START;
+        long afterId = 0;
+        if (watermark != null && !watermark.isBlank()) {
+            String decoded = decodeWatermark(watermark);
+            int separator = decoded.indexOf(WATERMARK_SEPARATOR);
+            try {
+                afterTime = LocalDateTime.parse(decoded.substring(0, separator));
+                afterId = Long.parseLong(decoded.substring(separator + 1));
+            } catch (RuntimeException e) {
+                throw new BusinessException(String.format(Constants.SYNC_INVALID_WATERMARK, watermark));
+            }
+        }
+        
+        LocalDateTime horizon = LocalDateTime.now().minus(settleMillis, ChronoUnit.MILLIS);
+        List<Invoice> changed = invoiceRepository.findChangedSince(afterTime, afterId, horizon,
+                                                                   PageRequest.of(0, pageSize + 1));
+        List<InvoiceTombstone> deleted = invoiceTombstoneRepository.findDeletedSince(afterTime, afterId, horizon,
+                                                                                    pageSize + 1);
+        
+        // Merge both streams in watermark order, so the page ends at one position in the combined stream
+        List<InvoiceResponse> invoices = new ArrayList<>();
+        List<InvoiceTombstone> tombstones = new ArrayList<>();
+        int c = 0;
+        int d = 0;
+        while (c + d < pageSize && (c < changed.size() || d < deleted.size())) {
+            if (d == deleted.size() || (c < changed.size() && isBefore(changed.get(c), deleted.get(d)))) {
+                Invoice invoice = changed.get(c++);
+                invoices.add(InvoiceResponse.fromEntity(invoice));
+                afterTime = invoice.getUpdatedAt();
+                afterId = invoice.getId();
+            } else {
+                InvoiceTombstone tombstone = deleted.get(d++);
+                tombstones.add(tombstone);
+                afterTime = tombstone.getDeletedAt();
+                afterId = tombstone.getInvoiceId();
+            }
+        }
+        boolean hasMore = c < changed.size() || d < deleted.size();
+        return new InvoiceChangePage(invoices, tombstones, encodeWatermark(afterTime, afterId), hasMore);
+    }
+    
+    private static boolean isBefore(Invoice invoice, InvoiceTombstone tombstone) {
+        int byTime = invoice.getUpdatedAt().compareTo(tombstone.getDeletedAt());
+        return byTime != 0 ? byTime < 0 : invoice.getId() <= tombstone.getInvoiceId();
+    }
+    
+    private static String encodeWatermark(LocalDateTime time, long id) {
+        String value = time.toString() + WATERMARK_SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private static String decodeWatermark(String watermark) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(watermark), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException(String.format(Constants.SYNC_INVALID_WATERMARK, watermark));
+        }
+    }
+    
+    private int clampPageSize(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
+}
@@ -0,0 +1,95 @@
+package com.fabrica.p6f5.springapp.money;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Scale and rounding rules per ISO 4217 currency.
+ * The scale is the currency's minor-unit digits (2 for USD, 0 for JPY, 3 for KWD);
+ * unknown codes use {@link #DEFAULT_SCALE}. Amounts that need rounding use HALF_UP.
+ */
+public final class CurrencyRules {
+    
+    private CurrencyRules() {
+        // Utility class - prevent instantiation
+    }
+    
+    public static final int DEFAULT_SCALE = 2;
+    public static final RoundingMode ROUNDING = RoundingMode.HALF_UP;
+    
+    /**
+     * Returned by {@link #toMinorUnits} when an amount has no exact long representation.
+     */
+    public static final long NOT_REPRESENTABLE = Long.MIN_VALUE;
+    
+    private static final int MAX_MINOR_DIGITS = 18;
+    
+    private static final long[] TEN_POWERS = new long[MAX_MINOR_DIGITS + 1];
+    
+    private static final Map<String, Integer> SCALES;
+    
+    static {
+        Map<String, Integer> scales = new HashMap<>();
+        for (Currency currency : Currency.getAvailableCurrencies()) {
+            int digits = currency.getDefaultFractionDigits();
+            scales.put(currency.getCurrencyCode(), digits >= 0 ? digits : DEFAULT_SCALE);
+        }
+        SCALES = Map.copyOf(scales);
+        TEN_POWERS[0] = 1;
+        for (int i = 1; i < TEN_POWERS.length; i++) {
+            TEN_POWERS[i] = TEN_POWERS[i - 1] * 10;
+        }
+    }
+    
+    /**
+     * Minor-unit digits of a currency.
+     */
+    public static int scaleOf(String currency) {
+        if (currency == null) {
+            return DEFAULT_SCALE;
+        }
+        Integer scale = SCALES.get(currency);
+        return scale != null ? scale : DEFAULT_SCALE;
+    }
+    
+    /**
+     * Convert an amount to minor units without rounding. The unscaled value is
+     * multiplied by a power of ten as a long rather than through movePointRight,
+     * so the only allocation is the BigInteger behind {@link BigDecimal#unscaledValue()}.
+     * 
+     * @return the amount in minor units, or {@link #NOT_REPRESENTABLE} when the amount
+     *         has more decimals than the scale or more than 18 digits in minor units
+     */
+    public static long toMinorUnits(BigDecimal amount, int scale) {
+        if (amount.scale() > scale) {
+            amount = amount.stripTrailingZeros();
+            if (amount.scale() > scale) {
+                return NOT_REPRESENTABLE;
+            }
+        }
+        BigInteger unscaled = amount.unscaledValue();
+        if (unscaled.bitLength() >= 63) {
+            return NOT_REPRESENTABLE;
+        }
+        long value = unscaled.longValue();
+        if (value == 0) {
+            return 0;
+        }
+        int shift = scale - amount.scale();
+        if (shift > MAX_MINOR_DIGITS || Math.abs(value) >= TEN_POWERS[MAX_MINOR_DIGITS - shift]) {
+            return NOT_REPRESENTABLE;
+        }
+        return value * TEN_POWERS[shift];
+    }
+    
+    /**
+     * Round an amount to the scale of a currency.
+     */
+    public static BigDecimal round(BigDecimal amount, String currency) {
+        return amount.setScale(scaleOf(currency), ROUNDING);
+    }
+}
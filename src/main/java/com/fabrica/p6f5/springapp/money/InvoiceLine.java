@@ -0,0 +1,14 @@
+package com.fabrica.p6f5.springapp.money;
+
+import java.math.BigDecimal;
+
+/**
+ * A priced line: unit price times quantity.
+ * Implemented by the invoice item requests so totals can be computed without type checks.
+ */
+public interface InvoiceLine {
+    
+    BigDecimal getUnitPrice();
+    
+    Integer getQuantity();
+}
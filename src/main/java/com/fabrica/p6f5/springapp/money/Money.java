@@ -0,0 +1,91 @@
+package com.fabrica.p6f5.springapp.money;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Line-total and subtotal arithmetic in long minor units.
+ * Prices with no more decimals than the currency allows are multiplied and summed
+ * as longs with overflow checks; anything else, or any overflow, falls back to
+ * exact BigDecimal arithmetic, so results always equal unitPrice * quantity summed exactly.
+ * Results carry the currency scale (or the price scale, when a price has more decimals).
+ */
+public final class Money {
+    
+    private Money() {
+        // Utility class - prevent instantiation
+    }
+    
+    /**
+     * Total of one line.
+     * 
+     * @return unitPrice * quantity, or zero when either is missing
+     */
+    public static BigDecimal lineTotal(BigDecimal unitPrice, Integer quantity, String currency) {
+        if (unitPrice == null || quantity == null) {
+            return BigDecimal.ZERO;
+        }
+        int scale = CurrencyRules.scaleOf(currency);
+        long minor = lineTotalMinor(unitPrice, quantity, scale);
+        if (minor != CurrencyRules.NOT_REPRESENTABLE) {
+            return BigDecimal.valueOf(minor, scale);
+        }
+        return unitPrice.multiply(BigDecimal.valueOf(quantity));
+    }
+    
+    /**
+     * Sum of line totals.
+     * 
+     * @return the subtotal, or zero for no lines
+     */
+    public static BigDecimal subtotal(List<? extends InvoiceLine> lines, String currency) {
+        if (lines == null || lines.isEmpty()) {
+            return BigDecimal.ZERO;
+        }
+        int scale = CurrencyRules.scaleOf(currency);
+        long sum = 0;
+        for (int i = 0; i < lines.size(); i++) {
+            InvoiceLine line = lines.get(i);
+            if (line.getUnitPrice() == null || line.getQuantity() == null) {
+                continue;
+            }
+            long minor = lineTotalMinor(line.getUnitPrice(), line.getQuantity(), scale);
+            if (minor == CurrencyRules.NOT_REPRESENTABLE) {
+                return subtotalExact(lines);
+            }
+            try {
+                sum = Math.addExact(sum, minor);
+            } catch (ArithmeticException e) {
+                return subtotalExact(lines);
+            }
+        }
+        return BigDecimal.valueOf(sum, scale);
+    }
+    
+    /**
+     * Total of one line in minor units of the given scale.
+     * 
+     * @return the total, or {@link CurrencyRules#NOT_REPRESENTABLE} when it has no exact long value
+     */
+    public static long lineTotalMinor(BigDecimal unitPrice, int quantity, int scale) {
+        long priceMinor = CurrencyRules.toMinorUnits(unitPrice, scale);
+        if (priceMinor == CurrencyRules.NOT_REPRESENTABLE) {
+            return CurrencyRules.NOT_REPRESENTABLE;
+        }
+        try {
+            return Math.multiplyExact(priceMinor, (long) quantity);
+        } catch (ArithmeticException e) {
+            return CurrencyRules.NOT_REPRESENTABLE;
+        }
+    }
+    
+    private static BigDecimal subtotalExact(List<? extends InvoiceLine> lines) {
+        BigDecimal sum = BigDecimal.ZERO;
+        for (InvoiceLine line : lines) {
+            if (line.getUnitPrice() != null && line.getQuantity() != null) {
+                sum = sum.add(line.getUnitPrice().multiply(BigDecimal.valueOf(line.getQuantity())));
+            }
+        }
+        return sum;
+    }
+}
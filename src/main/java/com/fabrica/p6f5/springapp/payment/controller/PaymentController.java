@@ -0,0 +1,87 @@
+package com.fabrica.p6f5.springapp.payment.controller;
+
+import com.fabrica.p6f5.springapp.dto.ApiResponse;
+import com.fabrica.p6f5.springapp.entity.User;
+import com.fabrica.p6f5.springapp.payment.dto.PaymentResponse;
+import com.fabrica.p6f5.springapp.payment.dto.RecordPaymentRequest;
+import com.fabrica.p6f5.springapp.payment.dto.SettlementRequest;
+import com.fabrica.p6f5.springapp.payment.dto.SettlementResult;
+import com.fabrica.p6f5.springapp.payment.service.PaymentService;
+import com.fabrica.p6f5.springapp.payment.service.SettlementService;
+import com.fabrica.p6f5.springapp.util.Constants;
+import com.fabrica.p6f5.springapp.util.ResponseUtils;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Payment Controller following Single Responsibility Principle.
+ * Handles all payment-related HTTP requests.
+ */
+@RestController
+@RequestMapping("/api/v1")
+@Tag(name = "Payment API", description = "API for recording payments and settling bank statements")
+public class PaymentController {
+    
+    private static final Logger logger = LoggerFactory.getLogger(PaymentController.class);
+    
+    private final PaymentService paymentService;
+    private final SettlementService settlementService;
+    
+    public PaymentController(PaymentService paymentService, SettlementService settlementService) {
+        this.paymentService = paymentService;
+        this.settlementService = settlementService;
+    }
+    
+    /**
+     * Record a payment for an invoice
+     */
+    @PostMapping("/invoices/{invoiceId}/payments")
+    @Operation(summary = "Record a payment", description = "Applies a full or partial payment to an ISSUED invoice. " +
+               "Requests are idempotent per Idempotency-Key header")
+    public ResponseEntity<ApiResponse<PaymentResponse>> recordPayment(
+            @Parameter(description = "Invoice ID") @PathVariable Long invoiceId,
+            @RequestHeader(value = Constants.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @Valid @RequestBody RecordPaymentRequest request,
+            @AuthenticationPrincipal User user) {
+        logger.info("Recording payment for invoice id: {} by user: {}", invoiceId, user.getUsername());
+        PaymentResponse response = paymentService.recordPayment(invoiceId, request, idempotencyKey, user.getId());
+        if (response.isReplayed()) {
+            return ResponseUtils.success(response, "Payment already recorded");
+        }
+        return ResponseUtils.created(response, "Payment recorded successfully");
+    }
+    
+    /**
+     * Get payments for an invoice
+     */
+    @GetMapping("/invoices/{invoiceId}/payments")
+    @Operation(summary = "Get invoice payments", description = "Retrieves all payments applied to an invoice")
+    public ResponseEntity<ApiResponse<List<PaymentResponse>>> getPayments(
+            @Parameter(description = "Invoice ID") @PathVariable Long invoiceId) {
+        List<PaymentResponse> response = paymentService.getPayments(invoiceId);
+        return ResponseUtils.success(response, "Payments retrieved successfully");
+    }
+    
+    /**
+     * Settle a batch of bank statement lines
+     */
+    @PostMapping("/payments/settlements")
+    @Operation(summary = "Settle bank statement lines", description = "Matches statement lines to invoices by " +
+               "invoice number or fiscal folio and applies them as payments")
+    public ResponseEntity<ApiResponse<SettlementResult>> settle(
+            @Valid @RequestBody SettlementRequest request,
+            @AuthenticationPrincipal User user) {
+        logger.info("Settling {} statement lines by user: {}", request.getLines().size(), user.getUsername());
+        SettlementResult response = settlementService.settle(request, user.getId());
+        return ResponseUtils.success(response, "Settlement processed successfully");
+    }
+}
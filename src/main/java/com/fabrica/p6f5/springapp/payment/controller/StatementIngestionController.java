@@ -0,0 +1,51 @@
+package com.fabrica.p6f5.springapp.payment.controller;
+
+import com.fabrica.p6f5.springapp.dto.ApiResponse;
+import com.fabrica.p6f5.springapp.payment.dto.StatementIngestionReport;
+import com.fabrica.p6f5.springapp.payment.service.StatementIngestionService;
+import com.fabrica.p6f5.springapp.util.ResponseUtils;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Statement Ingestion Controller following Single Responsibility Principle.
+ * Handles HTTP requests for bank statement file ingestion runs.
+ */
+@RestController
+@RequestMapping("/api/v1/payments/statements")
+@Tag(name = "Statement Ingestion API", description = "API for ingesting bank statement files")
+public class StatementIngestionController {
+    
+    private final StatementIngestionService statementIngestionService;
+    
+    public StatementIngestionController(StatementIngestionService statementIngestionService) {
+        this.statementIngestionService = statementIngestionService;
+    }
+    
+    /**
+     * Ingest pending statement files now (Admin only)
+     */
+    @PostMapping("/ingest")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Ingest statement files", description = "Processes all files waiting in the drop directory")
+    public ResponseEntity<ApiResponse<List<StatementIngestionReport>>> ingestPendingFiles() throws IOException {
+        List<StatementIngestionReport> response = statementIngestionService.ingestPendingFiles();
+        return ResponseUtils.success(response, "Statement files ingested successfully");
+    }
+    
+    /**
+     * Get recent ingestion runs
+     */
+    @GetMapping("/runs")
+    @Operation(summary = "Get ingestion runs", description = "Retrieves running and recent ingestion runs with metrics")
+    public ResponseEntity<ApiResponse<List<StatementIngestionReport>>> getRecentRuns() {
+        List<StatementIngestionReport> response = statementIngestionService.getRecentRuns();
+        return ResponseUtils.success(response, "Ingestion runs retrieved successfully");
+    }
+}
@@ -0,0 +1,53 @@
+package com.fabrica.p6f5.springapp.payment.dto;
+
+import com.fabrica.p6f5.springapp.payment.model.Payment;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * DTO for payment responses.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentResponse {
+    
+    private Long id;
+    private Long invoiceId;
+    private BigDecimal amount;
+    private String currency;
+    private LocalDate paymentDate;
+    private String method;
+    private String reference;
+    private String idempotencyKey;
+    private Long recordedBy;
+    private LocalDateTime createdAt;
+    private BigDecimal invoiceAmountPaid;
+    private String invoiceStatus;
+    private boolean replayed;
+    
+    /**
+     * Convert Payment entity to PaymentResponse DTO
+     */
+    public static PaymentResponse fromEntity(Payment payment) {
+        PaymentResponse response = new PaymentResponse();
+        response.setId(payment.getId());
+        response.setInvoiceId(payment.getInvoice().getId());
+        response.setAmount(payment.getAmount());
+        response.setCurrency(payment.getCurrency());
+        response.setPaymentDate(payment.getPaymentDate());
+        response.setMethod(payment.getMethod().toString());
+        response.setReference(payment.getReference());
+        response.setIdempotencyKey(payment.getIdempotencyKey());
+        response.setRecordedBy(payment.getRecordedBy());
+        response.setCreatedAt(payment.getCreatedAt());
+        response.setInvoiceAmountPaid(payment.getInvoice().getAmountPaid());
+        response.setInvoiceStatus(payment.getInvoice().getStatus().toString());
+        return response;
+    }
+}
@@ -0,0 +1,32 @@
+package com.fabrica.p6f5.springapp.payment.dto;
+
+import com.fabrica.p6f5.springapp.payment.model.Payment;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * DTO for recording a payment against an invoice.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecordPaymentRequest {
+    
+    @NotNull(message = "Amount is required")
+    @Positive(message = "Amount must be positive")
+    private BigDecimal amount;
+    
+    private String currency;
+    
+    private LocalDate paymentDate;
+    
+    private Payment.PaymentMethod method = Payment.PaymentMethod.BANK_TRANSFER;
+    
+    private String reference;
+}
@@ -0,0 +1,52 @@
+package com.fabrica.p6f5.springapp.payment.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * DTO for settling a batch of bank statement lines against invoices.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SettlementRequest {
+    
+    @NotEmpty(message = "At least one statement line is required")
+    @Size(max = 10000, message = "A settlement batch can contain at most 10000 lines")
+    @Valid
+    private List<StatementLine> lines;
+    
+    /**
+     * Nested DTO for a single bank statement line
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class StatementLine {
+        
+        @NotBlank(message = "Bank reference is required")
+        private String bankReference;
+        
+        @NotBlank(message = "Invoice reference is required")
+        private String invoiceReference;
+        
+        @NotNull(message = "Amount is required")
+        @Positive(message = "Amount must be positive")
+        private BigDecimal amount;
+        
+        private String currency;
+        
+        private LocalDate valueDate;
+    }
+}
@@ -0,0 +1,68 @@
+package com.fabrica.p6f5.springapp.payment.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO summarizing the outcome of a settlement batch.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SettlementResult {
+    
+    private int applied;
+    private int duplicates;
+    private int unmatched;
+    private int rejected;
+    private BigDecimal appliedAmount = BigDecimal.ZERO;
+    private List<LineResult> lines = new ArrayList<>();
+    
+    /**
+     * Record the outcome of one statement line.
+     */
+    public void addLine(LineResult line) {
+        lines.add(line);
+        switch (line.getStatus()) {
+            case APPLIED -> {
+                applied++;
+                appliedAmount = appliedAmount.add(line.getAmount());
+            }
+            case DUPLICATE -> duplicates++;
+            case UNMATCHED -> unmatched++;
+            case REJECTED -> rejected++;
+        }
+    }
+    
+    /**
+     * Nested DTO for a single line outcome
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class LineResult {
+        
+        private String bankReference;
+        private String invoiceReference;
+        private BigDecimal amount;
+        private LineStatus status;
+        private Long invoiceId;
+        private Long paymentId;
+        private String message;
+    }
+    
+    /**
+     * Line outcome enum
+     */
+    public enum LineStatus {
+        APPLIED,
+        DUPLICATE,
+        UNMATCHED,
+        REJECTED
+    }
+}
@@ -0,0 +1,40 @@
+package com.fabrica.p6f5.springapp.payment.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO describing progress and throughput of a bank statement ingestion run.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatementIngestionReport {
+    
+    private String fileName;
+    private String format;
+    private String status;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private long totalBytes;
+    private long bytesScanned;
+    private long lines;
+    private long matched;
+    private long unmatched;
+    private long malformed;
+    private int applied;
+    private int duplicates;
+    private int rejected;
+    private long indexMillis;
+    private long matchMillis;
+    private long settleMillis;
+    private double linesPerSecond;
+    private double megabytesPerSecond;
+    private List<String> unmatchedSamples = new ArrayList<>();
+    private String errorMessage;
+}
@@ -0,0 +1,54 @@
+package com.fabrica.p6f5.springapp.payment.ingest;
+
+import com.fabrica.p6f5.springapp.payment.dto.SettlementRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Matching outcome of one file chunk. Results of sibling chunks are merged in file order.
+ */
+public final class ChunkResult {
+    
+    static final int MAX_UNMATCHED_SAMPLES = 20;
+    
+    final List<SettlementRequest.StatementLine> matched = new ArrayList<>();
+    final List<String> unmatchedSamples = new ArrayList<>();
+    long lines;
+    long unmatched;
+    long malformed;
+    
+    ChunkResult merge(ChunkResult right) {
+        matched.addAll(right.matched);
+        for (String sample : right.unmatchedSamples) {
+            if (unmatchedSamples.size() >= MAX_UNMATCHED_SAMPLES) {
+                break;
+            }
+            unmatchedSamples.add(sample);
+        }
+        lines += right.lines;
+        unmatched += right.unmatched;
+        malformed += right.malformed;
+        return this;
+    }
+    
+    public List<SettlementRequest.StatementLine> getMatched() {
+        return matched;
+    }
+    
+    public List<String> getUnmatchedSamples() {
+        return unmatchedSamples;
+    }
+    
+    public long getLines() {
+        return lines;
+    }
+    
+    public long getUnmatched() {
+        return unmatched;
+    }
+    
+    public long getMalformed() {
+        return malformed;
+    }
+}
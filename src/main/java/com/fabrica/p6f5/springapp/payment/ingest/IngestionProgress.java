@@ -0,0 +1,60 @@
+package com.fabrica.p6f5.springapp.payment.ingest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Live counters for an ingestion run, updated concurrently by matching tasks.
+ */
+public final class IngestionProgress {
+    
+    private static final Logger logger = LoggerFactory.getLogger(IngestionProgress.class);
+    
+    private static final int PROGRESS_STEPS = 10;
+    
+    private final String fileName;
+    private final long totalBytes;
+    private final AtomicLong bytesScanned = new AtomicLong();
+    private final AtomicLong linesScanned = new AtomicLong();
+    private final AtomicInteger lastReportedStep = new AtomicInteger();
+    
+    public IngestionProgress(String fileName, long totalBytes) {
+        this.fileName = fileName;
+        this.totalBytes = totalBytes;
+    }
+    
+    /**
+     * Record a finished chunk and log each 10% of the file.
+     */
+    void onChunk(long bytes, long lines) {
+        long scanned = bytesScanned.addAndGet(bytes);
+        linesScanned.addAndGet(lines);
+        if (totalBytes == 0) {
+            return;
+        }
+        int step = (int) (scanned * PROGRESS_STEPS / totalBytes);
+        int last = lastReportedStep.get();
+        if (step > last && lastReportedStep.compareAndSet(last, step)) {
+            logger.info("Statement {}: {}% scanned ({} lines)", fileName, step * 100 / PROGRESS_STEPS, linesScanned.get());
+        }
+    }
+    
+    public String getFileName() {
+        return fileName;
+    }
+    
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+    
+    public long getBytesScanned() {
+        return bytesScanned.get();
+    }
+    
+    public long getLinesScanned() {
+        return linesScanned.get();
+    }
+}
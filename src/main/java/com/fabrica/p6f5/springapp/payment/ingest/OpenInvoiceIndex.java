@@ -0,0 +1,119 @@
+package com.fabrica.p6f5.springapp.payment.ingest;
+
+import com.fabrica.p6f5.springapp.invoice.repository.InvoiceRepository;
+import com.fabrica.p6f5.springapp.money.CurrencyRules;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Open-addressing index of the invoice numbers and fiscal folios of open invoices.
+ * Lookups hash and compare raw bytes of the mapped file, so matching a line needs no String.
+ * Built once per ingestion run and shared read-only by all matching tasks; matched lines
+ * carry the canonical reference String held by the index. Each key also keeps the
+ * minor-unit scale of its invoice's currency, for lines that carry no currency.
+ */
+final class OpenInvoiceIndex {
+    
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    
+    private final byte[][] keys;
+    private final String[] references;
+    private final byte[] scales;
+    private final int[] slots;
+    private final int mask;
+    private int size;
+    
+    private OpenInvoiceIndex(int capacity, int maxKeys) {
+        this.keys = new byte[maxKeys][];
+        this.references = new String[maxKeys];
+        this.scales = new byte[maxKeys];
+        this.slots = new int[capacity];
+        this.mask = capacity - 1;
+    }
+    
+    /**
+     * Build the index from the open invoices of the run.
+     */
+    static OpenInvoiceIndex build(List<InvoiceRepository.InvoiceReference> openInvoices) {
+        int maxKeys = openInvoices.size() * 2;
+        int capacity = Integer.highestOneBit(Math.max(maxKeys * 2, 16) - 1) << 1;
+        OpenInvoiceIndex index = new OpenInvoiceIndex(capacity, maxKeys);
+        for (InvoiceRepository.InvoiceReference invoice : openInvoices) {
+            int scale = CurrencyRules.scaleOf(invoice.getCurrency());
+            index.insert(invoice.getInvoiceNumber(), scale);
+            if (invoice.getFiscalFolio() != null) {
+                index.insert(invoice.getFiscalFolio(), scale);
+            }
+        }
+        return index;
+    }
+    
+    private void insert(String reference, int scale) {
+        byte[] key = reference.getBytes(StandardCharsets.US_ASCII);
+        int slot = (int) hash(key) & mask;
+        while (slots[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        keys[size] = key;
+        references[size] = reference;
+        scales[size] = (byte) scale;
+        slots[slot] = ++size;
+    }
+    
+    /**
+     * Find the key matching the bytes in [start, start + length), or -1.
+     */
+    int find(ByteBuffer buffer, int start, int length) {
+        long h = FNV_OFFSET;
+        for (int i = start; i < start + length; i++) {
+            h = (h ^ (buffer.get(i) & 0xff)) * FNV_PRIME;
+        }
+        int slot = (int) h & mask;
+        int entry;
+        while ((entry = slots[slot]) != 0) {
+            if (matches(keys[entry - 1], buffer, start, length)) {
+                return entry - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+    
+    String reference(int key) {
+        return references[key];
+    }
+    
+    /**
+     * Minor-unit scale of the currency of the invoice behind a key.
+     */
+    int scale(int key) {
+        return scales[key];
+    }
+    
+    int size() {
+        return size;
+    }
+    
+    private static boolean matches(byte[] key, ByteBuffer buffer, int start, int length) {
+        if (key.length != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (key[i] != buffer.get(start + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private static long hash(byte[] key) {
+        long h = FNV_OFFSET;
+        for (byte b : key) {
+            h = (h ^ (b & 0xff)) * FNV_PRIME;
+        }
+        return h;
+    }
+}
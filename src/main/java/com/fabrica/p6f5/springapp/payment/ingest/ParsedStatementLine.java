@@ -0,0 +1,27 @@
+package com.fabrica.p6f5.springapp.payment.ingest;
+
+/**
+ * Reusable cursor over one statement line inside a mapped buffer.
+ * Fields are kept as offsets into the buffer so parsing allocates nothing.
+ */
+final class ParsedStatementLine {
+    
+    int bankReferenceStart;
+    int bankReferenceLength;
+    int invoiceReferenceStart;
+    int invoiceReferenceLength;
+    int amountStart;
+    int amountLength;
+    int currencyStart;
+    int currencyLength;
+    int valueDateStart;
+    int valueDateLength;
+    
+    void reset() {
+        bankReferenceLength = 0;
+        invoiceReferenceLength = 0;
+        amountLength = 0;
+        currencyLength = 0;
+        valueDateLength = 0;
+    }
+}
@@ -0,0 +1,32 @@
+package com.fabrica.p6f5.springapp.payment.ingest;
+
+import com.fabrica.p6f5.springapp.invoice.repository.InvoiceRepository;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Entry point for matching a statement file against open invoices in parallel.
+ */
+public final class StatementFileMatcher {
+    
+    private StatementFileMatcher() {
+        // Utility class - prevent instantiation
+    }
+    
+    /**
+     * Memory-map the file in chunks and match all lines on the given pool.
+     */
+    public static ChunkResult match(Path file, StatementFormat format,
+                                    List<InvoiceRepository.InvoiceReference> openInvoices,
+                                    IngestionProgress progress, ForkJoinPool pool, long chunkSize) throws IOException {
+        OpenInvoiceIndex index = OpenInvoiceIndex.build(openInvoices);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return pool.invoke(StatementMatchTask.forFile(channel, format, index, progress, chunkSize));
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.fabrica.p6f5.springapp.payment.ingest;
+
+import java.util.Locale;
+
+/**
+ * Supported bank statement file formats.
+ */
+public enum StatementFormat {
+    
+    /**
+     * Comma separated: bank_reference,invoice_reference,amount,currency,value_date (yyyy-MM-dd).
+     */
+    CSV,
+    
+    /**
+     * Fixed width records, see {@link StatementLineParser} for the column layout.
+     */
+    FIXED_WIDTH;
+    
+    /**
+     * Detect the format from a file name, or return null if the extension is not supported.
+     */
+    public static StatementFormat fromFileName(String fileName) {
+        String name = fileName.toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv")) {
+            return CSV;
+        }
+        if (name.endsWith(".txt") || name.endsWith(".dat") || name.endsWith(".fw")) {
+            return FIXED_WIDTH;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,282 @@
+package com.fabrica.p6f5.springapp.payment.ingest;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+/**
+ * Tokenizes statement lines directly on a byte buffer.
+ * 
+ * <p>Fixed width layout (0-based byte offsets):
+ * <pre>
+ *   0-23   bank reference (left aligned, space padded)
+ *   24-63  invoice number or fiscal folio (left aligned, space padded)
+ *   64-78  amount in minor units of the currency (zero padded, implied decimals)
+ *   79-81  currency code
+ *   82-89  value date (yyyyMMdd)
+ * </pre>
+ * 
+ * <p>Amounts are kept as a slice and converted to minor units only once the currency is
+ * known, see {@link #amountMinor}.
+ */
+final class StatementLineParser {
+    
+    static final long MALFORMED = Long.MIN_VALUE;
+    
+    /**
+     * Significant digits an amount may have in minor units; 10^18 still fits in a long,
+     * so the conversion cannot overflow.
+     */
+    static final int MAX_AMOUNT_DIGITS = 18;
+    
+    private static final int FW_BANK_REF = 0;
+    private static final int FW_BANK_REF_LENGTH = 24;
+    private static final int FW_INVOICE_REF = 24;
+    private static final int FW_INVOICE_REF_LENGTH = 40;
+    private static final int FW_AMOUNT = 64;
+    private static final int FW_AMOUNT_LENGTH = 15;
+    private static final int FW_CURRENCY = 79;
+    private static final int FW_CURRENCY_LENGTH = 3;
+    private static final int FW_VALUE_DATE = 82;
+    private static final int FW_VALUE_DATE_LENGTH = 8;
+    
+    private static final byte[] CSV_HEADER = "bank_reference".getBytes(StandardCharsets.US_ASCII);
+    
+    private final StatementFormat format;
+    
+    StatementLineParser(StatementFormat format) {
+        this.format = format;
+    }
+    
+    /**
+     * Parse the line in [start, end) into the cursor. Returns false for malformed lines.
+     */
+    boolean parse(ByteBuffer buffer, int start, int end, ParsedStatementLine out) {
+        out.reset();
+        boolean parsed = format == StatementFormat.CSV
+            ? parseCsv(buffer, start, end, out)
+            : parseFixedWidth(buffer, start, end, out);
+        return parsed && out.bankReferenceLength > 0 && out.invoiceReferenceLength > 0 && out.amountLength > 0;
+    }
+    
+    /**
+     * Convert the amount of a parsed line to minor units of a currency with the given scale.
+     * Returns {@link #MALFORMED} if the amount is not a number, has more decimals than the
+     * scale or is too large.
+     */
+    long amountMinor(ByteBuffer buffer, ParsedStatementLine line, int scale) {
+        return parseAmountMinor(buffer, line.amountStart, line.amountStart + line.amountLength,
+            format == StatementFormat.FIXED_WIDTH, scale);
+    }
+    
+    /**
+     * Check whether the line is a CSV header row.
+     */
+    boolean isHeader(ByteBuffer buffer, int start, int end) {
+        if (format != StatementFormat.CSV || end - start < CSV_HEADER.length) {
+            return false;
+        }
+        for (int i = 0; i < CSV_HEADER.length; i++) {
+            if (buffer.get(start + i) != CSV_HEADER[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Parse a comma separated line. Fields may be wrapped in double quotes.
+     */
+    private boolean parseCsv(ByteBuffer buffer, int start, int end, ParsedStatementLine out) {
+        int pos = start;
+        int field = 0;
+        while (pos <= end && field < 5) {
+            int fieldStart = pos;
+            int fieldEnd;
+            if (pos < end && buffer.get(pos) == '"') {
+                fieldStart = pos + 1;
+                fieldEnd = indexOf(buffer, fieldStart, end, (byte) '"');
+                if (fieldEnd < 0) {
+                    return false;
+                }
+                pos = indexOf(buffer, fieldEnd, end, (byte) ',');
+            } else {
+                fieldEnd = indexOf(buffer, pos, end, (byte) ',');
+                if (fieldEnd < 0) {
+                    fieldEnd = end;
+                }
+                pos = fieldEnd;
+            }
+            fieldStart = skipSpaces(buffer, fieldStart, fieldEnd);
+            fieldEnd = trimSpaces(buffer, fieldStart, fieldEnd);
+            assignField(field, fieldStart, fieldEnd, out);
+            field++;
+            pos = pos < 0 ? end + 1 : pos + 1;
+        }
+        return field >= 3;
+    }
+    
+    /**
+     * Parse a fixed width line.
+     */
+    private boolean parseFixedWidth(ByteBuffer buffer, int start, int end, ParsedStatementLine out) {
+        if (end - start < FW_CURRENCY) {
+            return false;
+        }
+        assignFixed(buffer, 0, start + FW_BANK_REF, FW_BANK_REF_LENGTH, end, out);
+        assignFixed(buffer, 1, start + FW_INVOICE_REF, FW_INVOICE_REF_LENGTH, end, out);
+        assignFixed(buffer, 2, start + FW_AMOUNT, FW_AMOUNT_LENGTH, end, out);
+        assignFixed(buffer, 3, start + FW_CURRENCY, FW_CURRENCY_LENGTH, end, out);
+        assignFixed(buffer, 4, start + FW_VALUE_DATE, FW_VALUE_DATE_LENGTH, end, out);
+        return true;
+    }
+    
+    private void assignFixed(ByteBuffer buffer, int field, int from, int length, int end, ParsedStatementLine out) {
+        int to = Math.min(from + length, end);
+        if (from >= to) {
+            return;
+        }
+        int fieldStart = skipSpaces(buffer, from, to);
+        int fieldEnd = trimSpaces(buffer, fieldStart, to);
+        assignField(field, fieldStart, fieldEnd, out);
+    }
+    
+    private void assignField(int field, int start, int end, ParsedStatementLine out) {
+        int length = end - start;
+        switch (field) {
+            case 0 -> {
+                out.bankReferenceStart = start;
+                out.bankReferenceLength = length;
+            }
+            case 1 -> {
+                out.invoiceReferenceStart = start;
+                out.invoiceReferenceLength = length;
+            }
+            case 2 -> {
+                out.amountStart = start;
+                out.amountLength = length;
+            }
+            case 3 -> {
+                out.currencyStart = start;
+                out.currencyLength = length;
+            }
+            case 4 -> {
+                out.valueDateStart = start;
+                out.valueDateLength = length;
+            }
+            default -> {
+                // Extra columns are ignored
+            }
+        }
+    }
+    
+    /**
+     * Parse an amount into minor units of a currency with the given scale without creating
+     * a String. With implied decimals the digits already are minor units. Leading zeros do
+     * not count towards {@link #MAX_AMOUNT_DIGITS}.
+     */
+    static long parseAmountMinor(ByteBuffer buffer, int start, int end, boolean impliedDecimals, int scale) {
+        if (start >= end) {
+            return MALFORMED;
+        }
+        long value = 0;
+        int digits = 0;
+        int decimals = -1;
+        for (int i = start; i < end; i++) {
+            byte b = buffer.get(i);
+            if (b >= '0' && b <= '9') {
+                if (decimals >= 0 && ++decimals > scale) {
+                    return MALFORMED;
+                }
+                if (value == 0 && b == '0') {
+                    continue;
+                }
+                if (++digits > MAX_AMOUNT_DIGITS) {
+                    return MALFORMED;
+                }
+                value = value * 10 + (b - '0');
+            } else if (b == '.' && !impliedDecimals && decimals < 0) {
+                decimals = 0;
+            } else {
+                return MALFORMED;
+            }
+        }
+        if (impliedDecimals || value == 0) {
+            return value;
+        }
+        for (int i = Math.max(decimals, 0); i < scale; i++) {
+            if (++digits > MAX_AMOUNT_DIGITS) {
+                return MALFORMED;
+            }
+            value *= 10;
+        }
+        return value;
+    }
+    
+    /**
+     * Decode a value date slice (yyyy-MM-dd or yyyyMMdd). Returns null if absent or malformed.
+     */
+    static LocalDate parseDate(ByteBuffer buffer, int start, int length) {
+        if (length != 8 && length != 10) {
+            return null;
+        }
+        int dash = length == 10 ? 1 : 0;
+        int year = digits(buffer, start, 4);
+        int month = digits(buffer, start + 4 + dash, 2);
+        int day = digits(buffer, start + 6 + 2 * dash, 2);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > 31) {
+            return null;
+        }
+        try {
+            return LocalDate.of(year, month, day);
+        } catch (java.time.DateTimeException e) {
+            return null;
+        }
+    }
+    
+    /**
+     * Decode an ASCII slice as a String. Only used for matched lines.
+     */
+    static String decode(ByteBuffer buffer, int start, int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buffer.get(start + i);
+        }
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+    
+    private static int digits(ByteBuffer buffer, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            byte b = buffer.get(i);
+            if (b < '0' || b > '9') {
+                return -1;
+            }
+            value = value * 10 + (b - '0');
+        }
+        return value;
+    }
+    
+    private static int indexOf(ByteBuffer buffer, int from, int end, byte target) {
+        for (int i = from; i < end; i++) {
+            if (buffer.get(i) == target) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    private static int skipSpaces(ByteBuffer buffer, int from, int end) {
+        while (from < end && buffer.get(from) == ' ') {
+            from++;
+        }
+        return from;
+    }
+    
+    private static int trimSpaces(ByteBuffer buffer, int start, int end) {
+        while (end > start && buffer.get(end - 1) == ' ') {
+            end--;
+        }
+        return end;
+    }
+}
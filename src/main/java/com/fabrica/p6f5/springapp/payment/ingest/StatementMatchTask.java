@@ -0,0 +1,157 @@
+package com.fabrica.p6f5.springapp.payment.ingest;
+
+import com.fabrica.p6f5.springapp.money.CurrencyRules;
+import com.fabrica.p6f5.springapp.payment.dto.SettlementRequest;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Locale;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Fork/join task that splits a statement file on line boundaries, memory-maps each
+ * chunk and matches its lines against the open invoice index.
+ */
+final class StatementMatchTask extends RecursiveTask<ChunkResult> {
+    
+    private static final int BOUNDARY_SCAN_SIZE = 4096;
+    
+    private final FileChannel channel;
+    private final StatementFormat format;
+    private final OpenInvoiceIndex index;
+    private final IngestionProgress progress;
+    private final long start;
+    private final long end;
+    private final long chunkSize;
+    
+    private StatementMatchTask(FileChannel channel, StatementFormat format, OpenInvoiceIndex index,
+                               IngestionProgress progress, long start, long end, long chunkSize) {
+        this.channel = channel;
+        this.format = format;
+        this.index = index;
+        this.progress = progress;
+        this.start = start;
+        this.end = end;
+        this.chunkSize = chunkSize;
+    }
+    
+    /**
+     * Create the root task covering the whole file.
+     */
+    static StatementMatchTask forFile(FileChannel channel, StatementFormat format, OpenInvoiceIndex index,
+                                      IngestionProgress progress, long chunkSize) throws IOException {
+        return new StatementMatchTask(channel, format, index, progress, 0, channel.size(), chunkSize);
+    }
+    
+    @Override
+    protected ChunkResult compute() {
+        try {
+            if (end - start <= chunkSize) {
+                return scan();
+            }
+            long middle = nextLineStart(start + (end - start) / 2);
+            if (middle <= start || middle >= end) {
+                return scan();
+            }
+            StatementMatchTask left = new StatementMatchTask(channel, format, index, progress, start, middle, chunkSize);
+            StatementMatchTask right = new StatementMatchTask(channel, format, index, progress, middle, end, chunkSize);
+            right.fork();
+            ChunkResult leftResult = left.compute();
+            return leftResult.merge(right.join());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    /**
+     * Find the offset just after the first newline at or after the given position.
+     */
+    private long nextLineStart(long position) throws IOException {
+        ByteBuffer probe = ByteBuffer.allocate(BOUNDARY_SCAN_SIZE);
+        long offset = position;
+        while (offset < end) {
+            probe.clear();
+            int read = channel.read(probe, offset);
+            if (read <= 0) {
+                return end;
+            }
+            for (int i = 0; i < read; i++) {
+                if (probe.get(i) == '\n') {
+                    return offset + i + 1;
+                }
+            }
+            offset += read;
+        }
+        return end;
+    }
+    
+    /**
+     * Map this chunk and match every line in it.
+     */
+    private ChunkResult scan() throws IOException {
+        ChunkResult result = new ChunkResult();
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        StatementLineParser parser = new StatementLineParser(format);
+        ParsedStatementLine line = new ParsedStatementLine();
+        
+        int limit = buffer.limit();
+        int lineStart = 0;
+        while (lineStart < limit) {
+            int lineEnd = lineStart;
+            while (lineEnd < limit && buffer.get(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            int contentEnd = lineEnd > lineStart && buffer.get(lineEnd - 1) == '\r' ? lineEnd - 1 : lineEnd;
+            boolean header = start == 0 && lineStart == 0 && parser.isHeader(buffer, lineStart, contentEnd);
+            if (contentEnd > lineStart && !header) {
+                result.lines++;
+                matchLine(buffer, parser, line, lineStart, contentEnd, result);
+            }
+            lineStart = lineEnd + 1;
+        }
+        progress.onChunk(end - start, result.lines);
+        return result;
+    }
+    
+    /**
+     * Match a line against the index, then convert its amount with the scale of the line's
+     * currency, or of the matched invoice's currency when the line has none. Lines with an
+     * unknown reference are counted as unmatched before their amount is looked at.
+     */
+    private void matchLine(MappedByteBuffer buffer, StatementLineParser parser, ParsedStatementLine line,
+                           int lineStart, int lineEnd, ChunkResult result) {
+        if (!parser.parse(buffer, lineStart, lineEnd, line)) {
+            result.malformed++;
+            return;
+        }
+        int key = index.find(buffer, line.invoiceReferenceStart, line.invoiceReferenceLength);
+        if (key < 0) {
+            result.unmatched++;
+            if (result.unmatchedSamples.size() < ChunkResult.MAX_UNMATCHED_SAMPLES) {
+                result.unmatchedSamples.add(
+                    StatementLineParser.decode(buffer, line.bankReferenceStart, line.bankReferenceLength));
+            }
+            return;
+        }
+        String currency = line.currencyLength > 0
+            ? StatementLineParser.decode(buffer, line.currencyStart, line.currencyLength)
+            : null;
+        int scale = currency != null ? CurrencyRules.scaleOf(currency.toUpperCase(Locale.ROOT)) : index.scale(key);
+        long amountMinor = parser.amountMinor(buffer, line, scale);
+        if (amountMinor <= 0) {
+            result.malformed++;
+            return;
+        }
+        SettlementRequest.StatementLine matched = new SettlementRequest.StatementLine();
+        matched.setBankReference(StatementLineParser.decode(buffer, line.bankReferenceStart, line.bankReferenceLength));
+        matched.setInvoiceReference(index.reference(key));
+        matched.setAmount(BigDecimal.valueOf(amountMinor, scale));
+        matched.setCurrency(currency);
+        matched.setValueDate(StatementLineParser.parseDate(buffer, line.valueDateStart, line.valueDateLength));
+        result.matched.add(matched);
+    }
+}
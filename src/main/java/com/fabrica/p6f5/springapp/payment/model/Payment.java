@@ -0,0 +1,88 @@
+package com.fabrica.p6f5.springapp.payment.model;
+
+import com.fabrica.p6f5.springapp.invoice.model.Invoice;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Payment entity following Single Responsibility Principle.
+ * Represents a full or partial payment applied to an issued invoice.
+ */
+@Entity
+@Table(name = "payments")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Payment {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payment_seq")
+    @SequenceGenerator(name = "payment_seq", sequenceName = "payments_payment_id_seq", allocationSize = 50)
+    @Column(name = "payment_id")
+    private Long id;
+    
+    @NotNull(message = "Invoice is required")
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "invoice_id", nullable = false)
+    @JsonIgnore
+    private Invoice invoice;
+    
+    @NotNull(message = "Amount is required")
+    @Positive(message = "Amount must be positive")
+    @Column(name = "amount", nullable = false, precision = 10, scale = 2)
+    private BigDecimal amount;
+    
+    @NotBlank(message = "Currency is required")
+    @Column(name = "currency", nullable = false, length = 10)
+    private String currency;
+    
+    @NotNull(message = "Payment date is required")
+    @Column(name = "payment_date", nullable = false)
+    private LocalDate paymentDate;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "payment_method", nullable = false, length = 50)
+    private PaymentMethod method = PaymentMethod.BANK_TRANSFER;
+    
+    @Column(name = "reference")
+    private String reference;
+    
+    @NotBlank(message = "Idempotency key is required")
+    @Column(name = "idempotency_key", nullable = false, unique = true)
+    private String idempotencyKey;
+    
+    @Column(name = "recorded_by")
+    private Long recordedBy;
+    
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        if (paymentDate == null) {
+            paymentDate = LocalDate.now();
+        }
+    }
+    
+    /**
+     * Payment method enum
+     */
+    public enum PaymentMethod {
+        BANK_TRANSFER,
+        CARD,
+        CASH,
+        CHECK,
+        OTHER
+    }
+}
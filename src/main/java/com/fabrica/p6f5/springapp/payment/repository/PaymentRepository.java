@@ -0,0 +1,44 @@
+package com.fabrica.p6f5.springapp.payment.repository;
+
+import com.fabrica.p6f5.springapp.payment.model.Payment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Payment Repository interface.
+ * Defines data access operations for payments.
+ */
+@Repository
+public interface PaymentRepository extends JpaRepository<Payment, Long> {
+    
+    /**
+     * Find a payment by its idempotency key.
+     * 
+     * @param idempotencyKey the idempotency key
+     * @return Optional containing the payment if found
+     */
+    Optional<Payment> findByIdempotencyKey(String idempotencyKey);
+    
+    /**
+     * Find all payments for an invoice.
+     * 
+     * @param invoiceId the invoice ID
+     * @return list of payments ordered by payment date descending
+     */
+    List<Payment> findByInvoiceIdOrderByPaymentDateDescIdDesc(Long invoiceId);
+    
+    /**
+     * Find which of the given idempotency keys have already been used.
+     * 
+     * @param idempotencyKeys the idempotency keys to check
+     * @return the subset of keys that already exist
+     */
+    @Query("SELECT p.idempotencyKey FROM Payment p WHERE p.idempotencyKey IN :keys")
+    List<String> findExistingIdempotencyKeys(@Param("keys") Collection<String> idempotencyKeys);
+}
@@ -0,0 +1,171 @@
+package com.fabrica.p6f5.springapp.payment.service;
+
+import com.fabrica.p6f5.springapp.audit.model.AuditLog;
+import com.fabrica.p6f5.springapp.audit.service.AuditService;
+import com.fabrica.p6f5.springapp.events.service.InvoiceEventService;
+import com.fabrica.p6f5.springapp.exception.BusinessException;
+import com.fabrica.p6f5.springapp.exception.ResourceNotFoundException;
+import com.fabrica.p6f5.springapp.invoice.model.Invoice;
+import com.fabrica.p6f5.springapp.invoice.repository.InvoiceRepository;
+import com.fabrica.p6f5.springapp.payment.dto.PaymentResponse;
+import com.fabrica.p6f5.springapp.payment.dto.RecordPaymentRequest;
+import com.fabrica.p6f5.springapp.payment.model.Payment;
+import com.fabrica.p6f5.springapp.payment.repository.PaymentRepository;
+import com.fabrica.p6f5.springapp.util.Constants;
+import com.fabrica.p6f5.springapp.util.InvoiceUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Payment Service following Single Responsibility Principle.
+ * Records full and partial payments against issued invoices.
+ */
+@Service
+public class PaymentService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(PaymentService.class);
+    
+    private final PaymentRepository paymentRepository;
+    private final InvoiceRepository invoiceRepository;
+    private final AuditService auditService;
+    private final InvoiceEventService invoiceEventService;
+    
+    public PaymentService(
+            PaymentRepository paymentRepository,
+            InvoiceRepository invoiceRepository,
+            AuditService auditService,
+            InvoiceEventService invoiceEventService) {
+        this.paymentRepository = paymentRepository;
+        this.invoiceRepository = invoiceRepository;
+        this.auditService = auditService;
+        this.invoiceEventService = invoiceEventService;
+    }
+    
+    /**
+     * Record a payment. Repeating a call with the same idempotency key
+     * returns the original payment instead of applying it twice.
+     */
+    @Transactional
+    public PaymentResponse recordPayment(Long invoiceId, RecordPaymentRequest request,
+                                         String idempotencyKey, Long recordedBy) {
+        logger.info("Recording payment for invoice id: {}", invoiceId);
+        validateIdempotencyKey(idempotencyKey);
+        
+        // Locking the invoice first serializes concurrent payments for it, so the
+        // idempotency lookup below always sees a payment committed by a racing request.
+        Invoice invoice = findInvoiceForUpdate(invoiceId);
+        Optional<Payment> existing = paymentRepository.findByIdempotencyKey(idempotencyKey);
+        if (existing.isPresent()) {
+            return replayPayment(existing.get(), invoiceId, request);
+        }
+        
+        String currency = request.getCurrency() != null ? request.getCurrency() : invoice.getCurrency();
+        String rejection = findRejectionReason(invoice, request.getAmount(), currency);
+        if (rejection != null) {
+            throw new BusinessException(rejection);
+        }
+        
+        Invoice oldInvoice = InvoiceUtils.copyInvoice(invoice);
+        Payment payment = createPayment(invoice, request.getAmount(), currency, request.getPaymentDate(),
+            request.getMethod(), request.getReference(), idempotencyKey, recordedBy);
+        invoice.applyPayment(request.getAmount());
+        
+        Payment savedPayment = paymentRepository.save(payment);
+        Invoice savedInvoice = invoiceRepository.save(invoice);
+        auditService.logInvoiceChange(AuditLog.AuditAction.PAYMENT, recordedBy, oldInvoice,
+            InvoiceUtils.copyInvoice(savedInvoice), Constants.AUDIT_PAYMENT);
+        invoiceEventService.recordPayments(List.of(savedInvoice));
+        
+        logger.info("Payment {} recorded for invoice id: {}, status: {}",
+            savedPayment.getId(), invoiceId, savedInvoice.getStatus());
+        return PaymentResponse.fromEntity(savedPayment);
+    }
+    
+    /**
+     * Get all payments for an invoice
+     */
+    @Transactional(readOnly = true)
+    public List<PaymentResponse> getPayments(Long invoiceId) {
+        if (!invoiceRepository.existsById(invoiceId)) {
+            throw new ResourceNotFoundException(Constants.INVOICE_NOT_FOUND + invoiceId);
+        }
+        return paymentRepository.findByInvoiceIdOrderByPaymentDateDescIdDesc(invoiceId).stream()
+            .map(PaymentResponse::fromEntity)
+            .collect(Collectors.toList());
+    }
+    
+    /**
+     * Explain why a payment cannot be applied to an invoice, or null if it can.
+     */
+    public String findRejectionReason(Invoice invoice, BigDecimal amount, String currency) {
+        if (!invoice.canBePaid()) {
+            return String.format(Constants.INVOICE_CANNOT_BE_PAID, invoice.getStatus());
+        }
+        if (!currency.equalsIgnoreCase(invoice.getCurrency())) {
+            return String.format(Constants.PAYMENT_CURRENCY_MISMATCH, currency, invoice.getCurrency());
+        }
+        BigDecimal outstanding = invoice.calculateOutstanding();
+        if (amount.compareTo(outstanding) > 0) {
+            return String.format(Constants.PAYMENT_EXCEEDS_OUTSTANDING, amount, outstanding);
+        }
+        return null;
+    }
+    
+    /**
+     * Create a payment entity for an invoice.
+     */
+    public Payment createPayment(Invoice invoice, BigDecimal amount, String currency, LocalDate paymentDate,
+                                 Payment.PaymentMethod method, String reference,
+                                 String idempotencyKey, Long recordedBy) {
+        Payment payment = new Payment();
+        payment.setInvoice(invoice);
+        payment.setAmount(amount);
+        payment.setCurrency(currency.toUpperCase());
+        payment.setPaymentDate(paymentDate != null ? paymentDate : LocalDate.now());
+        payment.setMethod(method != null ? method : Payment.PaymentMethod.BANK_TRANSFER);
+        payment.setReference(reference);
+        payment.setIdempotencyKey(idempotencyKey);
+        payment.setRecordedBy(recordedBy);
+        return payment;
+    }
+    
+    /**
+     * Validate that an idempotency key was supplied.
+     */
+    private void validateIdempotencyKey(String idempotencyKey) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            throw new BusinessException(Constants.IDEMPOTENCY_KEY_REQUIRED);
+        }
+    }
+    
+    /**
+     * Return a previously recorded payment for a repeated request.
+     */
+    private PaymentResponse replayPayment(Payment payment, Long invoiceId, RecordPaymentRequest request) {
+        boolean samePayment = payment.getInvoice().getId().equals(invoiceId)
+            && payment.getAmount().compareTo(request.getAmount()) == 0;
+        if (!samePayment) {
+            throw new BusinessException(String.format(Constants.IDEMPOTENCY_KEY_REUSED, payment.getIdempotencyKey()));
+        }
+        logger.info("Replaying payment {} for idempotency key: {}", payment.getId(), payment.getIdempotencyKey());
+        PaymentResponse response = PaymentResponse.fromEntity(payment);
+        response.setReplayed(true);
+        return response;
+    }
+    
+    /**
+     * Find invoice by ID with a row lock or throw exception.
+     */
+    private Invoice findInvoiceForUpdate(Long invoiceId) {
+        return invoiceRepository.findByIdForUpdate(invoiceId)
+            .orElseThrow(() -> new ResourceNotFoundException(Constants.INVOICE_NOT_FOUND + invoiceId));
+    }
+}
@@ -0,0 +1,211 @@
+package com.fabrica.p6f5.springapp.payment.service;
+
+import com.fabrica.p6f5.springapp.audit.model.AuditLog;
+import com.fabrica.p6f5.springapp.audit.service.AuditService;
+import com.fabrica.p6f5.springapp.events.service.InvoiceEventService;
+import com.fabrica.p6f5.springapp.invoice.model.Invoice;
+import com.fabrica.p6f5.springapp.invoice.repository.InvoiceRepository;
+import com.fabrica.p6f5.springapp.payment.dto.SettlementRequest;
+import com.fabrica.p6f5.springapp.payment.dto.SettlementResult;
+import com.fabrica.p6f5.springapp.payment.model.Payment;
+import com.fabrica.p6f5.springapp.payment.repository.PaymentRepository;
+import com.fabrica.p6f5.springapp.util.Constants;
+import com.fabrica.p6f5.springapp.util.InvoiceUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Settlement Service following Single Responsibility Principle.
+ * Applies batches of bank statement lines to invoices as payments.
+ */
+@Service
+public class SettlementService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(SettlementService.class);
+    
+    private static final int LOOKUP_CHUNK_SIZE = 1000;
+    private static final String ALREADY_SETTLED = "Bank reference already settled";
+    
+    private final PaymentRepository paymentRepository;
+    private final InvoiceRepository invoiceRepository;
+    private final PaymentService paymentService;
+    private final AuditService auditService;
+    private final InvoiceEventService invoiceEventService;
+    
+    public SettlementService(
+            PaymentRepository paymentRepository,
+            InvoiceRepository invoiceRepository,
+            PaymentService paymentService,
+            AuditService auditService,
+            InvoiceEventService invoiceEventService) {
+        this.paymentRepository = paymentRepository;
+        this.invoiceRepository = invoiceRepository;
+        this.paymentService = paymentService;
+        this.auditService = auditService;
+        this.invoiceEventService = invoiceEventService;
+    }
+    
+    /**
+     * Settle a batch of statement lines. Each line's bank reference acts as its
+     * idempotency key, so re-submitting a statement only applies new lines.
+     */
+    @Transactional
+    public SettlementResult settle(SettlementRequest request, Long settledBy) {
+        List<SettlementRequest.StatementLine> lines = request.getLines();
+        logger.info("Settling {} bank statement lines", lines.size());
+        
+        Map<String, Long> invoiceIndex = buildInvoiceIndex(lines);
+        Set<String> usedKeys = findUsedKeys(lines);
+        
+        SettlementResult result = new SettlementResult();
+        Map<Long, List<SettlementRequest.StatementLine>> linesByInvoice = new TreeMap<>();
+        Set<String> batchKeys = new HashSet<>();
+        for (SettlementRequest.StatementLine line : lines) {
+            String key = settlementKey(line);
+            if (usedKeys.contains(key) || !batchKeys.add(key)) {
+                result.addLine(lineResult(line, SettlementResult.LineStatus.DUPLICATE, null, null, ALREADY_SETTLED));
+                continue;
+            }
+            Long invoiceId = invoiceIndex.get(line.getInvoiceReference());
+            if (invoiceId == null) {
+                result.addLine(lineResult(line, SettlementResult.LineStatus.UNMATCHED, null, null,
+                    "No invoice matches reference"));
+                continue;
+            }
+            linesByInvoice.computeIfAbsent(invoiceId, id -> new ArrayList<>()).add(line);
+        }
+        
+        if (!linesByInvoice.isEmpty()) {
+            applyLines(linesByInvoice, settledBy, result);
+        }
+        
+        logger.info("Settlement finished: {} applied, {} duplicates, {} unmatched, {} rejected",
+            result.getApplied(), result.getDuplicates(), result.getUnmatched(), result.getRejected());
+        return result;
+    }
+    
+    /**
+     * Build an in-memory index from invoice number and fiscal folio to invoice ID.
+     */
+    private Map<String, Long> buildInvoiceIndex(List<SettlementRequest.StatementLine> lines) {
+        List<String> references = lines.stream()
+            .map(SettlementRequest.StatementLine::getInvoiceReference)
+            .distinct()
+            .toList();
+        
+        Map<String, Long> index = new HashMap<>(references.size() * 2);
+        for (List<String> chunk : chunk(references)) {
+            for (InvoiceRepository.InvoiceReference ref : invoiceRepository.findReferencesByNumberOrFolio(chunk)) {
+                index.put(ref.getInvoiceNumber(), ref.getId());
+                if (ref.getFiscalFolio() != null) {
+                    index.put(ref.getFiscalFolio(), ref.getId());
+                }
+            }
+        }
+        return index;
+    }
+    
+    /**
+     * Find which statement lines were already settled by an earlier or concurrent batch.
+     */
+    private Set<String> findUsedKeys(List<SettlementRequest.StatementLine> lines) {
+        List<String> keys = lines.stream().map(this::settlementKey).distinct().toList();
+        Set<String> used = new HashSet<>();
+        for (List<String> chunk : chunk(keys)) {
+            used.addAll(paymentRepository.findExistingIdempotencyKeys(chunk));
+        }
+        return used;
+    }
+    
+    /**
+     * Lock the matched invoices in ascending ID order and apply their lines.
+     */
+    private void applyLines(Map<Long, List<SettlementRequest.StatementLine>> linesByInvoice,
+                            Long settledBy, SettlementResult result) {
+        List<Invoice> invoices = invoiceRepository.findAllByIdInForUpdate(linesByInvoice.keySet());
+        // The keys are checked again under the invoice locks: a racing batch settling the
+        // same line has committed by now, so its payment is reported as a duplicate instead
+        // of failing this batch on the idempotency key constraint.
+        Set<String> settledMeanwhile = findUsedKeys(linesByInvoice.values().stream().flatMap(List::stream).toList());
+        
+        List<Payment> payments = new ArrayList<>();
+        List<SettlementRequest.StatementLine> appliedLines = new ArrayList<>();
+        List<AuditLog> auditLogs = new ArrayList<>();
+        for (Invoice invoice : invoices) {
+            Invoice before = InvoiceUtils.copyInvoice(invoice);
+            List<String> bankReferences = new ArrayList<>();
+            for (SettlementRequest.StatementLine line : linesByInvoice.get(invoice.getId())) {
+                if (settledMeanwhile.contains(settlementKey(line))) {
+                    result.addLine(lineResult(line, SettlementResult.LineStatus.DUPLICATE, invoice.getId(), null,
+                        ALREADY_SETTLED));
+                    continue;
+                }
+                String currency = line.getCurrency() != null ? line.getCurrency() : invoice.getCurrency();
+                String rejection = paymentService.findRejectionReason(invoice, line.getAmount(), currency);
+                if (rejection != null) {
+                    result.addLine(lineResult(line, SettlementResult.LineStatus.REJECTED, invoice.getId(), null, rejection));
+                    continue;
+                }
+                invoice.applyPayment(line.getAmount());
+                Payment payment = paymentService.createPayment(invoice, line.getAmount(), currency,
+                    line.getValueDate(), Payment.PaymentMethod.BANK_TRANSFER, line.getBankReference(),
+                    settlementKey(line), settledBy);
+                payments.add(payment);
+                appliedLines.add(line);
+                bankReferences.add(line.getBankReference());
+            }
+            if (!bankReferences.isEmpty()) {
+                auditLogs.add(auditService.buildInvoiceChange(AuditLog.AuditAction.PAYMENT, settledBy, before,
+                    InvoiceUtils.copyInvoice(invoice),
+                    String.format(Constants.AUDIT_SETTLEMENT, String.join(", ", bankReferences))));
+            }
+        }
+        
+        paymentRepository.saveAll(payments);
+        for (int i = 0; i < payments.size(); i++) {
+            Payment payment = payments.get(i);
+            result.addLine(lineResult(appliedLines.get(i), SettlementResult.LineStatus.APPLIED,
+                payment.getInvoice().getId(), payment.getId(), null));
+        }
+        auditService.logEvents(auditLogs);
+        invoiceEventService.recordPayments(payments.stream().map(Payment::getInvoice).distinct().toList());
+    }
+    
+    /**
+     * Idempotency key for a statement line.
+     */
+    private String settlementKey(SettlementRequest.StatementLine line) {
+        return Constants.SETTLEMENT_KEY_PREFIX + line.getBankReference();
+    }
+    
+    /**
+     * Create the outcome entry for a statement line.
+     */
+    private SettlementResult.LineResult lineResult(SettlementRequest.StatementLine line,
+                                                   SettlementResult.LineStatus status,
+                                                   Long invoiceId, Long paymentId, String message) {
+        return new SettlementResult.LineResult(line.getBankReference(), line.getInvoiceReference(),
+            line.getAmount(), status, invoiceId, paymentId, message);
+    }
+    
+    /**
+     * Split values into chunks that stay well below the JDBC bind parameter limit.
+     */
+    private static List<List<String>> chunk(List<String> values) {
+        List<List<String>> chunks = new ArrayList<>();
+        for (int i = 0; i < values.size(); i += LOOKUP_CHUNK_SIZE) {
+            chunks.add(values.subList(i, Math.min(i + LOOKUP_CHUNK_SIZE, values.size())));
+        }
+        return chunks;
+    }
+}
@@ -0,0 +1,267 @@
+package com.fabrica.p6f5.springapp.payment.service;
+
+import com.fabrica.p6f5.springapp.invoice.model.Invoice;
+import com.fabrica.p6f5.springapp.invoice.repository.InvoiceRepository;
+import com.fabrica.p6f5.springapp.payment.dto.SettlementRequest;
+import com.fabrica.p6f5.springapp.payment.dto.SettlementResult;
+import com.fabrica.p6f5.springapp.payment.dto.StatementIngestionReport;
+import com.fabrica.p6f5.springapp.payment.ingest.ChunkResult;
+import com.fabrica.p6f5.springapp.payment.ingest.IngestionProgress;
+import com.fabrica.p6f5.springapp.payment.ingest.StatementFileMatcher;
+import com.fabrica.p6f5.springapp.payment.ingest.StatementFormat;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Statement Ingestion Service following Single Responsibility Principle.
+ * Picks up bank statement files from a drop directory, matches them against
+ * ISSUED invoices in parallel and settles the matched lines.
+ */
+@Service
+public class StatementIngestionService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(StatementIngestionService.class);
+    
+    private static final String PROCESSING_DIR = "processing";
+    private static final String PROCESSED_DIR = "processed";
+    private static final String FAILED_DIR = "failed";
+    private static final int MAX_RECENT_RUNS = 20;
+    private static final double BYTES_PER_MEGABYTE = 1024.0 * 1024.0;
+    
+    private final InvoiceRepository invoiceRepository;
+    private final SettlementService settlementService;
+    private final Map<String, IngestionProgress> activeRuns = new ConcurrentHashMap<>();
+    private final Deque<StatementIngestionReport> recentRuns = new ConcurrentLinkedDeque<>();
+    
+    @Value("${billing.statements.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${billing.statements.drop-dir:statements/inbox}")
+    private String dropDir;
+    
+    @Value("${billing.statements.chunk-size-bytes:8388608}")
+    private long chunkSize;
+    
+    @Value("${billing.statements.settlement-batch-size:5000}")
+    private int settlementBatchSize;
+    
+    @Value("${billing.statements.parallelism:0}")
+    private int parallelism;
+    
+    private ForkJoinPool pool;
+    
+    public StatementIngestionService(InvoiceRepository invoiceRepository, SettlementService settlementService) {
+        this.invoiceRepository = invoiceRepository;
+        this.settlementService = settlementService;
+    }
+    
+    /**
+     * Poll the drop directory for new statement files.
+     */
+    @Scheduled(fixedDelayString = "${billing.statements.poll-interval-ms:30000}")
+    public void pollDropDirectory() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            ingestPendingFiles();
+        } catch (Exception e) {
+            logger.error("Error polling statement drop directory {}: {}", dropDir, e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Ingest every supported file currently waiting in the drop directory.
+     */
+    public synchronized List<StatementIngestionReport> ingestPendingFiles() throws IOException {
+        Path inbox = Paths.get(dropDir);
+        if (!Files.isDirectory(inbox)) {
+            return List.of();
+        }
+        List<Path> pending = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(inbox, Files::isRegularFile)) {
+            for (Path file : files) {
+                if (StatementFormat.fromFileName(file.getFileName().toString()) != null) {
+                    pending.add(file);
+                }
+            }
+        }
+        pending.sort(null);
+        
+        List<StatementIngestionReport> reports = new ArrayList<>();
+        for (Path file : pending) {
+            Path claimed = claim(file, inbox.resolve(PROCESSING_DIR));
+            if (claimed != null) {
+                reports.add(ingestClaimedFile(claimed, inbox));
+            }
+        }
+        return reports;
+    }
+    
+    /**
+     * Get the most recent runs, including live progress of running ones.
+     */
+    public List<StatementIngestionReport> getRecentRuns() {
+        List<StatementIngestionReport> runs = new ArrayList<>();
+        for (IngestionProgress progress : activeRuns.values()) {
+            StatementIngestionReport report = new StatementIngestionReport();
+            report.setFileName(progress.getFileName());
+            report.setStatus("RUNNING");
+            report.setTotalBytes(progress.getTotalBytes());
+            report.setBytesScanned(progress.getBytesScanned());
+            report.setLines(progress.getLinesScanned());
+            runs.add(report);
+        }
+        runs.addAll(recentRuns);
+        return runs;
+    }
+    
+    /**
+     * Move a file into the processing directory. The atomic rename means only one
+     * node sharing the drop directory can claim a given file.
+     */
+    private Path claim(Path file, Path processingDir) throws IOException {
+        Files.createDirectories(processingDir);
+        Path target = processingDir.resolve(file.getFileName());
+        try {
+            return Files.move(file, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            throw e;
+        } catch (IOException e) {
+            logger.debug("Statement {} was claimed by another worker", file.getFileName());
+            return null;
+        }
+    }
+    
+    /**
+     * Ingest a claimed file and move it to the processed or failed directory.
+     */
+    private StatementIngestionReport ingestClaimedFile(Path file, Path inbox) throws IOException {
+        StatementIngestionReport report;
+        Path destination;
+        try {
+            report = ingestFile(file);
+            destination = inbox.resolve(PROCESSED_DIR);
+        } catch (Exception e) {
+            logger.error("Failed to ingest statement {}: {}", file.getFileName(), e.getMessage(), e);
+            report = new StatementIngestionReport();
+            report.setFileName(file.getFileName().toString());
+            report.setStatus("FAILED");
+            report.setErrorMessage(e.getMessage());
+            report.setFinishedAt(LocalDateTime.now());
+            destination = inbox.resolve(FAILED_DIR);
+        }
+        Files.createDirectories(destination);
+        Files.move(file, destination.resolve(file.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+        remember(report);
+        return report;
+    }
+    
+    /**
+     * Match a statement file against ISSUED invoices and settle the matched lines.
+     */
+    public StatementIngestionReport ingestFile(Path file) throws IOException {
+        String fileName = file.getFileName().toString();
+        StatementFormat format = StatementFormat.fromFileName(fileName);
+        long totalBytes = Files.size(file);
+        logger.info("Ingesting statement {} ({} bytes, {})", fileName, totalBytes, format);
+        
+        StatementIngestionReport report = new StatementIngestionReport();
+        report.setFileName(fileName);
+        report.setFormat(format.toString());
+        report.setStartedAt(LocalDateTime.now());
+        report.setTotalBytes(totalBytes);
+        
+        IngestionProgress progress = new IngestionProgress(fileName, totalBytes);
+        activeRuns.put(fileName, progress);
+        try {
+            long indexStart = System.nanoTime();
+            List<InvoiceRepository.InvoiceReference> openInvoices =
+                invoiceRepository.findReferencesByStatus(Invoice.InvoiceStatus.ISSUED);
+            long matchStart = System.nanoTime();
+            ChunkResult result = StatementFileMatcher.match(file, format, openInvoices, progress, pool, chunkSize);
+            long settleStart = System.nanoTime();
+            settleMatchedLines(result.getMatched(), report);
+            long finished = System.nanoTime();
+            
+            report.setBytesScanned(progress.getBytesScanned());
+            report.setLines(result.getLines());
+            report.setMatched(result.getMatched().size());
+            report.setUnmatched(result.getUnmatched());
+            report.setMalformed(result.getMalformed());
+            report.setUnmatchedSamples(result.getUnmatchedSamples());
+            report.setIndexMillis(toMillis(matchStart - indexStart));
+            report.setMatchMillis(toMillis(settleStart - matchStart));
+            report.setSettleMillis(toMillis(finished - settleStart));
+            double matchSeconds = Math.max(settleStart - matchStart, 1) / 1_000_000_000.0;
+            report.setLinesPerSecond(result.getLines() / matchSeconds);
+            report.setMegabytesPerSecond(totalBytes / BYTES_PER_MEGABYTE / matchSeconds);
+            report.setStatus("COMPLETED");
+            report.setFinishedAt(LocalDateTime.now());
+        } finally {
+            activeRuns.remove(fileName);
+        }
+        
+        logger.info("Statement {} ingested: {} lines, {} matched, {} unmatched, {} malformed, {} applied, " +
+                    "{} lines/s", fileName, report.getLines(), report.getMatched(), report.getUnmatched(),
+                    report.getMalformed(), report.getApplied(), Math.round(report.getLinesPerSecond()));
+        return report;
+    }
+    
+    /**
+     * Settle matched lines in batches, each in its own transaction.
+     */
+    private void settleMatchedLines(List<SettlementRequest.StatementLine> matched, StatementIngestionReport report) {
+        for (int i = 0; i < matched.size(); i += settlementBatchSize) {
+            SettlementRequest request = new SettlementRequest(
+                new ArrayList<>(matched.subList(i, Math.min(i + settlementBatchSize, matched.size()))));
+            SettlementResult result = settlementService.settle(request, null);
+            report.setApplied(report.getApplied() + result.getApplied());
+            report.setDuplicates(report.getDuplicates() + result.getDuplicates());
+            report.setRejected(report.getRejected() + result.getRejected());
+        }
+    }
+    
+    private void remember(StatementIngestionReport report) {
+        recentRuns.addFirst(report);
+        while (recentRuns.size() > MAX_RECENT_RUNS) {
+            recentRuns.pollLast();
+        }
+    }
+    
+    @PostConstruct
+    void startPool() {
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        pool = new ForkJoinPool(threads);
+    }
+    
+    @PreDestroy
+    void shutdownPool() {
+        pool.shutdown();
+    }
+    
+    private static long toMillis(long nanos) {
+        return nanos / 1_000_000;
+    }
+}
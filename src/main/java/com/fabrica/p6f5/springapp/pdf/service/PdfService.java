@@ -1,5 +1,7 @@
 package com.fabrica.p6f5.springapp.pdf.service;
 
+import com.fabrica.p6f5.springapp.events.dto.InvoiceEvent;
+import com.fabrica.p6f5.springapp.events.service.InvoiceEventService;
 import com.fabrica.p6f5.springapp.exception.BusinessException;
 import com.fabrica.p6f5.springapp.exception.ResourceNotFoundException;
 import com.fabrica.p6f5.springapp.invoice.model.Invoice;
@@ -23,10 +25,13 @@ public class PdfService {
     
     private final InvoiceRepository invoiceRepository;
     private final PdfLogRepository pdfLogRepository;
+    private final InvoiceEventService invoiceEventService;
     
-    public PdfService(InvoiceRepository invoiceRepository, PdfLogRepository pdfLogRepository) {
+    public PdfService(InvoiceRepository invoiceRepository, PdfLogRepository pdfLogRepository,
+                      InvoiceEventService invoiceEventService) {
         this.invoiceRepository = invoiceRepository;
         this.pdfLogRepository = pdfLogRepository;
+        this.invoiceEventService = invoiceEventService;
     }
     
     /**
@@ -85,7 +90,7 @@ public class PdfService {
      */
     private void updateInvoiceWithPdfUrl(Invoice invoice, String pdfUrl) {
         invoice.setPdfUrl(pdfUrl);
-        invoiceRepository.save(invoice);
+        invoiceEventService.record(InvoiceEvent.Type.PDF_GENERATED, invoiceRepository.save(invoice));
     }
     
     /**
@@ -1,15 +1,26 @@
 package com.fabrica.p6f5.springapp.shipment.controller;
 
 import com.fabrica.p6f5.springapp.dto.ApiResponse;
+import com.fabrica.p6f5.springapp.dto.CursorPage;
+import com.fabrica.p6f5.springapp.entity.User;
+import com.fabrica.p6f5.springapp.shipment.dto.ShipmentSummary;
+import com.fabrica.p6f5.springapp.shipment.dto.ShipmentUpsertResult;
 import com.fabrica.p6f5.springapp.shipment.model.Shipment;
-import com.fabrica.p6f5.springapp.shipment.repository.ShipmentRepository;
+import com.fabrica.p6f5.springapp.shipment.service.ShipmentService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import com.fabrica.p6f5.springapp.util.ResponseUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 /**
@@ -21,19 +32,24 @@ import java.util.List;
 @Tag(name = "Shipment API", description = "API for managing shipments")
 public class ShipmentController {
     
-    private final ShipmentRepository shipmentRepository;
+    private static final Logger logger = LoggerFactory.getLogger(ShipmentController.class);
     
-    public ShipmentController(ShipmentRepository shipmentRepository) {
-        this.shipmentRepository = shipmentRepository;
+    private final ShipmentService shipmentService;
+    
+    public ShipmentController(ShipmentService shipmentService) {
+        this.shipmentService = shipmentService;
     }
     
     /**
      * Get all shipments
      */
     @GetMapping
-    @Operation(summary = "Get all shipments", description = "Retrieves all shipments")
-    public ResponseEntity<ApiResponse<List<Shipment>>> getAllShipments() {
-        List<Shipment> shipments = shipmentRepository.findAll();
+    @Operation(summary = "Get all shipments", description = "Retrieves a keyset page of shipment summaries, optionally limited to selected fields")
+    public ResponseEntity<ApiResponse<CursorPage<?>>> getAllShipments(
+            @Parameter(description = "Cursor returned by the previous page") @RequestParam(required = false) Long cursor,
+            @Parameter(description = "Page size (max 500)") @RequestParam(required = false) Integer limit,
+            @Parameter(description = "Comma-separated fields, e.g. id,trackingNumber,status") @RequestParam(required = false) String fields) {
+        CursorPage<?> shipments = shipmentService.getShipments(cursor, limit, null, ShipmentSummary.parseFields(fields));
         return ResponseUtils.success(shipments, "Shipments retrieved successfully");
     }
     
@@ -41,22 +57,56 @@ public class ShipmentController {
      * Get shipments by status
      */
     @GetMapping("/status/{status}")
-    @Operation(summary = "Get shipments by status", description = "Retrieves shipments filtered by status")
-    public ResponseEntity<ApiResponse<List<Shipment>>> getShipmentsByStatus(
-            @Parameter(description = "Shipment status") @PathVariable String status) {
+    @Operation(summary = "Get shipments by status", description = "Retrieves a keyset page of shipment summaries filtered by status")
+    public ResponseEntity<ApiResponse<CursorPage<?>>> getShipmentsByStatus(
+            @Parameter(description = "Shipment status") @PathVariable String status,
+            @Parameter(description = "Cursor returned by the previous page") @RequestParam(required = false) Long cursor,
+            @Parameter(description = "Page size (max 500)") @RequestParam(required = false) Integer limit,
+            @Parameter(description = "Comma-separated fields, e.g. id,trackingNumber,status") @RequestParam(required = false) String fields) {
         Shipment.ShipmentStatus shipmentStatus = Shipment.ShipmentStatus.valueOf(status.toUpperCase());
-        List<Shipment> shipments = shipmentRepository.findByStatusOrderByCreatedAtDesc(shipmentStatus);
+        CursorPage<?> shipments = shipmentService.getShipments(cursor, limit, shipmentStatus, ShipmentSummary.parseFields(fields));
         return ResponseUtils.success(shipments, "Shipments retrieved successfully");
     }
     
+    /**
+     * Stream shipment summaries as NDJSON
+     */
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Stream shipments", description = "Streams every shipment summary as NDJSON, one object per line")
+    public ResponseEntity<StreamingResponseBody> streamShipments(
+            @Parameter(description = "Shipment status") @RequestParam(required = false) String status,
+            @Parameter(description = "Comma-separated fields, e.g. id,trackingNumber,status") @RequestParam(required = false) String fields) {
+        Shipment.ShipmentStatus shipmentStatus = status != null ? Shipment.ShipmentStatus.valueOf(status.toUpperCase()) : null;
+        List<String> selectedFields = ShipmentSummary.parseFields(fields);
+        StreamingResponseBody body = out -> shipmentService.streamShipments(shipmentStatus, selectedFields, out);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+    
+    /**
+     * Bulk upsert shipments from an NDJSON feed
+     */
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_PLAIN_VALUE})
+    @Operation(summary = "Bulk upsert shipments", description = "Streams an NDJSON carrier feed and upserts shipments by tracking number")
+    public ResponseEntity<ApiResponse<ShipmentUpsertResult>> upsertShipments(
+            InputStream body,
+            @AuthenticationPrincipal User user) throws IOException {
+        logger.info("Bulk shipment upsert by user: {}", user.getUsername());
+        ShipmentUpsertResult result = shipmentService.upsertShipments(body, user.getId());
+        return ResponseUtils.success(result, "Shipments upserted successfully");
+    }
+    
     /**
      * Get unlinked shipments
      */
     @GetMapping("/unlinked")
-    @Operation(summary = "Get unlinked shipments", description = "Retrieves shipments not yet linked to any invoice")
-    public ResponseEntity<ApiResponse<List<Shipment>>> getUnlinkedShipments() {
-        List<Shipment> shipments = shipmentRepository.findUnlinkedShipments();
+    @Operation(summary = "Get unlinked shipments", description = "Retrieves a keyset page of shipments not yet linked to any invoice")
+    public ResponseEntity<ApiResponse<CursorPage<ShipmentSummary>>> getUnlinkedShipments(
+            @Parameter(description = "Cursor returned by the previous page") @RequestParam(required = false) Long cursor,
+            @Parameter(description = "Page size (max 500)") @RequestParam(required = false) Integer limit,
+            @Parameter(description = "Client name") @RequestParam(required = false) String clientName,
+            @Parameter(description = "Shipment status") @RequestParam(required = false) String status) {
+        Shipment.ShipmentStatus shipmentStatus = status != null ? Shipment.ShipmentStatus.valueOf(status.toUpperCase()) : null;
+        CursorPage<ShipmentSummary> shipments = shipmentService.getUnlinkedShipments(cursor, limit, clientName, shipmentStatus);
         return ResponseUtils.success(shipments, "Unlinked shipments retrieved successfully");
     }
 }
-
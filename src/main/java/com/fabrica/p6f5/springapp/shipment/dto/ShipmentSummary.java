@@ -0,0 +1,85 @@
+package com.fabrica.p6f5.springapp.shipment.dto;
+
+import com.fabrica.p6f5.springapp.exception.BusinessException;
+import com.fabrica.p6f5.springapp.shipment.model.Shipment;
+import com.fabrica.p6f5.springapp.util.Constants;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Lightweight shipment projection for listings. Leaves out the TEXT address columns.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShipmentSummary {
+    
+    private static final Map<String, Function<ShipmentSummary, Object>> FIELDS;
+    
+    static {
+        Map<String, Function<ShipmentSummary, Object>> fields = new LinkedHashMap<>();
+        fields.put("id", ShipmentSummary::getId);
+        fields.put("trackingNumber", ShipmentSummary::getTrackingNumber);
+        fields.put("clientName", ShipmentSummary::getClientName);
+        fields.put("status", ShipmentSummary::getStatus);
+        fields.put("totalWeight", ShipmentSummary::getTotalWeight);
+        fields.put("totalVolume", ShipmentSummary::getTotalVolume);
+        fields.put("createdAt", ShipmentSummary::getCreatedAt);
+        fields.put("updatedAt", ShipmentSummary::getUpdatedAt);
+        FIELDS = Collections.unmodifiableMap(fields);
+    }
+    
+    private Long id;
+    private String trackingNumber;
+    private String clientName;
+    private Shipment.ShipmentStatus status;
+    private BigDecimal totalWeight;
+    private BigDecimal totalVolume;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    
+    /**
+     * Parse a comma-separated field selection.
+     * 
+     * @param fields the requested fields, e.g. {@code id,trackingNumber,status}
+     * @return the validated field names, or null to select every field
+     */
+    public static List<String> parseFields(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return null;
+        }
+        List<String> selected = new ArrayList<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty() || selected.contains(name)) {
+                continue;
+            }
+            if (!FIELDS.containsKey(name)) {
+                throw new BusinessException(String.format(Constants.UNKNOWN_FIELD, name, FIELDS.keySet()));
+            }
+            selected.add(name);
+        }
+        return selected;
+    }
+    
+    /**
+     * Copy the selected fields into an ordered map.
+     */
+    public Map<String, Object> select(List<String> fields) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (String field : fields) {
+            values.put(field, FIELDS.get(field).apply(this));
+        }
+        return values;
+    }
+}
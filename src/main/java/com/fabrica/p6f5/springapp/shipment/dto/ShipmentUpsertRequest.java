@@ -0,0 +1,51 @@
+package com.fabrica.p6f5.springapp.shipment.dto;
+
+import com.fabrica.p6f5.springapp.shipment.model.Shipment;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO for one shipment in a carrier feed, keyed by tracking number.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShipmentUpsertRequest {
+    
+    @NotBlank(message = "Tracking number is required")
+    @Size(max = 100, message = "Tracking number must be at most 100 characters")
+    private String trackingNumber;
+    
+    @NotBlank(message = "Client name is required")
+    @Size(max = 255, message = "Client name must be at most 255 characters")
+    private String clientName;
+    
+    @NotBlank(message = "Origin address is required")
+    private String originAddress;
+    
+    @NotBlank(message = "Destination address is required")
+    private String destinationAddress;
+    
+    @NotNull(message = "Total weight is required")
+    @Positive(message = "Total weight must be positive")
+    @DecimalMax(value = "99999999.99", message = "Total weight is too large")
+    @Digits(integer = 8, fraction = 2, message = "Total weight allows at most 2 decimals")
+    private BigDecimal totalWeight;
+    
+    @NotNull(message = "Total volume is required")
+    @Positive(message = "Total volume must be positive")
+    @DecimalMax(value = "99999999.99", message = "Total volume is too large")
+    @Digits(integer = 8, fraction = 2, message = "Total volume allows at most 2 decimals")
+    private BigDecimal totalVolume;
+    
+    private Shipment.ShipmentStatus status = Shipment.ShipmentStatus.PENDING;
+}
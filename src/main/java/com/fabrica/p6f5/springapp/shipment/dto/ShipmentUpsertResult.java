@@ -0,0 +1,51 @@
+package com.fabrica.p6f5.springapp.shipment.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO summarizing a bulk shipment upsert.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShipmentUpsertResult {
+    
+    public static final int MAX_REJECTION_SAMPLES = 100;
+    
+    private long received;
+    private long inserted;
+    private long updated;
+    private long unchanged;
+    private long superseded;
+    private long rejected;
+    private int batches;
+    private long elapsedMillis;
+    private List<Rejection> rejections = new ArrayList<>();
+    
+    /**
+     * Count a rejected line, keeping the first few reasons for the response.
+     */
+    public void reject(long lineNumber, String trackingNumber, String reason) {
+        rejected++;
+        if (rejections.size() < MAX_REJECTION_SAMPLES) {
+            rejections.add(new Rejection(lineNumber, trackingNumber, reason));
+        }
+    }
+    
+    /**
+     * Rejected input line.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Rejection {
+        private long lineNumber;
+        private String trackingNumber;
+        private String reason;
+    }
+}
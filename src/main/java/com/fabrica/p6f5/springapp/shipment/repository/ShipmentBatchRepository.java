@@ -0,0 +1,179 @@
+package com.fabrica.p6f5.springapp.shipment.repository;
+
+import com.fabrica.p6f5.springapp.shipment.dto.ShipmentUpsertRequest;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shipment Batch Repository.
+ * Upserts shipments by tracking number with one INSERT ... ON CONFLICT per batch.
+ * Shipments linked to an invoice keep the data they were billed on, and a status
+ * never moves back (DELIVERED and CANCELLED are final); such rows are skipped and
+ * reported back instead of written.
+ */
+@Repository
+public class ShipmentBatchRepository {
+    
+    private static final String SHIPMENT_COLUMNS =
+        "client_name, origin_address, destination_address, total_weight, total_volume, shipment_status";
+    
+    private static final String LINKED =
+        "EXISTS (SELECT 1 FROM invoice_shipments l WHERE l.shipment_id = s.shipment_id)";
+    
+    private static final String LOCK_EXISTING_SQL =
+        "SELECT shipment_id FROM shipments WHERE tracking_number = ANY(?) ORDER BY shipment_id FOR UPDATE";
+    
+    private static final String UPSERT_SQL =
+        "WITH input AS (" +
+        "SELECT * FROM unnest(?::text[], ?::text[], ?::text[], ?::text[], ?::numeric[], ?::numeric[], ?::text[]) " +
+        "AS t(tracking_number, " + SHIPMENT_COLUMNS + ")), " +
+        "blocked AS (" +
+        "SELECT t.tracking_number, s.shipment_status AS current_status, t.shipment_status AS requested_status, " +
+        LINKED + " AS linked FROM input t JOIN shipments s ON s.tracking_number = t.tracking_number " +
+        "WHERE (" + columns("s") + ") IS DISTINCT FROM (" + columns("t") + ") " +
+        "AND (" + LINKED + " OR (t.shipment_status <> s.shipment_status AND " +
+        statusRank("t.shipment_status") + " <= " + statusRank("s.shipment_status") + "))), " +
+        "upserted AS (" +
+        "INSERT INTO shipments (tracking_number, " + SHIPMENT_COLUMNS + ", created_by, created_at, updated_at) " +
+        "SELECT t.tracking_number, " + columns("t") + ", ?, ?, ? FROM input t " +
+        "WHERE NOT EXISTS (SELECT 1 FROM blocked b WHERE b.tracking_number = t.tracking_number) " +
+        "ON CONFLICT (tracking_number) DO UPDATE SET " +
+        "client_name = EXCLUDED.client_name, origin_address = EXCLUDED.origin_address, " +
+        "destination_address = EXCLUDED.destination_address, total_weight = EXCLUDED.total_weight, " +
+        "total_volume = EXCLUDED.total_volume, shipment_status = EXCLUDED.shipment_status, " +
+        "updated_at = EXCLUDED.updated_at " +
+        "WHERE (" + columns("shipments") + ") IS DISTINCT FROM (" + columns("EXCLUDED") + ") " +
+        "RETURNING (xmax = 0) AS inserted) " +
+        "SELECT CASE WHEN inserted THEN 'INSERTED' ELSE 'UPDATED' END AS outcome, NULL::text AS tracking_number, " +
+        "NULL::text AS current_status, NULL::text AS requested_status FROM upserted " +
+        "UNION ALL " +
+        "SELECT CASE WHEN linked THEN 'LINKED' ELSE 'REGRESSED' END, tracking_number, current_status, " +
+        "requested_status FROM blocked";
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    public ShipmentBatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+    
+    /**
+     * Upsert a batch of shipments. Tracking numbers must be unique within the batch.
+     * Rows whose data did not change are left untouched and not counted. Must run in
+     * a transaction: existing rows are locked first, so the links and statuses the
+     * upsert checks cannot change before it writes.
+     * 
+     * @param shipments the validated shipments
+     * @param userId the user recorded as creator of new shipments
+     * @return the inserted and updated counts and the rows that were not allowed to change
+     */
+    public UpsertOutcome upsert(List<ShipmentUpsertRequest> shipments, Long userId) {
+        int size = shipments.size();
+        String[] trackingNumbers = new String[size];
+        String[] clientNames = new String[size];
+        String[] origins = new String[size];
+        String[] destinations = new String[size];
+        BigDecimal[] weights = new BigDecimal[size];
+        BigDecimal[] volumes = new BigDecimal[size];
+        String[] statuses = new String[size];
+        for (int i = 0; i < size; i++) {
+            ShipmentUpsertRequest shipment = shipments.get(i);
+            trackingNumbers[i] = shipment.getTrackingNumber();
+            clientNames[i] = shipment.getClientName();
+            origins[i] = shipment.getOriginAddress();
+            destinations[i] = shipment.getDestinationAddress();
+            weights[i] = shipment.getTotalWeight();
+            volumes[i] = shipment.getTotalVolume();
+            statuses[i] = shipment.getStatus().name();
+        }
+        
+        // In ID order like billing run claims, so the two never deadlock
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(LOCK_EXISTING_SQL);
+            ps.setArray(1, textArray(connection, trackingNumbers));
+            return ps;
+        }, rs -> {
+        });
+        
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        UpsertOutcome outcome = new UpsertOutcome();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(UPSERT_SQL);
+            ps.setArray(1, textArray(connection, trackingNumbers));
+            ps.setArray(2, textArray(connection, clientNames));
+            ps.setArray(3, textArray(connection, origins));
+            ps.setArray(4, textArray(connection, destinations));
+            ps.setArray(5, connection.createArrayOf("numeric", weights));
+            ps.setArray(6, connection.createArrayOf("numeric", volumes));
+            ps.setArray(7, textArray(connection, statuses));
+            if (userId != null) {
+                ps.setLong(8, userId);
+            } else {
+                ps.setNull(8, Types.BIGINT);
+            }
+            ps.setTimestamp(9, now);
+            ps.setTimestamp(10, now);
+            return ps;
+        }, rs -> {
+            switch (rs.getString("outcome")) {
+                case "INSERTED" -> outcome.inserted++;
+                case "UPDATED" -> outcome.updated++;
+                default -> outcome.blocked.add(new BlockedShipment(
+                    rs.getString("tracking_number"),
+                    "LINKED".equals(rs.getString("outcome")),
+                    rs.getString("current_status"),
+                    rs.getString("requested_status")));
+            }
+        });
+        return outcome;
+    }
+    
+    private static Array textArray(Connection connection, String[] values) throws SQLException {
+        return connection.createArrayOf("text", values);
+    }
+    
+    private static String columns(String alias) {
+        return alias + "." + SHIPMENT_COLUMNS.replace(", ", ", " + alias + ".");
+    }
+    
+    /**
+     * Order of a status in the shipment lifecycle; DELIVERED and CANCELLED are both final.
+     */
+    private static String statusRank(String column) {
+        return "(CASE " + column + " WHEN 'PENDING' THEN 0 WHEN 'IN_TRANSIT' THEN 1 ELSE 2 END)";
+    }
+    
+    /**
+     * Result of one upsert batch.
+     */
+    @Data
+    public static class UpsertOutcome {
+        private long inserted;
+        private long updated;
+        private List<BlockedShipment> blocked = new ArrayList<>();
+    }
+    
+    /**
+     * Shipment whose update was refused.
+     */
+    @Data
+    @AllArgsConstructor
+    public static class BlockedShipment {
+        private String trackingNumber;
+        private boolean linked;
+        private String currentStatus;
+        private String requestedStatus;
+    }
+}
@@ -1,8 +1,11 @@
 package com.fabrica.p6f5.springapp.shipment.repository;
 
+import com.fabrica.p6f5.springapp.shipment.dto.ShipmentSummary;
 import com.fabrica.p6f5.springapp.shipment.model.Shipment;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -56,12 +59,90 @@ public interface ShipmentRepository extends JpaRepository<Shipment, Long> {
     List<Shipment> findByCreatedByOrderByCreatedAtDesc(Long userId);
     
     /**
-     * Find shipments not yet linked to any invoice.
+     * Constructor projection for shipment listings, without address columns.
+     */
+    String SUMMARY_SELECT = "SELECT new com.fabrica.p6f5.springapp.shipment.dto.ShipmentSummary(" +
+           "s.id, s.trackingNumber, s.clientName, s.status, s.totalWeight, s.totalVolume, s.createdAt, s.updatedAt) " +
+           "FROM Shipment s WHERE s.id > :afterId";
+    
+    /**
+     * Find a keyset page of shipment summaries.
+     * 
+     * @param afterId the last shipment ID of the previous page
+     * @param pageable the page size
+     * @return shipment summaries ordered by ID
+     */
+    @Query(SUMMARY_SELECT + " ORDER BY s.id")
+    List<ShipmentSummary> findSummaries(@Param("afterId") Long afterId, Pageable pageable);
+    
+    /**
+     * Find a keyset page of shipment summaries with a status.
+     * 
+     * @param afterId the last shipment ID of the previous page
+     * @param status the shipment status
+     * @param pageable the page size
+     * @return shipment summaries ordered by ID
+     */
+    @Query(SUMMARY_SELECT + " AND s.status = :status ORDER BY s.id")
+    List<ShipmentSummary> findSummariesByStatus(@Param("afterId") Long afterId,
+                                                @Param("status") Shipment.ShipmentStatus status,
+                                                Pageable pageable);
+    
+    /**
+     * Summary projection of unlinked shipments: an anti-join on invoice_shipments
+     * that the planner can run as an index-backed hash or nested-loop anti-join.
+     */
+    String UNLINKED_SUMMARY_SELECT = SUMMARY_SELECT + " AND NOT EXISTS " +
+           "(SELECT 1 FROM com.fabrica.p6f5.springapp.invoice.model.InvoiceShipment is WHERE is.shipment.id = s.id)";
+    
+    /**
+     * Find a page of shipments not yet linked to any invoice.
+     * 
+     * @param afterId the last shipment ID of the previous page
+     * @param pageable the page size
+     * @return unlinked shipment summaries ordered by ID
+     */
+    @Query(UNLINKED_SUMMARY_SELECT + " ORDER BY s.id")
+    List<ShipmentSummary> findUnlinkedShipments(@Param("afterId") Long afterId, Pageable pageable);
+    
+    /**
+     * Find a page of unlinked shipments for a client.
+     * 
+     * @param afterId the last shipment ID of the previous page
+     * @param clientName the client name
+     * @param pageable the page size
+     * @return unlinked shipment summaries ordered by ID
+     */
+    @Query(UNLINKED_SUMMARY_SELECT + " AND s.clientName = :clientName ORDER BY s.id")
+    List<ShipmentSummary> findUnlinkedShipmentsByClient(@Param("afterId") Long afterId,
+                                                        @Param("clientName") String clientName,
+                                                        Pageable pageable);
+    
+    /**
+     * Find a page of unlinked shipments with a status.
      * 
-     * @return list of unlinked shipments
+     * @param afterId the last shipment ID of the previous page
+     * @param status the shipment status
+     * @param pageable the page size
+     * @return unlinked shipment summaries ordered by ID
+     */
+    @Query(UNLINKED_SUMMARY_SELECT + " AND s.status = :status ORDER BY s.id")
+    List<ShipmentSummary> findUnlinkedShipmentsByStatus(@Param("afterId") Long afterId,
+                                                        @Param("status") Shipment.ShipmentStatus status,
+                                                        Pageable pageable);
+    
+    /**
+     * Find a page of unlinked shipments for a client with a status.
+     * 
+     * @param afterId the last shipment ID of the previous page
+     * @param clientName the client name
+     * @param status the shipment status
+     * @param pageable the page size
+     * @return unlinked shipment summaries ordered by ID
      */
-    @Query("SELECT s FROM Shipment s WHERE s.id NOT IN " +
-           "(SELECT DISTINCT is.shipment.id FROM com.fabrica.p6f5.springapp.invoice.model.InvoiceShipment is)")
-    List<Shipment> findUnlinkedShipments();
+    @Query(UNLINKED_SUMMARY_SELECT + " AND s.clientName = :clientName AND s.status = :status ORDER BY s.id")
+    List<ShipmentSummary> findUnlinkedShipmentsByClientAndStatus(@Param("afterId") Long afterId,
+                                                                 @Param("clientName") String clientName,
+                                                                 @Param("status") Shipment.ShipmentStatus status,
+                                                                 Pageable pageable);
 }
-
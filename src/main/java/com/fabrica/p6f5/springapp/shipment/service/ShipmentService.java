@@ -1,7 +1,42 @@
 package com.fabrica.p6f5.springapp.shipment.service;
 
+import com.fabrica.p6f5.springapp.dto.CursorPage;
+import com.fabrica.p6f5.springapp.shipment.dto.ShipmentSummary;
+import com.fabrica.p6f5.springapp.shipment.dto.ShipmentUpsertRequest;
+import com.fabrica.p6f5.springapp.shipment.dto.ShipmentUpsertResult;
+import com.fabrica.p6f5.springapp.shipment.model.Shipment;
+import com.fabrica.p6f5.springapp.shipment.repository.ShipmentBatchRepository;
+import com.fabrica.p6f5.springapp.shipment.repository.ShipmentBatchRepository.BlockedShipment;
+import com.fabrica.p6f5.springapp.shipment.repository.ShipmentBatchRepository.UpsertOutcome;
 import com.fabrica.p6f5.springapp.shipment.repository.ShipmentRepository;
+import com.fabrica.p6f5.springapp.util.Constants;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * Shipment Service following Single Responsibility Principle.
@@ -10,12 +45,246 @@ import org.springframework.stereotype.Service;
 @Service
 public class ShipmentService {
     
+    private static final Logger logger = LoggerFactory.getLogger(ShipmentService.class);
+    
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int MAX_PAGE_SIZE = 500;
+    private static final int STREAM_PAGE_SIZE = 1000;
+    
     private final ShipmentRepository shipmentRepository;
+    private final ShipmentBatchRepository shipmentBatchRepository;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
     
-    public ShipmentService(ShipmentRepository shipmentRepository) {
+    @Value("${billing.shipments.upsert-batch-size:1000}")
+    private int upsertBatchSize;
+    
+    public ShipmentService(ShipmentRepository shipmentRepository,
+                           ShipmentBatchRepository shipmentBatchRepository,
+                           ObjectMapper objectMapper,
+                           Validator validator,
+                           TransactionTemplate transactionTemplate) {
         this.shipmentRepository = shipmentRepository;
+        this.shipmentBatchRepository = shipmentBatchRepository;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.transactionTemplate = transactionTemplate;
+    }
+    
+    /**
+     * Upsert shipments from an NDJSON stream, one shipment per line.
+     * Lines are parsed and validated as they arrive and written in batches of
+     * {@code billing.shipments.upsert-batch-size}, each in its own transaction,
+     * so memory stays flat regardless of feed size. Within a batch the last
+     * line for a tracking number wins.
+     * 
+     * @param ndjson the request body
+     * @param userId the user recorded as creator of new shipments
+     * @return inserted, updated, unchanged, superseded and rejected counts
+     */
+    public ShipmentUpsertResult upsertShipments(InputStream ndjson, Long userId) throws IOException {
+        long start = System.nanoTime();
+        ShipmentUpsertResult result = new ShipmentUpsertResult();
+        ObjectReader reader = objectMapper.readerFor(ShipmentUpsertRequest.class);
+        Map<String, ShipmentUpsertRequest> batch = new LinkedHashMap<>();
+        Map<String, Long> lineNumbers = new LinkedHashMap<>();
+        
+        try (BufferedReader lines = new BufferedReader(new InputStreamReader(ndjson, StandardCharsets.UTF_8))) {
+            String line;
+            long lineNumber = 0;
+            while ((line = lines.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                result.setReceived(result.getReceived() + 1);
+                
+                ShipmentUpsertRequest shipment;
+                try {
+                    shipment = reader.readValue(line);
+                } catch (JsonProcessingException e) {
+                    result.reject(lineNumber, null, "Malformed JSON: " + e.getOriginalMessage());
+                    continue;
+                }
+                String violations = validate(shipment);
+                if (violations != null) {
+                    result.reject(lineNumber, shipment.getTrackingNumber(), violations);
+                    continue;
+                }
+                
+                String trackingNumber = shipment.getTrackingNumber().trim();
+                shipment.setTrackingNumber(trackingNumber);
+                if (batch.remove(trackingNumber) != null) {
+                    result.setSuperseded(result.getSuperseded() + 1);
+                }
+                batch.put(trackingNumber, shipment);
+                lineNumbers.put(trackingNumber, lineNumber);
+                
+                if (batch.size() >= upsertBatchSize) {
+                    flushBatch(batch, lineNumbers, userId, result);
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            flushBatch(batch, lineNumbers, userId, result);
+        }
+        
+        result.setElapsedMillis((System.nanoTime() - start) / 1_000_000);
+        logger.info("Shipment upsert: {} received, {} inserted, {} updated, {} unchanged, {} superseded, {} rejected in {} ms",
+                   result.getReceived(), result.getInserted(), result.getUpdated(), result.getUnchanged(),
+                   result.getSuperseded(), result.getRejected(), result.getElapsedMillis());
+        return result;
+    }
+    
+    /**
+     * Write one batch in its own transaction. A failing batch is rejected as a
+     * whole and the stream carries on with the next one. Shipments linked to an
+     * invoice and status regressions are rejected line by line.
+     */
+    private void flushBatch(Map<String, ShipmentUpsertRequest> batch, Map<String, Long> lineNumbers,
+                            Long userId, ShipmentUpsertResult result) {
+        List<ShipmentUpsertRequest> shipments = new ArrayList<>(batch.values());
+        try {
+            UpsertOutcome outcome = transactionTemplate.execute(status -> shipmentBatchRepository.upsert(shipments, userId));
+            result.setInserted(result.getInserted() + outcome.getInserted());
+            result.setUpdated(result.getUpdated() + outcome.getUpdated());
+            result.setUnchanged(result.getUnchanged() + shipments.size() - outcome.getInserted() - outcome.getUpdated()
+                                - outcome.getBlocked().size());
+            for (BlockedShipment blocked : outcome.getBlocked()) {
+                String reason = blocked.isLinked()
+                    ? Constants.SHIPMENT_LINKED_READ_ONLY
+                    : String.format(Constants.SHIPMENT_STATUS_REGRESSION, blocked.getCurrentStatus(),
+                                    blocked.getRequestedStatus());
+                result.reject(lineNumbers.get(blocked.getTrackingNumber()), blocked.getTrackingNumber(), reason);
+            }
+        } catch (DataAccessException e) {
+            logger.error("Shipment upsert batch failed: {}", e.getMessage(), e);
+            String reason = "Batch failed: " + e.getMostSpecificCause().getMessage();
+            for (ShipmentUpsertRequest shipment : shipments) {
+                result.reject(lineNumbers.get(shipment.getTrackingNumber()), shipment.getTrackingNumber(), reason);
+            }
+        }
+        result.setBatches(result.getBatches() + 1);
+        batch.clear();
+        lineNumbers.clear();
+    }
+    
+    /**
+     * Validate a shipment against its bean constraints.
+     * 
+     * @return the joined violation messages, or null when valid
+     */
+    private String validate(ShipmentUpsertRequest shipment) {
+        if (shipment == null) {
+            return "Empty shipment";
+        }
+        if (shipment.getStatus() == null) {
+            shipment.setStatus(Shipment.ShipmentStatus.PENDING);
+        }
+        Set<ConstraintViolation<ShipmentUpsertRequest>> violations = validator.validate(shipment);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+            .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+            .sorted()
+            .collect(Collectors.joining(", "));
     }
     
-    // Business logic methods can be added here as needed
+    /**
+     * Get a keyset page of shipment summaries.
+     * 
+     * @param afterId the cursor from the previous page, or null for the first page
+     * @param limit the page size, clamped to {@link #MAX_PAGE_SIZE}
+     * @param status optional status filter
+     * @param fields optional field selection from {@link ShipmentSummary#parseFields(String)}
+     * @return a page of {@link ShipmentSummary}, or of field maps when fields are selected
+     */
+    public CursorPage<?> getShipments(Long afterId, Integer limit, Shipment.ShipmentStatus status, List<String> fields) {
+        int pageSize = clampPageSize(limit);
+        List<ShipmentSummary> rows = findSummaryPage(afterId != null ? afterId : 0L, pageSize + 1, status);
+        CursorPage<ShipmentSummary> page = CursorPage.of(rows, pageSize, ShipmentSummary::getId);
+        if (fields == null) {
+            return page;
+        }
+        List<Map<String, Object>> selected = page.getItems().stream()
+            .map(summary -> summary.select(fields))
+            .collect(Collectors.toList());
+        return new CursorPage<>(selected, page.getNextCursor(), page.isHasMore());
+    }
+    
+    /**
+     * Stream every matching shipment summary as NDJSON. Pages are read with keyset
+     * queries and written out one at a time, so heap use does not depend on table size.
+     * 
+     * @param status optional status filter
+     * @param fields optional field selection
+     * @param out the response stream
+     */
+    public void streamShipments(Shipment.ShipmentStatus status, List<String> fields, OutputStream out) throws IOException {
+        SequenceWriter writer = objectMapper.writer().withRootValueSeparator("\n").writeValues(out);
+        long afterId = 0L;
+        long written = 0;
+        List<ShipmentSummary> page;
+        do {
+            page = findSummaryPage(afterId, STREAM_PAGE_SIZE, status);
+            for (ShipmentSummary summary : page) {
+                writer.write(fields == null ? summary : summary.select(fields));
+            }
+            writer.flush();
+            written += page.size();
+            if (!page.isEmpty()) {
+                afterId = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == STREAM_PAGE_SIZE);
+        writer.close();
+        logger.debug("Streamed {} shipment summaries", written);
+    }
+    
+    private List<ShipmentSummary> findSummaryPage(long afterId, int size, Shipment.ShipmentStatus status) {
+        Pageable pageable = PageRequest.of(0, size);
+        return status != null
+            ? shipmentRepository.findSummariesByStatus(afterId, status, pageable)
+            : shipmentRepository.findSummaries(afterId, pageable);
+    }
+    
+    /**
+     * Get a keyset page of shipments not yet linked to any invoice.
+     * 
+     * @param afterId the cursor from the previous page, or null for the first page
+     * @param limit the page size, clamped to {@link #MAX_PAGE_SIZE}
+     * @param clientName optional client filter
+     * @param status optional status filter
+     * @return the page of unlinked shipment summaries
+     */
+    public CursorPage<ShipmentSummary> getUnlinkedShipments(Long afterId, Integer limit, String clientName,
+                                                            Shipment.ShipmentStatus status) {
+        int pageSize = clampPageSize(limit);
+        long cursor = afterId != null ? afterId : 0L;
+        // One extra row tells us whether another page exists without a count query
+        Pageable pageable = PageRequest.of(0, pageSize + 1);
+        
+        List<ShipmentSummary> rows;
+        if (clientName != null && status != null) {
+            rows = shipmentRepository.findUnlinkedShipmentsByClientAndStatus(cursor, clientName, status, pageable);
+        } else if (clientName != null) {
+            rows = shipmentRepository.findUnlinkedShipmentsByClient(cursor, clientName, pageable);
+        } else if (status != null) {
+            rows = shipmentRepository.findUnlinkedShipmentsByStatus(cursor, status, pageable);
+        } else {
+            rows = shipmentRepository.findUnlinkedShipments(cursor, pageable);
+        }
+        return CursorPage.of(rows, pageSize, ShipmentSummary::getId);
+    }
+    
+    /**
+     * Clamp a requested page size to the supported range.
+     */
+    private int clampPageSize(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
 }
-
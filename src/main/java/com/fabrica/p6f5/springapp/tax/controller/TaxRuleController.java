@@ -0,0 +1,72 @@
+package com.fabrica.p6f5.springapp.tax.controller;
+
+import com.fabrica.p6f5.springapp.dto.ApiResponse;
+import com.fabrica.p6f5.springapp.tax.dto.TaxRuleRequest;
+import com.fabrica.p6f5.springapp.tax.model.TaxRule;
+import com.fabrica.p6f5.springapp.tax.service.TaxService;
+import com.fabrica.p6f5.springapp.util.ResponseUtils;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Tax Rule Controller following Single Responsibility Principle.
+ * Handles tax rule HTTP requests.
+ */
+@RestController
+@RequestMapping("/api/v1/tax-rules")
+@Tag(name = "Tax API", description = "API for managing tax rules")
+public class TaxRuleController {
+    
+    private final TaxService taxService;
+    
+    public TaxRuleController(TaxService taxService) {
+        this.taxService = taxService;
+    }
+    
+    /**
+     * Get active tax rules
+     */
+    @GetMapping
+    @Operation(summary = "Get active tax rules", description = "Retrieves all active tax rules")
+    public ResponseEntity<ApiResponse<List<TaxRule>>> getActiveRules() {
+        return ResponseUtils.success(taxService.getActiveRules(), "Tax rules retrieved successfully");
+    }
+    
+    /**
+     * Create a tax rule (Admin only)
+     */
+    @PostMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Create a tax rule", description = "Adds a rule and hot-swaps the compiled tax table")
+    public ResponseEntity<ApiResponse<TaxRule>> createRule(@Valid @RequestBody TaxRuleRequest request) {
+        return ResponseUtils.created(taxService.createRule(request), "Tax rule created successfully");
+    }
+    
+    /**
+     * Deactivate a tax rule (Admin only)
+     */
+    @DeleteMapping("/{ruleId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Deactivate a tax rule", description = "Deactivates a rule and hot-swaps the compiled tax table")
+    public ResponseEntity<ApiResponse<TaxRule>> deactivateRule(
+            @Parameter(description = "Tax rule ID") @PathVariable Long ruleId) {
+        return ResponseUtils.success(taxService.deactivateRule(ruleId), "Tax rule deactivated successfully");
+    }
+    
+    /**
+     * Reload the tax table (Admin only)
+     */
+    @PostMapping("/reload")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Reload the tax table", description = "Recompiles the tax table from the rule table")
+    public ResponseEntity<ApiResponse<Integer>> reload() {
+        return ResponseUtils.success(taxService.reload(), "Tax rules reloaded successfully");
+    }
+}
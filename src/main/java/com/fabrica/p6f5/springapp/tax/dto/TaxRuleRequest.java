@@ -0,0 +1,37 @@
+package com.fabrica.p6f5.springapp.tax.dto;
+
+import com.fabrica.p6f5.springapp.tax.model.TaxRule;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO for creating a tax rule.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaxRuleRequest {
+    
+    @NotBlank(message = "Region is required")
+    private String region;
+    
+    private String clientName;
+    
+    @NotNull(message = "Rate is required")
+    @PositiveOrZero(message = "Rate must be positive or zero")
+    @DecimalMax(value = "100", message = "Rate must not exceed 100 percent")
+    @Digits(integer = 3, fraction = 4, message = "Rate must have at most 4 decimals")
+    private BigDecimal ratePercent;
+    
+    private Boolean exempt;
+    
+    private TaxRule.TaxRounding rounding;
+}
@@ -0,0 +1,180 @@
+package com.fabrica.p6f5.springapp.tax.engine;
+
+import com.fabrica.p6f5.springapp.money.CurrencyRules;
+import com.fabrica.p6f5.springapp.money.InvoiceLine;
+import com.fabrica.p6f5.springapp.money.Money;
+import com.fabrica.p6f5.springapp.tax.model.TaxRule;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tax rule resolved for one region and client.
+ * The rate is held as millionths of the taxed amount, so line taxes are computed
+ * on long minor units with overflow checks; anything that does not fit falls back
+ * to exact BigDecimal arithmetic with the same rounding.
+ * <p>
+ * With PER_LINE rounding each line tax is rounded and the invoice tax is their sum.
+ * With PER_INVOICE rounding the invoice tax is the rounded sum of the unrounded line
+ * taxes; lines are rounded down and the missing minor units go to the lines with
+ * the largest remainders, so line taxes still add up to the invoice tax.
+ */
+public final class TaxPolicy {
+    
+    private static final long RATE_SCALE = 1_000_000L;
+    private static final int RATE_PERCENT_DIGITS = 4;
+    private static final BigDecimal RATE_DIVISOR = BigDecimal.valueOf(100);
+    private static final int REMAINDER_SHIFT = 32;
+    private static final long INDEX_MASK = 0xFFFFFFFFL;
+    
+    private final String region;
+    private final BigDecimal ratePercent;
+    private final boolean exempt;
+    private final TaxRule.TaxRounding rounding;
+    private final long rateMillionths;
+    
+    TaxPolicy(String region, BigDecimal ratePercent, boolean exempt, TaxRule.TaxRounding rounding) {
+        this.region = region;
+        this.ratePercent = exempt ? BigDecimal.ZERO : ratePercent;
+        this.exempt = exempt;
+        this.rounding = rounding;
+        this.rateMillionths = this.ratePercent.movePointRight(RATE_PERCENT_DIGITS).longValueExact();
+    }
+    
+    static TaxPolicy of(TaxRule rule) {
+        return new TaxPolicy(rule.getRegion(), rule.getRatePercent(), Boolean.TRUE.equals(rule.getExempt()),
+            rule.getRounding() != null ? rule.getRounding() : TaxRule.TaxRounding.PER_INVOICE);
+    }
+    
+    /**
+     * Compute the tax of an invoice's lines.
+     */
+    public TaxResult calculate(List<? extends InvoiceLine> lines, String currency) {
+        int scale = CurrencyRules.scaleOf(currency);
+        int size = lines != null ? lines.size() : 0;
+        long[] lineMinor = new long[size];
+        for (int i = 0; i < size; i++) {
+            InvoiceLine line = lines.get(i);
+            if (line.getUnitPrice() == null || line.getQuantity() == null) {
+                continue;
+            }
+            lineMinor[i] = Money.lineTotalMinor(line.getUnitPrice(), line.getQuantity(), scale);
+            if (lineMinor[i] == CurrencyRules.NOT_REPRESENTABLE) {
+                return calculateExact(lines, scale);
+            }
+        }
+        long[] taxes;
+        try {
+            taxes = taxMinor(lineMinor);
+        } catch (ArithmeticException e) {
+            return calculateExact(lines, scale);
+        }
+        List<BigDecimal> lineTaxes = new ArrayList<>(size);
+        long total = 0;
+        for (long tax : taxes) {
+            lineTaxes.add(BigDecimal.valueOf(tax, scale));
+            total += tax;
+        }
+        return new TaxResult(region, ratePercent, exempt, BigDecimal.valueOf(total, scale), lineTaxes);
+    }
+    
+    /**
+     * Compute line taxes on line totals already in minor units.
+     * 
+     * @return the tax of each line in minor units; their sum is the invoice tax
+     * @throws ArithmeticException when an intermediate result overflows a long
+     */
+    public long[] taxMinor(long[] lineMinor) {
+        long[] taxes = new long[lineMinor.length];
+        if (rateMillionths == 0) {
+            return taxes;
+        }
+        if (rounding == TaxRule.TaxRounding.PER_LINE) {
+            for (int i = 0; i < lineMinor.length; i++) {
+                taxes[i] = roundHalfUp(Math.multiplyExact(lineMinor[i], rateMillionths), RATE_SCALE);
+            }
+            return taxes;
+        }
+        long unroundedSum = 0;
+        long floorSum = 0;
+        long[] remainders = new long[lineMinor.length];
+        for (int i = 0; i < lineMinor.length; i++) {
+            long unrounded = Math.multiplyExact(lineMinor[i], rateMillionths);
+            taxes[i] = Math.floorDiv(unrounded, RATE_SCALE);
+            remainders[i] = (Math.floorMod(unrounded, RATE_SCALE) << REMAINDER_SHIFT) | (INDEX_MASK - i);
+            unroundedSum = Math.addExact(unroundedSum, unrounded);
+            floorSum += taxes[i];
+        }
+        long extra = roundHalfUp(unroundedSum, RATE_SCALE) - floorSum;
+        Arrays.sort(remainders);
+        for (int k = remainders.length - 1; k >= 0 && extra > 0; k--, extra--) {
+            taxes[(int) (INDEX_MASK - (remainders[k] & INDEX_MASK))]++;
+        }
+        return taxes;
+    }
+    
+    public String getRegion() {
+        return region;
+    }
+    
+    public BigDecimal getRatePercent() {
+        return ratePercent;
+    }
+    
+    public boolean isExempt() {
+        return exempt;
+    }
+    
+    public TaxRule.TaxRounding getRounding() {
+        return rounding;
+    }
+    
+    private TaxResult calculateExact(List<? extends InvoiceLine> lines, int scale) {
+        BigDecimal rate = ratePercent.divide(RATE_DIVISOR);
+        BigDecimal[] lineTaxes = new BigDecimal[lines.size()];
+        BigDecimal[] remainders = new BigDecimal[lines.size()];
+        BigDecimal unroundedSum = BigDecimal.ZERO;
+        BigDecimal floorSum = BigDecimal.ZERO;
+        RoundingMode lineRounding = rounding == TaxRule.TaxRounding.PER_LINE ? CurrencyRules.ROUNDING : RoundingMode.FLOOR;
+        for (int i = 0; i < lines.size(); i++) {
+            InvoiceLine line = lines.get(i);
+            BigDecimal lineTotal = line.getUnitPrice() != null && line.getQuantity() != null
+                ? line.getUnitPrice().multiply(BigDecimal.valueOf(line.getQuantity())) : BigDecimal.ZERO;
+            BigDecimal unrounded = lineTotal.multiply(rate);
+            lineTaxes[i] = unrounded.setScale(scale, lineRounding);
+            remainders[i] = unrounded.subtract(lineTaxes[i]);
+            unroundedSum = unroundedSum.add(unrounded);
+            floorSum = floorSum.add(lineTaxes[i]);
+        }
+        if (rounding == TaxRule.TaxRounding.PER_INVOICE) {
+            BigDecimal unit = BigDecimal.ONE.movePointLeft(scale);
+            long extra = unroundedSum.setScale(scale, CurrencyRules.ROUNDING).subtract(floorSum)
+                .divideToIntegralValue(unit).longValueExact();
+            Integer[] order = new Integer[lines.size()];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> remainders[b].compareTo(remainders[a]));
+            for (int k = 0; k < order.length && extra > 0; k++, extra--) {
+                lineTaxes[order[k]] = lineTaxes[order[k]].add(unit);
+            }
+        }
+        BigDecimal total = BigDecimal.ZERO.setScale(scale);
+        for (BigDecimal lineTax : lineTaxes) {
+            total = total.add(lineTax);
+        }
+        return new TaxResult(region, ratePercent, exempt, total, Arrays.asList(lineTaxes));
+    }
+    
+    private static long roundHalfUp(long value, long divisor) {
+        long quotient = value / divisor;
+        long remainder = value % divisor;
+        if (Math.abs(remainder) * 2 >= divisor) {
+            quotient += Long.signum(value);
+        }
+        return quotient;
+    }
+}
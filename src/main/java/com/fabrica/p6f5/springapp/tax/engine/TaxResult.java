@@ -0,0 +1,52 @@
+package com.fabrica.p6f5.springapp.tax.engine;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Tax computed for one invoice: the invoice tax and the tax of each line,
+ * in line order. The line taxes always add up to the invoice tax.
+ */
+public final class TaxResult {
+    
+    private final String region;
+    private final BigDecimal ratePercent;
+    private final boolean exempt;
+    private final BigDecimal taxAmount;
+    private final List<BigDecimal> lineTaxes;
+    
+    TaxResult(String region, BigDecimal ratePercent, boolean exempt, BigDecimal taxAmount, List<BigDecimal> lineTaxes) {
+        this.region = region;
+        this.ratePercent = ratePercent;
+        this.exempt = exempt;
+        this.taxAmount = taxAmount;
+        this.lineTaxes = lineTaxes;
+    }
+    
+    public String getRegion() {
+        return region;
+    }
+    
+    public BigDecimal getRatePercent() {
+        return ratePercent;
+    }
+    
+    public boolean isExempt() {
+        return exempt;
+    }
+    
+    public BigDecimal getTaxAmount() {
+        return taxAmount;
+    }
+    
+    public List<BigDecimal> getLineTaxes() {
+        return lineTaxes;
+    }
+    
+    /**
+     * Tax of one line, or zero when the line is out of range.
+     */
+    public BigDecimal getLineTax(int index) {
+        return index < lineTaxes.size() ? lineTaxes.get(index) : BigDecimal.ZERO;
+    }
+}
@@ -0,0 +1,84 @@
+package com.fabrica.p6f5.springapp.tax.engine;
+
+import com.fabrica.p6f5.springapp.tax.model.TaxRule;
+import com.fabrica.p6f5.springapp.util.Constants;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Active tax rules compiled into an immutable index.
+ * Each region maps to its default policy and a hash map of client policies, so
+ * resolving the policy of an invoice is two hash lookups and does not allocate.
+ */
+public final class TaxTable {
+    
+    public static final TaxTable EMPTY = new TaxTable(Map.of(), 0);
+    
+    private final Map<String, RegionPolicies> regions;
+    private final int ruleCount;
+    
+    private TaxTable(Map<String, RegionPolicies> regions, int ruleCount) {
+        this.regions = regions;
+        this.ruleCount = ruleCount;
+    }
+    
+    /**
+     * Compile the active rules.
+     * 
+     * @throws IllegalArgumentException when two rules share a region and client
+     */
+    public static TaxTable compile(List<TaxRule> rules) {
+        Map<String, TaxPolicy> defaults = new HashMap<>();
+        Map<String, Map<String, TaxPolicy>> clients = new HashMap<>();
+        for (TaxRule rule : rules) {
+            String region = normalizeRegion(rule.getRegion());
+            TaxPolicy previous = rule.getClientName() == null
+                ? defaults.put(region, TaxPolicy.of(rule))
+                : clients.computeIfAbsent(region, k -> new HashMap<>()).put(rule.getClientName(), TaxPolicy.of(rule));
+            if (previous != null) {
+                throw new IllegalArgumentException(
+                    String.format(Constants.TAX_RULE_DUPLICATE, region, rule.getClientName()));
+            }
+        }
+        Map<String, RegionPolicies> regions = new HashMap<>();
+        for (String region : defaults.keySet()) {
+            regions.put(region, new RegionPolicies(defaults.get(region), Map.copyOf(clients.getOrDefault(region, Map.of()))));
+        }
+        for (Map.Entry<String, Map<String, TaxPolicy>> entry : clients.entrySet()) {
+            regions.putIfAbsent(entry.getKey(), new RegionPolicies(null, Map.copyOf(entry.getValue())));
+        }
+        return new TaxTable(Map.copyOf(regions), rules.size());
+    }
+    
+    /**
+     * Resolve the policy of a client in a region.
+     * 
+     * @param region a region normalized with {@link #normalizeRegion}
+     * @return the client rule, else the region default, else null
+     */
+    public TaxPolicy policyFor(String region, String clientName) {
+        RegionPolicies policies = regions.get(region);
+        if (policies == null) {
+            return null;
+        }
+        TaxPolicy clientPolicy = clientName != null ? policies.clients.get(clientName) : null;
+        return clientPolicy != null ? clientPolicy : policies.defaults;
+    }
+    
+    public int getRuleCount() {
+        return ruleCount;
+    }
+    
+    /**
+     * Normalize a region code for lookups.
+     */
+    public static String normalizeRegion(String region) {
+        return region.trim().toUpperCase(Locale.ROOT);
+    }
+    
+    private record RegionPolicies(TaxPolicy defaults, Map<String, TaxPolicy> clients) {
+    }
+}
@@ -0,0 +1,79 @@
+package com.fabrica.p6f5.springapp.tax.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * TaxRule entity following Single Responsibility Principle.
+ * Sets the tax rate of a region; a rule with a client name overrides the region
+ * default for that client, and an exempt rule removes the tax altogether.
+ */
+@Entity
+@Table(name = "tax_rules")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaxRule {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "tax_rule_id")
+    private Long id;
+    
+    @NotBlank(message = "Region is required")
+    @Column(name = "region", nullable = false, length = 50)
+    private String region;
+    
+    @Column(name = "client_name")
+    private String clientName;
+    
+    @NotNull(message = "Rate is required")
+    @PositiveOrZero(message = "Rate must be positive or zero")
+    @DecimalMax(value = "100", message = "Rate must not exceed 100 percent")
+    @Column(name = "rate_percent", nullable = false, precision = 7, scale = 4)
+    private BigDecimal ratePercent = BigDecimal.ZERO;
+    
+    @Column(name = "exempt", nullable = false)
+    private Boolean exempt = false;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "rounding", nullable = false, length = 20)
+    private TaxRounding rounding = TaxRounding.PER_INVOICE;
+    
+    @Column(name = "active", nullable = false)
+    private Boolean active = true;
+    
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now();
+    }
+    
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+    
+    /**
+     * Tax rounding enum
+     */
+    public enum TaxRounding {
+        PER_LINE,
+        PER_INVOICE
+    }
+}
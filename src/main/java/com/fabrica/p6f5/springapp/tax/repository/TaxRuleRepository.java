@@ -0,0 +1,31 @@
+package com.fabrica.p6f5.springapp.tax.repository;
+
+import com.fabrica.p6f5.springapp.tax.model.TaxRule;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Tax Rule Repository interface following Dependency Inversion Principle.
+ * Defines data access operations for tax rules.
+ */
+@Repository
+public interface TaxRuleRepository extends JpaRepository<TaxRule, Long> {
+    
+    /**
+     * Find all active rules.
+     * 
+     * @return active rules ordered by region and client
+     */
+    List<TaxRule> findByActiveTrueOrderByRegionAscClientNameAsc();
+    
+    /**
+     * Fingerprint of the rule table used to detect changes: row count and last update.
+     * 
+     * @return a single row of {count, max(updatedAt)}
+     */
+    @Query("SELECT COUNT(r), MAX(r.updatedAt) FROM TaxRule r")
+    List<Object[]> findFingerprint();
+}
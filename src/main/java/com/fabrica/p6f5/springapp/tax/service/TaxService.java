@@ -0,0 +1,163 @@
+package com.fabrica.p6f5.springapp.tax.service;
+
+import com.fabrica.p6f5.springapp.exception.BusinessException;
+import com.fabrica.p6f5.springapp.exception.ResourceNotFoundException;
+import com.fabrica.p6f5.springapp.money.InvoiceLine;
+import com.fabrica.p6f5.springapp.tax.dto.TaxRuleRequest;
+import com.fabrica.p6f5.springapp.tax.engine.TaxPolicy;
+import com.fabrica.p6f5.springapp.tax.engine.TaxResult;
+import com.fabrica.p6f5.springapp.tax.engine.TaxTable;
+import com.fabrica.p6f5.springapp.tax.model.TaxRule;
+import com.fabrica.p6f5.springapp.tax.repository.TaxRuleRepository;
+import com.fabrica.p6f5.springapp.util.Constants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Tax Service following Single Responsibility Principle.
+ * Compiles the active tax rules into an immutable {@link TaxTable} published
+ * through an atomic reference, so invoice creation resolves a client's policy
+ * without locking or querying. A reload builds a new table and swaps it in one
+ * step, and a rule set that fails to compile leaves the current table in place.
+ */
+@Service
+public class TaxService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(TaxService.class);
+    
+    private final TaxRuleRepository taxRuleRepository;
+    private final AtomicReference<TaxTable> taxTable = new AtomicReference<>(TaxTable.EMPTY);
+    private volatile List<Object> loadedFingerprint;
+    
+    @Value("${billing.tax.default-region:}")
+    private String defaultRegion;
+    
+    public TaxService(TaxRuleRepository taxRuleRepository) {
+        this.taxRuleRepository = taxRuleRepository;
+    }
+    
+    /**
+     * Resolve the tax policy of a client. Without a region, the configured default
+     * region applies.
+     * 
+     * @throws BusinessException when there is no region to apply, or the region has no rule for the client
+     */
+    public TaxPolicy policyFor(String region, String clientName) {
+        String effectiveRegion = region != null && !region.isBlank() ? region : defaultRegion;
+        if (effectiveRegion == null || effectiveRegion.isBlank()) {
+            throw new BusinessException(String.format(Constants.TAX_REGION_MISSING, clientName));
+        }
+        String normalized = TaxTable.normalizeRegion(effectiveRegion);
+        TaxPolicy policy = taxTable.get().policyFor(normalized, clientName);
+        if (policy == null) {
+            throw new BusinessException(String.format(Constants.TAX_RULE_MISSING, normalized, clientName));
+        }
+        return policy;
+    }
+    
+    /**
+     * Compute the tax of an invoice's lines.
+     */
+    public TaxResult calculate(String region, String clientName, List<? extends InvoiceLine> lines, String currency) {
+        return policyFor(region, clientName).calculate(lines, currency);
+    }
+    
+    /**
+     * Compile the tax rules once the application is up.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        try {
+            reload();
+        } catch (Exception e) {
+            logger.error("Failed to load tax rules: {}", e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Reload when the rule table changed, including edits made by other nodes.
+     */
+    @Scheduled(fixedDelayString = "${billing.tax.refresh-interval-ms:60000}")
+    public void refreshIfChanged() {
+        try {
+            if (!Objects.equals(fingerprint(), loadedFingerprint)) {
+                reload();
+            }
+        } catch (Exception e) {
+            logger.error("Failed to refresh tax rules: {}", e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Compile every active rule and swap the tax table in atomically.
+     * 
+     * @return the number of compiled rules
+     */
+    public synchronized int reload() {
+        List<Object> fingerprint = fingerprint();
+        TaxTable compiled = TaxTable.compile(taxRuleRepository.findByActiveTrueOrderByRegionAscClientNameAsc());
+        taxTable.set(compiled);
+        loadedFingerprint = fingerprint;
+        logger.info("Loaded {} tax rules", compiled.getRuleCount());
+        return compiled.getRuleCount();
+    }
+    
+    /**
+     * Get the active rules.
+     */
+    public List<TaxRule> getActiveRules() {
+        return taxRuleRepository.findByActiveTrueOrderByRegionAscClientNameAsc();
+    }
+    
+    /**
+     * Create a rule after checking that the resulting rule set still compiles.
+     */
+    public TaxRule createRule(TaxRuleRequest request) {
+        TaxRule rule = new TaxRule();
+        rule.setRegion(TaxTable.normalizeRegion(request.getRegion()));
+        rule.setClientName(request.getClientName());
+        rule.setRatePercent(request.getRatePercent());
+        rule.setExempt(Boolean.TRUE.equals(request.getExempt()));
+        rule.setRounding(request.getRounding() != null ? request.getRounding() : TaxRule.TaxRounding.PER_INVOICE);
+        
+        List<TaxRule> candidate = new ArrayList<>(taxRuleRepository.findByActiveTrueOrderByRegionAscClientNameAsc());
+        candidate.add(rule);
+        try {
+            TaxTable.compile(candidate);
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException(e.getMessage());
+        }
+        
+        TaxRule saved = taxRuleRepository.save(rule);
+        reload();
+        return saved;
+    }
+    
+    /**
+     * Deactivate a rule.
+     */
+    public TaxRule deactivateRule(Long ruleId) {
+        TaxRule rule = taxRuleRepository.findById(ruleId)
+            .orElseThrow(() -> new ResourceNotFoundException(Constants.TAX_RULE_NOT_FOUND + ruleId));
+        rule.setActive(false);
+        TaxRule saved = taxRuleRepository.save(rule);
+        reload();
+        return saved;
+    }
+    
+    private List<Object> fingerprint() {
+        List<Object[]> rows = taxRuleRepository.findFingerprint();
+        return rows.isEmpty() ? List.of() : Arrays.asList(rows.get(0));
+    }
+}
@@ -14,6 +14,8 @@ public final class Constants {
     public static final String AUTHORIZATION_HEADER = "Authorization";
     public static final String BEARER_PREFIX = "Bearer ";
     public static final int BEARER_PREFIX_LENGTH = 7;
+    public static final String CORRELATION_ID_HEADER = "X-Correlation-ID";
+    public static final String USER_AGENT_HEADER = "User-Agent";
     
     // JWT Constants
     public static final int JWT_TOKEN_START_INDEX = 7;
@@ -26,19 +28,63 @@ public final class Constants {
     public static final String SHIPMENT_NOT_FOUND = "Shipment not found with id: ";
     public static final String SHIPMENT_ALREADY_LINKED = "Shipment %d is already linked to an invoice";
     public static final String SHIPMENT_LINKED_TO_ANOTHER = "Shipment %d is already linked to another invoice";
+    public static final String SHIPMENT_LINKED_READ_ONLY = "Shipment is linked to an invoice and cannot be changed";
+    public static final String SHIPMENT_STATUS_REGRESSION = "Shipment status cannot change from %s to %s";
     public static final String INVOICE_CANNOT_BE_EDITED = "Invoice cannot be edited. Status: %s";
     public static final String INVOICE_MODIFIED = "Invoice has been modified by another user. Please refresh and try again.";
     public static final String INVOICE_CANNOT_BE_ISSUED = "Invoice cannot be issued. Missing required data or invalid status.";
     public static final String PDF_ONLY_ISSUED = "PDF can only be generated for ISSUED invoices. Current status: %s";
     public static final String PDF_GENERATION_FAILED = "Failed to generate PDF: %s";
+    public static final String INVOICE_CANNOT_BE_PAID = "Payments can only be applied to ISSUED invoices. Current status: %s";
+    public static final String PAYMENT_EXCEEDS_OUTSTANDING = "Payment of %s exceeds outstanding amount %s";
+    public static final String PAYMENT_CURRENCY_MISMATCH = "Payment currency %s does not match invoice currency %s";
+    public static final String IDEMPOTENCY_KEY_REQUIRED = "Idempotency-Key header is required";
+    public static final String IDEMPOTENCY_KEY_REUSED = "Idempotency key %s was already used for a different payment";
+    public static final String UNKNOWN_FIELD = "Unknown field: %s. Allowed fields: %s";
+    public static final String RATE_TIER_NOT_FOUND = "Rate tier not found with id: ";
+    public static final String BILLING_RUN_NOT_FOUND = "Billing run not found with id: ";
+    public static final String BILLING_RUN_INVALID_PERIOD = "Billing period end %s must be after start %s";
+    public static final String BILLING_RUN_ALREADY_RUNNING = "Billing run %d is already running";
+    public static final String TAX_RULE_NOT_FOUND = "Tax rule not found with id: ";
+    public static final String TAX_RULE_MISSING = "No tax rule for region %s and client %s";
+    public static final String TAX_REGION_MISSING = "No tax region for client %s and billing.tax.default-region is not set";
+    public static final String TAX_RULE_DUPLICATE = "Duplicate tax rule for region %s and client %s";
+    public static final String FX_RATE_NOT_AVAILABLE = "No exchange rate from %s to %s on %s";
+    public static final String FX_RATE_SAME_CURRENCY = "Base and quote currency must differ";
+    public static final String FX_RATES_FILE_INVALID = "Invalid exchange rate in %s at line %d: %s";
+    public static final String GRAPHQL_INVALID_CURSOR = "Invalid cursor: %s";
+    public static final String GRAPHQL_INVALID_PAGE_SIZE = "first must be between 1 and %d";
+    public static final String GRAPHQL_QUERY_TOO_DEEP = "Query depth %d exceeds the limit of %d";
+    public static final String GRAPHQL_QUERY_TOO_COSTLY = "Query cost %d exceeds the limit of %d";
+    public static final String GRAPHQL_BUDGET_EXHAUSTED = "Query cost %d exceeds the remaining budget of %d; retry in %d seconds";
+    public static final String AUDIT_INVALID_CURSOR = "Invalid audit cursor: %s";
+    public static final String AUDIT_INVALID_TIME_WINDOW = "Audit search end %s must be after start %s";
+    public static final String INVOICE_VERSION_NOT_FOUND = "Version %d not found for invoice %d";
+    public static final String INVOICE_REVERT_NOT_PRIOR = "Version %d is not a prior version of invoice %d (current version %d)";
+    public static final String INVOICE_SNAPSHOT_INVALID = "Version %d of invoice %d cannot be restored: %s";
+    public static final String SYNC_INVALID_WATERMARK = "Invalid sync watermark: %s";
+    public static final String EVENT_STREAM_DISABLED = "Invoice event streaming is disabled";
+    public static final String EVENT_STREAM_FULL = "Too many open invoice event streams (limit %d); retry later";
     
     // Audit Messages
     public static final String AUDIT_CREATE_DRAFT = "Created draft invoice";
     public static final String AUDIT_UPDATE_DRAFT = "Updated draft invoice";
     public static final String AUDIT_ISSUE = "Issued invoice";
+    public static final String AUDIT_BULK_ISSUE = "Issued invoice in bulk run";
+    public static final String AUDIT_PAYMENT = "Recorded payment";
+    public static final String AUDIT_SETTLEMENT = "Settled bank statement lines %s";
+    public static final String AUDIT_BILLING_RUN_DRAFT = "Created draft invoice from billing run %d";
+    public static final String AUDIT_REVERT = "Reverted draft invoice to version %d";
     
     // Entity Types
     public static final String ENTITY_TYPE_INVOICE = "Invoice";
+    
+    // Payment Constants
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String SETTLEMENT_KEY_PREFIX = "STMT:";
+    
+    // Billing Run Constants
+    public static final String BILLING_RUN_ITEM_DESCRIPTION = "Shipment %s (%s kg, %s m3)";
 }
 
 
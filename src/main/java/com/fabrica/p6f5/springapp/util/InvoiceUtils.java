@@ -4,6 +4,8 @@ import com.fabrica.p6f5.springapp.invoice.dto.CreateInvoiceRequest;
 import com.fabrica.p6f5.springapp.invoice.dto.UpdateInvoiceRequest;
 import com.fabrica.p6f5.springapp.invoice.model.Invoice;
 import com.fabrica.p6f5.springapp.invoice.model.InvoiceItem;
+import com.fabrica.p6f5.springapp.money.InvoiceLine;
+import com.fabrica.p6f5.springapp.money.Money;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
@@ -23,7 +25,6 @@ public final class InvoiceUtils {
     private static final String INVOICE_PREFIX = "INV-";
     private static final String FISCAL_PREFIX = "FISCAL-";
     private static final int UUID_LENGTH = 8;
-    private static final int FISCAL_UUID_LENGTH = 16;
     
     /**
      * Generate unique invoice number.
@@ -34,46 +35,17 @@ public final class InvoiceUtils {
     }
     
     /**
-     * Generate unique fiscal folio.
+     * Format a fiscal folio from a number drawn from {@code fiscal_folio_seq}.
      */
-    public static String generateFiscalFolio() {
-        String uuid = UUID.randomUUID().toString().substring(0, FISCAL_UUID_LENGTH).toUpperCase();
-        return FISCAL_PREFIX + uuid + "-" + System.currentTimeMillis();
+    public static String formatFiscalFolio(long sequence) {
+        return FISCAL_PREFIX + String.format("%016d", sequence);
     }
     
     /**
      * Calculate subtotal from items.
      */
-    public static BigDecimal calculateSubtotal(List<?> items) {
-        if (items == null || items.isEmpty()) {
-            return BigDecimal.ZERO;
-        }
-        
-        return items.stream()
-            .map(InvoiceUtils::extractItemTotal)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
-    }
-    
-    /**
-     * Extract item total from different request types.
-     */
-    private static BigDecimal extractItemTotal(Object item) {
-        if (item instanceof CreateInvoiceRequest.InvoiceItemRequest req) {
-            return calculateItemTotal(req.getUnitPrice(), req.getQuantity());
-        } else if (item instanceof UpdateInvoiceRequest.InvoiceItemRequest req) {
-            return calculateItemTotal(req.getUnitPrice(), req.getQuantity());
-        }
-        return BigDecimal.ZERO;
-    }
-    
-    /**
-     * Calculate total for a single item.
-     */
-    private static BigDecimal calculateItemTotal(BigDecimal unitPrice, Integer quantity) {
-        if (unitPrice == null || quantity == null) {
-            return BigDecimal.ZERO;
-        }
-        return unitPrice.multiply(BigDecimal.valueOf(quantity));
+    public static BigDecimal calculateSubtotal(List<? extends InvoiceLine> items, String currency) {
+        return Money.subtotal(items, currency);
     }
     
     /**
@@ -148,7 +120,9 @@ public final class InvoiceUtils {
         copy.setSubtotal(invoice.getSubtotal());
         copy.setTaxAmount(invoice.getTaxAmount());
         copy.setTotalAmount(invoice.getTotalAmount());
+        copy.setAmountPaid(invoice.getAmountPaid());
         copy.setCurrency(invoice.getCurrency());
+        copy.setTaxRegion(invoice.getTaxRegion());
         copy.setStatus(invoice.getStatus());
         copy.setCreatedBy(invoice.getCreatedBy());
         copy.setCreatedAt(invoice.getCreatedAt());
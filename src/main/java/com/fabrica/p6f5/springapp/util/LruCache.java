@@ -0,0 +1,78 @@
+package com.fabrica.p6f5.springapp.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Bounded, thread-safe least-recently-used cache.
+ * Once {@code capacity} entries are held, adding one evicts the entry that was
+ * read or written longest ago.
+ */
+public class LruCache<K, V> {
+    
+    private final int capacity;
+    private final LinkedHashMap<K, V> entries;
+    private long evictions;
+    
+    public LruCache(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Cache capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                if (size() > LruCache.this.capacity) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+    
+    /**
+     * Get a value and mark it as recently used.
+     * 
+     * @return the value, or null if absent
+     */
+    public synchronized V get(K key) {
+        return entries.get(key);
+    }
+    
+    public synchronized void put(K key, V value) {
+        entries.put(key, value);
+    }
+    
+    /**
+     * Get a value, computing and caching it when absent. The function runs outside
+     * the lock, so two callers may compute the same key; the first result is kept.
+     */
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        V value = get(key);
+        if (value != null) {
+            return value;
+        }
+        V computed = mappingFunction.apply(key);
+        if (computed == null) {
+            return null;
+        }
+        synchronized (this) {
+            V existing = entries.putIfAbsent(key, computed);
+            return existing != null ? existing : computed;
+        }
+    }
+    
+    public synchronized int size() {
+        return entries.size();
+    }
+    
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+    
+    public int getCapacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,49 @@
+-- Migration V11: Create Payment Service Tables
+-- Payments move ISSUED invoices to PAID; partial payments accumulate in invoices.amount_paid
+
+-- ============================================
+-- INVOICE SERVICE CHANGES
+-- ============================================
+
+ALTER TABLE invoices ADD COLUMN IF NOT EXISTS amount_paid DECIMAL(10, 2) NOT NULL DEFAULT 0.00;
+
+ALTER TABLE invoices ADD CONSTRAINT chk_invoice_amount_paid
+    CHECK (amount_paid >= 0 AND amount_paid <= total_amount);
+
+-- ============================================
+-- PAYMENT SERVICE TABLES
+-- ============================================
+
+CREATE TABLE IF NOT EXISTS payments (
+    payment_id BIGSERIAL PRIMARY KEY,
+    invoice_id BIGINT NOT NULL,
+    amount DECIMAL(10, 2) NOT NULL,
+    currency VARCHAR(10) NOT NULL,
+    payment_date DATE NOT NULL,
+    payment_method VARCHAR(50) NOT NULL,
+    reference VARCHAR(255),
+    idempotency_key VARCHAR(255) NOT NULL,
+    recorded_by BIGINT,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT fk_payment_invoice FOREIGN KEY (invoice_id) REFERENCES invoices(invoice_id) ON DELETE RESTRICT,
+    CONSTRAINT fk_payment_user FOREIGN KEY (recorded_by) REFERENCES users(user_id) ON DELETE SET NULL,
+    CONSTRAINT uk_payment_idempotency_key UNIQUE (idempotency_key),
+    CONSTRAINT chk_payment_amount CHECK (amount > 0),
+    CONSTRAINT chk_payment_method CHECK (payment_method IN ('BANK_TRANSFER', 'CARD', 'CASH', 'CHECK', 'OTHER'))
+);
+
+-- Payment IDs are allocated by Hibernate in blocks of 50 so settlement inserts can be JDBC-batched
+ALTER SEQUENCE payments_payment_id_seq INCREMENT BY 50;
+
+CREATE INDEX IF NOT EXISTS idx_payment_invoice ON payments(invoice_id);
+CREATE INDEX IF NOT EXISTS idx_payment_date ON payments(payment_date);
+
+-- ============================================
+-- AUDIT SERVICE CHANGES
+-- ============================================
+
+ALTER TABLE audit_logs DROP CONSTRAINT IF EXISTS chk_audit_action;
+ALTER TABLE audit_logs ADD CONSTRAINT chk_audit_action
+    CHECK (action IN ('CREATE', 'UPDATE', 'DELETE', 'ISSUE', 'REVERT', 'PUBLISH', 'PAYMENT'));
+
+COMMENT ON TABLE payments IS 'Payments applied to issued invoices, including partial payments and bank settlements';
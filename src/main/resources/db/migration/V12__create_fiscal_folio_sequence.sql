@@ -0,0 +1,7 @@
+-- Migration V12: Fiscal folio sequence for bulk issuance
+-- Bulk issuance reserves a block of folio numbers per chunk in a single round trip
+
+CREATE SEQUENCE IF NOT EXISTS fiscal_folio_seq START WITH 1 INCREMENT BY 1;
+
+-- Drafts are claimed in invoice_id order among DRAFT rows
+CREATE INDEX IF NOT EXISTS idx_invoice_draft_id ON invoices(invoice_id) WHERE invoice_status = 'DRAFT';
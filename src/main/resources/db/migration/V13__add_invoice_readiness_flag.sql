@@ -0,0 +1,45 @@
+-- Migration V13: Denormalized issuance readiness for invoices
+-- item_count is maintained by triggers on invoice_items so every write path keeps it in step,
+-- and ready_for_issue is a stored generated column that mirrors Invoice.canBeIssued()
+
+ALTER TABLE invoices ADD COLUMN IF NOT EXISTS item_count INTEGER NOT NULL DEFAULT 0;
+
+UPDATE invoices i
+SET item_count = c.item_count
+FROM (SELECT invoice_id, COUNT(*) AS item_count FROM invoice_items GROUP BY invoice_id) c
+WHERE i.invoice_id = c.invoice_id;
+
+ALTER TABLE invoices ADD CONSTRAINT chk_invoice_item_count CHECK (item_count >= 0);
+
+CREATE OR REPLACE FUNCTION maintain_invoice_item_count() RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP IN ('DELETE', 'UPDATE') THEN
+        UPDATE invoices SET item_count = item_count - 1 WHERE invoice_id = OLD.invoice_id;
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        UPDATE invoices SET item_count = item_count + 1 WHERE invoice_id = NEW.invoice_id;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_invoice_items_count ON invoice_items;
+CREATE TRIGGER trg_invoice_items_count
+    AFTER INSERT OR DELETE OR UPDATE OF invoice_id ON invoice_items
+    FOR EACH ROW EXECUTE FUNCTION maintain_invoice_item_count();
+
+ALTER TABLE invoices ADD COLUMN IF NOT EXISTS ready_for_issue BOOLEAN GENERATED ALWAYS AS (
+    invoice_status = 'DRAFT'
+    AND subtotal > 0
+    AND item_count > 0
+    AND client_name IS NOT NULL
+    AND btrim(client_name) <> ''
+) STORED;
+
+-- Only ready drafts are indexed, so the index stays as small as the issuance backlog
+CREATE INDEX IF NOT EXISTS idx_invoice_ready_for_issue ON invoices(invoice_id) WHERE ready_for_issue;
+
+DROP INDEX IF EXISTS idx_invoice_draft_id;
+
+COMMENT ON COLUMN invoices.item_count IS 'Number of invoice_items rows, maintained by trg_invoice_items_count';
+COMMENT ON COLUMN invoices.ready_for_issue IS 'True when the invoice is a draft that passes the issuance checks';
@@ -0,0 +1,5 @@
+-- Migration V14: Indexes for keyset pagination of unlinked shipments
+-- The anti-join probes idx_inv_ship_shipment; these indexes serve the optional filters in ID order
+
+CREATE INDEX IF NOT EXISTS idx_shipment_client_id ON shipments(client_name, shipment_id);
+CREATE INDEX IF NOT EXISTS idx_shipment_status_id ON shipments(shipment_status, shipment_id);
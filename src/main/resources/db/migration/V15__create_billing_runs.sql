@@ -0,0 +1,102 @@
+-- Migration V15: Usage-based billing runs
+-- Rate tiers price delivered shipments by weight and volume; billing runs turn them into drafts
+
+CREATE TABLE IF NOT EXISTS rate_tiers (
+    rate_tier_id BIGSERIAL PRIMARY KEY,
+    basis VARCHAR(20) NOT NULL,
+    min_value DECIMAL(10, 2) NOT NULL DEFAULT 0,
+    max_value DECIMAL(10, 2),
+    unit_price DECIMAL(10, 4) NOT NULL,
+    min_charge DECIMAL(10, 2) NOT NULL DEFAULT 0,
+    currency VARCHAR(10) NOT NULL DEFAULT 'USD',
+    active BOOLEAN NOT NULL DEFAULT TRUE,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT chk_rate_tier_basis CHECK (basis IN ('WEIGHT', 'VOLUME')),
+    CONSTRAINT chk_rate_tier_range CHECK (min_value >= 0 AND (max_value IS NULL OR max_value > min_value)),
+    CONSTRAINT chk_rate_tier_price CHECK (unit_price >= 0 AND min_charge >= 0)
+);
+
+CREATE INDEX IF NOT EXISTS idx_rate_tier_basis ON rate_tiers(basis, min_value) WHERE active;
+
+CREATE TABLE IF NOT EXISTS billing_runs (
+    billing_run_id BIGSERIAL PRIMARY KEY,
+    period_start DATE NOT NULL,
+    period_end DATE NOT NULL,
+    currency VARCHAR(10) NOT NULL DEFAULT 'USD',
+    run_status VARCHAR(20) NOT NULL DEFAULT 'RUNNING',
+    clients_total INTEGER NOT NULL DEFAULT 0,
+    clients_done INTEGER NOT NULL DEFAULT 0,
+    invoices_created INTEGER NOT NULL DEFAULT 0,
+    shipments_billed BIGINT NOT NULL DEFAULT 0,
+    shipments_unpriced BIGINT NOT NULL DEFAULT 0,
+    started_by BIGINT NOT NULL,
+    started_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    finished_at TIMESTAMP,
+    error_message TEXT,
+    CONSTRAINT fk_billing_run_user FOREIGN KEY (started_by) REFERENCES users(user_id) ON DELETE RESTRICT,
+    CONSTRAINT chk_billing_run_status CHECK (run_status IN ('RUNNING', 'COMPLETED', 'FAILED')),
+    CONSTRAINT chk_billing_run_period CHECK (period_end > period_start)
+);
+
+ALTER TABLE invoices ADD COLUMN IF NOT EXISTS billing_run_id BIGINT;
+ALTER TABLE invoices ADD CONSTRAINT fk_invoice_billing_run
+    FOREIGN KEY (billing_run_id) REFERENCES billing_runs(billing_run_id) ON DELETE SET NULL;
+CREATE INDEX IF NOT EXISTS idx_invoice_billing_run ON invoices(billing_run_id) WHERE billing_run_id IS NOT NULL;
+
+-- Billing runs walk unlinked delivered shipments per client in ID order
+CREATE INDEX IF NOT EXISTS idx_shipment_delivered_client ON shipments(client_name, shipment_id)
+    WHERE shipment_status = 'DELIVERED';
+
+-- Billing runs insert items with one multi-row statement per invoice, so item_count is
+-- maintained per statement from transition tables instead of once per row
+DROP TRIGGER IF EXISTS trg_invoice_items_count ON invoice_items;
+DROP FUNCTION IF EXISTS maintain_invoice_item_count();
+
+CREATE OR REPLACE FUNCTION maintain_invoice_item_count_on_insert() RETURNS TRIGGER AS $$
+BEGIN
+    UPDATE invoices i SET item_count = i.item_count + n.added
+    FROM (SELECT invoice_id, COUNT(*) AS added FROM new_items GROUP BY invoice_id) n
+    WHERE i.invoice_id = n.invoice_id;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION maintain_invoice_item_count_on_delete() RETURNS TRIGGER AS $$
+BEGIN
+    UPDATE invoices i SET item_count = i.item_count - o.removed
+    FROM (SELECT invoice_id, COUNT(*) AS removed FROM old_items GROUP BY invoice_id) o
+    WHERE i.invoice_id = o.invoice_id;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION maintain_invoice_item_count_on_update() RETURNS TRIGGER AS $$
+BEGIN
+    UPDATE invoices i SET item_count = i.item_count + d.delta
+    FROM (
+        SELECT invoice_id, SUM(delta) AS delta FROM (
+            SELECT invoice_id, 1 AS delta FROM new_items
+            UNION ALL
+            SELECT invoice_id, -1 AS delta FROM old_items
+        ) moves GROUP BY invoice_id
+    ) d
+    WHERE i.invoice_id = d.invoice_id AND d.delta <> 0;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_invoice_items_count_insert
+    AFTER INSERT ON invoice_items REFERENCING NEW TABLE AS new_items
+    FOR EACH STATEMENT EXECUTE FUNCTION maintain_invoice_item_count_on_insert();
+
+CREATE TRIGGER trg_invoice_items_count_delete
+    AFTER DELETE ON invoice_items REFERENCING OLD TABLE AS old_items
+    FOR EACH STATEMENT EXECUTE FUNCTION maintain_invoice_item_count_on_delete();
+
+CREATE TRIGGER trg_invoice_items_count_update
+    AFTER UPDATE ON invoice_items REFERENCING OLD TABLE AS old_items NEW TABLE AS new_items
+    FOR EACH STATEMENT EXECUTE FUNCTION maintain_invoice_item_count_on_update();
+
+COMMENT ON TABLE rate_tiers IS 'Weight and volume price tiers used to rate delivered shipments';
+COMMENT ON TABLE billing_runs IS 'Usage-based billing runs that turn unlinked delivered shipments into drafts';
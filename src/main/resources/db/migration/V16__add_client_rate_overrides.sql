@@ -0,0 +1,7 @@
+-- Migration V16: Client-specific rate tiers
+-- Tiers with a client_name replace the default tiers of the same basis for that client
+
+ALTER TABLE rate_tiers ADD COLUMN IF NOT EXISTS client_name VARCHAR(255);
+
+DROP INDEX IF EXISTS idx_rate_tier_basis;
+CREATE INDEX IF NOT EXISTS idx_rate_tier_lookup ON rate_tiers(currency, client_name, basis, min_value) WHERE active;
@@ -0,0 +1,23 @@
+-- Migration V17: Create FX Rate Table
+-- Dated exchange rates: 1 unit of base_currency = rate units of quote_currency from effective_date on
+
+CREATE TABLE IF NOT EXISTS fx_rates (
+    fx_rate_id BIGSERIAL PRIMARY KEY,
+    base_currency VARCHAR(10) NOT NULL,
+    quote_currency VARCHAR(10) NOT NULL,
+    rate DECIMAL(20, 10) NOT NULL,
+    effective_date DATE NOT NULL,
+    source VARCHAR(50) NOT NULL DEFAULT 'MANUAL',
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uk_fx_rate_pair_date UNIQUE (base_currency, quote_currency, effective_date),
+    CONSTRAINT chk_fx_rate_positive CHECK (rate > 0),
+    CONSTRAINT chk_fx_rate_pair CHECK (base_currency <> quote_currency)
+);
+
+-- Receivables are aggregated per currency over ISSUED invoices; the covering partial index
+-- lets that GROUP BY run as an index-only scan
+CREATE INDEX IF NOT EXISTS idx_invoice_issued_currency ON invoices(currency)
+    INCLUDE (total_amount, amount_paid) WHERE invoice_status = 'ISSUED';
+
+COMMENT ON TABLE fx_rates IS 'Dated exchange rates used to convert invoice amounts into a reporting currency';
@@ -0,0 +1,25 @@
+-- Migration V18: Create Tax Rule Table
+-- Tax is computed server-side from jurisdiction rules instead of being supplied by the client
+
+CREATE TABLE IF NOT EXISTS tax_rules (
+    tax_rule_id BIGSERIAL PRIMARY KEY,
+    region VARCHAR(50) NOT NULL,
+    client_name VARCHAR(255),
+    rate_percent DECIMAL(7, 4) NOT NULL DEFAULT 0,
+    exempt BOOLEAN NOT NULL DEFAULT FALSE,
+    rounding VARCHAR(20) NOT NULL DEFAULT 'PER_INVOICE',
+    active BOOLEAN NOT NULL DEFAULT TRUE,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT chk_tax_rule_rate CHECK (rate_percent >= 0 AND rate_percent <= 100),
+    CONSTRAINT chk_tax_rule_rounding CHECK (rounding IN ('PER_LINE', 'PER_INVOICE'))
+);
+
+-- One active rule per region and client; rules without a client are the region default
+CREATE UNIQUE INDEX IF NOT EXISTS uk_tax_rule_active
+    ON tax_rules(region, COALESCE(client_name, '')) WHERE active;
+
+ALTER TABLE invoices ADD COLUMN IF NOT EXISTS tax_region VARCHAR(50);
+ALTER TABLE invoice_items ADD COLUMN IF NOT EXISTS tax_amount DECIMAL(10, 2) NOT NULL DEFAULT 0.00;
+
+COMMENT ON TABLE tax_rules IS 'Tax rates and exemptions per region, with optional client-specific overrides';
@@ -0,0 +1,144 @@
+-- Migration V19: Partition audit_logs and invoice_history by month
+-- Both tables become range partitioned on created_at, one partition per calendar month plus a
+-- DEFAULT partition as a safety net. Existing rows are copied into the new layout. The partition
+-- key has to be part of every unique constraint, so primary keys become (id, created_at) and
+-- uk_invoice_version is replaced by a plain index: history versions stay unique through the
+-- optimistic lock on invoices.version, which every history write goes through.
+
+-- Create the partition of parent_table for the month containing month_start, if missing.
+-- Rows that already landed in the DEFAULT partition for that month are moved into it.
+CREATE OR REPLACE FUNCTION ensure_monthly_partition(parent_table TEXT, month_start DATE)
+RETURNS BOOLEAN AS $$
+DECLARE
+    range_start DATE := date_trunc('month', month_start)::date;
+    range_end DATE := (date_trunc('month', month_start) + INTERVAL '1 month')::date;
+    partition_name TEXT := parent_table || '_p' || to_char(date_trunc('month', month_start), 'YYYYMM');
+BEGIN
+    PERFORM pg_advisory_xact_lock(hashtext(partition_name));
+    IF to_regclass(partition_name) IS NOT NULL THEN
+        RETURN FALSE;
+    END IF;
+
+    EXECUTE format('CREATE TABLE %I (LIKE %I INCLUDING DEFAULTS INCLUDING CONSTRAINTS)',
+                   partition_name, parent_table);
+    EXECUTE format('WITH moved AS (DELETE FROM %I WHERE created_at >= %L AND created_at < %L RETURNING *) '
+                   'INSERT INTO %I SELECT * FROM moved',
+                   parent_table || '_default', range_start, range_end, partition_name);
+    EXECUTE format('ALTER TABLE %I ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                   parent_table, partition_name, range_start, range_end);
+    RETURN TRUE;
+END;
+$$ LANGUAGE plpgsql;
+
+-- ============================================
+-- AUDIT LOGS
+-- ============================================
+
+ALTER TABLE audit_logs RENAME TO audit_logs_legacy;
+ALTER TABLE audit_logs_legacy RENAME CONSTRAINT audit_logs_pkey TO audit_logs_legacy_pkey;
+
+CREATE TABLE audit_logs (
+    audit_log_id BIGINT NOT NULL DEFAULT nextval('audit_logs_audit_log_id_seq'),
+    entity_type VARCHAR(100) NOT NULL,
+    entity_id BIGINT NOT NULL,
+    action VARCHAR(50) NOT NULL,
+    changed_by BIGINT,
+    old_data JSONB,
+    new_data JSONB,
+    change_summary TEXT,
+    ip_address VARCHAR(45),
+    user_agent TEXT,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT audit_logs_pkey PRIMARY KEY (audit_log_id, created_at),
+    CONSTRAINT fk_audit_user FOREIGN KEY (changed_by) REFERENCES users(user_id) ON DELETE SET NULL,
+    CONSTRAINT chk_audit_action
+        CHECK (action IN ('CREATE', 'UPDATE', 'DELETE', 'ISSUE', 'REVERT', 'PUBLISH', 'PAYMENT'))
+) PARTITION BY RANGE (created_at);
+
+ALTER SEQUENCE audit_logs_audit_log_id_seq OWNED BY audit_logs.audit_log_id;
+
+CREATE TABLE audit_logs_default PARTITION OF audit_logs DEFAULT;
+
+-- ============================================
+-- INVOICE HISTORY
+-- ============================================
+
+ALTER TABLE invoice_history RENAME TO invoice_history_legacy;
+ALTER TABLE invoice_history_legacy RENAME CONSTRAINT invoice_history_pkey TO invoice_history_legacy_pkey;
+
+CREATE TABLE invoice_history (
+    history_id BIGINT NOT NULL DEFAULT nextval('invoice_history_history_id_seq'),
+    invoice_id BIGINT NOT NULL,
+    version INTEGER NOT NULL,
+    fiscal_folio VARCHAR(100),
+    invoice_number VARCHAR(100) NOT NULL,
+    invoice_data JSONB NOT NULL,
+    created_by BIGINT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    is_reverted BOOLEAN DEFAULT FALSE,
+    CONSTRAINT invoice_history_pkey PRIMARY KEY (history_id, created_at),
+    CONSTRAINT fk_history_invoice FOREIGN KEY (invoice_id) REFERENCES invoices(invoice_id) ON DELETE CASCADE,
+    CONSTRAINT fk_history_user FOREIGN KEY (created_by) REFERENCES users(user_id) ON DELETE RESTRICT
+) PARTITION BY RANGE (created_at);
+
+ALTER SEQUENCE invoice_history_history_id_seq OWNED BY invoice_history.history_id;
+
+CREATE TABLE invoice_history_default PARTITION OF invoice_history DEFAULT;
+
+-- ============================================
+-- PARTITIONS AND DATA
+-- ============================================
+
+-- One partition per month from the oldest existing row up to three months ahead;
+-- AuditPartitionService keeps creating months ahead from here on
+DO $$
+DECLARE
+    parent_table TEXT;
+    oldest TIMESTAMP;
+    month_start DATE;
+BEGIN
+    FOREACH parent_table IN ARRAY ARRAY['audit_logs', 'invoice_history'] LOOP
+        EXECUTE format('SELECT MIN(created_at) FROM %I', parent_table || '_legacy') INTO oldest;
+        month_start := date_trunc('month', COALESCE(oldest, CURRENT_TIMESTAMP))::date;
+        WHILE month_start <= (date_trunc('month', CURRENT_DATE) + INTERVAL '3 months')::date LOOP
+            PERFORM ensure_monthly_partition(parent_table, month_start);
+            month_start := (month_start + INTERVAL '1 month')::date;
+        END LOOP;
+    END LOOP;
+END $$;
+
+INSERT INTO audit_logs (audit_log_id, entity_type, entity_id, action, changed_by, old_data, new_data,
+                        change_summary, ip_address, user_agent, created_at)
+SELECT audit_log_id, entity_type, entity_id, action, changed_by, old_data, new_data,
+       change_summary, ip_address, user_agent, created_at
+FROM audit_logs_legacy;
+
+INSERT INTO invoice_history (history_id, invoice_id, version, fiscal_folio, invoice_number, invoice_data,
+                             created_by, created_at, is_reverted)
+SELECT history_id, invoice_id, version, fiscal_folio, invoice_number, invoice_data,
+       created_by, created_at, is_reverted
+FROM invoice_history_legacy;
+
+DROP TABLE audit_logs_legacy;
+DROP TABLE invoice_history_legacy;
+
+-- ============================================
+-- INDEXES
+-- ============================================
+
+-- Indexes on the parent cascade to every current and future partition. created_at trails the
+-- entity keys so per-entity lookups come back in order without a sort
+CREATE INDEX IF NOT EXISTS idx_audit_entity ON audit_logs(entity_type, entity_id, created_at);
+CREATE INDEX IF NOT EXISTS idx_audit_user ON audit_logs(changed_by);
+CREATE INDEX IF NOT EXISTS idx_audit_action ON audit_logs(action);
+CREATE INDEX IF NOT EXISTS idx_audit_date ON audit_logs(created_at);
+
+CREATE INDEX IF NOT EXISTS idx_history_version ON invoice_history(invoice_id, version);
+
+ANALYZE audit_logs;
+ANALYZE invoice_history;
+
+COMMENT ON TABLE audit_logs IS 'Audit trail, range partitioned by month on created_at';
+COMMENT ON TABLE invoice_history IS 'Invoice version snapshots, range partitioned by month on created_at';
+COMMENT ON FUNCTION ensure_monthly_partition(TEXT, DATE) IS
+    'Creates the monthly partition of a table partitioned on created_at, moving matching DEFAULT rows into it';
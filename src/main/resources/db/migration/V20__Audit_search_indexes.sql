@@ -0,0 +1,14 @@
+-- Migration V20: Keyset indexes for audit log search
+-- Audit searches page through audit_logs ordered by (created_at, audit_log_id) descending.
+-- Each filter's index now ends in those columns, so any single filter plus the keyset
+-- condition is one backward index range scan per partition, stopping after the page.
+
+DROP INDEX IF EXISTS idx_audit_entity;
+DROP INDEX IF EXISTS idx_audit_user;
+DROP INDEX IF EXISTS idx_audit_action;
+DROP INDEX IF EXISTS idx_audit_date;
+
+CREATE INDEX IF NOT EXISTS idx_audit_entity ON audit_logs(entity_type, entity_id, created_at, audit_log_id);
+CREATE INDEX IF NOT EXISTS idx_audit_user ON audit_logs(changed_by, created_at, audit_log_id);
+CREATE INDEX IF NOT EXISTS idx_audit_action ON audit_logs(action, created_at, audit_log_id);
+CREATE INDEX IF NOT EXISTS idx_audit_date ON audit_logs(created_at, audit_log_id);
@@ -0,0 +1,7 @@
+-- Migration V21: Field-level diffs on audit logs
+-- Invoice UPDATE, ISSUE and PAYMENT events store only the changed business fields as
+-- [{"field", "from", "to"}]; old_data/new_data are left empty unless full snapshots are enabled.
+
+ALTER TABLE audit_logs ADD COLUMN IF NOT EXISTS changes JSONB;
+
+COMMENT ON COLUMN audit_logs.changes IS 'Changed fields of the entity as [{field, from, to}]';
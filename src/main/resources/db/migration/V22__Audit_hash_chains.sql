@@ -0,0 +1,27 @@
+-- Migration V22: Tamper-evident hash chains on audit logs
+-- Every entity's audit rows form their own chain: row_hash = SHA-256(prev_hash, chain_seq, row content),
+-- computed by the application. audit_chain_heads keeps the last link of each chain; appending locks
+-- only that entity's head row, so writers of different entities never wait on each other.
+-- Rows written before this migration have no chain and are not verified.
+
+ALTER TABLE audit_logs ADD COLUMN IF NOT EXISTS chain_seq BIGINT;
+ALTER TABLE audit_logs ADD COLUMN IF NOT EXISTS prev_hash BYTEA;
+ALTER TABLE audit_logs ADD COLUMN IF NOT EXISTS row_hash BYTEA;
+
+CREATE TABLE IF NOT EXISTS audit_chain_heads (
+    entity_id BIGINT NOT NULL,
+    entity_type VARCHAR(100) NOT NULL,
+    chain_length BIGINT NOT NULL DEFAULT 0,
+    head_hash BYTEA,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT audit_chain_heads_pkey PRIMARY KEY (entity_id, entity_type)
+);
+
+-- Verification streams chains in (entity_id, entity_type, chain_seq) order, one entity ID range per worker
+CREATE INDEX IF NOT EXISTS idx_audit_chain ON audit_logs(entity_id, entity_type, chain_seq)
+    WHERE chain_seq IS NOT NULL;
+
+COMMENT ON COLUMN audit_logs.chain_seq IS 'Position of the row in its entity''s hash chain, starting at 1';
+COMMENT ON COLUMN audit_logs.prev_hash IS 'row_hash of the previous row in the chain, NULL for the first';
+COMMENT ON COLUMN audit_logs.row_hash IS 'SHA-256 over prev_hash, chain_seq and the row content';
+COMMENT ON TABLE audit_chain_heads IS 'Last link of each audit hash chain';
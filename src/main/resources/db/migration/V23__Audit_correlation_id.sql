@@ -0,0 +1,11 @@
+-- Migration V23: Request correlation on audit logs
+-- Audit rows record the correlation ID of the request that produced them (X-Correlation-ID,
+-- generated when absent), next to the client IP and user agent captured by AuditContextFilter.
+
+ALTER TABLE audit_logs ADD COLUMN IF NOT EXISTS correlation_id VARCHAR(64);
+
+-- Finds every row written by one request; ends in the search keyset like the V20 indexes
+CREATE INDEX IF NOT EXISTS idx_audit_correlation ON audit_logs(correlation_id, created_at, audit_log_id)
+    WHERE correlation_id IS NOT NULL;
+
+COMMENT ON COLUMN audit_logs.correlation_id IS 'Correlation ID of the request that wrote the row';
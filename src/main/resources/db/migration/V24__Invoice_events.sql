@@ -0,0 +1,24 @@
+-- Migration V24: Invoice event outbox
+-- Invoice lifecycle events are written in the transaction that changes the invoice and
+-- published by InvoiceEventRelay. The relay assigns seq when it publishes, in one transaction
+-- at a time, so seq values become visible in order: event_id comes from a sequence and
+-- commits out of order, so a consumer reading past an event_id cursor could skip an event.
+
+CREATE TABLE IF NOT EXISTS invoice_events (
+    event_id BIGSERIAL PRIMARY KEY,
+    seq BIGINT UNIQUE,
+    invoice_id BIGINT NOT NULL,
+    event_type VARCHAR(20) NOT NULL CHECK (event_type IN ('CREATED', 'UPDATED', 'ISSUED', 'PDF_GENERATED', 'PAID')),
+    invoice_version INTEGER,
+    payload JSONB NOT NULL,
+    correlation_id VARCHAR(64),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    published_at TIMESTAMP
+);
+
+-- Events waiting for the relay; stays small because published rows leave it
+CREATE INDEX IF NOT EXISTS idx_invoice_events_pending ON invoice_events(event_id) WHERE seq IS NULL;
+
+COMMENT ON TABLE invoice_events IS 'Outbox of invoice lifecycle events';
+COMMENT ON COLUMN invoice_events.seq IS 'Position in the published stream, assigned by the relay; null until published';
+COMMENT ON COLUMN invoice_events.payload IS 'Invoice state after the transition';
@@ -0,0 +1,32 @@
+-- Migration V25: Incremental invoice sync
+-- Integrators page through invoices changed since a (updated_at, invoice_id) watermark; the
+-- index serves those keyset reads so a sync costs the number of changes, not the table size.
+-- Deleted invoices leave a tombstone, written by a trigger so every delete path is covered.
+
+CREATE INDEX IF NOT EXISTS idx_invoices_updated_at ON invoices(updated_at, invoice_id);
+
+CREATE TABLE IF NOT EXISTS invoice_tombstones (
+    invoice_id BIGINT PRIMARY KEY,
+    invoice_number VARCHAR(100) NOT NULL,
+    fiscal_folio VARCHAR(100),
+    deleted_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_invoice_tombstones_deleted_at ON invoice_tombstones(deleted_at, invoice_id);
+
+-- Local time like the updated_at values the application writes, so both order on one clock
+CREATE OR REPLACE FUNCTION record_invoice_tombstone() RETURNS TRIGGER AS $$
+BEGIN
+    INSERT INTO invoice_tombstones (invoice_id, invoice_number, fiscal_folio, deleted_at)
+    VALUES (OLD.invoice_id, OLD.invoice_number, OLD.fiscal_folio, LOCALTIMESTAMP)
+    ON CONFLICT (invoice_id) DO UPDATE SET deleted_at = EXCLUDED.deleted_at;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_invoice_tombstone ON invoices;
+CREATE TRIGGER trg_invoice_tombstone
+    AFTER DELETE ON invoices
+    FOR EACH ROW EXECUTE FUNCTION record_invoice_tombstone();
+
+COMMENT ON TABLE invoice_tombstones IS 'Deleted invoices, reported to incremental sync clients';
@@ -0,0 +1,9 @@
+-- Migration V26: A shipment can be linked to at most one invoice
+-- Invoice creation checks this before linking and billing runs filter on it with NOT EXISTS, but
+-- neither check is atomic: a billing run that locks a shipment another run has just billed does not
+-- re-run its NOT EXISTS against the new link. The unique index turns a second link into an error.
+-- Fails if duplicate links already exist; unlink them before migrating.
+
+CREATE UNIQUE INDEX IF NOT EXISTS uk_inv_ship_shipment ON invoice_shipments(shipment_id);
+
+DROP INDEX IF EXISTS idx_inv_ship_shipment;
@@ -0,0 +1,25 @@
+-- Migration V27: Anchors for audit chains whose oldest rows left the table
+-- Archiving and partition retention remove the oldest rows of a chain. The head now records the
+-- position and hash of the last removed row, so verification can tell rows moved out on purpose
+-- from rows deleted by hand: the first remaining row must follow the anchor exactly.
+
+ALTER TABLE audit_chain_heads ADD COLUMN IF NOT EXISTS anchor_seq BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE audit_chain_heads ADD COLUMN IF NOT EXISTS anchor_hash BYTEA;
+
+-- Chains already cut by earlier archive or retention runs are anchored on their first remaining
+-- row, which is what verification trusted until now
+UPDATE audit_chain_heads h
+SET anchor_seq = f.chain_seq - 1, anchor_hash = f.prev_hash
+FROM (SELECT DISTINCT ON (entity_id, entity_type) entity_id, entity_type, chain_seq, prev_hash
+      FROM audit_logs WHERE chain_seq IS NOT NULL
+      ORDER BY entity_id, entity_type, chain_seq) f
+WHERE h.entity_id = f.entity_id AND h.entity_type = f.entity_type AND f.chain_seq > 1;
+
+UPDATE audit_chain_heads h
+SET anchor_seq = h.chain_length, anchor_hash = h.head_hash
+WHERE h.chain_length > 0 AND NOT EXISTS (
+    SELECT 1 FROM audit_logs a
+    WHERE a.entity_id = h.entity_id AND a.entity_type = h.entity_type AND a.chain_seq IS NOT NULL);
+
+COMMENT ON COLUMN audit_chain_heads.anchor_seq IS 'chain_seq of the last row archived or dropped, 0 when none';
+COMMENT ON COLUMN audit_chain_heads.anchor_hash IS 'row_hash of the last row archived or dropped, NULL when none';
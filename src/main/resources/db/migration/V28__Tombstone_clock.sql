@@ -0,0 +1,12 @@
+-- Migration V28: State which clock stamps invoice tombstones
+-- V25 described deleted_at and updated_at as one clock. They are not: updated_at is set by the
+-- application from the JVM clock, while deleted_at is the database's LOCALTIMESTAMP in the
+-- session time zone (the JDBC driver sets it to the JVM zone). Invoices are only deleted outside
+-- the application, so there is no application time to stamp tombstones with; sync stays ordered
+-- as long as the two clocks agree to well within billing.sync.settle-ms.
+
+COMMENT ON COLUMN invoice_tombstones.deleted_at IS
+    'Database LOCALTIMESTAMP of the deleting transaction; skew against the JVM clock of invoices.updated_at must stay well below billing.sync.settle-ms';
+
+COMMENT ON FUNCTION record_invoice_tombstone() IS
+    'Records the tombstone of a deleted invoice; delete from a session in the application time zone, or the tombstone is stamped hours off';
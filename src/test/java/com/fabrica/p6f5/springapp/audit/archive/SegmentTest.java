@@ -0,0 +1,119 @@
+package com.fabrica.p6f5.springapp.audit.archive;
+
+import com.fabrica.p6f5.springapp.audit.model.AuditLog;
+import com.fabrica.p6f5.springapp.audit.model.InvoiceHistory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SegmentTest {
+
+	private static final long BASE_TIME = 1_700_000_000_000L;
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void findsEveryRecordOfAKeyAcrossBlocks() throws Exception {
+		Path index = dir.resolve("audit_logs-202401-1.idx");
+		try (SegmentWriter writer = new SegmentWriter(index, 256)) {
+			for (long key = 1; key <= 1000; key++) {
+				for (int i = 0; i < 5; i++) {
+					writer.append(key, BASE_TIME + key * 1000 + i, record(key, i));
+				}
+			}
+			writer.finish();
+		}
+		
+		Segment segment = Segment.open(index);
+		assertEquals(5000L, segment.getRows());
+		assertTrue(segment.getBlockCount() > 100);
+		for (long key : new long[] {1, 2, 499, 500, 999, 1000}) {
+			List<byte[]> found = segment.find(key, Long.MIN_VALUE);
+			assertEquals(5, found.size());
+			for (int i = 0; i < 5; i++) {
+				assertEquals(new String(record(key, i), StandardCharsets.UTF_8),
+					new String(found.get(i), StandardCharsets.UTF_8));
+			}
+		}
+		assertTrue(segment.find(0, Long.MIN_VALUE).isEmpty());
+		assertTrue(segment.find(1001, Long.MIN_VALUE).isEmpty());
+	}
+
+	@Test
+	void skipsRecordsBeforeTheTimeBound() throws Exception {
+		Path index = dir.resolve("invoice_history-202401-2.idx");
+		try (SegmentWriter writer = new SegmentWriter(index, 64)) {
+			for (int i = 0; i < 10; i++) {
+				writer.append(42, BASE_TIME + i, record(42, i));
+			}
+			writer.finish();
+		}
+		
+		Segment segment = Segment.open(index);
+		assertEquals(4, segment.find(42, BASE_TIME + 6).size());
+		assertFalse(segment.mayContain(42, BASE_TIME + 10));
+		assertTrue(segment.find(42, BASE_TIME + 10).isEmpty());
+	}
+
+	@Test
+	void rejectsKeysOutOfOrder() throws Exception {
+		Path index = dir.resolve("audit_logs-202401-3.idx");
+		try (SegmentWriter writer = new SegmentWriter(index, 1024)) {
+			writer.append(10, BASE_TIME, record(10, 0));
+			assertThrows(IllegalArgumentException.class, () -> writer.append(9, BASE_TIME, record(9, 0)));
+		}
+	}
+
+	@Test
+	void unfinishedSegmentLeavesNoFiles() throws Exception {
+		Path index = dir.resolve("audit_logs-202401-4.idx");
+		try (SegmentWriter writer = new SegmentWriter(index, 1024)) {
+			writer.append(1, BASE_TIME, record(1, 0));
+		}
+		
+		List<Path> files = new ArrayList<>();
+		try (var stream = Files.list(dir)) {
+			stream.forEach(files::add);
+		}
+		assertTrue(files.isEmpty(), files::toString);
+	}
+
+	@Test
+	void codecRoundTripsArchivedRows() {
+		AuditLog auditLog = new AuditLog(7L, "Invoice", 42L, AuditLog.AuditAction.ISSUE, null,
+			"{\"status\":\"DRAFT\"}", null,
+			"[{\"field\":\"status\",\"from\":\"DRAFT\",\"to\":\"ISSUED\"}]", "Issued invoice", "10.0.0.1", null,
+			"3f1c2a9e-corr", LocalDateTime.of(2024, 1, 15, 10, 30, 0, 123456000), null, null, null);
+		assertEquals(auditLog, ArchiveCodec.decodeAuditLog(ArchiveCodec.encode(auditLog)));
+		
+		byte[] prevHash = new byte[32];
+		byte[] rowHash = new byte[32];
+		Arrays.fill(prevHash, (byte) 1);
+		Arrays.fill(rowHash, (byte) 2);
+		auditLog.setChainSeq(5L);
+		auditLog.setPrevHash(prevHash);
+		auditLog.setRowHash(rowHash);
+		assertEquals(auditLog, ArchiveCodec.decodeAuditLog(ArchiveCodec.encode(auditLog)));
+		
+		InvoiceHistory history = new InvoiceHistory(8L, 42L, 3, null, "INV-1", "{\"id\":42}", 1L,
+			LocalDateTime.of(2024, 1, 15, 10, 30), true);
+		assertEquals(history, ArchiveCodec.decodeInvoiceHistory(ArchiveCodec.encode(history)));
+	}
+
+	private static byte[] record(long key, int i) {
+		return ("record-" + key + "-" + i).getBytes(StandardCharsets.UTF_8);
+	}
+}
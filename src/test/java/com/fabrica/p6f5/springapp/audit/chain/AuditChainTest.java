@@ -0,0 +1,79 @@
+package com.fabrica.p6f5.springapp.audit.chain;
+
+import com.fabrica.p6f5.springapp.audit.model.AuditLog;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AuditChainTest {
+
+	private static final LocalDateTime CREATED_AT = LocalDateTime.of(2024, 3, 1, 10, 15, 30, 123_456_789);
+
+	@Test
+	void canonicalJsonIgnoresKeyOrderAndWhitespace() {
+		assertEquals(AuditChain.canonicalJson("{\"b\": [1, 2.50], \"a\": {\"y\": null, \"x\": \"v\"}}"),
+				AuditChain.canonicalJson("{\"a\":{\"x\":\"v\",\"y\":null},\"b\":[1,2.50]}"));
+		assertEquals("{\"a\":1,\"b\":2}", AuditChain.canonicalJson("{ \"b\" : 2 , \"a\" : 1 }"));
+	}
+
+	@Test
+	void canonicalJsonRejectsInvalidJson() {
+		assertThrows(IllegalArgumentException.class, () -> AuditChain.canonicalJson("{\"a\":"));
+	}
+
+	@Test
+	void hashIsDeterministicAndIgnoresSubMicrosecondTime() {
+		AuditLog row = row("{\"status\":\"DRAFT\",\"total\":10.00}");
+		byte[] hash = AuditChain.hash(null, 1, row);
+		assertEquals(AuditChain.HASH_BYTES, hash.length);
+
+		AuditLog readBack = row("{ \"total\": 10.00, \"status\": \"DRAFT\" }");
+		readBack.setCreatedAt(CREATED_AT.withNano(123_456_000));
+		assertArrayEquals(hash, AuditChain.hash(null, 1, readBack));
+	}
+
+	@Test
+	void hashCoversContentPositionAndPreviousHash() {
+		AuditLog row = row("{\"status\":\"DRAFT\"}");
+		byte[] hash = AuditChain.hash(null, 1, row);
+
+		AuditLog tampered = row("{\"status\":\"ISSUED\"}");
+		assertFalse(Arrays.equals(hash, AuditChain.hash(null, 1, tampered)));
+		assertFalse(Arrays.equals(hash, AuditChain.hash(null, 2, row)));
+		assertFalse(Arrays.equals(hash, AuditChain.hash(hash, 1, row)));
+
+		row.setChangedBy(null);
+		assertFalse(Arrays.equals(hash, AuditChain.hash(null, 1, row)));
+	}
+
+	@Test
+	void hashCoversCorrelationId() {
+		AuditLog row = row("{\"status\":\"DRAFT\"}");
+		byte[] hash = AuditChain.hash(null, 1, row);
+
+		row.setCorrelationId("req-1");
+		byte[] correlated = AuditChain.hash(null, 1, row);
+		assertFalse(Arrays.equals(hash, correlated));
+
+		row.setCorrelationId("req-2");
+		assertFalse(Arrays.equals(correlated, AuditChain.hash(null, 1, row)));
+	}
+
+	private static AuditLog row(String newData) {
+		AuditLog row = new AuditLog();
+		row.setEntityType("INVOICE");
+		row.setEntityId(42L);
+		row.setAction(AuditLog.AuditAction.UPDATE);
+		row.setChangedBy(7L);
+		row.setNewData(newData);
+		row.setChangeSummary("Invoice updated");
+		row.setCreatedAt(CREATED_AT);
+		return row;
+	}
+}
@@ -0,0 +1,179 @@
+package com.fabrica.p6f5.springapp.audit.chain;
+
+import com.fabrica.p6f5.springapp.audit.dto.BrokenLink;
+import com.fabrica.p6f5.springapp.audit.model.AuditLog;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChainVerifierTest {
+
+	private static final LocalDateTime BASE_TIME = LocalDateTime.of(2024, 3, 1, 10, 0);
+
+	private final Map<ChainKey, ChainHead> heads = new HashMap<>();
+
+	@Test
+	void acceptsIntactChains() {
+		List<AuditLog> rows = new ArrayList<>(chain(1L, 5));
+		rows.addAll(chain(2L, 3));
+
+		ChainVerifier verifier = verify(rows);
+		assertEquals(8L, verifier.getRows());
+		assertEquals(2L, verifier.getChains());
+		assertEquals(0L, verifier.getAnchoredChains());
+		assertEquals(0L, verifier.getBrokenChains());
+		assertTrue(verifier.getBrokenLinks().isEmpty());
+	}
+
+	@Test
+	void detectsEditedRow() {
+		List<AuditLog> rows = chain(1L, 5);
+		rows.get(2).setChangeSummary("Nothing to see here");
+
+		assertBroken(verify(rows), rows.get(2), BrokenLink.Reason.HASH_MISMATCH);
+	}
+
+	@Test
+	void detectsRehashedRowThatNoLongerLinks() {
+		List<AuditLog> rows = chain(1L, 5);
+		AuditLog edited = rows.get(2);
+		edited.setChangeSummary("Nothing to see here");
+		edited.setRowHash(AuditChain.hash(edited.getPrevHash(), edited.getChainSeq(), edited));
+
+		assertBroken(verify(rows), rows.get(3), BrokenLink.Reason.LINK_MISMATCH);
+	}
+
+	@Test
+	void detectsDeletedRow() {
+		List<AuditLog> rows = chain(1L, 5);
+		rows.remove(2);
+
+		assertBroken(verify(rows), rows.get(2), BrokenLink.Reason.SEQUENCE_GAP);
+	}
+
+	@Test
+	void detectsTruncatedChain() {
+		List<AuditLog> rows = chain(1L, 5);
+		rows.remove(4);
+
+		assertBroken(verify(rows), rows.get(3), BrokenLink.Reason.HEAD_MISMATCH);
+	}
+
+	@Test
+	void anchorsChainWhoseOldRowsWereArchived() {
+		List<AuditLog> rows = chain(1L, 5);
+		anchor(rows.get(1));
+		rows.subList(0, 2).clear();
+
+		ChainVerifier verifier = verify(rows);
+		assertEquals(1L, verifier.getAnchoredChains());
+		assertEquals(0L, verifier.getBrokenChains());
+	}
+
+	@Test
+	void detectsOldestRowsDeletedWithoutAnchor() {
+		List<AuditLog> rows = chain(1L, 5);
+		rows.subList(0, 2).clear();
+
+		assertBroken(verify(rows), rows.get(0), BrokenLink.Reason.SEQUENCE_GAP);
+	}
+
+	@Test
+	void detectsRowsDeletedBehindTheAnchor() {
+		List<AuditLog> rows = chain(1L, 5);
+		anchor(rows.get(1));
+		rows.subList(0, 3).clear();
+
+		assertBroken(verify(rows), rows.get(0), BrokenLink.Reason.SEQUENCE_GAP);
+	}
+
+	@Test
+	void acceptsChainArchivedWhole() {
+		List<AuditLog> rows = chain(1L, 3);
+		anchor(rows.get(2));
+
+		ChainVerifier verifier = verify(List.of());
+		assertEquals(0L, verifier.getBrokenChains());
+	}
+
+	@Test
+	void detectsChainWithEveryRowDeleted() {
+		chain(1L, 3);
+
+		ChainVerifier verifier = verify(List.of());
+		assertEquals(1L, verifier.getBrokenChains());
+		BrokenLink link = verifier.getBrokenLinks().get(0);
+		assertEquals(Long.valueOf(1), link.getEntityId());
+		assertEquals(BrokenLink.Reason.HEAD_MISMATCH, link.getReason());
+	}
+
+	@Test
+	void reportsOnlyFirstBrokenLinkOfEachChainAndCapsTheList() {
+		List<AuditLog> rows = new ArrayList<>();
+		for (long entityId = 1; entityId <= 3; entityId++) {
+			List<AuditLog> chain = chain(entityId, 4);
+			chain.get(1).setChangeSummary("Edited");
+			chain.get(2).setChangeSummary("Edited");
+			rows.addAll(chain);
+		}
+
+		ChainVerifier verifier = new ChainVerifier(heads, 2);
+		rows.forEach(verifier::accept);
+		verifier.finish();
+		assertEquals(3L, verifier.getBrokenChains());
+		assertEquals(2, verifier.getBrokenLinks().size());
+	}
+
+	private ChainVerifier verify(List<AuditLog> rows) {
+		ChainVerifier verifier = new ChainVerifier(heads, 100);
+		rows.forEach(verifier::accept);
+		return verifier.finish();
+	}
+
+	private static void assertBroken(ChainVerifier verifier, AuditLog row, BrokenLink.Reason reason) {
+		assertEquals(1L, verifier.getBrokenChains());
+		BrokenLink link = verifier.getBrokenLinks().get(0);
+		assertEquals(row.getId(), link.getAuditLogId());
+		assertEquals(reason, link.getReason());
+	}
+
+	/**
+	 * Record a row as the last one archived from its chain.
+	 */
+	private void anchor(AuditLog row) {
+		ChainKey key = new ChainKey(row.getEntityId(), row.getEntityType());
+		ChainHead head = heads.get(key);
+		heads.put(key, new ChainHead(key, head.getLength(), head.getHash(), row.getChainSeq(), row.getRowHash()));
+	}
+
+	private List<AuditLog> chain(long entityId, int length) {
+		ChainKey key = new ChainKey(entityId, "INVOICE");
+		ChainHead head = new ChainHead(key, 0, null);
+		List<AuditLog> rows = new ArrayList<>();
+		for (int i = 1; i <= length; i++) {
+			AuditLog row = new AuditLog();
+			row.setId(entityId * 1000 + i);
+			row.setEntityType(key.entityType());
+			row.setEntityId(entityId);
+			row.setAction(i == 1 ? AuditLog.AuditAction.CREATE : AuditLog.AuditAction.UPDATE);
+			row.setChangedBy(7L);
+			row.setChanges("{\"status\":{\"old\":\"DRAFT\",\"new\":\"DRAFT\"}}");
+			row.setChangeSummary("Change " + i);
+			row.setCreatedAt(BASE_TIME.plusMinutes(i));
+			row.setChainSeq((long) i);
+			row.setPrevHash(head.getHash());
+			row.setRowHash(AuditChain.hash(head.getHash(), i, row));
+			head.advance(i, row.getRowHash());
+			rows.add(row);
+		}
+		heads.put(key, head);
+		return rows;
+	}
+}
@@ -0,0 +1,63 @@
+package com.fabrica.p6f5.springapp.audit.context;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AuditContextTest {
+
+	private static final AuditContext REQUEST = new AuditContext("10.0.0.1", "curl/8.5.0", "req-1");
+
+	@Test
+	void currentIsNoneOutsideAnyScope() {
+		assertTrue(AuditContext.current() == AuditContext.NONE);
+	}
+
+	@Test
+	void closingScopeRestoresPreviousContext() {
+		AuditContext inner = new AuditContext("10.0.0.2", null, "req-2");
+		try (AuditContext.Scope outer = AuditContext.open(REQUEST)) {
+			try (AuditContext.Scope scope = AuditContext.open(inner)) {
+				assertTrue(AuditContext.current() == inner);
+			}
+			assertTrue(AuditContext.current() == REQUEST);
+		}
+		assertTrue(AuditContext.current() == AuditContext.NONE);
+	}
+
+	@Test
+	void wrappedTasksCarryContextToOtherThreads() throws Exception {
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Callable<String> wrapped;
+			try (AuditContext.Scope scope = AuditContext.open(REQUEST)) {
+				wrapped = AuditContext.wrap(() -> AuditContext.current().getCorrelationId());
+			}
+			assertEquals("req-1", executor.submit(wrapped).get());
+			assertEquals(null, executor.submit(() -> AuditContext.current().getCorrelationId()).get());
+
+			String[] seen = new String[1];
+			try (AuditContext.Scope scope = AuditContext.open(REQUEST)) {
+				executor.submit(AuditContext.wrap(() -> {
+					seen[0] = AuditContext.current().getIpAddress();
+				})).get();
+			}
+			assertEquals("10.0.0.1", seen[0]);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void wrappedTasksRunOnVirtualThreads() throws Exception {
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+				AuditContext.Scope scope = AuditContext.open(REQUEST)) {
+			assertEquals("curl/8.5.0", executor.submit(AuditContext.wrap(() -> AuditContext.current().getUserAgent())).get());
+		}
+	}
+}
@@ -0,0 +1,79 @@
+package com.fabrica.p6f5.springapp.audit.controller;
+
+import com.fabrica.p6f5.springapp.audit.dto.ArchiveReport;
+import com.fabrica.p6f5.springapp.audit.dto.ChainVerificationReport;
+import com.fabrica.p6f5.springapp.audit.dto.PartitionMaintenanceReport;
+import com.fabrica.p6f5.springapp.audit.service.AuditArchiveService;
+import com.fabrica.p6f5.springapp.audit.service.AuditChainService;
+import com.fabrica.p6f5.springapp.audit.service.AuditPartitionService;
+import com.fabrica.p6f5.springapp.config.SecurityConfig;
+import com.fabrica.p6f5.springapp.exception.GlobalExceptionHandler;
+import com.fabrica.p6f5.springapp.security.JwtAuthenticationEntryPoint;
+import com.fabrica.p6f5.springapp.service.JwtService;
+import com.fabrica.p6f5.springapp.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = {AuditPartitionController.class, AuditArchiveController.class, AuditChainController.class})
+@Import({SecurityConfig.class, JwtAuthenticationEntryPoint.class, GlobalExceptionHandler.class})
+class AuditMaintenanceSecurityTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@MockBean
+	private AuditPartitionService auditPartitionService;
+
+	@MockBean
+	private AuditArchiveService auditArchiveService;
+
+	@MockBean
+	private AuditChainService auditChainService;
+
+	@MockBean
+	private JwtService jwtService;
+
+	@MockBean
+	private UserService userService;
+
+	@Test
+	void anonymousCallerIsRejected() throws Exception {
+		mockMvc.perform(post("/api/v1/audit/partitions/maintain")).andExpect(status().isUnauthorized());
+		mockMvc.perform(post("/api/v1/audit/archive/run")).andExpect(status().isUnauthorized());
+		mockMvc.perform(post("/api/v1/audit/chain/verify")).andExpect(status().isUnauthorized());
+
+		verifyNoInteractions(auditPartitionService, auditArchiveService, auditChainService);
+	}
+
+	@Test
+	@WithMockUser(roles = "USER")
+	void nonAdminCallerIsForbidden() throws Exception {
+		mockMvc.perform(post("/api/v1/audit/partitions/maintain")).andExpect(status().isForbidden());
+		mockMvc.perform(post("/api/v1/audit/archive/run")).andExpect(status().isForbidden());
+		mockMvc.perform(post("/api/v1/audit/chain/verify")).andExpect(status().isForbidden());
+
+		verifyNoInteractions(auditPartitionService, auditArchiveService, auditChainService);
+	}
+
+	@Test
+	@WithMockUser(roles = "ADMIN")
+	void adminRunsMaintenance() throws Exception {
+		when(auditPartitionService.maintainPartitions()).thenReturn(new PartitionMaintenanceReport());
+		when(auditArchiveService.archiveOldRows()).thenReturn(new ArchiveReport());
+		when(auditChainService.verify()).thenReturn(new ChainVerificationReport());
+
+		mockMvc.perform(post("/api/v1/audit/partitions/maintain")).andExpect(status().isOk());
+		mockMvc.perform(post("/api/v1/audit/archive/run")).andExpect(status().isOk());
+		mockMvc.perform(post("/api/v1/audit/chain/verify")).andExpect(status().isOk());
+	}
+}
@@ -0,0 +1,61 @@
+package com.fabrica.p6f5.springapp.audit.diff;
+
+import com.fabrica.p6f5.springapp.audit.dto.FieldChange;
+import com.fabrica.p6f5.springapp.invoice.model.Invoice;
+import com.fabrica.p6f5.springapp.util.InvoiceUtils;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InvoiceDiffTest {
+
+	@Test
+	void copyHasNoChanges() {
+		Invoice invoice = invoice();
+		assertTrue(InvoiceDiff.compare(InvoiceUtils.copyInvoice(invoice), invoice).isEmpty());
+	}
+
+	@Test
+	void reportsOnlyChangedFields() {
+		Invoice invoice = invoice();
+		Invoice before = InvoiceUtils.copyInvoice(invoice);
+		invoice.setClientName("Acme Corp");
+		invoice.setSubtotal(new BigDecimal("100"));
+		invoice.setStatus(Invoice.InvoiceStatus.ISSUED);
+		invoice.setVersion(2);
+
+		List<FieldChange> changes = InvoiceDiff.compare(before, invoice);
+		assertEquals(2, changes.size());
+		assertEquals(new FieldChange("status", Invoice.InvoiceStatus.DRAFT, Invoice.InvoiceStatus.ISSUED), changes.get(0));
+		assertEquals(new FieldChange("clientName", "Acme", "Acme Corp"), changes.get(1));
+	}
+
+	@Test
+	void newInvoiceReportsEverySetField() {
+		List<FieldChange> changes = InvoiceDiff.compare(null, invoice());
+		assertEquals("status", changes.get(0).getField());
+		assertNull(changes.get(0).getFrom());
+		assertTrue(changes.stream().noneMatch(change -> change.getField().equals("fiscalFolio")));
+	}
+
+	private static Invoice invoice() {
+		Invoice invoice = new Invoice();
+		invoice.setId(1L);
+		invoice.setInvoiceNumber("INV-1");
+		invoice.setClientName("Acme");
+		invoice.setInvoiceDate(LocalDate.of(2024, 1, 15));
+		invoice.setDueDate(LocalDate.of(2024, 2, 15));
+		invoice.setSubtotal(new BigDecimal("100.00"));
+		invoice.setTaxAmount(new BigDecimal("16.00"));
+		invoice.setTotalAmount(new BigDecimal("116.00"));
+		invoice.setTaxRegion("MX");
+		invoice.setCreatedBy(1L);
+		return invoice;
+	}
+}
@@ -0,0 +1,55 @@
+package com.fabrica.p6f5.springapp.audit.diff;
+
+import com.fabrica.p6f5.springapp.audit.dto.FieldChange;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JsonDiffTest {
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	@Test
+	void reportsChangedLeavesByPath() throws Exception {
+		List<FieldChange> changes = JsonDiff.diff(
+			objectMapper.readTree("{\"clientName\":\"Acme\",\"subtotal\":10.0,\"items\":[{\"quantity\":1},{\"quantity\":2}]}"),
+			objectMapper.readTree("{\"clientName\":\"Acme Corp\",\"subtotal\":10.00,\"items\":[{\"quantity\":1},{\"quantity\":3}]}"),
+			Set.of());
+
+		assertEquals(2, changes.size());
+		assertEquals("clientName", changes.get(0).getField());
+		assertEquals("Acme Corp", objectMapper.convertValue(changes.get(0).getTo(), String.class));
+		assertEquals("items[1].quantity", changes.get(1).getField());
+	}
+
+	@Test
+	void reportsAddedAndRemovedValuesAsNull() throws Exception {
+		List<FieldChange> changes = JsonDiff.diff(
+			objectMapper.readTree("{\"taxRegion\":\"MX\",\"items\":[{\"quantity\":1}]}"),
+			objectMapper.readTree("{\"currency\":\"USD\",\"items\":[{\"quantity\":1},{\"quantity\":2}]}"),
+			Set.of());
+
+		assertEquals(3, changes.size());
+		assertEquals("taxRegion", changes.get(0).getField());
+		assertNull(changes.get(0).getTo());
+		assertEquals("items[1]", changes.get(1).getField());
+		assertNull(changes.get(1).getFrom());
+		assertEquals("currency", changes.get(2).getField());
+	}
+
+	@Test
+	void skipsIgnoredFieldsAtAnyDepth() throws Exception {
+		List<FieldChange> changes = JsonDiff.diff(
+			objectMapper.readTree("{\"version\":1,\"items\":[{\"id\":5,\"quantity\":1}]}"),
+			objectMapper.readTree("{\"version\":2,\"items\":[{\"id\":9,\"quantity\":1}]}"),
+			Set.of("id", "version"));
+
+		assertTrue(changes.isEmpty());
+	}
+}
@@ -0,0 +1,79 @@
+package com.fabrica.p6f5.springapp.audit.service;
+
+import com.fabrica.p6f5.springapp.audit.dto.AuditLogPage;
+import com.fabrica.p6f5.springapp.audit.dto.AuditLogSummary;
+import com.fabrica.p6f5.springapp.audit.dto.AuditSearchCriteria;
+import com.fabrica.p6f5.springapp.audit.model.AuditLog;
+import com.fabrica.p6f5.springapp.audit.repository.AuditSearchRepository;
+import com.fabrica.p6f5.springapp.exception.BusinessException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AuditSearchServiceTest {
+
+	private static final LocalDateTime TIME = LocalDateTime.of(2024, 3, 1, 12, 0, 0, 500);
+
+	private final AuditSearchRepository repository = mock(AuditSearchRepository.class);
+	private final AuditSearchService service = new AuditSearchService(repository);
+
+	@Test
+	void cursorResumesAfterTheLastRow() {
+		AuditSearchCriteria criteria = new AuditSearchCriteria();
+		when(repository.search(eq(criteria), isNull(), isNull(), eq(3), eq(false))).thenReturn(rows(3));
+
+		AuditLogPage first = service.search(criteria, null, 2, false);
+		assertEquals(2, first.getItems().size());
+		assertTrue(first.isHasMore());
+
+		when(repository.search(eq(criteria), eq(TIME.minusSeconds(1)), eq(99L), eq(3), eq(false))).thenReturn(rows(1));
+		AuditLogPage second = service.search(criteria, first.getNextCursor(), 2, false);
+		assertEquals(1, second.getItems().size());
+		assertFalse(second.isHasMore());
+		assertNull(second.getNextCursor());
+	}
+
+	@Test
+	void pageSizeIsClamped() {
+		AuditSearchCriteria criteria = new AuditSearchCriteria();
+		when(repository.search(any(), any(), any(), eq(AuditSearchService.MAX_PAGE_SIZE + 1), anyBoolean()))
+			.thenReturn(List.of());
+
+		service.search(criteria, null, 100_000, true);
+		verify(repository).search(criteria, null, null, AuditSearchService.MAX_PAGE_SIZE + 1, true);
+	}
+
+	@Test
+	void rejectsMalformedCursorsAndEmptyWindows() {
+		AuditSearchCriteria criteria = new AuditSearchCriteria();
+		assertThrows(BusinessException.class, () -> service.search(criteria, "not a cursor", null, false));
+		assertThrows(BusinessException.class, () -> service.search(criteria, "bm90IGEgY3Vyc29y", null, false));
+
+		AuditSearchCriteria window = new AuditSearchCriteria(null, null, null, null, null, TIME, TIME);
+		assertThrows(BusinessException.class, () -> service.search(window, null, null, false));
+	}
+
+	private static List<AuditLogSummary> rows(int count) {
+		List<AuditLogSummary> rows = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			rows.add(new AuditLogSummary(100L - i, "Invoice", 1L, AuditLog.AuditAction.UPDATE, 1L, null, null,
+				null, null, TIME.minusSeconds(i), null, null));
+		}
+		return rows;
+	}
+}
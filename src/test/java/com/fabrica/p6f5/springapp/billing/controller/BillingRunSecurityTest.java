@@ -0,0 +1,105 @@
+package com.fabrica.p6f5.springapp.billing.controller;
+
+import com.fabrica.p6f5.springapp.billing.dto.BillingRunResponse;
+import com.fabrica.p6f5.springapp.billing.service.BillingRunService;
+import com.fabrica.p6f5.springapp.config.SecurityConfig;
+import com.fabrica.p6f5.springapp.entity.User;
+import com.fabrica.p6f5.springapp.exception.GlobalExceptionHandler;
+import com.fabrica.p6f5.springapp.security.JwtAuthenticationEntryPoint;
+import com.fabrica.p6f5.springapp.service.JwtService;
+import com.fabrica.p6f5.springapp.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Collection;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = BillingRunController.class)
+@Import({SecurityConfig.class, JwtAuthenticationEntryPoint.class, GlobalExceptionHandler.class})
+class BillingRunSecurityTest {
+
+	private static final String RUN = "{\"periodStart\": \"2024-01-01\", \"periodEnd\": \"2024-02-01\"}";
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@MockBean
+	private BillingRunService billingRunService;
+
+	@MockBean
+	private JwtService jwtService;
+
+	@MockBean
+	private UserService userService;
+
+	@Test
+	void anonymousCallerIsRejected() throws Exception {
+		mockMvc.perform(post("/api/v1/billing-runs").contentType(MediaType.APPLICATION_JSON).content(RUN))
+			.andExpect(status().isUnauthorized());
+		mockMvc.perform(post("/api/v1/billing-runs/7/resume")).andExpect(status().isUnauthorized());
+
+		verifyNoInteractions(billingRunService);
+	}
+
+	@Test
+	void nonAdminCallerCanReadButNotStartOrResumeRuns() throws Exception {
+		User user = account(2L, "clerk");
+		when(billingRunService.getRecentRuns()).thenReturn(List.of());
+
+		mockMvc.perform(get("/api/v1/billing-runs").with(user(user))).andExpect(status().isOk());
+		mockMvc.perform(post("/api/v1/billing-runs").with(user(user))
+				.contentType(MediaType.APPLICATION_JSON).content(RUN))
+			.andExpect(status().isForbidden());
+		mockMvc.perform(post("/api/v1/billing-runs/7/resume").with(user(user))).andExpect(status().isForbidden());
+
+		verify(billingRunService).getRecentRuns();
+		verifyNoMoreInteractions(billingRunService);
+	}
+
+	@Test
+	void adminStartsAndResumesRuns() throws Exception {
+		User admin = new User() {
+			@Override
+			public Collection<? extends GrantedAuthority> getAuthorities() {
+				return List.of(new SimpleGrantedAuthority("ROLE_ADMIN"));
+			}
+		};
+		admin.setId(1L);
+		admin.setUsername("admin");
+		when(billingRunService.startRun(any(), eq(1L))).thenReturn(new BillingRunResponse());
+		when(billingRunService.resumeRun(7L)).thenReturn(new BillingRunResponse());
+
+		mockMvc.perform(post("/api/v1/billing-runs").with(user(admin))
+				.contentType(MediaType.APPLICATION_JSON).content(RUN))
+			.andExpect(status().isCreated());
+		mockMvc.perform(post("/api/v1/billing-runs/7/resume").with(user(admin))).andExpect(status().isOk());
+
+		verify(billingRunService).startRun(any(), eq(1L));
+		verify(billingRunService).resumeRun(7L);
+	}
+
+	private static User account(Long id, String username) {
+		User user = new User();
+		user.setId(id);
+		user.setUsername(username);
+		return user;
+	}
+}
@@ -0,0 +1,86 @@
+package com.fabrica.p6f5.springapp.billing.controller;
+
+import com.fabrica.p6f5.springapp.billing.model.RateTier;
+import com.fabrica.p6f5.springapp.billing.service.RatingService;
+import com.fabrica.p6f5.springapp.config.SecurityConfig;
+import com.fabrica.p6f5.springapp.exception.GlobalExceptionHandler;
+import com.fabrica.p6f5.springapp.security.JwtAuthenticationEntryPoint;
+import com.fabrica.p6f5.springapp.service.JwtService;
+import com.fabrica.p6f5.springapp.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = RateTierController.class)
+@Import({SecurityConfig.class, JwtAuthenticationEntryPoint.class, GlobalExceptionHandler.class})
+class RateTierSecurityTest {
+
+	private static final String TIER = "{\"basis\": \"WEIGHT\", \"minValue\": 0, \"unitPrice\": 1.5000}";
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@MockBean
+	private RatingService ratingService;
+
+	@MockBean
+	private JwtService jwtService;
+
+	@MockBean
+	private UserService userService;
+
+	@Test
+	void anonymousCallerIsRejected() throws Exception {
+		mockMvc.perform(post("/api/v1/rates").contentType(MediaType.APPLICATION_JSON).content(TIER))
+			.andExpect(status().isUnauthorized());
+		mockMvc.perform(delete("/api/v1/rates/1")).andExpect(status().isUnauthorized());
+		mockMvc.perform(post("/api/v1/rates/reload")).andExpect(status().isUnauthorized());
+
+		verifyNoInteractions(ratingService);
+	}
+
+	@Test
+	@WithMockUser(roles = "USER")
+	void nonAdminCallerCanReadButNotChangeTiers() throws Exception {
+		when(ratingService.getActiveTiers()).thenReturn(List.of());
+
+		mockMvc.perform(get("/api/v1/rates")).andExpect(status().isOk());
+		mockMvc.perform(post("/api/v1/rates").contentType(MediaType.APPLICATION_JSON).content(TIER))
+			.andExpect(status().isForbidden());
+		mockMvc.perform(delete("/api/v1/rates/1")).andExpect(status().isForbidden());
+		mockMvc.perform(post("/api/v1/rates/reload")).andExpect(status().isForbidden());
+
+		verify(ratingService).getActiveTiers();
+		verifyNoMoreInteractions(ratingService);
+	}
+
+	@Test
+	@WithMockUser(roles = "ADMIN")
+	void adminChangesTiers() throws Exception {
+		when(ratingService.createTier(any())).thenReturn(new RateTier());
+		when(ratingService.deactivateTier(1L)).thenReturn(new RateTier());
+		when(ratingService.reload()).thenReturn(1);
+
+		mockMvc.perform(post("/api/v1/rates").contentType(MediaType.APPLICATION_JSON).content(TIER))
+			.andExpect(status().isCreated());
+		mockMvc.perform(delete("/api/v1/rates/1")).andExpect(status().isOk());
+		mockMvc.perform(post("/api/v1/rates/reload")).andExpect(status().isOk());
+	}
+}
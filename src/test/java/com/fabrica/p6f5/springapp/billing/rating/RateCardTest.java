@@ -0,0 +1,103 @@
+package com.fabrica.p6f5.springapp.billing.rating;
+
+import com.fabrica.p6f5.springapp.billing.model.RateTier;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RateCardTest {
+
+	private static final RateCard CARD = RateCard.compile(List.of(
+		tier(null, RateTier.RateBasis.WEIGHT, "0", "10", "1.0000", "5.00"),
+		tier(null, RateTier.RateBasis.WEIGHT, "10", "100", "0.5000", "0"),
+		tier(null, RateTier.RateBasis.VOLUME, "0", null, "20.0000", "0"),
+		tier("Acme", RateTier.RateBasis.WEIGHT, "0", null, "0.2500", "0")), 2);
+
+	@Test
+	void weightTierBoundariesAreLowerInclusiveAndUpperExclusive() {
+		assertEquals(500, CARD.priceMinor(null, 0, 0));
+		assertEquals(500, CARD.priceMinor(null, 400, 0));
+		assertEquals(999, CARD.priceMinor(null, 999, 0));
+		assertEquals(500, CARD.priceMinor(null, 1_000, 0));
+		assertEquals(5_000, CARD.priceMinor(null, 9_999, 0));
+	}
+
+	@Test
+	void valuesOutsideEveryTierAreUnpriced() {
+		RateCard weightOnly = RateCard.compile(List.of(
+			tier(null, RateTier.RateBasis.WEIGHT, "1", "10", "1.0000", "0"),
+			tier(null, RateTier.RateBasis.WEIGHT, "20", "30", "1.0000", "0")), 2);
+
+		assertEquals(ShipmentPricer.UNPRICED, weightOnly.priceMinor(null, 50, 0));
+		assertEquals(ShipmentPricer.UNPRICED, weightOnly.priceMinor(null, 1_500, 0));
+		assertEquals(ShipmentPricer.UNPRICED, weightOnly.priceMinor(null, 3_000, 0));
+		assertEquals(2_000, weightOnly.priceMinor(null, 2_000, 0));
+		assertEquals(ShipmentPricer.UNPRICED, RateCard.EMPTY.priceMinor("Acme", 100, 100));
+	}
+
+	@Test
+	void lineIsChargedOnTheCostlierBasis() {
+		assertEquals(2_000, CARD.priceMinor(null, 1_000, 100));
+		assertEquals(2_500, CARD.priceMinor(null, 5_000, 100));
+		assertEquals(500, CARD.priceMinor(null, 50, 1));
+		assertEquals(2_000, CARD.priceMinor(null, 20_000, 100));
+	}
+
+	@Test
+	void clientTiersReplaceOnlyTheirOwnBasis() {
+		assertEquals(1, CARD.getClientOverrideCount());
+		assertEquals(250, CARD.priceMinor("Acme", 1_000, 0));
+		assertEquals(5_000, CARD.priceMinor("Acme", 20_000, 0));
+		assertEquals(2_000, CARD.priceMinor("Acme", 1_000, 100));
+		assertEquals(500, CARD.priceMinor("Other", 1_000, 0));
+	}
+
+	@Test
+	void chargesAreRoundedHalfUpToCents() {
+		RateCard card = RateCard.compile(List.of(tier(null, RateTier.RateBasis.WEIGHT, "0", null, "0.3333", "0")), 2);
+
+		assertEquals(33, card.priceMinor(null, 100, 0));
+		assertEquals(2, card.priceMinor(null, 5, 0));
+		assertEquals(1, card.priceMinor(null, 3, 0));
+	}
+
+	@Test
+	void chargesAreInMinorUnitsOfTheCurrency() {
+		List<RateTier> tiers = List.of(tier(null, RateTier.RateBasis.WEIGHT, "0", null, "1.2345", "5.5"));
+		RateCard yen = RateCard.compile(tiers, 0);
+		RateCard dinar = RateCard.compile(tiers, 3);
+
+		assertEquals(12, yen.priceMinor(null, 1_000, 0));
+		assertEquals(6, yen.priceMinor(null, 100, 0));
+		assertEquals(12_345, dinar.priceMinor(null, 1_000, 0));
+		assertEquals(5_500, dinar.priceMinor(null, 100, 0));
+		assertEquals(1_235, RateCard.compile(tiers, 2).priceMinor(null, 1_000, 0));
+	}
+
+	@Test
+	void overlappingTiersOfOneScheduleAreRejected() {
+		assertThrows(IllegalArgumentException.class, () -> RateCard.compile(List.of(
+			tier(null, RateTier.RateBasis.WEIGHT, "0", "10", "1.0000", "0"),
+			tier(null, RateTier.RateBasis.WEIGHT, "5", null, "1.0000", "0")), 2));
+		assertThrows(IllegalArgumentException.class, () -> RateCard.compile(List.of(
+			tier("Acme", RateTier.RateBasis.VOLUME, "0", null, "1.0000", "0"),
+			tier("Acme", RateTier.RateBasis.VOLUME, "2", "3", "1.0000", "0")), 2));
+		assertEquals(4, CARD.getTierCount());
+	}
+
+	private static RateTier tier(String clientName, RateTier.RateBasis basis, String min, String max,
+			String unitPrice, String minCharge) {
+		RateTier tier = new RateTier();
+		tier.setClientName(clientName);
+		tier.setBasis(basis);
+		tier.setMinValue(new BigDecimal(min));
+		tier.setMaxValue(max != null ? new BigDecimal(max) : null);
+		tier.setUnitPrice(new BigDecimal(unitPrice));
+		tier.setMinCharge(new BigDecimal(minCharge));
+		return tier;
+	}
+}
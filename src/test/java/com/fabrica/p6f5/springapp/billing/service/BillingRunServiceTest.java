@@ -0,0 +1,210 @@
+package com.fabrica.p6f5.springapp.billing.service;
+
+import com.fabrica.p6f5.springapp.audit.service.AuditService;
+import com.fabrica.p6f5.springapp.billing.dto.StartBillingRunRequest;
+import com.fabrica.p6f5.springapp.billing.model.BillingRun;
+import com.fabrica.p6f5.springapp.billing.rating.ShipmentPricer;
+import com.fabrica.p6f5.springapp.billing.repository.BillingRunBatchRepository;
+import com.fabrica.p6f5.springapp.billing.repository.BillingRunBatchRepository.BillableShipment;
+import com.fabrica.p6f5.springapp.billing.repository.BillingRunRepository;
+import com.fabrica.p6f5.springapp.events.service.InvoiceEventService;
+import com.fabrica.p6f5.springapp.exception.BusinessException;
+import com.fabrica.p6f5.springapp.tax.engine.TaxTable;
+import com.fabrica.p6f5.springapp.tax.model.TaxRule;
+import com.fabrica.p6f5.springapp.tax.service.TaxService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BillingRunServiceTest {
+
+	private static final LocalDate PERIOD_START = LocalDate.of(2024, 1, 1);
+	private static final LocalDate PERIOD_END = LocalDate.of(2024, 2, 1);
+
+	private final BillingRunRepository billingRunRepository = mock(BillingRunRepository.class);
+	private final BillingRunBatchRepository batchRepository = mock(BillingRunBatchRepository.class);
+	private final RatingService ratingService = mock(RatingService.class);
+	private final TaxService taxService = mock(TaxService.class);
+	private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+
+	/** invoice_shipments as the database sees it: shipment ID to invoice ID, unique on shipment. */
+	private final Map<Long, Long> links = new ConcurrentHashMap<>();
+	private final Map<Long, BillingRun> runs = new ConcurrentHashMap<>();
+	private final Map<Long, List<Long>> invoiceLines = new ConcurrentHashMap<>();
+
+	private BillingRunService service;
+
+	@BeforeEach
+	void setUp() {
+		service = new BillingRunService(billingRunRepository, batchRepository, ratingService, taxService,
+			mock(AuditService.class), mock(InvoiceEventService.class), transactionTemplate);
+		ReflectionTestUtils.setField(service, "parallelism", 1);
+		ReflectionTestUtils.setField(service, "maxLinesPerInvoice", 1000);
+		ReflectionTestUtils.setField(service, "paymentTermsDays", 30);
+		service.startExecutors();
+
+		AtomicLong runIds = new AtomicLong();
+		when(billingRunRepository.save(any(BillingRun.class))).thenAnswer(invocation -> {
+			BillingRun run = invocation.getArgument(0);
+			if (run.getId() == null) {
+				run.setId(runIds.incrementAndGet());
+			}
+			runs.put(run.getId(), run);
+			return run;
+		});
+		when(billingRunRepository.findById(anyLong()))
+			.thenAnswer(invocation -> Optional.ofNullable(runs.get(invocation.<Long>getArgument(0))));
+
+		ShipmentPricer pricer = (clientName, weightCents, volumeCents) -> 1_000L;
+		when(ratingService.currentPricer(anyString())).thenReturn(pricer);
+		TaxRule exempt = new TaxRule();
+		exempt.setRegion("MX");
+		exempt.setRatePercent(BigDecimal.ZERO);
+		exempt.setExempt(true);
+		when(taxService.policyFor(any(), anyString())).thenReturn(TaxTable.compile(List.of(exempt)).policyFor("MX", "Acme"));
+		when(transactionTemplate.execute(any()))
+			.thenAnswer(invocation -> invocation.<TransactionCallback<Integer>>getArgument(0).doInTransaction(null));
+		when(batchRepository.findClientsToBill(PERIOD_START, PERIOD_END)).thenReturn(List.of("Acme"));
+
+		AtomicLong invoiceIds = new AtomicLong(100);
+		when(batchRepository.insertDraft(anyString(), anyString(), any(), any(), any(), any(), any(), any(), any(), any()))
+			.thenAnswer(invocation -> invoiceIds.incrementAndGet());
+		when(batchRepository.findLinked(any())).thenAnswer(invocation -> Arrays.stream(invocation.<Long[]>getArgument(0))
+			.filter(links::containsKey)
+			.toList());
+		doAnswer(invocation -> {
+			Long invoiceId = invocation.getArgument(0);
+			Long[] shipmentIds = invocation.getArgument(1);
+			for (Long shipmentId : shipmentIds) {
+				if (links.putIfAbsent(shipmentId, invoiceId) != null) {
+					throw new DuplicateKeyException("uk_inv_ship_shipment: " + shipmentId);
+				}
+			}
+			invoiceLines.put(invoiceId, List.of(shipmentIds));
+			return null;
+		}).when(batchRepository).insertItemsAndLinks(anyLong(), any(), any(), any(), any());
+	}
+
+	@AfterEach
+	void tearDown() {
+		service.stopExecutors();
+	}
+
+	@Test
+	void shipmentBilledByConcurrentRunIsNotBilledAgain() {
+		// Run 2 waited on the row lock of shipment 3 while run 1 billed it; its NOT EXISTS was
+		// evaluated before run 1 committed, so the claim still returns shipment 3
+		when(batchRepository.claimShipments(eq("Acme"), eq(PERIOD_START), eq(PERIOD_END), eq(0L), eq(1000)))
+			.thenReturn(shipments(1L, 2L, 3L), shipments(3L, 4L));
+
+		startRunAndWait(1L);
+		startRunAndWait(2L);
+
+		assertEquals(List.of(List.of(1L, 2L, 3L), List.of(4L)), new ArrayList<>(new TreeMap<>(invoiceLines).values()));
+		assertEquals(4, links.size());
+		assertEquals(BillingRun.RunStatus.COMPLETED, runs.get(2L).getStatus());
+		verify(batchRepository).recordProgress(2L, 1, 1L, 0L);
+	}
+
+	@Test
+	void linkRacingPastTheRecheckIsRejectedByTheUniqueIndex() {
+		when(batchRepository.claimShipments(eq("Acme"), eq(PERIOD_START), eq(PERIOD_END), eq(0L), eq(1000)))
+			.thenReturn(shipments(5L, 6L));
+		links.put(6L, 99L);
+		when(batchRepository.findLinked(any())).thenReturn(List.of());
+
+		startRunAndWait(1L);
+
+		assertEquals(BillingRun.RunStatus.FAILED, runs.get(1L).getStatus());
+		assertEquals(Long.valueOf(99), links.get(6L));
+	}
+
+	@Test
+	void clientIsTaxedInTheRegionOfItsLatestInvoice() {
+		when(batchRepository.findClientRegions(List.of("Acme"))).thenReturn(Map.of("Acme", "US-CA"));
+		when(batchRepository.claimShipments(eq("Acme"), eq(PERIOD_START), eq(PERIOD_END), eq(0L), eq(1000)))
+			.thenReturn(shipments(1L));
+
+		startRunAndWait(1L);
+
+		verify(taxService).policyFor("US-CA", "Acme");
+		assertEquals(BillingRun.RunStatus.COMPLETED, runs.get(1L).getStatus());
+	}
+
+	@Test
+	void runWithAnUntaxableClientFailsBeforeBillingAnyone() {
+		when(batchRepository.findClientsToBill(PERIOD_START, PERIOD_END)).thenReturn(List.of("Acme", "Beta"));
+		when(taxService.policyFor(null, "Beta")).thenThrow(new BusinessException(
+			"No tax region for client Beta and billing.tax.default-region is not set"));
+
+		startRunAndWait(1L);
+
+		BillingRun run = runs.get(1L);
+		assertEquals(BillingRun.RunStatus.FAILED, run.getStatus());
+		assertEquals("No tax region for client Beta and billing.tax.default-region is not set", run.getErrorMessage());
+		verify(batchRepository, never()).claimShipments(any(), any(), any(), anyLong(), anyInt());
+		verify(batchRepository, never()).recordClientDone(anyLong());
+	}
+
+	@Test
+	void pricesAreInMinorUnitsOfTheRunCurrency() {
+		when(batchRepository.claimShipments(eq("Acme"), eq(PERIOD_START), eq(PERIOD_END), eq(0L), eq(1000)))
+			.thenReturn(shipments(1L, 2L));
+
+		startRunAndWait(1L, "JPY");
+
+		verify(batchRepository).insertDraft(anyString(), eq("Acme"), any(), any(), eq(new BigDecimal("2000")),
+			eq(BigDecimal.ZERO), any(), eq("JPY"), any(), eq(1L));
+	}
+
+	private void startRunAndWait(long expectedRunId) {
+		startRunAndWait(expectedRunId, null);
+	}
+
+	private void startRunAndWait(long expectedRunId, String currency) {
+		StartBillingRunRequest request = new StartBillingRunRequest();
+		request.setPeriodStart(PERIOD_START);
+		request.setPeriodEnd(PERIOD_END);
+		request.setCurrency(currency);
+		service.startRun(request, 1L);
+		verify(billingRunRepository, timeout(5_000).atLeastOnce()).save(
+			argThat(run -> run.getId() == expectedRunId && run.getStatus() != BillingRun.RunStatus.RUNNING));
+	}
+
+	private static List<BillableShipment> shipments(Long... ids) {
+		List<BillableShipment> shipments = new ArrayList<>();
+		for (Long id : ids) {
+			shipments.add(new BillableShipment(id, "TRK-" + id, 100L, 100L));
+		}
+		return shipments;
+	}
+}
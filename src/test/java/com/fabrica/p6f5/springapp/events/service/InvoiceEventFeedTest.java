@@ -0,0 +1,197 @@
+package com.fabrica.p6f5.springapp.events.service;
+
+import com.fabrica.p6f5.springapp.events.dto.InvoiceEvent;
+import com.fabrica.p6f5.springapp.events.dto.InvoiceEventPage;
+import com.fabrica.p6f5.springapp.events.repository.InvoiceEventRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class InvoiceEventFeedTest {
+
+	private final InvoiceEventRepository repository = mock(InvoiceEventRepository.class);
+
+	@Test
+	void returnsAvailableEventsWithoutWaiting() {
+		InvoiceEventFeed feed = new InvoiceEventFeed(repository, 10, 30_000, 60_000);
+		when(repository.findAfter(5L, 3)).thenReturn(events(6, 3));
+
+		long start = System.nanoTime();
+		InvoiceEventPage page = feed.poll(5, 2, 10_000);
+
+		assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1_000);
+		assertEquals(List.of(6L, 7L), page.getEvents().stream().map(InvoiceEvent::getSeq).toList());
+		assertEquals(7, page.getNextCursor());
+		assertTrue(page.isHasMore());
+	}
+
+	@Test
+	void limitIsCapped() {
+		InvoiceEventFeed feed = new InvoiceEventFeed(repository, 10, 30_000, 60_000);
+		when(repository.findAfter(0L, InvoiceEventFeed.MAX_LIMIT + 1)).thenReturn(events(1, 2));
+
+		InvoiceEventPage page = feed.poll(0, 100_000, 0);
+
+		verify(repository).findAfter(0L, InvoiceEventFeed.MAX_LIMIT + 1);
+		assertEquals(2, page.getEvents().size());
+		assertFalse(page.isHasMore());
+	}
+
+	@Test
+	void waitingPollWakesWhenEventsArePublished() throws Exception {
+		InvoiceEventFeed feed = new InvoiceEventFeed(repository, 10, 30_000, 60_000);
+		when(repository.findAfter(9L, 101)).thenReturn(List.of(), events(10, 1));
+
+		CompletableFuture<InvoiceEventPage> poll = CompletableFuture.supplyAsync(() -> feed.poll(9, 100, 20_000));
+		Thread.sleep(200);
+		long start = System.nanoTime();
+		feed.published(10);
+		InvoiceEventPage page = poll.get(5, TimeUnit.SECONDS);
+
+		assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 5_000);
+		assertEquals(1, page.getEvents().size());
+		assertEquals(10, page.getNextCursor());
+	}
+
+	@Test
+	void waitingPollRechecksForEventsPublishedElsewhere() {
+		InvoiceEventFeed feed = new InvoiceEventFeed(repository, 10, 30_000, 50);
+		when(repository.findAfter(0L, 101)).thenReturn(List.of(), List.of(), events(1, 1));
+
+		InvoiceEventPage page = feed.poll(0, 100, 10_000);
+
+		verify(repository, times(3)).findAfter(0L, 101);
+		assertEquals(1, page.getNextCursor());
+	}
+
+	@Test
+	void emptyPageKeepsTheCursorAfterTheWait() {
+		InvoiceEventFeed feed = new InvoiceEventFeed(repository, 10, 30_000, 20);
+		when(repository.findAfter(anyLong(), anyInt())).thenReturn(List.of());
+
+		long start = System.nanoTime();
+		InvoiceEventPage page = feed.poll(42, 100, 100);
+
+		assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 100);
+		assertTrue(page.getEvents().isEmpty());
+		assertEquals(42, page.getNextCursor());
+		assertFalse(page.isHasMore());
+	}
+
+	@Test
+	void pollsBeyondTheLimitDoNotWait() {
+		InvoiceEventFeed feed = new InvoiceEventFeed(repository, 0, 30_000, 60_000);
+		when(repository.findAfter(anyLong(), anyInt())).thenReturn(List.of());
+
+		long start = System.nanoTime();
+		InvoiceEventPage page = feed.poll(0, 100, 10_000);
+
+		assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1_000);
+		assertTrue(page.getEvents().isEmpty());
+	}
+
+	@Test
+	void longPollAnswersAvailableEventsImmediately() {
+		InvoiceEventFeed feed = new InvoiceEventFeed(repository, 10, 30_000, 60_000);
+		when(repository.findAfter(5L, 3)).thenReturn(events(6, 3));
+
+		DeferredResult<InvoiceEventPage> result = feed.longPoll(5, 2, 10_000, Function.identity());
+
+		assertTrue(result.hasResult());
+		assertEquals(7, ((InvoiceEventPage) result.getResult()).getNextCursor());
+	}
+
+	@Test
+	void longPollIsCompletedWhenEventsArePublished() throws Exception {
+		InvoiceEventFeed feed = started(new InvoiceEventFeed(repository, 10, 30_000, 60_000));
+		try {
+			when(repository.findAfter(9L, 101)).thenReturn(List.of(), events(10, 1));
+
+			DeferredResult<InvoiceEventPage> result = feed.longPoll(9, 100, 20_000, Function.identity());
+			assertFalse(result.hasResult());
+			feed.published(10);
+
+			InvoiceEventPage page = awaitResult(result);
+			assertEquals(1, page.getEvents().size());
+			assertEquals(10, page.getNextCursor());
+		} finally {
+			feed.stop();
+		}
+	}
+
+	@Test
+	void longPollRechecksForEventsPublishedElsewhere() throws Exception {
+		InvoiceEventFeed feed = started(new InvoiceEventFeed(repository, 10, 30_000, 20));
+		try {
+			when(repository.findAfter(0L, 101)).thenReturn(List.of(), events(1, 1));
+			when(repository.findLastSeq()).thenReturn(0L, 1L);
+
+			DeferredResult<InvoiceEventPage> result = feed.longPoll(0, 100, 20_000, Function.identity());
+
+			assertEquals(1, awaitResult(result).getNextCursor());
+		} finally {
+			feed.stop();
+		}
+	}
+
+	@Test
+	void completedLongPollGivesItsSlotBack() throws Exception {
+		InvoiceEventFeed feed = started(new InvoiceEventFeed(repository, 1, 30_000, 60_000));
+		try {
+			when(repository.findAfter(anyLong(), anyInt())).thenReturn(List.of());
+			when(repository.findAfter(1L, 101)).thenReturn(List.of(), events(2, 1));
+
+			DeferredResult<InvoiceEventPage> first = feed.longPoll(1, 100, 20_000, Function.identity());
+			DeferredResult<InvoiceEventPage> beyondLimit = feed.longPoll(5, 100, 20_000, Function.identity());
+			assertFalse(first.hasResult());
+			assertTrue(beyondLimit.hasResult());
+
+			feed.published(2);
+			awaitResult(first);
+
+			assertFalse(feed.longPoll(5, 100, 20_000, Function.identity()).hasResult());
+		} finally {
+			feed.stop();
+		}
+	}
+
+	private static InvoiceEventFeed started(InvoiceEventFeed feed) {
+		feed.start();
+		return feed;
+	}
+
+	private static InvoiceEventPage awaitResult(DeferredResult<InvoiceEventPage> result) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (!result.hasResult() && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+		assertTrue(result.hasResult());
+		return (InvoiceEventPage) result.getResult();
+	}
+
+	private static List<InvoiceEvent> events(long firstSeq, int count) {
+		List<InvoiceEvent> events = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			long seq = firstSeq + i;
+			events.add(new InvoiceEvent(seq + 100, seq, 1L, InvoiceEvent.Type.UPDATED, 2, "{}", null,
+				LocalDateTime.now(), LocalDateTime.now()));
+		}
+		return events;
+	}
+}
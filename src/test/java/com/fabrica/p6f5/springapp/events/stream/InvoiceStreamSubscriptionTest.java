@@ -0,0 +1,193 @@
+package com.fabrica.p6f5.springapp.events.stream;
+
+import com.fabrica.p6f5.springapp.events.dto.InvoiceEvent;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InvoiceStreamSubscriptionTest {
+
+	private static final InvoiceStreamFilter ALL = new InvoiceStreamFilter(null, null, null);
+
+	private final RecordingChannel channel = new RecordingChannel();
+	private final AtomicInteger closes = new AtomicInteger();
+
+	@Test
+	void liveEventsAreFilteredAndSentInOrder() throws Exception {
+		InvoiceStreamFilter filter = new InvoiceStreamFilter("ACME", null, Set.of(InvoiceEvent.Type.ISSUED, InvoiceEvent.Type.PAID));
+		InvoiceStreamSubscription subscription = subscription(filter, null, (seq, limit) -> List.of(), 10, 60_000, 100);
+		Thread writer = Thread.ofVirtual().start(subscription);
+
+		subscription.offer(event(1, InvoiceEvent.Type.ISSUED, "ACME", 7L));
+		subscription.offer(event(2, InvoiceEvent.Type.ISSUED, "Globex", 7L));
+		subscription.offer(event(3, InvoiceEvent.Type.UPDATED, "ACME", 7L));
+		subscription.offer(event(4, InvoiceEvent.Type.PAID, "ACME", 8L));
+		awaitSent(2);
+		subscription.close();
+		writer.join(5_000);
+
+		assertEquals(List.of(1L, 4L), channel.sentSeqs());
+		assertTrue(channel.completed);
+		assertEquals(1, closes.get());
+	}
+
+	@Test
+	void filterMatchesCreator() {
+		InvoiceStreamFilter mine = new InvoiceStreamFilter(null, 7L, Set.of());
+
+		assertTrue(mine.matches(event(1, InvoiceEvent.Type.CREATED, "ACME", 7L)));
+		assertFalse(mine.matches(event(2, InvoiceEvent.Type.CREATED, "ACME", 8L)));
+		assertFalse(mine.matches(event(3, InvoiceEvent.Type.CREATED, "ACME", null)));
+	}
+
+	@Test
+	void resumeReplaysMissedEventsBeforeLiveOnesAndSendsTheOverlapOnce() throws Exception {
+		List<Long> replayedAfter = new ArrayList<>();
+		InvoiceStreamSubscription subscription = subscription(ALL, 5L, (seq, limit) -> {
+			replayedAfter.add(seq);
+			return seq == 5 ? List.of(event(6, InvoiceEvent.Type.UPDATED, "ACME", 1L), event(7, InvoiceEvent.Type.ISSUED, "ACME", 1L))
+				: List.of();
+		}, 10, 60_000, 100);
+		subscription.offer(event(7, InvoiceEvent.Type.ISSUED, "ACME", 1L));
+		subscription.offer(event(8, InvoiceEvent.Type.PAID, "ACME", 1L));
+
+		Thread writer = Thread.ofVirtual().start(subscription);
+		awaitSent(3);
+		subscription.close();
+		writer.join(5_000);
+
+		assertEquals(List.of(5L), replayedAfter);
+		assertEquals(List.of(6L, 7L, 8L), channel.sentSeqs());
+	}
+
+	@Test
+	void replayStopsWithResyncPastTheLimit() throws Exception {
+		int pageSize = InvoiceStreamSubscription.REPLAY_PAGE_SIZE;
+		InvoiceStreamSubscription subscription = subscription(ALL, 0L, (seq, limit) -> {
+			List<InvoiceStreamEvent> page = new ArrayList<>();
+			for (int i = 1; i <= limit; i++) {
+				page.add(event(seq + i, InvoiceEvent.Type.UPDATED, "ACME", 1L));
+			}
+			return page;
+		}, 10, 60_000, pageSize * 2);
+		subscription.offer(event(5_000, InvoiceEvent.Type.PAID, "ACME", 1L));
+
+		Thread writer = Thread.ofVirtual().start(subscription);
+		awaitSent(pageSize * 2 + 1);
+		subscription.close();
+		writer.join(5_000);
+
+		assertEquals(1, channel.resyncs.get());
+		assertEquals(pageSize * 2 + 1, channel.sent.size());
+		assertEquals(Long.valueOf(5_000), channel.sentSeqs().get(pageSize * 2));
+	}
+
+	@Test
+	void idleStreamSendsHeartbeats() throws Exception {
+		InvoiceStreamSubscription subscription = subscription(ALL, null, (seq, limit) -> List.of(), 10, 10, 100);
+		Thread writer = Thread.ofVirtual().start(subscription);
+
+		long deadline = System.currentTimeMillis() + 5_000;
+		while (channel.heartbeats.get() < 2 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(5);
+		}
+		subscription.close();
+		writer.join(5_000);
+
+		assertTrue(channel.heartbeats.get() >= 2);
+	}
+
+	@Test
+	void clientThatFallsAFullQueueBehindIsDisconnected() throws Exception {
+		InvoiceStreamSubscription subscription = subscription(ALL, null, (seq, limit) -> List.of(), 2, 60_000, 100);
+		subscription.offer(event(1, InvoiceEvent.Type.UPDATED, "ACME", 1L));
+		subscription.offer(event(2, InvoiceEvent.Type.UPDATED, "ACME", 1L));
+		assertFalse(subscription.isClosed());
+		subscription.offer(event(3, InvoiceEvent.Type.UPDATED, "ACME", 1L));
+		assertTrue(subscription.isClosed());
+
+		Thread writer = Thread.ofVirtual().start(subscription);
+		writer.join(5_000);
+
+		assertTrue(channel.sent.isEmpty());
+		assertTrue(channel.completed);
+		assertEquals(1, closes.get());
+	}
+
+	@Test
+	void failedWriteEndsTheSubscription() throws Exception {
+		channel.failSends = true;
+		InvoiceStreamSubscription subscription = subscription(ALL, null, (seq, limit) -> List.of(), 10, 60_000, 100);
+		Thread writer = Thread.ofVirtual().start(subscription);
+
+		subscription.offer(event(1, InvoiceEvent.Type.UPDATED, "ACME", 1L));
+		writer.join(5_000);
+
+		assertTrue(subscription.isClosed());
+		assertEquals(1, closes.get());
+	}
+
+	private InvoiceStreamSubscription subscription(InvoiceStreamFilter filter, Long lastEventId,
+			InvoiceStreamSubscription.ReplaySource replay, int capacity, long heartbeatMillis, int maxReplay) {
+		return new InvoiceStreamSubscription(filter, lastEventId, channel, replay, capacity, heartbeatMillis, maxReplay,
+			subscription -> closes.incrementAndGet());
+	}
+
+	private void awaitSent(int count) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5_000;
+		while (channel.sent.size() < count && System.currentTimeMillis() < deadline) {
+			Thread.sleep(5);
+		}
+	}
+
+	private static InvoiceStreamEvent event(long seq, InvoiceEvent.Type type, String clientName, Long createdBy) {
+		InvoiceEvent event = new InvoiceEvent(seq + 100, seq, 1L, type, 1, "{}", null, LocalDateTime.now(), LocalDateTime.now());
+		return new InvoiceStreamEvent(event, clientName, createdBy);
+	}
+
+	private static class RecordingChannel implements InvoiceStreamChannel {
+
+		private final List<InvoiceEvent> sent = new CopyOnWriteArrayList<>();
+		private final AtomicInteger heartbeats = new AtomicInteger();
+		private final AtomicInteger resyncs = new AtomicInteger();
+		private volatile boolean completed;
+		private volatile boolean failSends;
+
+		@Override
+		public void send(InvoiceEvent event) throws IOException {
+			if (failSends) {
+				throw new IOException("Broken pipe");
+			}
+			sent.add(event);
+		}
+
+		@Override
+		public void heartbeat() {
+			heartbeats.incrementAndGet();
+		}
+
+		@Override
+		public void resync() {
+			resyncs.incrementAndGet();
+		}
+
+		@Override
+		public void complete() {
+			completed = true;
+		}
+
+		private List<Long> sentSeqs() {
+			return sent.stream().map(InvoiceEvent::getSeq).toList();
+		}
+	}
+}
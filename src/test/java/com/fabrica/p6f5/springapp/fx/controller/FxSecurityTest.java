@@ -0,0 +1,82 @@
+package com.fabrica.p6f5.springapp.fx.controller;
+
+import com.fabrica.p6f5.springapp.config.SecurityConfig;
+import com.fabrica.p6f5.springapp.exception.GlobalExceptionHandler;
+import com.fabrica.p6f5.springapp.fx.model.FxRate;
+import com.fabrica.p6f5.springapp.fx.service.FxService;
+import com.fabrica.p6f5.springapp.security.JwtAuthenticationEntryPoint;
+import com.fabrica.p6f5.springapp.service.JwtService;
+import com.fabrica.p6f5.springapp.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = FxController.class)
+@Import({SecurityConfig.class, JwtAuthenticationEntryPoint.class, GlobalExceptionHandler.class})
+class FxSecurityTest {
+
+	private static final String RATE =
+		"{\"baseCurrency\": \"USD\", \"quoteCurrency\": \"MXN\", \"rate\": 17.05, \"effectiveDate\": \"2024-01-01\"}";
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@MockBean
+	private FxService fxService;
+
+	@MockBean
+	private JwtService jwtService;
+
+	@MockBean
+	private UserService userService;
+
+	@Test
+	void anonymousCallerIsRejected() throws Exception {
+		mockMvc.perform(post("/api/v1/fx/rates").contentType(MediaType.APPLICATION_JSON).content(RATE))
+			.andExpect(status().isUnauthorized());
+		mockMvc.perform(post("/api/v1/fx/rates/reload")).andExpect(status().isUnauthorized());
+
+		verifyNoInteractions(fxService);
+	}
+
+	@Test
+	@WithMockUser(roles = "USER")
+	void nonAdminCallerCanReadButNotChangeRates() throws Exception {
+		when(fxService.getRates()).thenReturn(List.of());
+
+		mockMvc.perform(get("/api/v1/fx/rates")).andExpect(status().isOk());
+		mockMvc.perform(post("/api/v1/fx/rates").contentType(MediaType.APPLICATION_JSON).content(RATE))
+			.andExpect(status().isForbidden());
+		mockMvc.perform(post("/api/v1/fx/rates/reload")).andExpect(status().isForbidden());
+
+		verify(fxService).getRates();
+		verifyNoMoreInteractions(fxService);
+	}
+
+	@Test
+	@WithMockUser(roles = "ADMIN")
+	void adminChangesRates() throws Exception {
+		when(fxService.saveRate(any())).thenReturn(new FxRate());
+		when(fxService.reload()).thenReturn(1);
+
+		mockMvc.perform(post("/api/v1/fx/rates").contentType(MediaType.APPLICATION_JSON).content(RATE))
+			.andExpect(status().isCreated());
+		mockMvc.perform(post("/api/v1/fx/rates/reload")).andExpect(status().isOk());
+	}
+}
@@ -0,0 +1,96 @@
+package com.fabrica.p6f5.springapp.fx.rates;
+
+import com.fabrica.p6f5.springapp.fx.model.FxRate;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class FxRateSnapshotTest {
+
+	private static final LocalDate JAN = LocalDate.of(2024, 1, 1);
+	private static final LocalDate FEB = LocalDate.of(2024, 2, 1);
+
+	@Test
+	void rateIsTheLatestOneEffectiveOnTheDate() {
+		FxRateSnapshot snapshot = FxRateSnapshot.compile(List.of(
+			rate("USD", "MXN", "18", FEB),
+			rate("USD", "MXN", "17", JAN)), "USD");
+
+		assertNull(snapshot.rate("USD", "MXN", JAN.minusDays(1)));
+		assertEquals(new BigDecimal("17"), snapshot.rate("USD", "MXN", JAN));
+		assertEquals(new BigDecimal("17"), snapshot.rate("USD", "MXN", FEB.minusDays(1)));
+		assertEquals(new BigDecimal("18"), snapshot.rate("USD", "MXN", FEB));
+		assertEquals(new BigDecimal("18"), snapshot.rate("USD", "MXN", FEB.plusYears(1)));
+		assertEquals(2, snapshot.getRateCount());
+		assertEquals(1, snapshot.getPairCount());
+	}
+
+	@Test
+	void laterEntryForTheSamePairAndDateWins() {
+		FxRateSnapshot snapshot = FxRateSnapshot.compile(List.of(
+			rate("USD", "MXN", "17", JAN),
+			rate("USD", "MXN", "17.5", JAN)), "USD");
+
+		assertEquals(new BigDecimal("17.5"), snapshot.rate("USD", "MXN", JAN));
+		assertEquals(1, snapshot.getRateCount());
+	}
+
+	@Test
+	void missingPairIsServedByTheInverseRate() {
+		FxRateSnapshot snapshot = FxRateSnapshot.compile(List.of(
+			rate("USD", "MXN", "16", JAN),
+			rate("EUR", "USD", "1.10", JAN),
+			rate("USD", "EUR", "0.95", JAN)), "USD");
+
+		assertEquals(new BigDecimal("0.0625"), snapshot.rate("MXN", "USD", JAN));
+		assertEquals(new BigDecimal("0.95"), snapshot.rate("USD", "EUR", JAN));
+		assertEquals(new BigDecimal("1.10"), snapshot.rate("EUR", "USD", JAN));
+		assertNull(snapshot.rate("MXN", "USD", JAN.minusDays(1)));
+	}
+
+	@Test
+	void pairWithoutDirectOrInverseRateIsCrossedThroughThePivot() {
+		List<FxRate> rates = List.of(
+			rate("USD", "MXN", "17", JAN),
+			rate("EUR", "USD", "1.10", JAN),
+			rate("USD", "JPY", "150", FEB));
+		FxRateSnapshot snapshot = FxRateSnapshot.compile(rates, "USD");
+
+		assertEquals(new BigDecimal("18.70"), snapshot.rate("EUR", "MXN", JAN));
+		BigDecimal mxnToEur = BigDecimal.ONE.divide(new BigDecimal("17"), MathContext.DECIMAL128)
+			.multiply(BigDecimal.ONE.divide(new BigDecimal("1.10"), MathContext.DECIMAL128), MathContext.DECIMAL128);
+		assertEquals(mxnToEur, snapshot.rate("MXN", "EUR", JAN));
+		assertEquals(new BigDecimal("100.00"), snapshot.convert(new BigDecimal("1870.00"), "MXN", "EUR", JAN));
+		assertNull(snapshot.rate("MXN", "JPY", JAN));
+		assertEquals(new BigDecimal("8824"), snapshot.convert(new BigDecimal("1000"), "MXN", "JPY", FEB));
+		assertNull(FxRateSnapshot.compile(rates, null).rate("EUR", "MXN", JAN));
+	}
+
+	@Test
+	void sameCurrencyConvertsAtOneAndAmountsRoundToTheTargetScale() {
+		FxRateSnapshot snapshot = FxRateSnapshot.compile(List.of(
+			rate("USD", "JPY", "150.123", JAN),
+			rate("USD", "KWD", "0.30715", JAN)), "USD");
+
+		assertEquals(BigDecimal.ONE, snapshot.rate("CHF", "CHF", JAN));
+		assertEquals(new BigDecimal("1501"), snapshot.convert(new BigDecimal("10.00"), "USD", "JPY", JAN));
+		assertEquals(new BigDecimal("3.072"), snapshot.convert(new BigDecimal("10.00"), "USD", "KWD", JAN));
+		assertNull(snapshot.convert(new BigDecimal("10.00"), "USD", "EUR", JAN));
+		assertNull(FxRateSnapshot.EMPTY.rate("USD", "MXN", JAN));
+	}
+
+	private static FxRate rate(String base, String quote, String value, LocalDate effectiveDate) {
+		FxRate rate = new FxRate();
+		rate.setBaseCurrency(base);
+		rate.setQuoteCurrency(quote);
+		rate.setRate(new BigDecimal(value));
+		rate.setEffectiveDate(effectiveDate);
+		return rate;
+	}
+}
@@ -0,0 +1,91 @@
+package com.fabrica.p6f5.springapp.graphql;
+
+import com.fabrica.p6f5.springapp.config.SecurityConfig;
+import com.fabrica.p6f5.springapp.graphql.config.GraphQlExceptionResolver;
+import com.fabrica.p6f5.springapp.graphql.config.GraphQlScalarConfig;
+import com.fabrica.p6f5.springapp.graphql.controller.InvoiceGraphController;
+import com.fabrica.p6f5.springapp.graphql.controller.ShipmentGraphController;
+import com.fabrica.p6f5.springapp.graphql.repository.GraphQueryRepository;
+import com.fabrica.p6f5.springapp.security.JwtAuthenticationEntryPoint;
+import com.fabrica.p6f5.springapp.service.JwtService;
+import com.fabrica.p6f5.springapp.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.graphql.GraphQlAutoConfiguration;
+import org.springframework.boot.autoconfigure.graphql.servlet.GraphQlWebMvcAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = {InvoiceGraphController.class, ShipmentGraphController.class})
+@ImportAutoConfiguration({GraphQlAutoConfiguration.class, GraphQlWebMvcAutoConfiguration.class})
+@Import({SecurityConfig.class, JwtAuthenticationEntryPoint.class, GraphQlScalarConfig.class,
+	GraphQlExceptionResolver.class})
+class GraphQlSecurityTest {
+
+	private static final String AUDIT_QUERY = """
+		{"query": "{ auditLogs(entityType: \\"Invoice\\", entityId: 1) { action oldData newData } }"}
+		""";
+
+	private static final String INVOICE_QUERY = """
+		{"query": "{ invoice(id: 1) { invoiceNumber } }"}
+		""";
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@MockBean
+	private GraphQueryRepository graphQueryRepository;
+
+	@MockBean
+	private JwtService jwtService;
+
+	@MockBean
+	private UserService userService;
+
+	@Test
+	void anonymousQueryIsRejected() throws Exception {
+		mockMvc.perform(post("/graphql").contentType(MediaType.APPLICATION_JSON).content(AUDIT_QUERY))
+			.andExpect(status().isUnauthorized());
+
+		verifyNoInteractions(graphQueryRepository);
+	}
+
+	@Test
+	@WithMockUser
+	void authenticatedQueryIsServed() throws Exception {
+		when(graphQueryRepository.findInvoicesByIds(anyCollection())).thenReturn(List.of());
+
+		MvcResult result = mockMvc.perform(post("/graphql").contentType(MediaType.APPLICATION_JSON)
+				.content(INVOICE_QUERY))
+			.andExpect(request().asyncStarted())
+			.andReturn();
+
+		mockMvc.perform(asyncDispatch(result))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.errors").doesNotExist());
+	}
+
+	@Test
+	void graphiqlPageStaysPublic() throws Exception {
+		mockMvc.perform(get("/graphiql"))
+			.andExpect(status().is3xxRedirection());
+	}
+}
@@ -0,0 +1,187 @@
+package com.fabrica.p6f5.springapp.graphql;
+
+import com.fabrica.p6f5.springapp.graphql.config.GraphQlExceptionResolver;
+import com.fabrica.p6f5.springapp.graphql.config.GraphQlScalarConfig;
+import com.fabrica.p6f5.springapp.graphql.controller.InvoiceGraphController;
+import com.fabrica.p6f5.springapp.graphql.controller.ShipmentGraphController;
+import com.fabrica.p6f5.springapp.graphql.dto.AuditLogNode;
+import com.fabrica.p6f5.springapp.graphql.dto.InvoiceHistoryNode;
+import com.fabrica.p6f5.springapp.graphql.dto.InvoiceItemNode;
+import com.fabrica.p6f5.springapp.graphql.dto.InvoiceNode;
+import com.fabrica.p6f5.springapp.graphql.dto.ShipmentNode;
+import com.fabrica.p6f5.springapp.graphql.repository.GraphQueryRepository;
+import com.fabrica.p6f5.springapp.service.AuthService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.graphql.GraphQlTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.graphql.test.tester.GraphQlTester;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@GraphQlTest({InvoiceGraphController.class, ShipmentGraphController.class})
+@Import({GraphQlScalarConfig.class, GraphQlExceptionResolver.class, SimpleMeterRegistry.class})
+class InvoiceGraphQueryCountTest {
+
+	private static final String INVOICES_QUERY = """
+		query($first: Int) {
+		  invoices(first: $first) {
+		    edges { cursor node {
+		      id invoiceNumber totalAmount invoiceDate
+		      items { id totalPrice shipment { id trackingNumber } }
+		      shipments { id invoice { id } }
+		      history { version }
+		      auditLogs { action }
+		    } }
+		    pageInfo { hasNextPage endCursor }
+		  }
+		}
+		""";
+
+	@Autowired
+	private GraphQlTester graphQlTester;
+
+	@MockBean
+	private GraphQueryRepository graphQueryRepository;
+
+	@MockBean
+	private AuthService authService;
+
+	@ParameterizedTest
+	@ValueSource(ints = {1, 10, 100})
+	void nestedPageCostsOneStatementPerRelation(int invoiceCount) {
+		stubInvoices(invoiceCount);
+
+		graphQlTester.document(INVOICES_QUERY)
+			.variable("first", invoiceCount)
+			.execute()
+			.path("invoices.edges").entityList(Object.class).hasSize(invoiceCount)
+			.path("invoices.edges[0].node.items[0].shipment.trackingNumber").entity(String.class).isEqualTo("TRK-1")
+			.path("invoices.edges[0].node.totalAmount").entity(String.class).isEqualTo("116.00")
+			.path("invoices.pageInfo.hasNextPage").entity(Boolean.class).isEqualTo(false);
+
+		verify(graphQueryRepository).findInvoicePage(eq(0L), eq(invoiceCount + 1), isNull());
+		verify(graphQueryRepository, times(1)).findItemsByInvoiceIds(anyCollection());
+		verify(graphQueryRepository, times(1)).findShipmentsByIds(anyCollection());
+		verify(graphQueryRepository, times(1)).findShipmentsByInvoiceIds(anyCollection());
+		verify(graphQueryRepository, times(1)).findInvoicesByShipmentIds(anyCollection());
+		verify(graphQueryRepository, times(1)).findHistoryByInvoiceIds(anyCollection(), any());
+		verify(graphQueryRepository, times(1)).findAuditLogsByEntityIds(eq("Invoice"), anyCollection(), any());
+		verifyNoMoreInteractions(graphQueryRepository);
+	}
+
+	@Test
+	void auditLogsExposeFieldChanges() {
+		String changes = "[{\"field\":\"status\",\"from\":\"DRAFT\",\"to\":\"ISSUED\"}]";
+		when(graphQueryRepository.findAuditLogsByEntityIds(eq("Invoice"), anyCollection(), any())).thenReturn(List.of(
+			new AuditLogNode(7L, "Invoice", 1L, "UPDATE", 1L, "Invoice updated", null, null, changes,
+				LocalDateTime.now())));
+
+		graphQlTester.document("{ auditLogs(entityType: \"Invoice\", entityId: 1) { action oldData newData changes } }")
+			.execute()
+			.path("auditLogs[0].action").entity(String.class).isEqualTo("UPDATE")
+			.path("auditLogs[0].oldData").valueIsNull()
+			.path("auditLogs[0].newData").valueIsNull()
+			.path("auditLogs[0].changes").entity(String.class).isEqualTo(changes);
+	}
+
+	@Test
+	void invalidCursorIsRejected() {
+		graphQlTester.document("{ invoices(after: \"abc\") { pageInfo { hasNextPage } } }")
+			.execute()
+			.errors()
+			.expect(error -> error.getMessage().equals("Invalid cursor: abc"))
+			.verify();
+	}
+
+	@Test
+	void pageSizeIsCapped() {
+		graphQlTester.document("{ shipments(first: 500) { pageInfo { hasNextPage } } }")
+			.execute()
+			.errors()
+			.expect(error -> error.getMessage().equals("first must be between 1 and 100"))
+			.verify();
+	}
+
+	private void stubInvoices(int count) {
+		List<InvoiceNode> invoices = new ArrayList<>();
+		for (long id = 1; id <= count; id++) {
+			invoices.add(new InvoiceNode(id, "INV-" + id, null, "Acme", LocalDate.of(2024, 1, 15),
+				LocalDate.of(2024, 2, 15), new BigDecimal("100.00"), new BigDecimal("16.00"), new BigDecimal("116.00"),
+				BigDecimal.ZERO, "USD", "MX", "DRAFT", 1, LocalDateTime.now(), LocalDateTime.now()));
+		}
+		when(graphQueryRepository.findInvoicePage(anyLong(), anyInt(), any())).thenReturn(invoices);
+		when(graphQueryRepository.findItemsByInvoiceIds(anyCollection())).thenAnswer(invocation -> {
+			List<InvoiceItemNode> items = new ArrayList<>();
+			for (Long invoiceId : invocation.<Collection<Long>>getArgument(0)) {
+				items.add(new InvoiceItemNode(invoiceId, invoiceId, invoiceId, "Shipping", 1,
+					new BigDecimal("100.00"), new BigDecimal("100.00"), new BigDecimal("16.00")));
+			}
+			return items;
+		});
+		when(graphQueryRepository.findShipmentsByIds(anyCollection())).thenAnswer(invocation -> {
+			List<ShipmentNode> shipments = new ArrayList<>();
+			for (Long shipmentId : invocation.<Collection<Long>>getArgument(0)) {
+				shipments.add(shipment(shipmentId));
+			}
+			return shipments;
+		});
+		when(graphQueryRepository.findShipmentsByInvoiceIds(anyCollection())).thenAnswer(invocation -> {
+			Map<Long, List<ShipmentNode>> shipments = new HashMap<>();
+			for (Long invoiceId : invocation.<Collection<Long>>getArgument(0)) {
+				shipments.put(invoiceId, List.of(shipment(invoiceId)));
+			}
+			return shipments;
+		});
+		when(graphQueryRepository.findInvoicesByShipmentIds(anyCollection())).thenAnswer(invocation -> {
+			Map<Long, InvoiceNode> linked = new HashMap<>();
+			for (Long shipmentId : invocation.<Collection<Long>>getArgument(0)) {
+				linked.put(shipmentId, invoices.get((int) (shipmentId - 1)));
+			}
+			return linked;
+		});
+		when(graphQueryRepository.findHistoryByInvoiceIds(anyCollection(), any())).thenAnswer(invocation -> {
+			List<InvoiceHistoryNode> history = new ArrayList<>();
+			for (Long invoiceId : invocation.<Collection<Long>>getArgument(0)) {
+				history.add(new InvoiceHistoryNode(invoiceId, invoiceId, 1, "INV-" + invoiceId, null, "{}", 1L,
+					LocalDateTime.now(), false));
+			}
+			return history;
+		});
+		when(graphQueryRepository.findAuditLogsByEntityIds(any(), anyCollection(), any())).thenAnswer(invocation -> {
+			List<AuditLogNode> logs = new ArrayList<>();
+			for (Long invoiceId : invocation.<Collection<Long>>getArgument(1)) {
+				logs.add(new AuditLogNode(invoiceId, "Invoice", invoiceId, "CREATE", 1L, null, null, null, null,
+					LocalDateTime.now()));
+			}
+			return logs;
+		});
+	}
+
+	private static ShipmentNode shipment(Long id) {
+		return new ShipmentNode(id, "TRK-" + id, "Acme", "Origin", "Destination", BigDecimal.ONE, BigDecimal.ONE,
+			"DELIVERED", LocalDateTime.now(), LocalDateTime.now());
+	}
+}
@@ -0,0 +1,80 @@
+package com.fabrica.p6f5.springapp.graphql;
+
+import com.fabrica.p6f5.springapp.graphql.config.GraphQlExceptionResolver;
+import com.fabrica.p6f5.springapp.graphql.config.GraphQlScalarConfig;
+import com.fabrica.p6f5.springapp.graphql.controller.InvoiceGraphController;
+import com.fabrica.p6f5.springapp.graphql.controller.ShipmentGraphController;
+import com.fabrica.p6f5.springapp.graphql.repository.GraphQueryRepository;
+import com.fabrica.p6f5.springapp.service.AuthService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.graphql.GraphQlTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.graphql.test.tester.GraphQlTester;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@GraphQlTest(controllers = {InvoiceGraphController.class, ShipmentGraphController.class}, properties = {
+	"billing.graphql.max-depth=5",
+	"billing.graphql.max-cost=100",
+	"billing.graphql.budget.capacity=150",
+	"billing.graphql.budget.refill-per-second=1"
+})
+@Import({GraphQlScalarConfig.class, GraphQlExceptionResolver.class, SimpleMeterRegistry.class})
+class QueryCostInstrumentationTest {
+
+	private static final String PAGE_QUERY = "{ invoices(first: %d) { edges { node { id items { id } } } } }";
+
+	@Autowired
+	private GraphQlTester graphQlTester;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@MockBean
+	private GraphQueryRepository graphQueryRepository;
+
+	@MockBean
+	private AuthService authService;
+
+	@Test
+	void deepQueryIsRejectedBeforeExecution() {
+		graphQlTester.document("{ invoices { edges { node { items { shipment { id } } } } } }")
+			.execute()
+			.errors()
+			.expect(error -> error.getMessage().equals("Query depth 6 exceeds the limit of 5"))
+			.verify();
+
+		verifyNoInteractions(graphQueryRepository);
+		assertEquals(1.0, meterRegistry.get("graphql.operation.rejected").tag("reason", "depth").counter().count());
+	}
+
+	@Test
+	void pageSizeMultipliesNestedCost() {
+		graphQlTester.document(PAGE_QUERY.formatted(100))
+			.execute()
+			.errors()
+			.expect(error -> error.getMessage().equals("Query cost 101 exceeds the limit of 100"))
+			.verify();
+
+		verifyNoInteractions(graphQueryRepository);
+	}
+
+	@Test
+	void budgetThrottlesRepeatedQueries() {
+		graphQlTester.document(PAGE_QUERY.formatted(50)).execute().errors().verify();
+		graphQlTester.document(PAGE_QUERY.formatted(50)).execute().errors().verify();
+		graphQlTester.document(PAGE_QUERY.formatted(50))
+			.execute()
+			.errors()
+			.expect(error -> error.getMessage().startsWith("Query cost 51 exceeds the remaining budget of"))
+			.verify();
+
+		assertEquals(2, meterRegistry.get("graphql.operation").tag("outcome", "success").timer().count());
+		assertEquals(1.0, meterRegistry.get("graphql.operation.rejected").tag("reason", "budget").counter().count());
+	}
+}
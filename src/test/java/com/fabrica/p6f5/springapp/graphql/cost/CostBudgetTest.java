@@ -0,0 +1,75 @@
+package com.fabrica.p6f5.springapp.graphql.cost;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CostBudgetTest {
+
+	private static final long SECOND = 1_000_000_000L;
+
+	@Test
+	void chargesUntilTheBucketIsEmpty() {
+		CostBudget budget = new CostBudget(100, 10);
+		assertEquals(60, budget.tryConsume("alice", 40, 0));
+		assertEquals(10, budget.tryConsume("alice", 50, 0));
+		assertEquals(-1 - 10, budget.tryConsume("alice", 11, 0));
+		assertEquals(0, budget.tryConsume("alice", 10, 0));
+		assertEquals(100, budget.tryConsume("bob", 0, 0));
+	}
+
+	@Test
+	void refillsAtTheConfiguredRate() {
+		CostBudget budget = new CostBudget(100, 10);
+		budget.tryConsume("alice", 100, 0);
+		assertEquals(-1 - 5, budget.tryConsume("alice", 50, SECOND / 2));
+		assertEquals(0, budget.tryConsume("alice", 15, SECOND + SECOND / 2));
+		assertEquals(2, budget.secondsUntilAvailable(0, 15));
+		assertEquals(100, budget.tryConsume("alice", 0, 60 * SECOND));
+	}
+
+	@Test
+	void partialRefillsDoNotLoseFractions() {
+		CostBudget budget = new CostBudget(100, 3);
+		budget.tryConsume("alice", 100, 0);
+		for (long now = SECOND / 10; now <= SECOND; now += SECOND / 10) {
+			budget.tryConsume("alice", 0, now);
+		}
+		assertEquals(3, budget.tryConsume("alice", 0, SECOND));
+	}
+
+	@Test
+	void evictsOnlyFullBuckets() {
+		CostBudget budget = new CostBudget(100, 10);
+		budget.tryConsume("alice", 100, 0);
+		budget.tryConsume("bob", 5, 0);
+		budget.evictIdle(SECOND);
+		assertEquals(1, budget.size());
+		budget.evictIdle(10 * SECOND);
+		assertEquals(0, budget.size());
+	}
+
+	@Test
+	void evictionDoesNotLoseAConcurrentCharge() throws InterruptedException {
+		CostBudget budget = new CostBudget(100, 1);
+		AtomicBoolean running = new AtomicBoolean(true);
+		Thread evictor = new Thread(() -> {
+			while (running.get()) {
+				budget.evictIdle(0);
+			}
+		});
+		evictor.start();
+		try {
+			for (int i = 0; i < 20_000; i++) {
+				String caller = "caller-" + i;
+				assertEquals(0, budget.tryConsume(caller, 100, 0));
+				assertEquals(-1, budget.tryConsume(caller, 1, 0), caller);
+			}
+		} finally {
+			running.set(false);
+			evictor.join();
+		}
+	}
+}
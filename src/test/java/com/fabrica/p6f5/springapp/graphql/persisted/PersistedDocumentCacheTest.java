@@ -0,0 +1,105 @@
+package com.fabrica.p6f5.springapp.graphql.persisted;
+
+import graphql.ExecutionInput;
+import graphql.ExecutionResult;
+import graphql.GraphQL;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.idl.RuntimeWiring;
+import graphql.schema.idl.SchemaGenerator;
+import graphql.schema.idl.SchemaParser;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PersistedDocumentCacheTest {
+
+	private static final String QUERY = "{ greeting }";
+
+	private SimpleMeterRegistry meterRegistry;
+	private PersistedDocumentCache cache;
+	private GraphQLSchema schema;
+	private GraphQL graphQL;
+
+	@BeforeEach
+	void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+		cache = new PersistedDocumentCache(meterRegistry, 10);
+		schema = new SchemaGenerator().makeExecutableSchema(
+			new SchemaParser().parse("type Query { greeting: String }"),
+			RuntimeWiring.newRuntimeWiring()
+				.type("Query", type -> type.dataFetcher("greeting", env -> "hello"))
+				.build());
+		graphQL = GraphQL.newGraphQL(schema).preparsedDocumentProvider(cache).build();
+	}
+
+	@Test
+	void repeatedQueryIsParsedOnce() {
+		assertEquals("hello", greeting(execute(QUERY, null)));
+		assertEquals("hello", greeting(execute(QUERY, null)));
+
+		assertEquals(1.0, counter("miss"));
+		assertEquals(1.0, counter("hit"));
+		assertEquals(1, meterRegistry.get("graphql.documents.parse").timer().count());
+		assertEquals(1, cache.size());
+	}
+
+	@Test
+	void unknownHashAsksForTheQuery() {
+		String hash = PersistedDocumentCache.sha256(QUERY);
+
+		ExecutionResult notFound = execute("", hash);
+		assertEquals("PersistedQueryNotFound", notFound.getErrors().get(0).getMessage());
+
+		assertEquals("hello", greeting(execute(QUERY, hash)));
+		assertEquals("hello", greeting(execute("", hash)));
+		assertEquals(1.0, counter("not_found"));
+		assertEquals(1.0, counter("hit"));
+	}
+
+	@Test
+	void mismatchedHashIsRejected() {
+		ExecutionResult result = execute(QUERY, PersistedDocumentCache.sha256("{ other }"));
+
+		assertFalse(result.getErrors().isEmpty());
+		assertEquals(0, cache.size());
+	}
+
+	@Test
+	void invalidDocumentsAreNotCached() {
+		assertFalse(execute("{ missing }", null).getErrors().isEmpty());
+		assertFalse(cache.preload(schema, "{ missing }"));
+		assertEquals(0, cache.size());
+	}
+
+	@Test
+	void preloadedQueryIsServedByHash() {
+		assertTrue(cache.preload(schema, QUERY));
+
+		assertEquals("hello", greeting(execute("", PersistedDocumentCache.sha256(QUERY))));
+		assertEquals(0.0, counter("miss"));
+	}
+
+	private ExecutionResult execute(String query, String hash) {
+		ExecutionInput.Builder input = ExecutionInput.newExecutionInput(query);
+		if (hash != null) {
+			input.extensions(Map.<String, Object>of("persistedQuery", Map.of("version", 1, "sha256Hash", hash)));
+		}
+		return graphQL.execute(input.build());
+	}
+
+	private static String greeting(ExecutionResult result) {
+		assertTrue(result.getErrors().isEmpty(), () -> result.getErrors().toString());
+		Map<String, Object> data = result.getData();
+		return (String) data.get("greeting");
+	}
+
+	private double counter(String result) {
+		return meterRegistry.get("graphql.documents.cache").tag("result", result).counter().count();
+	}
+}
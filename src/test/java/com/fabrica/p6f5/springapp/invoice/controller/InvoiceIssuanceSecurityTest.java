@@ -0,0 +1,59 @@
+package com.fabrica.p6f5.springapp.invoice.controller;
+
+import com.fabrica.p6f5.springapp.config.SecurityConfig;
+import com.fabrica.p6f5.springapp.exception.GlobalExceptionHandler;
+import com.fabrica.p6f5.springapp.invoice.service.InvoiceIssuanceService;
+import com.fabrica.p6f5.springapp.invoice.service.InvoiceService;
+import com.fabrica.p6f5.springapp.pdf.service.PdfService;
+import com.fabrica.p6f5.springapp.security.JwtAuthenticationEntryPoint;
+import com.fabrica.p6f5.springapp.service.JwtService;
+import com.fabrica.p6f5.springapp.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = InvoiceController.class)
+@Import({SecurityConfig.class, JwtAuthenticationEntryPoint.class, GlobalExceptionHandler.class})
+class InvoiceIssuanceSecurityTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@MockBean
+	private InvoiceService invoiceService;
+
+	@MockBean
+	private InvoiceIssuanceService invoiceIssuanceService;
+
+	@MockBean
+	private PdfService pdfService;
+
+	@MockBean
+	private JwtService jwtService;
+
+	@MockBean
+	private UserService userService;
+
+	@Test
+	void anonymousCallerIsRejected() throws Exception {
+		mockMvc.perform(post("/api/v1/invoices/issue-ready")).andExpect(status().isUnauthorized());
+
+		verifyNoInteractions(invoiceIssuanceService);
+	}
+
+	@Test
+	@WithMockUser(roles = "USER")
+	void nonAdminCallerCannotIssueInBulk() throws Exception {
+		mockMvc.perform(post("/api/v1/invoices/issue-ready")).andExpect(status().isForbidden());
+
+		verifyNoInteractions(invoiceIssuanceService);
+	}
+}
@@ -0,0 +1,171 @@
+package com.fabrica.p6f5.springapp.invoice.repository;
+
+import com.fabrica.p6f5.springapp.invoice.model.Invoice;
+import com.fabrica.p6f5.springapp.util.InvoiceUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the bulk issuance claim and folio reservation against Postgres, migrated by Flyway.
+ * Transactions are committed, so concurrent claims see each other's row locks.
+ * Skipped when Docker is not available.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@Import(InvoiceBatchRepository.class)
+@TestPropertySource(properties = "spring.flyway.locations=classpath:db/migration,classpath:db/users")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class InvoiceIssuanceQueriesTest {
+
+	@Container
+	@ServiceConnection
+	static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+	@Autowired
+	private InvoiceRepository invoiceRepository;
+
+	@Autowired
+	private InvoiceBatchRepository invoiceBatchRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private TransactionTemplate transactionTemplate;
+	private long userId;
+
+	@BeforeEach
+	void setUp() {
+		transactionTemplate = new TransactionTemplate(transactionManager);
+		userId = jdbcTemplate.queryForObject(
+			"INSERT INTO users (username, email, password_hash) VALUES ('issuer', 'issuer@example.com', 'x') RETURNING user_id",
+			Long.class);
+	}
+
+	@AfterEach
+	void tearDown() {
+		jdbcTemplate.execute("TRUNCATE invoices, users CASCADE");
+	}
+
+	@Test
+	void concurrentClaimsSkipLockedDraftsAndOnlyTakeReadyOnes() throws Exception {
+		long a = insertInvoice("INV-A", "DRAFT", 1);
+		long b = insertInvoice("INV-B", "DRAFT", 2);
+		insertInvoice("INV-EMPTY", "DRAFT", 0);
+		insertInvoice("INV-ISSUED", "ISSUED", 1);
+		long c = insertInvoice("INV-C", "DRAFT", 1);
+		long d = insertInvoice("INV-D", "DRAFT", 3);
+
+		CountDownLatch claimed = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Future<List<Long>> first = executor.submit(() -> transactionTemplate.execute(status -> {
+				List<Long> ids = ids(invoiceRepository.findDraftsReadyForIssuance(PageRequest.of(0, 2)));
+				claimed.countDown();
+				try {
+					release.await(10, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return ids;
+			}));
+			assertTrue(claimed.await(10, TimeUnit.SECONDS));
+
+			List<Long> second = transactionTemplate.execute(status ->
+				ids(invoiceRepository.findDraftsReadyForIssuance(PageRequest.of(0, 10))));
+			release.countDown();
+
+			assertEquals(List.of(a, b), first.get(10, TimeUnit.SECONDS));
+			assertEquals(List.of(c, d), second);
+		} finally {
+			release.countDown();
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void folioNumbersAreNeverHandedOutTwice() {
+		List<Long> numbers = new ArrayList<>(invoiceBatchRepository.nextFiscalFolioNumbers(3));
+		numbers.add(invoiceBatchRepository.nextFiscalFolioNumber());
+		numbers.addAll(invoiceBatchRepository.nextFiscalFolioNumbers(2));
+
+		Set<Long> distinct = new HashSet<>(numbers);
+		assertEquals(6, distinct.size());
+		for (int i = 1; i < numbers.size(); i++) {
+			assertTrue(numbers.get(i) > numbers.get(i - 1));
+		}
+		assertTrue(InvoiceUtils.formatFiscalFolio(numbers.get(0)).matches("FISCAL-\\d{16}"));
+	}
+
+	@Test
+	void markIssuedOnlyMovesDrafts() {
+		long draft = insertInvoice("INV-A", "DRAFT", 1);
+		long issued = insertInvoice("INV-B", "ISSUED", 1);
+		String folio = InvoiceUtils.formatFiscalFolio(invoiceBatchRepository.nextFiscalFolioNumber());
+
+		int updated = invoiceBatchRepository.markIssued(new Long[] {draft, issued},
+			new String[] {folio, InvoiceUtils.formatFiscalFolio(0)}, LocalDateTime.now());
+
+		assertEquals(1, updated);
+		Map<String, Object> row = jdbcTemplate.queryForMap(
+			"SELECT invoice_status, fiscal_folio, version, ready_for_issue FROM invoices WHERE invoice_id = ?", draft);
+		assertEquals("ISSUED", row.get("invoice_status"));
+		assertEquals(folio, row.get("fiscal_folio"));
+		assertEquals(2, row.get("version"));
+		assertEquals(false, row.get("ready_for_issue"));
+		assertEquals(null, jdbcTemplate.queryForObject(
+			"SELECT fiscal_folio FROM invoices WHERE invoice_id = ?", String.class, issued));
+	}
+
+	private long insertInvoice(String invoiceNumber, String status, int items) {
+		long invoiceId = jdbcTemplate.queryForObject(
+			"INSERT INTO invoices (invoice_number, client_name, invoice_date, due_date, subtotal, total_amount, " +
+			"invoice_status, created_by) VALUES (?, 'Acme', '2024-03-01', '2024-03-31', 100, 100, ?, ?) " +
+			"RETURNING invoice_id",
+			Long.class, invoiceNumber, status, userId);
+		for (int i = 0; i < items; i++) {
+			jdbcTemplate.update("INSERT INTO invoice_items (invoice_id, description, unit_price, total_price) " +
+				"VALUES (?, 'Freight', 100, 100)", invoiceId);
+		}
+		return invoiceId;
+	}
+
+	private static List<Long> ids(List<Invoice> invoices) {
+		return invoices.stream().map(Invoice::getId).toList();
+	}
+}
@@ -0,0 +1,151 @@
+package com.fabrica.p6f5.springapp.invoice.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the statement-level item_count triggers and the generated ready_for_issue column
+ * against Postgres, migrated by Flyway. Skipped when Docker is not available.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@TestPropertySource(properties = "spring.flyway.locations=classpath:db/migration,classpath:db/users")
+class InvoiceReadinessTriggerTest {
+
+	@Container
+	@ServiceConnection
+	static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private long userId;
+
+	@BeforeEach
+	void setUp() {
+		userId = jdbcTemplate.queryForObject(
+			"INSERT INTO users (username, email, password_hash) VALUES ('ready', 'ready@example.com', 'x') RETURNING user_id",
+			Long.class);
+	}
+
+	@Test
+	void insertsAreCountedPerInvoiceInOneStatement() {
+		long a = insertInvoice("INV-A", "Acme", 100);
+		long b = insertInvoice("INV-B", "Acme", 100);
+		assertEquals(0, itemCount(a));
+		assertFalse(readyForIssue(a));
+
+		jdbcTemplate.update("INSERT INTO invoice_items (invoice_id, description, unit_price, total_price) " +
+			"VALUES (?, 'a1', 10, 10), (?, 'a2', 10, 10), (?, 'a3', 10, 10), (?, 'b1', 10, 10)", a, a, a, b);
+
+		assertEquals(3, itemCount(a));
+		assertEquals(1, itemCount(b));
+		assertTrue(readyForIssue(a));
+		assertTrue(readyForIssue(b));
+	}
+
+	@Test
+	void deletesAreCountedPerInvoiceInOneStatement() {
+		long a = insertInvoice("INV-A", "Acme", 100);
+		long b = insertInvoice("INV-B", "Acme", 100);
+		insertItems(a, 3);
+		insertItems(b, 2);
+
+		jdbcTemplate.update("DELETE FROM invoice_items WHERE description IN ('item-1', 'item-2')");
+
+		assertEquals(1, itemCount(a));
+		assertEquals(0, itemCount(b));
+		assertTrue(readyForIssue(a));
+		assertFalse(readyForIssue(b));
+	}
+
+	@Test
+	void movingItemsBetweenInvoicesUpdatesBothCounts() {
+		long a = insertInvoice("INV-A", "Acme", 100);
+		long b = insertInvoice("INV-B", "Acme", 100);
+		insertItems(a, 3);
+
+		jdbcTemplate.update("UPDATE invoice_items SET invoice_id = ? WHERE invoice_id = ? AND description <> 'item-1'", b, a);
+
+		assertEquals(1, itemCount(a));
+		assertEquals(2, itemCount(b));
+		assertTrue(readyForIssue(b));
+
+		jdbcTemplate.update("UPDATE invoice_items SET invoice_id = ? WHERE invoice_id = ?", b, a);
+
+		assertEquals(0, itemCount(a));
+		assertEquals(3, itemCount(b));
+		assertFalse(readyForIssue(a));
+	}
+
+	@Test
+	void updatesThatKeepTheInvoiceLeaveTheCountAlone() {
+		long a = insertInvoice("INV-A", "Acme", 100);
+		long b = insertInvoice("INV-B", "Acme", 100);
+		insertItems(a, 2);
+		insertItems(b, 1);
+
+		jdbcTemplate.update("UPDATE invoice_items SET total_price = total_price + 1");
+		// Swap the invoices of every item in one statement: a loses 2 and gains 1, b the reverse
+		jdbcTemplate.update("UPDATE invoice_items SET invoice_id = CASE WHEN invoice_id = ? THEN ? ELSE ? END " +
+			"WHERE invoice_id IN (?, ?)", a, b, a, a, b);
+
+		assertEquals(1, itemCount(a));
+		assertEquals(2, itemCount(b));
+	}
+
+	@Test
+	void onlyDraftsWithItemsAPositiveSubtotalAndAClientAreReady() {
+		long ready = insertInvoice("INV-READY", "Acme", 100);
+		long free = insertInvoice("INV-FREE", "Acme", 0);
+		long blank = insertInvoice("INV-BLANK", "  ", 100);
+		long issued = insertInvoice("INV-ISSUED", "Acme", 100);
+		for (long invoiceId : new long[] {ready, free, blank, issued}) {
+			insertItems(invoiceId, 1);
+		}
+		jdbcTemplate.update("UPDATE invoices SET invoice_status = 'ISSUED' WHERE invoice_id = ?", issued);
+
+		assertTrue(readyForIssue(ready));
+		assertFalse(readyForIssue(free));
+		assertFalse(readyForIssue(blank));
+		assertFalse(readyForIssue(issued));
+
+		jdbcTemplate.update("UPDATE invoices SET subtotal = 5 WHERE invoice_id = ?", free);
+		assertTrue(readyForIssue(free));
+	}
+
+	private long insertInvoice(String invoiceNumber, String clientName, int subtotal) {
+		return jdbcTemplate.queryForObject(
+			"INSERT INTO invoices (invoice_number, client_name, invoice_date, due_date, subtotal, total_amount, created_by) " +
+			"VALUES (?, ?, '2024-03-01', '2024-03-31', ?, ?, ?) RETURNING invoice_id",
+			Long.class, invoiceNumber, clientName, subtotal, subtotal, userId);
+	}
+
+	private void insertItems(long invoiceId, int count) {
+		jdbcTemplate.update("INSERT INTO invoice_items (invoice_id, description, unit_price, total_price) " +
+			"SELECT ?, 'item-' || n, 10, 10 FROM generate_series(1, ?) AS n", invoiceId, count);
+	}
+
+	private int itemCount(long invoiceId) {
+		return jdbcTemplate.queryForObject("SELECT item_count FROM invoices WHERE invoice_id = ?", Integer.class, invoiceId);
+	}
+
+	private boolean readyForIssue(long invoiceId) {
+		return jdbcTemplate.queryForObject("SELECT ready_for_issue FROM invoices WHERE invoice_id = ?", Boolean.class,
+			invoiceId);
+	}
+}
@@ -0,0 +1,180 @@
+package com.fabrica.p6f5.springapp.invoice.repository;
+
+import com.fabrica.p6f5.springapp.audit.repository.AuditBatchRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs the draft revert statements (version compare-and-set, item and shipment link
+ * rewrite, reverted-version flagging) against Postgres, migrated by Flyway.
+ * Skipped when Docker is not available.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@Import({InvoiceBatchRepository.class, AuditBatchRepository.class})
+@TestPropertySource(properties = "spring.flyway.locations=classpath:db/migration,classpath:db/users")
+class InvoiceRevertQueriesTest {
+
+	private static final LocalDateTime NOW = LocalDateTime.of(2024, 4, 2, 10, 0);
+
+	@Container
+	@ServiceConnection
+	static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+	@Autowired
+	private InvoiceBatchRepository invoiceBatchRepository;
+
+	@Autowired
+	private AuditBatchRepository auditBatchRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private long userId;
+
+	@BeforeEach
+	void setUp() {
+		userId = jdbcTemplate.queryForObject(
+			"INSERT INTO users (username, email, password_hash) VALUES ('revert', 'revert@example.com', 'x') RETURNING user_id",
+			Long.class);
+	}
+
+	@Test
+	void revertOnlyWritesTheDraftAtTheExpectedVersion() {
+		long draft = insertInvoice("INV-A", "DRAFT");
+		long issued = insertInvoice("INV-B", "ISSUED");
+
+		assertEquals(0, revert(draft, 2));
+		assertEquals(1, revert(draft, 1));
+		assertEquals(0, revert(draft, 1));
+		assertEquals(0, revert(issued, 1));
+
+		Map<String, Object> row = jdbcTemplate.queryForMap(
+			"SELECT client_name, version, subtotal, total_amount, tax_region FROM invoices WHERE invoice_id = ?", draft);
+		assertEquals("Acme Old", row.get("client_name"));
+		assertEquals(2, row.get("version"));
+		assertEquals(0, new BigDecimal("26.00").compareTo((BigDecimal) row.get("subtotal")));
+		assertEquals(0, new BigDecimal("30.16").compareTo((BigDecimal) row.get("total_amount")));
+		assertEquals("MX", row.get("tax_region"));
+		assertEquals("Acme", jdbcTemplate.queryForObject(
+			"SELECT client_name FROM invoices WHERE invoice_id = ?", String.class, issued));
+	}
+
+	@Test
+	void itemsAreReplacedInArrayOrder() {
+		long invoiceId = insertInvoice("INV-A", "DRAFT");
+		long shipmentId = insertShipment("TRK-A");
+		for (int i = 0; i < 3; i++) {
+			jdbcTemplate.update("INSERT INTO invoice_items (invoice_id, description, unit_price, total_price) " +
+				"VALUES (?, 'Old', 1, 1)", invoiceId);
+		}
+
+		invoiceBatchRepository.replaceItems(invoiceId, new Long[] {shipmentId, null}, new String[] {"Freight", "Handling"},
+			new Integer[] {2, 1}, new BigDecimal[] {new BigDecimal("10.50"), new BigDecimal("5.00")},
+			new BigDecimal[] {new BigDecimal("21.00"), new BigDecimal("5.00")},
+			new BigDecimal[] {new BigDecimal("3.36"), new BigDecimal("0.80")}, NOW);
+
+		List<Map<String, Object>> items = jdbcTemplate.queryForList(
+			"SELECT shipment_id, description, quantity, total_price, tax_amount FROM invoice_items " +
+			"WHERE invoice_id = ? ORDER BY item_id", invoiceId);
+		assertEquals(2, items.size());
+		assertEquals(shipmentId, ((Number) items.get(0).get("shipment_id")).longValue());
+		assertEquals("Freight", items.get(0).get("description"));
+		assertEquals(2, items.get(0).get("quantity"));
+		assertEquals(0, new BigDecimal("3.36").compareTo((BigDecimal) items.get(0).get("tax_amount")));
+		assertEquals(null, items.get(1).get("shipment_id"));
+		assertEquals("Handling", items.get(1).get("description"));
+		assertEquals(0, new BigDecimal("5.00").compareTo((BigDecimal) items.get(1).get("total_price")));
+		assertEquals(2, itemCount(invoiceId));
+
+		invoiceBatchRepository.replaceItems(invoiceId, new Long[0], new String[0], new Integer[0], new BigDecimal[0],
+			new BigDecimal[0], new BigDecimal[0], NOW);
+		assertEquals(0, itemCount(invoiceId));
+	}
+
+	@Test
+	void shipmentLinksAreReplacedAndLinksElsewhereAreFound() {
+		long a = insertInvoice("INV-A", "DRAFT");
+		long b = insertInvoice("INV-B", "DRAFT");
+		long first = insertShipment("TRK-1");
+		long second = insertShipment("TRK-2");
+		long third = insertShipment("TRK-3");
+		invoiceBatchRepository.replaceShipmentLinks(a, new Long[] {first, second}, NOW);
+
+		invoiceBatchRepository.replaceShipmentLinks(a, new Long[] {third}, NOW);
+
+		assertEquals(List.of(third), jdbcTemplate.queryForList(
+			"SELECT shipment_id FROM invoice_shipments WHERE invoice_id = ?", Long.class, a));
+		assertEquals(List.of(third), invoiceBatchRepository.findShipmentsLinkedElsewhere(b, new Long[] {first, third}));
+		assertEquals(List.of(), invoiceBatchRepository.findShipmentsLinkedElsewhere(a, new Long[] {first, third}));
+
+		invoiceBatchRepository.replaceShipmentLinks(a, new Long[0], NOW);
+		assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM invoice_shipments", Integer.class));
+	}
+
+	@Test
+	void onlyVersionsNewerThanTheTargetAndWithinTheBoundAreFlagged() {
+		long invoiceId = insertInvoice("INV-A", "DRAFT");
+		insertHistory(invoiceId, 1, NOW);
+		insertHistory(invoiceId, 2, NOW);
+		insertHistory(invoiceId, 3, NOW);
+		insertHistory(invoiceId, 4, NOW.minusYears(2));
+
+		assertEquals(2, auditBatchRepository.markVersionsReverted(invoiceId, 1, NOW.minusDays(1)));
+		assertEquals(0, auditBatchRepository.markVersionsReverted(invoiceId, 1, NOW.minusDays(1)));
+
+		assertEquals(List.of(false, true, true, false), jdbcTemplate.queryForList(
+			"SELECT is_reverted FROM invoice_history WHERE invoice_id = ? ORDER BY version", Boolean.class, invoiceId));
+	}
+
+	private int revert(long invoiceId, int expectedVersion) {
+		return invoiceBatchRepository.revertDraft(invoiceId, expectedVersion, "Acme Old", LocalDate.of(2024, 3, 1),
+			LocalDate.of(2024, 3, 31), "USD", "MX", new BigDecimal("26.00"), new BigDecimal("4.16"),
+			new BigDecimal("30.16"), NOW);
+	}
+
+	private long insertInvoice(String invoiceNumber, String status) {
+		return jdbcTemplate.queryForObject(
+			"INSERT INTO invoices (invoice_number, client_name, invoice_date, due_date, subtotal, total_amount, " +
+			"invoice_status, created_by) VALUES (?, 'Acme', '2024-04-01', '2024-04-30', 100, 116, ?, ?) " +
+			"RETURNING invoice_id",
+			Long.class, invoiceNumber, status, userId);
+	}
+
+	private long insertShipment(String trackingNumber) {
+		return jdbcTemplate.queryForObject(
+			"INSERT INTO shipments (client_name, origin_address, destination_address, total_weight, total_volume, " +
+			"shipment_status, tracking_number, created_by) VALUES ('Acme', 'Origin', 'Destination', 12.50, 0.75, " +
+			"'DELIVERED', ?, ?) RETURNING shipment_id",
+			Long.class, trackingNumber, userId);
+	}
+
+	private void insertHistory(long invoiceId, int version, LocalDateTime createdAt) {
+		jdbcTemplate.update("INSERT INTO invoice_history (invoice_id, version, invoice_number, invoice_data, created_by, " +
+			"created_at) VALUES (?, ?, 'INV-A', '{}'::jsonb, ?, ?)", invoiceId, version, userId, Timestamp.valueOf(createdAt));
+	}
+
+	private int itemCount(long invoiceId) {
+		return jdbcTemplate.queryForObject("SELECT item_count FROM invoices WHERE invoice_id = ?", Integer.class, invoiceId);
+	}
+}
@@ -0,0 +1,104 @@
+package com.fabrica.p6f5.springapp.invoice.repository;
+
+import com.fabrica.p6f5.springapp.invoice.dto.InvoiceTombstone;
+import com.fabrica.p6f5.springapp.invoice.model.Invoice;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs the sync keyset queries and the tombstone trigger against Postgres, migrated by Flyway.
+ * Skipped when Docker is not available.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@Import(InvoiceTombstoneRepository.class)
+@TestPropertySource(properties = "spring.flyway.locations=classpath:db/migration,classpath:db/users")
+class InvoiceSyncQueriesTest {
+
+	private static final LocalDateTime START = LocalDateTime.of(1970, 1, 1, 0, 0);
+	private static final LocalDateTime T1 = LocalDateTime.of(2024, 3, 1, 12, 0, 0, 123_456_000);
+	private static final LocalDateTime T2 = T1.plusSeconds(1);
+	private static final LocalDateTime T3 = T1.plusSeconds(2);
+
+	@Container
+	@ServiceConnection
+	static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+	@Autowired
+	private InvoiceRepository invoiceRepository;
+
+	@Autowired
+	private InvoiceTombstoneRepository invoiceTombstoneRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private long userId;
+
+	@BeforeEach
+	void setUp() {
+		userId = jdbcTemplate.queryForObject(
+			"INSERT INTO users (username, email, password_hash) VALUES ('sync', 'sync@example.com', 'x') RETURNING user_id",
+			Long.class);
+	}
+
+	@Test
+	void changesAreReadInWatermarkOrderUpToTheHorizon() {
+		long a = insertInvoice("INV-A", T1);
+		long b = insertInvoice("INV-B", T1);
+		long c = insertInvoice("INV-C", T2);
+		insertInvoice("INV-D", T3);
+
+		assertEquals(List.of(a, b, c), ids(invoiceRepository.findChangedSince(START, 0L, T3, PageRequest.of(0, 10))));
+		assertEquals(List.of(b, c), ids(invoiceRepository.findChangedSince(T1, a, T3, PageRequest.of(0, 10))));
+		assertEquals(List.of(c), ids(invoiceRepository.findChangedSince(T1, b, T3, PageRequest.of(0, 10))));
+		assertEquals(List.of(a), ids(invoiceRepository.findChangedSince(START, 0L, T3, PageRequest.of(0, 1))));
+	}
+
+	@Test
+	void deletedInvoicesAreReadFromTombstonesInWatermarkOrder() {
+		long a = insertInvoice("INV-A", T1);
+		long b = insertInvoice("INV-B", T1);
+		jdbcTemplate.update("DELETE FROM invoices WHERE invoice_id IN (?, ?)", a, b);
+		LocalDateTime horizon = LocalDateTime.now().plusDays(1);
+
+		List<InvoiceTombstone> deleted = invoiceTombstoneRepository.findDeletedSince(START, 0L, horizon, 10);
+
+		assertEquals(List.of(a, b), deleted.stream().map(InvoiceTombstone::getInvoiceId).toList());
+		assertEquals("INV-A", deleted.get(0).getInvoiceNumber());
+		InvoiceTombstone first = deleted.get(0);
+		assertEquals(List.of(b), invoiceTombstoneRepository.findDeletedSince(first.getDeletedAt(), a, horizon, 10).stream()
+			.map(InvoiceTombstone::getInvoiceId).toList());
+		assertEquals(List.of(), invoiceTombstoneRepository.findDeletedSince(START, 0L, first.getDeletedAt(), 10));
+	}
+
+	private long insertInvoice(String invoiceNumber, LocalDateTime updatedAt) {
+		return jdbcTemplate.queryForObject(
+			"INSERT INTO invoices (invoice_number, client_name, invoice_date, due_date, subtotal, total_amount, " +
+			"created_by, created_at, updated_at) VALUES (?, 'Acme', '2024-03-01', '2024-03-31', 100, 100, ?, ?, ?) " +
+			"RETURNING invoice_id",
+			Long.class, invoiceNumber, userId, Timestamp.valueOf(updatedAt), Timestamp.valueOf(updatedAt));
+	}
+
+	private static List<Long> ids(List<Invoice> invoices) {
+		return invoices.stream().map(Invoice::getId).toList();
+	}
+}
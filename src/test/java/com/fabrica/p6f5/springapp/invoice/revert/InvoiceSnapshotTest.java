@@ -0,0 +1,70 @@
+package com.fabrica.p6f5.springapp.invoice.revert;
+
+import com.fabrica.p6f5.springapp.invoice.dto.UpdateInvoiceRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class InvoiceSnapshotTest {
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	@Test
+	void restoresEditableStateFromSerializedInvoice() throws Exception {
+		UpdateInvoiceRequest request = InvoiceSnapshot.toRequest(objectMapper.readTree(
+			"{\"id\":7,\"clientName\":\"Acme\",\"invoiceDate\":[2024,1,15],\"dueDate\":[2024,2,15]," +
+			"\"subtotal\":250.00,\"currency\":\"MXN\",\"taxRegion\":\"MX\",\"version\":3," +
+			"\"items\":[{\"id\":1,\"shipment\":{\"id\":11,\"clientName\":\"Acme\"},\"description\":\"Freight\"," +
+			"\"quantity\":2,\"unitPrice\":100.00,\"totalPrice\":200.00}," +
+			"{\"id\":2,\"shipment\":null,\"description\":\"Handling\",\"quantity\":1,\"unitPrice\":50.00}]," +
+			"\"shipments\":[{\"id\":4,\"shipment\":{\"id\":11}},{\"id\":5,\"shipment\":{\"id\":12}}]}"), 3);
+
+		assertEquals("Acme", request.getClientName());
+		assertEquals(LocalDate.of(2024, 1, 15), request.getInvoiceDate());
+		assertEquals(LocalDate.of(2024, 2, 15), request.getDueDate());
+		assertEquals("MXN", request.getCurrency());
+		assertEquals("MX", request.getTaxRegion());
+		assertEquals(3, request.getVersion());
+		assertEquals(List.of(11L, 12L), request.getShipmentIds());
+
+		assertEquals(2, request.getItems().size());
+		UpdateInvoiceRequest.InvoiceItemRequest freight = request.getItems().get(0);
+		assertEquals(Long.valueOf(11L), freight.getShipmentId());
+		assertEquals("Freight", freight.getDescription());
+		assertEquals(2, freight.getQuantity());
+		assertEquals(0, new BigDecimal("100.00").compareTo(freight.getUnitPrice()));
+		assertNull(request.getItems().get(1).getShipmentId());
+	}
+
+	@Test
+	void acceptsIsoDatesAndMissingCollections() throws Exception {
+		UpdateInvoiceRequest request = InvoiceSnapshot.toRequest(objectMapper.readTree(
+			"{\"clientName\":\"Acme\",\"invoiceDate\":\"2024-01-15\",\"dueDate\":\"2024-02-15\"}"), 1);
+
+		assertEquals(LocalDate.of(2024, 2, 15), request.getDueDate());
+		assertNull(request.getCurrency());
+		assertEquals(List.of(), request.getItems());
+		assertEquals(List.of(), request.getShipmentIds());
+	}
+
+	@Test
+	void rejectsIncompleteSnapshots() throws Exception {
+		assertThrows(IllegalArgumentException.class, () -> InvoiceSnapshot.toRequest(objectMapper.readTree(
+			"{\"invoiceDate\":\"2024-01-15\",\"dueDate\":\"2024-02-15\"}"), 1));
+		assertThrows(IllegalArgumentException.class, () -> InvoiceSnapshot.toRequest(objectMapper.readTree(
+			"{\"clientName\":\"Acme\",\"invoiceDate\":\"2024-13-01\",\"dueDate\":\"2024-02-15\"}"), 1));
+		assertThrows(IllegalArgumentException.class, () -> InvoiceSnapshot.toRequest(objectMapper.readTree(
+			"{\"clientName\":\"Acme\",\"invoiceDate\":\"2024-01-15\",\"dueDate\":\"2024-02-15\"," +
+			"\"items\":[{\"description\":\"Freight\",\"quantity\":1}]}"), 1));
+		assertThrows(IllegalArgumentException.class, () -> InvoiceSnapshot.toRequest(objectMapper.readTree(
+			"{\"clientName\":\"Acme\",\"invoiceDate\":\"2024-01-15\",\"dueDate\":\"2024-02-15\"," +
+			"\"shipments\":[{\"id\":4}]}"), 1));
+	}
+}
@@ -0,0 +1,88 @@
+package com.fabrica.p6f5.springapp.invoice.service;
+
+import com.fabrica.p6f5.springapp.audit.service.AuditService;
+import com.fabrica.p6f5.springapp.events.service.InvoiceEventService;
+import com.fabrica.p6f5.springapp.invoice.dto.BulkIssuanceResult;
+import com.fabrica.p6f5.springapp.invoice.model.Invoice;
+import com.fabrica.p6f5.springapp.invoice.repository.InvoiceBatchRepository;
+import com.fabrica.p6f5.springapp.invoice.repository.InvoiceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class InvoiceIssuanceServiceTest {
+
+	private final InvoiceRepository invoiceRepository = mock(InvoiceRepository.class);
+	private final InvoiceBatchRepository invoiceBatchRepository = mock(InvoiceBatchRepository.class);
+	private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+	private final InvoiceIssuanceService service = new InvoiceIssuanceService(invoiceRepository, invoiceBatchRepository,
+		mock(AuditService.class), mock(InvoiceEventService.class), transactionTemplate);
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(service, "chunkSize", 500);
+		ReflectionTestUtils.setField(service, "maxPerRun", 50_000);
+		when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+			invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+	}
+
+	@Test
+	void readyDraftsGetSequenceFoliosAndUnreadyOnesAreSkipped() {
+		Invoice withoutFolio = draft(1L, true, null);
+		Invoice withFolio = draft(2L, true, "FISCAL-0000000000000007");
+		Invoice notReady = draft(3L, false, null);
+		when(invoiceRepository.findDraftsReadyForIssuance(any())).thenReturn(List.of(withoutFolio, withFolio, notReady));
+		when(invoiceBatchRepository.nextFiscalFolioNumbers(1)).thenReturn(List.of(42L));
+		when(invoiceBatchRepository.markIssued(any(), any(), any())).thenReturn(2);
+
+		BulkIssuanceResult result = service.issueReadyDrafts(9L, 1000);
+
+		ArgumentCaptor<Long[]> ids = ArgumentCaptor.forClass(Long[].class);
+		ArgumentCaptor<String[]> folios = ArgumentCaptor.forClass(String[].class);
+		verify(invoiceBatchRepository).markIssued(ids.capture(), folios.capture(), any());
+		assertArrayEquals(new Long[] {1L, 2L}, ids.getValue());
+		assertArrayEquals(new String[] {"FISCAL-0000000000000042", "FISCAL-0000000000000007"}, folios.getValue());
+		assertEquals(2, result.getIssued());
+		assertEquals(1, result.getSkipped());
+		assertEquals(1, result.getChunks());
+	}
+
+	@Test
+	void noFoliosAreReservedWhenEveryDraftHasOne() {
+		when(invoiceRepository.findDraftsReadyForIssuance(any()))
+			.thenReturn(List.of(draft(1L, true, "FISCAL-0000000000000001")));
+		when(invoiceBatchRepository.markIssued(any(), any(), any())).thenReturn(1);
+
+		assertEquals(1, service.issueReadyDrafts(null, 1000).getIssued());
+		verify(invoiceBatchRepository, never()).nextFiscalFolioNumbers(anyInt());
+	}
+
+	private static Invoice draft(Long id, boolean ready, String fiscalFolio) {
+		Invoice invoice = new Invoice();
+		invoice.setId(id);
+		invoice.setInvoiceNumber("INV-" + id);
+		invoice.setClientName("Acme");
+		invoice.setSubtotal(new BigDecimal("100.00"));
+		invoice.setTotalAmount(new BigDecimal("100.00"));
+		invoice.setFiscalFolio(fiscalFolio);
+		invoice.setReadyForIssue(ready);
+		invoice.setCreatedBy(5L);
+		invoice.setVersion(1);
+		return invoice;
+	}
+}
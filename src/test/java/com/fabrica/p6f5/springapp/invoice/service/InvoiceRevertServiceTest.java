@@ -0,0 +1,150 @@
+package com.fabrica.p6f5.springapp.invoice.service;
+
+import com.fabrica.p6f5.springapp.audit.model.InvoiceHistory;
+import com.fabrica.p6f5.springapp.audit.service.AuditService;
+import com.fabrica.p6f5.springapp.events.service.InvoiceEventService;
+import com.fabrica.p6f5.springapp.exception.BusinessException;
+import com.fabrica.p6f5.springapp.invoice.model.Invoice;
+import com.fabrica.p6f5.springapp.invoice.repository.InvoiceBatchRepository;
+import com.fabrica.p6f5.springapp.invoice.repository.InvoiceRepository;
+import com.fabrica.p6f5.springapp.shipment.model.Shipment;
+import com.fabrica.p6f5.springapp.shipment.repository.ShipmentRepository;
+import com.fabrica.p6f5.springapp.tax.engine.TaxPolicy;
+import com.fabrica.p6f5.springapp.tax.engine.TaxTable;
+import com.fabrica.p6f5.springapp.tax.model.TaxRule;
+import com.fabrica.p6f5.springapp.tax.service.TaxService;
+import com.fabrica.p6f5.springapp.util.Constants;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class InvoiceRevertServiceTest {
+
+	private static final String SNAPSHOT = "{\"clientName\":\"Acme Old\",\"invoiceDate\":\"2024-03-01\"," +
+		"\"dueDate\":[2024,3,31],\"currency\":\"USD\",\"taxRegion\":\"MX\",\"items\":[" +
+		"{\"shipment\":{\"id\":11},\"description\":\"Freight\",\"quantity\":2,\"unitPrice\":10.50}," +
+		"{\"shipment\":null,\"description\":\"Handling\",\"quantity\":1,\"unitPrice\":5.00}]," +
+		"\"shipments\":[{\"shipment\":{\"id\":11}}]}";
+
+	private final InvoiceRepository invoiceRepository = mock(InvoiceRepository.class);
+	private final InvoiceBatchRepository invoiceBatchRepository = mock(InvoiceBatchRepository.class);
+	private final ShipmentRepository shipmentRepository = mock(ShipmentRepository.class);
+	private final AuditService auditService = mock(AuditService.class);
+	private final InvoiceEventService invoiceEventService = mock(InvoiceEventService.class);
+	private final TaxService taxService = mock(TaxService.class);
+	private final InvoiceRevertService service = new InvoiceRevertService(invoiceRepository, invoiceBatchRepository,
+		shipmentRepository, auditService, invoiceEventService, taxService, new ObjectMapper(), mock(EntityManager.class),
+		10);
+
+	private final Invoice invoice = new Invoice();
+
+	@BeforeEach
+	void setUp() {
+		invoice.setId(1L);
+		invoice.setInvoiceNumber("INV-1");
+		invoice.setClientName("Acme");
+		invoice.setInvoiceDate(LocalDate.of(2024, 4, 1));
+		invoice.setDueDate(LocalDate.of(2024, 4, 30));
+		invoice.setSubtotal(new BigDecimal("100.00"));
+		invoice.setTotalAmount(new BigDecimal("116.00"));
+		invoice.setCreatedBy(9L);
+		invoice.setVersion(3);
+		when(invoiceRepository.findById(1L)).thenReturn(Optional.of(invoice));
+
+		InvoiceHistory history = new InvoiceHistory();
+		history.setInvoiceId(1L);
+		history.setVersion(1);
+		history.setInvoiceData(SNAPSHOT);
+		when(auditService.getInvoiceHistoryVersion(1L, 1)).thenReturn(Optional.of(history));
+
+		Shipment shipment = new Shipment();
+		shipment.setId(11L);
+		when(shipmentRepository.findAllById(any())).thenReturn(List.of(shipment));
+
+		TaxRule rule = new TaxRule();
+		rule.setRegion("MX");
+		rule.setRatePercent(new BigDecimal("16"));
+		TaxPolicy policy = TaxTable.compile(List.of(rule)).policyFor("MX", "Acme Old");
+		when(taxService.calculate(any(), any(), any(), any()))
+			.thenAnswer(invocation -> policy.calculate(invocation.getArgument(2), invocation.getArgument(3)));
+	}
+
+	@Test
+	void revertRewritesTheDraftItemsAndLinksAndFlagsNewerVersions() {
+		when(invoiceBatchRepository.revertDraft(eq(1L), eq(3), any(), any(), any(), any(), any(), any(), any(), any(),
+			any())).thenReturn(1);
+
+		service.revertInvoice(1L, 1, 3, 9L);
+
+		InOrder order = inOrder(invoiceBatchRepository, auditService);
+		order.verify(invoiceBatchRepository).revertDraft(eq(1L), eq(3), eq("Acme Old"), eq(LocalDate.of(2024, 3, 1)),
+			eq(LocalDate.of(2024, 3, 31)), eq("USD"), eq("MX"), eq(new BigDecimal("26.00")), eq(new BigDecimal("4.16")),
+			eq(new BigDecimal("30.16")), any());
+		order.verify(auditService).saveInvoiceHistory(eq(1L), eq(3), any(), eq("INV-1"), eq(invoice), eq(9L));
+
+		ArgumentCaptor<Long[]> shipmentIds = ArgumentCaptor.forClass(Long[].class);
+		ArgumentCaptor<String[]> descriptions = ArgumentCaptor.forClass(String[].class);
+		ArgumentCaptor<Integer[]> quantities = ArgumentCaptor.forClass(Integer[].class);
+		ArgumentCaptor<BigDecimal[]> totals = ArgumentCaptor.forClass(BigDecimal[].class);
+		ArgumentCaptor<BigDecimal[]> taxes = ArgumentCaptor.forClass(BigDecimal[].class);
+		order.verify(invoiceBatchRepository).replaceItems(eq(1L), shipmentIds.capture(), descriptions.capture(),
+			quantities.capture(), any(), totals.capture(), taxes.capture(), any());
+		assertArrayEquals(new Long[] {11L, null}, shipmentIds.getValue());
+		assertArrayEquals(new String[] {"Freight", "Handling"}, descriptions.getValue());
+		assertArrayEquals(new Integer[] {2, 1}, quantities.getValue());
+		assertArrayEquals(new BigDecimal[] {new BigDecimal("21.00"), new BigDecimal("5.00")}, totals.getValue());
+		assertArrayEquals(new BigDecimal[] {new BigDecimal("3.36"), new BigDecimal("0.80")}, taxes.getValue());
+
+		ArgumentCaptor<Long[]> links = ArgumentCaptor.forClass(Long[].class);
+		order.verify(invoiceBatchRepository).replaceShipmentLinks(eq(1L), links.capture(), any());
+		assertArrayEquals(new Long[] {11L}, links.getValue());
+		order.verify(auditService).markInvoiceVersionsReverted(1L, 1);
+	}
+
+	@Test
+	void draftChangedBetweenReadAndWriteIsRejectedWithoutRewriting() {
+		when(invoiceBatchRepository.revertDraft(eq(1L), eq(3), any(), any(), any(), any(), any(), any(), any(), any(),
+			any())).thenReturn(0);
+
+		BusinessException error = assertThrows(BusinessException.class, () -> service.revertInvoice(1L, 1, 3, 9L));
+
+		assertEquals(Constants.INVOICE_MODIFIED, error.getMessage());
+		verify(invoiceBatchRepository, never()).replaceItems(any(), any(), any(), any(), any(), any(), any(), any());
+		verify(invoiceBatchRepository, never()).replaceShipmentLinks(any(), any(), any());
+		verify(auditService, never()).saveInvoiceHistory(anyLong(), anyInt(), any(), any(), any(), anyLong());
+		verify(auditService, never()).markInvoiceVersionsReverted(anyLong(), anyInt());
+		verifyNoInteractions(invoiceEventService);
+	}
+
+	@Test
+	void staleExpectedVersionIsRejectedBeforeAnyWrite() {
+		BusinessException error = assertThrows(BusinessException.class, () -> service.revertInvoice(1L, 1, 2, 9L));
+
+		assertEquals(Constants.INVOICE_MODIFIED, error.getMessage());
+		verify(invoiceBatchRepository, never()).revertDraft(any(), any(), any(), any(), any(), any(), any(), any(),
+			any(), any(), any());
+		verify(auditService, never()).getInvoiceHistoryVersion(any(), any());
+	}
+}
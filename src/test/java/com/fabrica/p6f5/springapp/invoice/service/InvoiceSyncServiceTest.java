@@ -0,0 +1,123 @@
+package com.fabrica.p6f5.springapp.invoice.service;
+
+import com.fabrica.p6f5.springapp.exception.BusinessException;
+import com.fabrica.p6f5.springapp.invoice.dto.InvoiceChangePage;
+import com.fabrica.p6f5.springapp.invoice.dto.InvoiceResponse;
+import com.fabrica.p6f5.springapp.invoice.dto.InvoiceTombstone;
+import com.fabrica.p6f5.springapp.invoice.model.Invoice;
+import com.fabrica.p6f5.springapp.invoice.repository.InvoiceRepository;
+import com.fabrica.p6f5.springapp.invoice.repository.InvoiceTombstoneRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class InvoiceSyncServiceTest {
+
+	private static final LocalDateTime T1 = LocalDateTime.of(2024, 3, 1, 12, 0, 0, 123_456_000);
+	private static final LocalDateTime T2 = T1.plusSeconds(1);
+	private static final LocalDateTime T3 = T1.plusSeconds(2);
+
+	private final InvoiceRepository invoiceRepository = mock(InvoiceRepository.class);
+	private final InvoiceTombstoneRepository tombstoneRepository = mock(InvoiceTombstoneRepository.class);
+	private final InvoiceSyncService service = new InvoiceSyncService(invoiceRepository, tombstoneRepository, 10_000);
+
+	@Test
+	void changesAndTombstonesAreMergedInWatermarkOrder() {
+		when(invoiceRepository.findChangedSince(any(), anyLong(), any(), any())).thenReturn(List.of(invoice(1, T1), invoice(3, T3)));
+		when(tombstoneRepository.findDeletedSince(any(), anyLong(), any(), anyInt())).thenReturn(List.of(tombstone(2, T2)));
+
+		InvoiceChangePage page = service.getChanges(null, 2);
+
+		assertEquals(List.of(1L), page.getInvoices().stream().map(InvoiceResponse::getId).toList());
+		assertEquals(List.of(2L), page.getDeleted().stream().map(InvoiceTombstone::getInvoiceId).toList());
+		assertTrue(page.isHasMore());
+
+		when(invoiceRepository.findChangedSince(eq(T2), eq(2L), any(), any())).thenReturn(List.of(invoice(3, T3)));
+		when(tombstoneRepository.findDeletedSince(eq(T2), eq(2L), any(), anyInt())).thenReturn(List.of());
+		InvoiceChangePage next = service.getChanges(page.getWatermark(), 2);
+
+		assertEquals(List.of(3L), next.getInvoices().stream().map(InvoiceResponse::getId).toList());
+		assertFalse(next.isHasMore());
+	}
+
+	@Test
+	void equalTimesAreOrderedByInvoiceId() {
+		when(invoiceRepository.findChangedSince(any(), anyLong(), any(), any())).thenReturn(List.of(invoice(5, T1)));
+		when(tombstoneRepository.findDeletedSince(any(), anyLong(), any(), anyInt())).thenReturn(List.of(tombstone(4, T1)));
+
+		InvoiceChangePage page = service.getChanges(null, 1);
+
+		assertTrue(page.getInvoices().isEmpty());
+		assertEquals(4L, page.getDeleted().get(0).getInvoiceId());
+		assertTrue(page.isHasMore());
+	}
+
+	@Test
+	void syncStopsShortOfTheSettleHorizon() {
+		when(invoiceRepository.findChangedSince(any(), anyLong(), any(), any())).thenReturn(List.of());
+		when(tombstoneRepository.findDeletedSince(any(), anyLong(), any(), anyInt())).thenReturn(List.of());
+
+		service.getChanges(null, null);
+
+		verify(invoiceRepository).findChangedSince(any(), eq(0L),
+			argThat(horizon -> horizon.isBefore(LocalDateTime.now().minusSeconds(9))),
+			eq(PageRequest.of(0, InvoiceSyncService.DEFAULT_PAGE_SIZE + 1)));
+	}
+
+	@Test
+	void emptyPageKeepsTheWatermark() {
+		when(invoiceRepository.findChangedSince(any(), anyLong(), any(), any())).thenReturn(List.of(invoice(7, T1)));
+		when(tombstoneRepository.findDeletedSince(any(), anyLong(), any(), anyInt())).thenReturn(List.of());
+		String watermark = service.getChanges(null, 10).getWatermark();
+
+		when(invoiceRepository.findChangedSince(eq(T1), eq(7L), any(), any())).thenReturn(List.of());
+		InvoiceChangePage page = service.getChanges(watermark, 10);
+
+		assertTrue(page.getInvoices().isEmpty());
+		assertEquals(watermark, page.getWatermark());
+	}
+
+	@Test
+	void pageSizeIsClamped() {
+		when(invoiceRepository.findChangedSince(any(), anyLong(), any(), any())).thenReturn(List.of());
+		when(tombstoneRepository.findDeletedSince(any(), anyLong(), any(), anyInt())).thenReturn(List.of());
+
+		service.getChanges(null, 100_000);
+
+		verify(tombstoneRepository).findDeletedSince(any(), anyLong(), any(), eq(InvoiceSyncService.MAX_PAGE_SIZE + 1));
+	}
+
+	@Test
+	void invalidWatermarkIsRejected() {
+		assertThrows(BusinessException.class, () -> service.getChanges("not a watermark", 10));
+		assertThrows(BusinessException.class, () -> service.getChanges("bm90LWEtdGltZXw1", 10));
+	}
+
+	private static Invoice invoice(long id, LocalDateTime updatedAt) {
+		Invoice invoice = new Invoice();
+		invoice.setId(id);
+		invoice.setInvoiceNumber("INV-" + id);
+		invoice.setStatus(Invoice.InvoiceStatus.ISSUED);
+		invoice.setUpdatedAt(updatedAt);
+		return invoice;
+	}
+
+	private static InvoiceTombstone tombstone(long id, LocalDateTime deletedAt) {
+		return new InvoiceTombstone(id, "INV-" + id, null, deletedAt);
+	}
+}
@@ -0,0 +1,101 @@
+package com.fabrica.p6f5.springapp.money;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MoneyTest {
+
+	private static final String[] CURRENCIES = {"USD", "JPY", "KWD", "XXX", null};
+
+	@Test
+	void lineTotalMatchesBigDecimalArithmetic() {
+		Random random = new Random(42);
+		for (int i = 0; i < 100_000; i++) {
+			BigDecimal price = randomPrice(random);
+			int quantity = random.nextInt(1_000_000);
+			String currency = CURRENCIES[random.nextInt(CURRENCIES.length)];
+			BigDecimal expected = price.multiply(BigDecimal.valueOf(quantity));
+			assertEquals(0, expected.compareTo(Money.lineTotal(price, quantity, currency)),
+				() -> price + " x " + quantity + " " + currency);
+		}
+	}
+
+	@Test
+	void subtotalMatchesBigDecimalArithmetic() {
+		Random random = new Random(7);
+		for (int i = 0; i < 10_000; i++) {
+			List<Line> lines = new ArrayList<>();
+			BigDecimal expected = BigDecimal.ZERO;
+			int size = random.nextInt(50);
+			for (int j = 0; j < size; j++) {
+				Line line = new Line(randomPrice(random), random.nextInt(1_000_000));
+				lines.add(line);
+				expected = expected.add(line.getUnitPrice().multiply(BigDecimal.valueOf(line.getQuantity())));
+			}
+			String currency = CURRENCIES[random.nextInt(CURRENCIES.length)];
+			assertEquals(0, expected.compareTo(Money.subtotal(lines, currency)), () -> lines + " " + currency);
+		}
+	}
+
+	@Test
+	void overflowFallsBackToExactArithmetic() {
+		BigDecimal price = new BigDecimal("92233720368547758.07");
+		BigDecimal expected = price.multiply(BigDecimal.valueOf(Integer.MAX_VALUE));
+		assertEquals(0, expected.compareTo(Money.lineTotal(price, Integer.MAX_VALUE, "USD")));
+
+		List<Line> lines = List.of(new Line(new BigDecimal("90000000000000000.00"), 1),
+			new Line(new BigDecimal("90000000000000000.00"), 1));
+		assertEquals(0, new BigDecimal("180000000000000000.00").compareTo(Money.subtotal(lines, "USD")));
+	}
+
+	@Test
+	void excessScaleIsNotRounded() {
+		assertEquals(new BigDecimal("3.0015"), Money.lineTotal(new BigDecimal("1.0005"), 3, "USD"));
+		assertEquals(new BigDecimal("300"), Money.lineTotal(new BigDecimal("100.00"), 3, "JPY"));
+		assertEquals(new BigDecimal("3.00"), Money.lineTotal(new BigDecimal("1.000"), 3, "USD"));
+	}
+
+	@Test
+	void minorUnitsStopAtEighteenDigits() {
+		assertEquals(999_999_999_999_999_999L, CurrencyRules.toMinorUnits(new BigDecimal("9999999999999999.99"), 2));
+		assertEquals(-999_999_999_999_999_999L, CurrencyRules.toMinorUnits(new BigDecimal("-999999999999999999"), 0));
+		assertEquals(CurrencyRules.NOT_REPRESENTABLE, CurrencyRules.toMinorUnits(new BigDecimal("10000000000000000.00"), 2));
+		assertEquals(CurrencyRules.NOT_REPRESENTABLE, CurrencyRules.toMinorUnits(new BigDecimal("1E+17"), 3));
+		assertEquals(CurrencyRules.NOT_REPRESENTABLE, CurrencyRules.toMinorUnits(new BigDecimal("1E+40"), 2));
+		assertEquals(0, CurrencyRules.toMinorUnits(new BigDecimal("0E+40"), 2));
+		assertEquals(1_500, CurrencyRules.toMinorUnits(new BigDecimal("1.5E+1"), 2));
+		assertEquals(1_230, CurrencyRules.toMinorUnits(new BigDecimal("1.230000"), 3));
+		assertEquals(CurrencyRules.NOT_REPRESENTABLE, CurrencyRules.toMinorUnits(new BigDecimal("1.2301"), 3));
+	}
+
+	@Test
+	void missingValuesCountAsZero() {
+		assertEquals(BigDecimal.ZERO, Money.lineTotal(null, 3, "USD"));
+		assertEquals(BigDecimal.ZERO, Money.subtotal(List.of(), "USD"));
+		assertEquals(0, BigDecimal.ZERO.compareTo(Money.subtotal(List.of(new Line(null, 2)), "USD")));
+	}
+
+	private static BigDecimal randomPrice(Random random) {
+		long unscaled = random.nextInt(4) == 0 ? random.nextLong() : random.nextInt(10_000_000);
+		return BigDecimal.valueOf(Math.abs(unscaled % Long.MAX_VALUE), random.nextInt(5));
+	}
+
+	private record Line(BigDecimal unitPrice, Integer quantity) implements InvoiceLine {
+
+		@Override
+		public BigDecimal getUnitPrice() {
+			return unitPrice;
+		}
+
+		@Override
+		public Integer getQuantity() {
+			return quantity;
+		}
+	}
+}
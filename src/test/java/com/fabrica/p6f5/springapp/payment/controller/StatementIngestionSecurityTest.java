@@ -0,0 +1,71 @@
+package com.fabrica.p6f5.springapp.payment.controller;
+
+import com.fabrica.p6f5.springapp.config.SecurityConfig;
+import com.fabrica.p6f5.springapp.exception.GlobalExceptionHandler;
+import com.fabrica.p6f5.springapp.payment.service.StatementIngestionService;
+import com.fabrica.p6f5.springapp.security.JwtAuthenticationEntryPoint;
+import com.fabrica.p6f5.springapp.service.JwtService;
+import com.fabrica.p6f5.springapp.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = StatementIngestionController.class)
+@Import({SecurityConfig.class, JwtAuthenticationEntryPoint.class, GlobalExceptionHandler.class})
+class StatementIngestionSecurityTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@MockBean
+	private StatementIngestionService statementIngestionService;
+
+	@MockBean
+	private JwtService jwtService;
+
+	@MockBean
+	private UserService userService;
+
+	@Test
+	void anonymousCallerIsRejected() throws Exception {
+		mockMvc.perform(post("/api/v1/payments/statements/ingest")).andExpect(status().isUnauthorized());
+
+		verifyNoInteractions(statementIngestionService);
+	}
+
+	@Test
+	@WithMockUser(roles = "USER")
+	void nonAdminCallerCanReadRunsButNotIngest() throws Exception {
+		when(statementIngestionService.getRecentRuns()).thenReturn(List.of());
+
+		mockMvc.perform(get("/api/v1/payments/statements/runs")).andExpect(status().isOk());
+		mockMvc.perform(post("/api/v1/payments/statements/ingest")).andExpect(status().isForbidden());
+
+		verify(statementIngestionService).getRecentRuns();
+		verifyNoMoreInteractions(statementIngestionService);
+	}
+
+	@Test
+	@WithMockUser(roles = "ADMIN")
+	void adminIngestsPendingFiles() throws Exception {
+		when(statementIngestionService.ingestPendingFiles()).thenReturn(List.of());
+
+		mockMvc.perform(post("/api/v1/payments/statements/ingest")).andExpect(status().isOk());
+
+		verify(statementIngestionService).ingestPendingFiles();
+	}
+}
@@ -0,0 +1,93 @@
+package com.fabrica.p6f5.springapp.payment.ingest;
+
+import com.fabrica.p6f5.springapp.invoice.repository.InvoiceRepository;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class OpenInvoiceIndexTest {
+
+	@Test
+	void invoiceNumbersAndFoliosAreFoundInsideALargerBuffer() {
+		OpenInvoiceIndex index = OpenInvoiceIndex.build(List.of(
+			reference(1L, "INV-1", "FISCAL-0000000000000001", "JPY"),
+			reference(2L, "INV-2", null, "KWD")));
+		ByteBuffer buffer = StatementLineParserTest.buffer("xxINV-1xxFISCAL-0000000000000001xxINV-2");
+
+		int number = index.find(buffer, 2, 5);
+		int folio = index.find(buffer, 9, 23);
+		int other = index.find(buffer, 34, 5);
+
+		assertEquals(3, index.size());
+		assertEquals("INV-1", index.reference(number));
+		assertEquals("FISCAL-0000000000000001", index.reference(folio));
+		assertEquals("INV-2", index.reference(other));
+		assertEquals(0, index.scale(number));
+		assertEquals(0, index.scale(folio));
+		assertEquals(3, index.scale(other));
+	}
+
+	@Test
+	void onlyExactReferencesAreFound() {
+		OpenInvoiceIndex index = OpenInvoiceIndex.build(List.of(reference(1L, "INV-10", null, "USD")));
+		ByteBuffer buffer = StatementLineParserTest.buffer("INV-100");
+
+		assertEquals(-1, index.find(buffer, 0, 5));
+		assertEquals(-1, index.find(buffer, 0, 7));
+		assertEquals(-1, index.find(buffer, 0, 0));
+		assertEquals("INV-10", index.reference(index.find(buffer, 0, 6)));
+	}
+
+	@Test
+	void missingCurrencyUsesTheDefaultScale() {
+		OpenInvoiceIndex index = OpenInvoiceIndex.build(List.of(reference(1L, "INV-1", null, null)));
+
+		assertEquals(2, index.scale(index.find(StatementLineParserTest.buffer("INV-1"), 0, 5)));
+	}
+
+	@Test
+	void everyKeyIsFoundWhenSlotsCollide() {
+		List<InvoiceRepository.InvoiceReference> invoices = new ArrayList<>();
+		for (long i = 0; i < 5_000; i++) {
+			invoices.add(reference(i, "INV-" + i, "FISCAL-" + i, "USD"));
+		}
+		OpenInvoiceIndex index = OpenInvoiceIndex.build(invoices);
+
+		assertEquals(10_000, index.size());
+		for (long i = 0; i < 5_000; i++) {
+			String number = "INV-" + i;
+			String folio = "FISCAL-" + i;
+			assertEquals(number, index.reference(index.find(StatementLineParserTest.buffer(number), 0, number.length())));
+			assertEquals(folio, index.reference(index.find(StatementLineParserTest.buffer(folio), 0, folio.length())));
+		}
+	}
+
+	static InvoiceRepository.InvoiceReference reference(Long id, String invoiceNumber, String fiscalFolio,
+	                                                    String currency) {
+		return new InvoiceRepository.InvoiceReference() {
+			@Override
+			public Long getId() {
+				return id;
+			}
+
+			@Override
+			public String getInvoiceNumber() {
+				return invoiceNumber;
+			}
+
+			@Override
+			public String getFiscalFolio() {
+				return fiscalFolio;
+			}
+
+			@Override
+			public String getCurrency() {
+				return currency;
+			}
+		};
+	}
+}
@@ -0,0 +1,107 @@
+package com.fabrica.p6f5.springapp.payment.ingest;
+
+import com.fabrica.p6f5.springapp.invoice.repository.InvoiceRepository;
+import com.fabrica.p6f5.springapp.payment.dto.SettlementRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class StatementFileMatcherTest {
+
+	private static final int LINES = 2_000;
+
+	private final ForkJoinPool pool = new ForkJoinPool(4);
+
+	@TempDir
+	Path dir;
+
+	@AfterEach
+	void tearDown() {
+		pool.shutdown();
+	}
+
+	@Test
+	void chunksSplitOnLineBoundariesAndKeepFileOrder() throws IOException {
+		List<InvoiceRepository.InvoiceReference> invoices = new ArrayList<>();
+		StringBuilder file = new StringBuilder("bank_reference,invoice_reference,amount,currency,value_date\n");
+		for (int i = 0; i < LINES; i++) {
+			invoices.add(OpenInvoiceIndexTest.reference((long) i, "INV-" + i, null, "USD"));
+			String invoiceReference = i % 10 == 3 ? "UNKNOWN-" + i : "INV-" + i;
+			String amount = i % 10 == 7 ? "1.234" : i + ".50";
+			file.append("BR-").append(i).append(',').append(invoiceReference).append(',').append(amount)
+				.append(",USD,2024-03-01").append(i % 2 == 0 ? "\r\n" : "\n");
+		}
+		Path statement = write("statement.csv", file.toString());
+		IngestionProgress progress = new IngestionProgress("statement.csv", Files.size(statement));
+
+		ChunkResult result = StatementFileMatcher.match(statement, StatementFormat.CSV, invoices, progress, pool, 256);
+
+		assertEquals(LINES, result.getLines());
+		assertEquals(LINES / 10, result.getUnmatched());
+		assertEquals(LINES / 10, result.getMalformed());
+		assertEquals(LINES - LINES / 5, result.getMatched().size());
+		assertEquals(Files.size(statement), progress.getBytesScanned());
+		assertEquals((long) LINES, progress.getLinesScanned());
+		List<String> expected = new ArrayList<>();
+		for (int i = 0; i < LINES; i++) {
+			if (i % 10 != 3 && i % 10 != 7) {
+				expected.add("BR-" + i);
+			}
+		}
+		assertEquals(expected, result.getMatched().stream().map(SettlementRequest.StatementLine::getBankReference).toList());
+		SettlementRequest.StatementLine first = result.getMatched().get(0);
+		assertEquals("INV-0", first.getInvoiceReference());
+		assertEquals(new BigDecimal("0.50"), first.getAmount());
+		assertEquals("USD", first.getCurrency());
+		assertEquals(LocalDate.of(2024, 3, 1), first.getValueDate());
+		assertEquals(List.of("BR-3", "BR-13"), result.getUnmatchedSamples().subList(0, 2));
+	}
+
+	@Test
+	void amountsUseTheLineCurrencyOrTheInvoiceCurrency() throws IOException {
+		List<InvoiceRepository.InvoiceReference> invoices = List.of(
+			OpenInvoiceIndexTest.reference(1L, "INV-JPY", null, "JPY"),
+			OpenInvoiceIndexTest.reference(2L, "INV-KWD", null, "KWD"));
+		String file = StatementLineParserTest.fixed("BR-1", "INV-JPY", "000000000001500", "", "20240301") + "\n"
+			+ StatementLineParserTest.fixed("BR-2", "INV-KWD", "000000000001234", "kwd", "20240301") + "\n"
+			+ StatementLineParserTest.fixed("BR-3", "INV-KWD", "000000000001234", "", "20240301") + "\n";
+		Path statement = write("statement.txt", file);
+
+		ChunkResult result = StatementFileMatcher.match(statement, StatementFormat.FIXED_WIDTH, invoices,
+			new IngestionProgress("statement.txt", Files.size(statement)), pool, 1 << 20);
+
+		assertEquals(3, result.getMatched().size());
+		assertEquals(new BigDecimal("1500"), result.getMatched().get(0).getAmount());
+		assertEquals(null, result.getMatched().get(0).getCurrency());
+		assertEquals(new BigDecimal("1.234"), result.getMatched().get(1).getAmount());
+		assertEquals("kwd", result.getMatched().get(1).getCurrency());
+		assertEquals(new BigDecimal("1.234"), result.getMatched().get(2).getAmount());
+	}
+
+	@Test
+	void emptyFileHasNoLines() throws IOException {
+		Path statement = write("empty.csv", "");
+
+		ChunkResult result = StatementFileMatcher.match(statement, StatementFormat.CSV, List.of(),
+			new IngestionProgress("empty.csv", 0), pool, 256);
+
+		assertEquals(0L, result.getLines());
+		assertEquals(0, result.getMatched().size());
+	}
+
+	private Path write(String name, String content) throws IOException {
+		return Files.writeString(dir.resolve(name), content, StandardCharsets.US_ASCII);
+	}
+}
@@ -0,0 +1,140 @@
+package com.fabrica.p6f5.springapp.payment.ingest;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StatementLineParserTest {
+
+	private final StatementLineParser csv = new StatementLineParser(StatementFormat.CSV);
+	private final StatementLineParser fixedWidth = new StatementLineParser(StatementFormat.FIXED_WIDTH);
+	private final ParsedStatementLine line = new ParsedStatementLine();
+
+	@Test
+	void fixedWidthFieldsAreSlicedByColumn() {
+		ByteBuffer buffer = buffer(fixed("BR-1", "INV-2024-0001", "000000000012550", "USD", "20240301"));
+
+		assertTrue(fixedWidth.parse(buffer, 0, buffer.limit(), line));
+		assertEquals("BR-1", StatementLineParser.decode(buffer, line.bankReferenceStart, line.bankReferenceLength));
+		assertEquals("INV-2024-0001",
+			StatementLineParser.decode(buffer, line.invoiceReferenceStart, line.invoiceReferenceLength));
+		assertEquals("USD", StatementLineParser.decode(buffer, line.currencyStart, line.currencyLength));
+		assertEquals(LocalDate.of(2024, 3, 1),
+			StatementLineParser.parseDate(buffer, line.valueDateStart, line.valueDateLength));
+		assertEquals(12550L, fixedWidth.amountMinor(buffer, line, 2));
+		assertEquals(12550L, fixedWidth.amountMinor(buffer, line, 0));
+	}
+
+	@Test
+	void fixedWidthAmountHasNoDecimalPoint() {
+		ByteBuffer buffer = buffer(fixed("BR-1", "INV-1", "0000000000125.5", "USD", "20240301"));
+
+		assertTrue(fixedWidth.parse(buffer, 0, buffer.limit(), line));
+		assertEquals(StatementLineParser.MALFORMED, fixedWidth.amountMinor(buffer, line, 2));
+	}
+
+	@Test
+	void shortFixedWidthLineIsMalformed() {
+		ByteBuffer buffer = buffer("BR-1   INV-1   100");
+
+		assertFalse(fixedWidth.parse(buffer, 0, buffer.limit(), line));
+	}
+
+	@Test
+	void quotedCsvFieldsMayContainCommas() {
+		ByteBuffer buffer = buffer("\"BR-1\",\"INV, 1\", 12.5 ,\"USD\",2024-03-01");
+
+		assertTrue(csv.parse(buffer, 0, buffer.limit(), line));
+		assertEquals("BR-1", StatementLineParser.decode(buffer, line.bankReferenceStart, line.bankReferenceLength));
+		assertEquals("INV, 1", StatementLineParser.decode(buffer, line.invoiceReferenceStart, line.invoiceReferenceLength));
+		assertEquals("USD", StatementLineParser.decode(buffer, line.currencyStart, line.currencyLength));
+		assertEquals(1250L, csv.amountMinor(buffer, line, 2));
+		assertEquals(LocalDate.of(2024, 3, 1),
+			StatementLineParser.parseDate(buffer, line.valueDateStart, line.valueDateLength));
+	}
+
+	@Test
+	void csvLineWithoutCurrencyOrDateIsAccepted() {
+		ByteBuffer buffer = buffer("BR-1,INV-1,100");
+
+		assertTrue(csv.parse(buffer, 0, buffer.limit(), line));
+		assertEquals(0, line.currencyLength);
+		assertEquals(0, line.valueDateLength);
+		assertEquals(10000L, csv.amountMinor(buffer, line, 2));
+	}
+
+	@Test
+	void malformedCsvLinesAreRejected() {
+		assertFalse(parseCsv("\"BR-1,INV-1,100"));
+		assertFalse(parseCsv("BR-1,INV-1"));
+		assertFalse(parseCsv("BR-1,,100"));
+		assertFalse(parseCsv(",INV-1,100"));
+		assertFalse(parseCsv("BR-1,INV-1,"));
+	}
+
+	@Test
+	void onlyTheCsvHeaderRowIsAHeader() {
+		ByteBuffer header = buffer("bank_reference,invoice_reference,amount,currency,value_date");
+		ByteBuffer data = buffer("BR-1,INV-1,100");
+
+		assertTrue(csv.isHeader(header, 0, header.limit()));
+		assertFalse(csv.isHeader(data, 0, data.limit()));
+		assertFalse(fixedWidth.isHeader(header, 0, header.limit()));
+	}
+
+	@Test
+	void amountsFollowTheCurrencyScale() {
+		assertEquals(1500L, amount("1500", 0));
+		assertEquals(StatementLineParser.MALFORMED, amount("1500.5", 0));
+		assertEquals(1234L, amount("1.234", 3));
+		assertEquals(1500L, amount("1.5", 3));
+		assertEquals(1200L, amount("12", 2));
+		assertEquals(1200L, amount("12.", 2));
+		assertEquals(5L, amount("0.05", 2));
+		assertEquals(StatementLineParser.MALFORMED, amount("0.005", 2));
+	}
+
+	@Test
+	void malformedAmountsAreRejected() {
+		assertEquals(StatementLineParser.MALFORMED, amount("", 2));
+		assertEquals(StatementLineParser.MALFORMED, amount("-1.00", 2));
+		assertEquals(StatementLineParser.MALFORMED, amount("1,00", 2));
+		assertEquals(StatementLineParser.MALFORMED, amount("1.0.0", 2));
+		assertEquals(0L, amount("0.00", 2));
+	}
+
+	@Test
+	void amountsThatDoNotFitInALongAreMalformed() {
+		assertEquals(999_999_999_999_999_999L, amount("999999999999999999", 0));
+		assertEquals(StatementLineParser.MALFORMED, amount("9223372036854775807", 0));
+		assertEquals(StatementLineParser.MALFORMED, amount("99999999999999999999999", 0));
+		assertEquals(999_999_999_999_999_900L, amount("9999999999999999", 2));
+		assertEquals(StatementLineParser.MALFORMED, amount("99999999999999999", 2));
+		assertEquals(StatementLineParser.MALFORMED, amount("9999999999999999", 3));
+		assertEquals(100L, amount("00000000000000000000001.00", 2));
+	}
+
+	private boolean parseCsv(String text) {
+		ByteBuffer buffer = buffer(text);
+		return csv.parse(buffer, 0, buffer.limit(), line);
+	}
+
+	private static long amount(String text, int scale) {
+		ByteBuffer buffer = buffer(text);
+		return StatementLineParser.parseAmountMinor(buffer, 0, buffer.limit(), false, scale);
+	}
+
+	static String fixed(String bankReference, String invoiceReference, String amount, String currency, String valueDate) {
+		return String.format("%-24s%-40s%15s%-3s%s", bankReference, invoiceReference, amount, currency, valueDate);
+	}
+
+	static ByteBuffer buffer(String text) {
+		return ByteBuffer.wrap(text.getBytes(StandardCharsets.US_ASCII));
+	}
+}
@@ -0,0 +1,171 @@
+package com.fabrica.p6f5.springapp.payment.service;
+
+import com.fabrica.p6f5.springapp.audit.model.AuditLog;
+import com.fabrica.p6f5.springapp.audit.service.AuditService;
+import com.fabrica.p6f5.springapp.events.service.InvoiceEventService;
+import com.fabrica.p6f5.springapp.invoice.model.Invoice;
+import com.fabrica.p6f5.springapp.invoice.repository.InvoiceRepository;
+import com.fabrica.p6f5.springapp.payment.dto.SettlementRequest;
+import com.fabrica.p6f5.springapp.payment.dto.SettlementResult;
+import com.fabrica.p6f5.springapp.payment.model.Payment;
+import com.fabrica.p6f5.springapp.payment.repository.PaymentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SettlementServiceTest {
+
+	private final PaymentRepository paymentRepository = mock(PaymentRepository.class);
+	private final InvoiceRepository invoiceRepository = mock(InvoiceRepository.class);
+	private final AuditService auditService = mock(AuditService.class);
+	private final InvoiceEventService invoiceEventService = mock(InvoiceEventService.class);
+	private final SettlementService settlementService = new SettlementService(paymentRepository, invoiceRepository,
+		new PaymentService(paymentRepository, invoiceRepository, auditService, invoiceEventService),
+		auditService, invoiceEventService);
+
+	private Invoice first;
+	private Invoice second;
+
+	@BeforeEach
+	void setUp() {
+		first = issued(1L, "INV-1", "100.00");
+		second = issued(2L, "INV-2", "50.00");
+		when(invoiceRepository.findReferencesByNumberOrFolio(anyList()))
+			.thenReturn(List.of(reference(first), reference(second)));
+		when(invoiceRepository.findAllByIdInForUpdate(anyCollection())).thenReturn(List.of(first, second));
+		when(auditService.buildInvoiceChange(any(), any(), any(), any(), any())).thenAnswer(invocation -> new AuditLog());
+	}
+
+	@Test
+	void linesAreAppliedDeduplicatedMatchedAndChecked() {
+		when(paymentRepository.findExistingIdempotencyKeys(anyCollection())).thenReturn(List.of("STMT:B-OLD"));
+
+		SettlementResult result = settlementService.settle(request(
+			line("B-1", "INV-1", "40.00"),
+			line("B-1", "INV-1", "40.00"),
+			line("B-OLD", "INV-1", "10.00"),
+			line("B-2", "INV-404", "10.00"),
+			line("B-3", "INV-2", "80.00"),
+			line("B-4", "INV-1", "60.00"),
+			line("B-5", "INV-2", "50.00")), 7L);
+
+		assertEquals(3, result.getApplied());
+		assertEquals(2, result.getDuplicates());
+		assertEquals(1, result.getUnmatched());
+		assertEquals(1, result.getRejected());
+		assertEquals(new BigDecimal("150.00"), result.getAppliedAmount());
+		assertEquals(Invoice.InvoiceStatus.PAID, first.getStatus());
+		assertEquals(Invoice.InvoiceStatus.PAID, second.getStatus());
+
+		ArgumentCaptor<List<Payment>> payments = paymentsCaptor();
+		verify(paymentRepository).saveAll(payments.capture());
+		assertEquals(List.of("STMT:B-1", "STMT:B-4", "STMT:B-5"),
+			payments.getValue().stream().map(Payment::getIdempotencyKey).toList());
+		ArgumentCaptor<List<AuditLog>> audits = auditCaptor();
+		verify(auditService).logEvents(audits.capture());
+		assertEquals(2, audits.getValue().size());
+	}
+
+	@Test
+	void lineSettledByAConcurrentBatchWhileWaitingForTheLockIsADuplicate() {
+		when(paymentRepository.findExistingIdempotencyKeys(anyCollection()))
+			.thenReturn(List.of())
+			.thenReturn(List.of("STMT:B-1"));
+
+		SettlementResult result = settlementService.settle(request(
+			line("B-1", "INV-1", "40.00"),
+			line("B-2", "INV-2", "20.00")), 7L);
+
+		verify(paymentRepository, times(2)).findExistingIdempotencyKeys(anyCollection());
+		assertEquals(1, result.getApplied());
+		assertEquals(1, result.getDuplicates());
+		SettlementResult.LineResult duplicate = result.getLines().stream()
+			.filter(line -> line.getStatus() == SettlementResult.LineStatus.DUPLICATE).findFirst().orElseThrow();
+		assertEquals("B-1", duplicate.getBankReference());
+		assertEquals(Long.valueOf(1L), duplicate.getInvoiceId());
+		assertEquals(BigDecimal.ZERO, first.getAmountPaid());
+		assertEquals(new BigDecimal("20.00"), second.getAmountPaid());
+
+		ArgumentCaptor<List<Payment>> payments = paymentsCaptor();
+		verify(paymentRepository).saveAll(payments.capture());
+		assertEquals(List.of("STMT:B-2"), payments.getValue().stream().map(Payment::getIdempotencyKey).toList());
+	}
+
+	@Test
+	void batchOfAlreadySettledLinesLocksNothing() {
+		when(paymentRepository.findExistingIdempotencyKeys(anyCollection())).thenReturn(List.of("STMT:B-1"));
+
+		SettlementResult result = settlementService.settle(request(line("B-1", "INV-1", "40.00")), 7L);
+
+		assertEquals(1, result.getDuplicates());
+		verify(invoiceRepository, never()).findAllByIdInForUpdate(anyCollection());
+		verify(paymentRepository, never()).saveAll(anyList());
+	}
+
+	private static Invoice issued(Long id, String number, String total) {
+		Invoice invoice = new Invoice();
+		invoice.setId(id);
+		invoice.setInvoiceNumber(number);
+		invoice.setClientName("Acme");
+		invoice.setTotalAmount(new BigDecimal(total));
+		invoice.setAmountPaid(BigDecimal.ZERO);
+		invoice.setCurrency("USD");
+		invoice.setStatus(Invoice.InvoiceStatus.ISSUED);
+		return invoice;
+	}
+
+	private static InvoiceRepository.InvoiceReference reference(Invoice invoice) {
+		return new InvoiceRepository.InvoiceReference() {
+			@Override
+			public Long getId() {
+				return invoice.getId();
+			}
+
+			@Override
+			public String getInvoiceNumber() {
+				return invoice.getInvoiceNumber();
+			}
+
+			@Override
+			public String getFiscalFolio() {
+				return null;
+			}
+
+			@Override
+			public String getCurrency() {
+				return invoice.getCurrency();
+			}
+		};
+	}
+
+	private static SettlementRequest request(SettlementRequest.StatementLine... lines) {
+		return new SettlementRequest(List.of(lines));
+	}
+
+	private static SettlementRequest.StatementLine line(String bankReference, String invoiceReference, String amount) {
+		return new SettlementRequest.StatementLine(bankReference, invoiceReference, new BigDecimal(amount), null, null);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static ArgumentCaptor<List<Payment>> paymentsCaptor() {
+		return ArgumentCaptor.forClass(List.class);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static ArgumentCaptor<List<AuditLog>> auditCaptor() {
+		return ArgumentCaptor.forClass(List.class);
+	}
+}
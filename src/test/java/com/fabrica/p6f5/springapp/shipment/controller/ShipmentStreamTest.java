@@ -0,0 +1,95 @@
+package com.fabrica.p6f5.springapp.shipment.controller;
+
+import com.fabrica.p6f5.springapp.config.SecurityConfig;
+import com.fabrica.p6f5.springapp.exception.GlobalExceptionHandler;
+import com.fabrica.p6f5.springapp.security.JwtAuthenticationEntryPoint;
+import com.fabrica.p6f5.springapp.service.JwtService;
+import com.fabrica.p6f5.springapp.service.UserService;
+import com.fabrica.p6f5.springapp.shipment.model.Shipment;
+import com.fabrica.p6f5.springapp.shipment.service.ShipmentService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The NDJSON stream is written on an async dispatch after the controller returns,
+ * which must pass the security filter chain without a second authentication.
+ */
+@WebMvcTest(controllers = ShipmentController.class)
+@Import({SecurityConfig.class, JwtAuthenticationEntryPoint.class, GlobalExceptionHandler.class})
+class ShipmentStreamTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@MockBean
+	private ShipmentService shipmentService;
+
+	@MockBean
+	private JwtService jwtService;
+
+	@MockBean
+	private UserService userService;
+
+	@Test
+	@WithMockUser
+	void streamIsWrittenOnTheAsyncDispatch() throws Exception {
+		doAnswer(invocation -> {
+			OutputStream out = invocation.getArgument(2);
+			out.write("{\"id\":1,\"trackingNumber\":\"TRK-1\"}\n{\"id\":2,\"trackingNumber\":\"TRK-2\"}\n"
+				.getBytes(StandardCharsets.UTF_8));
+			return null;
+		}).when(shipmentService).streamShipments(eq(Shipment.ShipmentStatus.DELIVERED),
+			eq(List.of("id", "trackingNumber")), any());
+
+		MvcResult started = mockMvc.perform(get("/api/v1/shipments/stream")
+				.param("status", "delivered")
+				.param("fields", "id, trackingNumber,id"))
+			.andExpect(request().asyncStarted())
+			.andReturn();
+
+		mockMvc.perform(asyncDispatch(started))
+			.andExpect(status().isOk())
+			.andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+			.andExpect(content().string("{\"id\":1,\"trackingNumber\":\"TRK-1\"}\n{\"id\":2,\"trackingNumber\":\"TRK-2\"}\n"));
+		verify(shipmentService).streamShipments(eq(Shipment.ShipmentStatus.DELIVERED),
+			eq(List.of("id", "trackingNumber")), any());
+	}
+
+	@Test
+	@WithMockUser
+	void unknownFieldIsRejectedBeforeStreaming() throws Exception {
+		mockMvc.perform(get("/api/v1/shipments/stream").param("fields", "id,originAddress"))
+			.andExpect(status().isBadRequest());
+
+		verifyNoInteractions(shipmentService);
+	}
+
+	@Test
+	void anonymousCallerCannotOpenTheStream() throws Exception {
+		mockMvc.perform(get("/api/v1/shipments/stream")).andExpect(status().isUnauthorized());
+
+		verifyNoInteractions(shipmentService);
+	}
+}
@@ -0,0 +1,51 @@
+package com.fabrica.p6f5.springapp.shipment.dto;
+
+import com.fabrica.p6f5.springapp.exception.BusinessException;
+import com.fabrica.p6f5.springapp.shipment.model.Shipment;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ShipmentSummaryTest {
+
+	@Test
+	void missingSelectionSelectsEveryField() {
+		assertNull(ShipmentSummary.parseFields(null));
+		assertNull(ShipmentSummary.parseFields(" "));
+	}
+
+	@Test
+	void selectionIsTrimmedAndDeduplicatedInRequestOrder() {
+		assertEquals(List.of("status", "id", "trackingNumber"),
+			ShipmentSummary.parseFields("status, id,,trackingNumber ,id"));
+	}
+
+	@Test
+	void unknownFieldIsRejected() {
+		BusinessException error = assertThrows(BusinessException.class,
+			() -> ShipmentSummary.parseFields("id,originAddress"));
+
+		assertTrue(error.getMessage().contains("originAddress"));
+	}
+
+	@Test
+	void selectCopiesOnlyTheSelectedFieldsInOrder() {
+		ShipmentSummary summary = new ShipmentSummary(7L, "TRK-7", "Acme", Shipment.ShipmentStatus.DELIVERED,
+			new BigDecimal("12.50"), new BigDecimal("0.75"), LocalDateTime.of(2024, 3, 1, 8, 0), null);
+
+		Map<String, Object> selected = summary.select(List.of("status", "id", "updatedAt"));
+
+		assertEquals(List.of("status", "id", "updatedAt"), List.copyOf(selected.keySet()));
+		assertEquals(Shipment.ShipmentStatus.DELIVERED, selected.get("status"));
+		assertEquals(7L, selected.get("id"));
+		assertNull(selected.get("updatedAt"));
+	}
+}
@@ -0,0 +1,143 @@
+package com.fabrica.p6f5.springapp.shipment.repository;
+
+import com.fabrica.p6f5.springapp.shipment.dto.ShipmentSummary;
+import com.fabrica.p6f5.springapp.shipment.model.Shipment;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs the shipment keyset, projection and unlinked anti-join queries against Postgres,
+ * migrated by Flyway. Skipped when Docker is not available.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@TestPropertySource(properties = "spring.flyway.locations=classpath:db/migration,classpath:db/users")
+class ShipmentQueriesTest {
+
+	@Container
+	@ServiceConnection
+	static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+	@Autowired
+	private ShipmentRepository shipmentRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private long userId;
+
+	@BeforeEach
+	void setUp() {
+		userId = jdbcTemplate.queryForObject(
+			"INSERT INTO users (username, email, password_hash) VALUES ('ship', 'ship@example.com', 'x') RETURNING user_id",
+			Long.class);
+	}
+
+	@Test
+	void summariesAreProjectedInKeysetPages() {
+		long a = insertShipment("TRK-A", "Acme", "DELIVERED");
+		long b = insertShipment("TRK-B", "Beta", "PENDING");
+		long c = insertShipment("TRK-C", "Acme", "DELIVERED");
+
+		List<ShipmentSummary> first = shipmentRepository.findSummaries(0L, PageRequest.of(0, 2));
+		List<ShipmentSummary> second = shipmentRepository.findSummaries(first.get(1).getId(), PageRequest.of(0, 2));
+
+		assertEquals(List.of(a, b), ids(first));
+		assertEquals(List.of(c), ids(second));
+		ShipmentSummary summary = first.get(0);
+		assertEquals("TRK-A", summary.getTrackingNumber());
+		assertEquals("Acme", summary.getClientName());
+		assertEquals(Shipment.ShipmentStatus.DELIVERED, summary.getStatus());
+		assertEquals(new BigDecimal("12.50"), summary.getTotalWeight());
+		assertEquals(new BigDecimal("0.75"), summary.getTotalVolume());
+	}
+
+	@Test
+	void summariesCanBeFilteredByStatus() {
+		long a = insertShipment("TRK-A", "Acme", "DELIVERED");
+		insertShipment("TRK-B", "Beta", "PENDING");
+		long c = insertShipment("TRK-C", "Acme", "DELIVERED");
+
+		assertEquals(List.of(a, c), ids(shipmentRepository.findSummariesByStatus(0L, Shipment.ShipmentStatus.DELIVERED,
+			PageRequest.of(0, 10))));
+		assertEquals(List.of(c), ids(shipmentRepository.findSummariesByStatus(a, Shipment.ShipmentStatus.DELIVERED,
+			PageRequest.of(0, 10))));
+	}
+
+	@Test
+	void unlinkedSummariesSkipLinkedShipmentsAcrossPages() {
+		long a = insertShipment("TRK-A", "Acme", "DELIVERED");
+		long b = insertShipment("TRK-B", "Acme", "DELIVERED");
+		long c = insertShipment("TRK-C", "Beta", "PENDING");
+		long d = insertShipment("TRK-D", "Acme", "DELIVERED");
+		long e = insertShipment("TRK-E", "Beta", "DELIVERED");
+		link(b);
+		link(d);
+
+		List<ShipmentSummary> first = shipmentRepository.findUnlinkedShipments(0L, PageRequest.of(0, 2));
+		List<ShipmentSummary> second = shipmentRepository.findUnlinkedShipments(first.get(1).getId(),
+			PageRequest.of(0, 2));
+
+		assertEquals(List.of(a, c), ids(first));
+		assertEquals(List.of(e), ids(second));
+		assertEquals("TRK-A", first.get(0).getTrackingNumber());
+		assertEquals(List.of(a, c, e), ids(shipmentRepository.findUnlinkedShipments(0L, PageRequest.of(0, 10))));
+	}
+
+	@Test
+	void unlinkedSummariesCanBeFilteredByClientAndStatus() {
+		long a = insertShipment("TRK-A", "Acme", "DELIVERED");
+		long b = insertShipment("TRK-B", "Acme", "PENDING");
+		long c = insertShipment("TRK-C", "Acme", "DELIVERED");
+		long d = insertShipment("TRK-D", "Beta", "DELIVERED");
+		link(c);
+		Shipment.ShipmentStatus delivered = Shipment.ShipmentStatus.DELIVERED;
+
+		assertEquals(List.of(a, b), ids(shipmentRepository.findUnlinkedShipmentsByClient(0L, "Acme",
+			PageRequest.of(0, 10))));
+		assertEquals(List.of(b), ids(shipmentRepository.findUnlinkedShipmentsByClient(a, "Acme",
+			PageRequest.of(0, 10))));
+		assertEquals(List.of(a, d), ids(shipmentRepository.findUnlinkedShipmentsByStatus(0L, delivered,
+			PageRequest.of(0, 10))));
+		assertEquals(List.of(a), ids(shipmentRepository.findUnlinkedShipmentsByClientAndStatus(0L, "Acme", delivered,
+			PageRequest.of(0, 10))));
+		assertEquals(List.of(), ids(shipmentRepository.findUnlinkedShipmentsByClientAndStatus(a, "Acme", delivered,
+			PageRequest.of(0, 10))));
+	}
+
+	private long insertShipment(String trackingNumber, String clientName, String status) {
+		return jdbcTemplate.queryForObject(
+			"INSERT INTO shipments (client_name, origin_address, destination_address, total_weight, total_volume, " +
+			"shipment_status, tracking_number, created_by) VALUES (?, 'Origin', 'Destination', 12.50, 0.75, ?, ?, ?) " +
+			"RETURNING shipment_id",
+			Long.class, clientName, status, trackingNumber, userId);
+	}
+
+	private void link(long shipmentId) {
+		long invoiceId = jdbcTemplate.queryForObject(
+			"INSERT INTO invoices (invoice_number, client_name, invoice_date, due_date, subtotal, total_amount, " +
+			"created_by) VALUES (?, 'Acme', '2024-03-01', '2024-03-31', 100, 100, ?) RETURNING invoice_id",
+			Long.class, "INV-" + shipmentId, userId);
+		jdbcTemplate.update("INSERT INTO invoice_shipments (invoice_id, shipment_id) VALUES (?, ?)", invoiceId, shipmentId);
+	}
+
+	private static List<Long> ids(List<ShipmentSummary> summaries) {
+		return summaries.stream().map(ShipmentSummary::getId).toList();
+	}
+}
@@ -0,0 +1,228 @@
+package com.fabrica.p6f5.springapp.shipment.repository;
+
+import com.fabrica.p6f5.springapp.shipment.dto.ShipmentUpsertRequest;
+import com.fabrica.p6f5.springapp.shipment.model.Shipment;
+import com.fabrica.p6f5.springapp.shipment.repository.ShipmentBatchRepository.BlockedShipment;
+import com.fabrica.p6f5.springapp.shipment.repository.ShipmentBatchRepository.UpsertOutcome;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the shipment upsert CTE and its row locking against Postgres, migrated by Flyway.
+ * Transactions are committed, so a concurrent locker sees the upsert's row locks.
+ * Skipped when Docker is not available.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@Import(ShipmentBatchRepository.class)
+@TestPropertySource(properties = "spring.flyway.locations=classpath:db/migration,classpath:db/users")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ShipmentUpsertQueriesTest {
+
+	private static final Shipment.ShipmentStatus PENDING = Shipment.ShipmentStatus.PENDING;
+	private static final Shipment.ShipmentStatus IN_TRANSIT = Shipment.ShipmentStatus.IN_TRANSIT;
+	private static final Shipment.ShipmentStatus DELIVERED = Shipment.ShipmentStatus.DELIVERED;
+	private static final Shipment.ShipmentStatus CANCELLED = Shipment.ShipmentStatus.CANCELLED;
+
+	@Container
+	@ServiceConnection
+	static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+	@Autowired
+	private ShipmentBatchRepository shipmentBatchRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private TransactionTemplate transactionTemplate;
+	private long userId;
+
+	@BeforeEach
+	void setUp() {
+		transactionTemplate = new TransactionTemplate(transactionManager);
+		userId = jdbcTemplate.queryForObject(
+			"INSERT INTO users (username, email, password_hash) VALUES ('feed', 'feed@example.com', 'x') RETURNING user_id",
+			Long.class);
+	}
+
+	@AfterEach
+	void tearDown() {
+		jdbcTemplate.execute("TRUNCATE shipments, invoices, users CASCADE");
+	}
+
+	@Test
+	void newChangedAndIdenticalRowsAreCountedApart() {
+		insertShipment("TRK-SAME", PENDING);
+		insertShipment("TRK-MOVED", PENDING);
+
+		UpsertOutcome outcome = upsert(
+			shipment("TRK-SAME", "12.5", PENDING),
+			shipment("TRK-MOVED", "12.50", IN_TRANSIT),
+			shipment("TRK-NEW", "3.00", PENDING));
+
+		assertEquals(1, outcome.getInserted());
+		assertEquals(1, outcome.getUpdated());
+		assertEquals(List.of(), outcome.getBlocked());
+		assertEquals("IN_TRANSIT", status("TRK-MOVED"));
+		assertEquals(userId, jdbcTemplate.queryForObject(
+			"SELECT created_by FROM shipments WHERE tracking_number = 'TRK-NEW'", Long.class));
+	}
+
+	@Test
+	void linkedRowsAndStatusRegressionsAreBlockedAndLeftAlone() {
+		long linked = insertShipment("TRK-LINKED", PENDING);
+		long linkedSame = insertShipment("TRK-LINKED-SAME", PENDING);
+		insertShipment("TRK-DELIVERED", DELIVERED);
+		insertShipment("TRK-FINAL", DELIVERED);
+		insertShipment("TRK-FORWARD", IN_TRANSIT);
+		link(linked);
+		link(linkedSame);
+
+		UpsertOutcome outcome = upsert(
+			shipment("TRK-LINKED", "12.50", IN_TRANSIT),
+			shipment("TRK-LINKED-SAME", "12.50", PENDING),
+			shipment("TRK-DELIVERED", "12.50", IN_TRANSIT),
+			shipment("TRK-FINAL", "12.50", CANCELLED),
+			shipment("TRK-FORWARD", "12.50", DELIVERED));
+
+		assertEquals(0, outcome.getInserted());
+		assertEquals(1, outcome.getUpdated());
+		List<BlockedShipment> blocked = outcome.getBlocked().stream()
+			.sorted(Comparator.comparing(BlockedShipment::getTrackingNumber))
+			.toList();
+		assertEquals(List.of(
+			new BlockedShipment("TRK-DELIVERED", false, "DELIVERED", "IN_TRANSIT"),
+			new BlockedShipment("TRK-FINAL", false, "DELIVERED", "CANCELLED"),
+			new BlockedShipment("TRK-LINKED", true, "PENDING", "IN_TRANSIT")), blocked);
+		assertEquals("PENDING", status("TRK-LINKED"));
+		assertEquals("DELIVERED", status("TRK-DELIVERED"));
+		assertEquals("DELIVERED", status("TRK-FINAL"));
+		assertEquals("DELIVERED", status("TRK-FORWARD"));
+	}
+
+	@Test
+	void linkedRowsStayReadOnlyEvenWhenOnlyTheWeightChanges() {
+		link(insertShipment("TRK-LINKED", DELIVERED));
+
+		UpsertOutcome outcome = upsert(shipment("TRK-LINKED", "13.00", DELIVERED));
+
+		assertEquals(List.of(new BlockedShipment("TRK-LINKED", true, "DELIVERED", "DELIVERED")), outcome.getBlocked());
+		assertEquals(new BigDecimal("12.50"), jdbcTemplate.queryForObject(
+			"SELECT total_weight FROM shipments WHERE tracking_number = 'TRK-LINKED'", BigDecimal.class));
+	}
+
+	@Test
+	void existingRowsAreLockedInIdOrderWhateverTheFeedOrder() throws Exception {
+		long first = insertShipment("TRK-A", PENDING);
+		insertShipment("TRK-B", PENDING);
+		long last = insertShipment("TRK-C", PENDING);
+
+		CountDownLatch locked = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			// Holds the lowest ID the way a billing run claim would
+			Future<?> holder = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+				jdbcTemplate.queryForList("SELECT shipment_id FROM shipments WHERE shipment_id = ? FOR UPDATE", first);
+				locked.countDown();
+				try {
+					release.await(10, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}));
+			assertTrue(locked.await(10, TimeUnit.SECONDS));
+
+			Future<UpsertOutcome> upsert = executor.submit(() -> upsert(
+				shipment("TRK-C", "12.50", IN_TRANSIT),
+				shipment("TRK-B", "12.50", IN_TRANSIT),
+				shipment("TRK-A", "12.50", IN_TRANSIT)));
+			awaitLockWait();
+
+			// Blocked on the lowest ID, the upsert must not hold the highest one yet
+			transactionTemplate.executeWithoutResult(status -> jdbcTemplate.queryForList(
+				"SELECT shipment_id FROM shipments WHERE shipment_id = ? FOR UPDATE NOWAIT", last));
+			assertFalse(upsert.isDone());
+			release.countDown();
+
+			holder.get(10, TimeUnit.SECONDS);
+			assertEquals(3, upsert.get(10, TimeUnit.SECONDS).getUpdated());
+		} finally {
+			release.countDown();
+			executor.shutdownNow();
+		}
+	}
+
+	private UpsertOutcome upsert(ShipmentUpsertRequest... shipments) {
+		return transactionTemplate.execute(status -> shipmentBatchRepository.upsert(List.of(shipments), userId));
+	}
+
+	private void awaitLockWait() throws InterruptedException {
+		for (int i = 0; i < 100; i++) {
+			Integer waiting = jdbcTemplate.queryForObject("SELECT count(*) FROM pg_locks WHERE NOT granted", Integer.class);
+			if (waiting != null && waiting > 0) {
+				return;
+			}
+			Thread.sleep(100);
+		}
+		throw new AssertionError("The upsert never waited for the row lock");
+	}
+
+	private static ShipmentUpsertRequest shipment(String trackingNumber, String weight, Shipment.ShipmentStatus status) {
+		return new ShipmentUpsertRequest(trackingNumber, "Acme", "Origin", "Destination", new BigDecimal(weight),
+			new BigDecimal("0.75"), status);
+	}
+
+	private long insertShipment(String trackingNumber, Shipment.ShipmentStatus status) {
+		return jdbcTemplate.queryForObject(
+			"INSERT INTO shipments (client_name, origin_address, destination_address, total_weight, total_volume, " +
+			"shipment_status, tracking_number, created_by) VALUES ('Acme', 'Origin', 'Destination', 12.50, 0.75, ?, ?, ?) " +
+			"RETURNING shipment_id",
+			Long.class, status.name(), trackingNumber, userId);
+	}
+
+	private void link(long shipmentId) {
+		long invoiceId = jdbcTemplate.queryForObject(
+			"INSERT INTO invoices (invoice_number, client_name, invoice_date, due_date, subtotal, total_amount, " +
+			"created_by) VALUES (?, 'Acme', '2024-03-01', '2024-03-31', 100, 100, ?) RETURNING invoice_id",
+			Long.class, "INV-" + shipmentId, userId);
+		jdbcTemplate.update("INSERT INTO invoice_shipments (invoice_id, shipment_id) VALUES (?, ?)", invoiceId, shipmentId);
+	}
+
+	private String status(String trackingNumber) {
+		return jdbcTemplate.queryForObject("SELECT shipment_status FROM shipments WHERE tracking_number = ?",
+			String.class, trackingNumber);
+	}
+}
@@ -0,0 +1,135 @@
+package com.fabrica.p6f5.springapp.shipment.service;
+
+import com.fabrica.p6f5.springapp.dto.CursorPage;
+import com.fabrica.p6f5.springapp.shipment.dto.ShipmentSummary;
+import com.fabrica.p6f5.springapp.shipment.dto.ShipmentUpsertRequest;
+import com.fabrica.p6f5.springapp.shipment.dto.ShipmentUpsertResult;
+import com.fabrica.p6f5.springapp.shipment.model.Shipment;
+import com.fabrica.p6f5.springapp.shipment.repository.ShipmentBatchRepository;
+import com.fabrica.p6f5.springapp.shipment.repository.ShipmentBatchRepository.UpsertOutcome;
+import com.fabrica.p6f5.springapp.shipment.repository.ShipmentRepository;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ShipmentServiceTest {
+
+	private final ShipmentRepository shipmentRepository = mock(ShipmentRepository.class);
+	private final ShipmentBatchRepository shipmentBatchRepository = mock(ShipmentBatchRepository.class);
+	private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+	private final ShipmentService shipmentService = new ShipmentService(shipmentRepository, shipmentBatchRepository,
+		Jackson2ObjectMapperBuilder.json().build(), mock(Validator.class), transactionTemplate);
+
+	@Test
+	void earlierLinesForATrackingNumberAreCountedAsSuperseded() throws Exception {
+		ReflectionTestUtils.setField(shipmentService, "upsertBatchSize", 1000);
+		when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+			invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+		UpsertOutcome outcome = new UpsertOutcome();
+		outcome.setInserted(1);
+		when(shipmentBatchRepository.upsert(any(), eq(7L))).thenReturn(outcome);
+		String ndjson = line("TRK-1", "PENDING") + line("TRK-2", "PENDING") + line(" TRK-1 ", "IN_TRANSIT");
+
+		ShipmentUpsertResult result = shipmentService.upsertShipments(
+			new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), 7L);
+
+		assertEquals(3, result.getReceived());
+		assertEquals(1, result.getInserted());
+		assertEquals(1, result.getUnchanged());
+		assertEquals(1, result.getSuperseded());
+		assertEquals(1, result.getBatches());
+		ArgumentCaptor<List<ShipmentUpsertRequest>> batch = ArgumentCaptor.forClass(List.class);
+		verify(shipmentBatchRepository).upsert(batch.capture(), eq(7L));
+		assertEquals(List.of("TRK-2", "TRK-1"),
+			batch.getValue().stream().map(ShipmentUpsertRequest::getTrackingNumber).toList());
+		assertEquals(Shipment.ShipmentStatus.IN_TRANSIT, batch.getValue().get(1).getStatus());
+	}
+
+	@Test
+	void selectedFieldsAreReturnedAsMapsWithTheSummaryCursor() {
+		when(shipmentRepository.findSummaries(0L, PageRequest.of(0, 2))).thenReturn(summaries(1, 2));
+
+		CursorPage<?> page = shipmentService.getShipments(null, 1, null, List.of("trackingNumber", "id"));
+
+		assertEquals(List.of(Map.of("trackingNumber", "TRK-1", "id", 1L)), page.getItems());
+		assertEquals(Long.valueOf(1), page.getNextCursor());
+		assertTrue(page.isHasMore());
+	}
+
+	@Test
+	void summariesAreReturnedWithoutSelection() {
+		when(shipmentRepository.findSummariesByStatus(5L, Shipment.ShipmentStatus.DELIVERED, PageRequest.of(0, 101)))
+			.thenReturn(summaries(6, 2));
+
+		CursorPage<?> page = shipmentService.getShipments(5L, null, Shipment.ShipmentStatus.DELIVERED, null);
+
+		assertEquals(2, page.getItems().size());
+		assertTrue(page.getItems().get(0) instanceof ShipmentSummary);
+		assertEquals(false, page.isHasMore());
+	}
+
+	@Test
+	void streamReadsKeysetPagesUntilAShortPage() throws Exception {
+		when(shipmentRepository.findSummaries(0L, PageRequest.of(0, 1000))).thenReturn(summaries(1, 1000));
+		when(shipmentRepository.findSummaries(1000L, PageRequest.of(0, 1000))).thenReturn(summaries(1001, 2));
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		shipmentService.streamShipments(null, List.of("id", "status"), out);
+
+		String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+		assertEquals(1002, lines.length);
+		assertEquals("{\"id\":1,\"status\":\"DELIVERED\"}", lines[0]);
+		assertEquals("{\"id\":1002,\"status\":\"DELIVERED\"}", lines[1001]);
+		verify(shipmentRepository).findSummaries(1000L, PageRequest.of(0, 1000));
+	}
+
+	@Test
+	void streamWritesWholeSummariesWithoutSelection() throws Exception {
+		when(shipmentRepository.findSummariesByStatus(0L, Shipment.ShipmentStatus.DELIVERED, PageRequest.of(0, 1000)))
+			.thenReturn(summaries(1, 1));
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		shipmentService.streamShipments(Shipment.ShipmentStatus.DELIVERED, null, out);
+
+		assertEquals("{\"id\":1,\"trackingNumber\":\"TRK-1\",\"clientName\":\"Acme\",\"status\":\"DELIVERED\"," +
+			"\"totalWeight\":12.50,\"totalVolume\":0.75,\"createdAt\":\"2024-03-01T08:00:00\",\"updatedAt\":null}",
+			out.toString(StandardCharsets.UTF_8).trim());
+	}
+
+	private static String line(String trackingNumber, String status) {
+		return "{\"trackingNumber\":\"" + trackingNumber + "\",\"clientName\":\"Acme\",\"originAddress\":\"Origin\"," +
+			"\"destinationAddress\":\"Destination\",\"totalWeight\":12.50,\"totalVolume\":0.75,\"status\":\"" + status +
+			"\"}\n";
+	}
+
+	private static List<ShipmentSummary> summaries(long firstId, int count) {
+		List<ShipmentSummary> summaries = new ArrayList<>();
+		for (long id = firstId; id < firstId + count; id++) {
+			summaries.add(new ShipmentSummary(id, "TRK-" + id, "Acme", Shipment.ShipmentStatus.DELIVERED,
+				new BigDecimal("12.50"), new BigDecimal("0.75"), LocalDateTime.of(2024, 3, 1, 8, 0), null));
+		}
+		return summaries;
+	}
+}
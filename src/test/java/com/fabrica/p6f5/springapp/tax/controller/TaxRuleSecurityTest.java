@@ -0,0 +1,84 @@
+package com.fabrica.p6f5.springapp.tax.controller;
+
+import com.fabrica.p6f5.springapp.config.SecurityConfig;
+import com.fabrica.p6f5.springapp.exception.GlobalExceptionHandler;
+import com.fabrica.p6f5.springapp.security.JwtAuthenticationEntryPoint;
+import com.fabrica.p6f5.springapp.service.JwtService;
+import com.fabrica.p6f5.springapp.service.UserService;
+import com.fabrica.p6f5.springapp.tax.model.TaxRule;
+import com.fabrica.p6f5.springapp.tax.service.TaxService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = TaxRuleController.class)
+@Import({SecurityConfig.class, JwtAuthenticationEntryPoint.class, GlobalExceptionHandler.class})
+class TaxRuleSecurityTest {
+
+	private static final String RULE = "{\"region\": \"MX\", \"ratePercent\": 16.0000}";
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@MockBean
+	private TaxService taxService;
+
+	@MockBean
+	private JwtService jwtService;
+
+	@MockBean
+	private UserService userService;
+
+	@Test
+	void anonymousCallerIsRejected() throws Exception {
+		mockMvc.perform(post("/api/v1/tax-rules").contentType(MediaType.APPLICATION_JSON).content(RULE))
+			.andExpect(status().isUnauthorized());
+		mockMvc.perform(delete("/api/v1/tax-rules/1")).andExpect(status().isUnauthorized());
+		mockMvc.perform(post("/api/v1/tax-rules/reload")).andExpect(status().isUnauthorized());
+
+		verifyNoInteractions(taxService);
+	}
+
+	@Test
+	@WithMockUser(roles = "USER")
+	void nonAdminCallerCanReadButNotChangeRules() throws Exception {
+		when(taxService.getActiveRules()).thenReturn(List.of());
+
+		mockMvc.perform(get("/api/v1/tax-rules")).andExpect(status().isOk());
+		mockMvc.perform(post("/api/v1/tax-rules").contentType(MediaType.APPLICATION_JSON).content(RULE))
+			.andExpect(status().isForbidden());
+		mockMvc.perform(delete("/api/v1/tax-rules/1")).andExpect(status().isForbidden());
+		mockMvc.perform(post("/api/v1/tax-rules/reload")).andExpect(status().isForbidden());
+
+		verify(taxService).getActiveRules();
+	}
+
+	@Test
+	@WithMockUser(roles = "ADMIN")
+	void adminChangesRules() throws Exception {
+		when(taxService.createRule(any())).thenReturn(new TaxRule());
+		when(taxService.deactivateRule(1L)).thenReturn(new TaxRule());
+		when(taxService.reload()).thenReturn(1);
+
+		mockMvc.perform(post("/api/v1/tax-rules").contentType(MediaType.APPLICATION_JSON).content(RULE))
+			.andExpect(status().isCreated());
+		mockMvc.perform(delete("/api/v1/tax-rules/1")).andExpect(status().isOk());
+		mockMvc.perform(post("/api/v1/tax-rules/reload")).andExpect(status().isOk());
+	}
+}
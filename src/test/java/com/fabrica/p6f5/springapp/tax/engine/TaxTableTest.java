@@ -0,0 +1,113 @@
+package com.fabrica.p6f5.springapp.tax.engine;
+
+import com.fabrica.p6f5.springapp.money.InvoiceLine;
+import com.fabrica.p6f5.springapp.tax.model.TaxRule;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TaxTableTest {
+
+	@Test
+	void clientRuleOverridesRegionDefault() {
+		TaxTable table = TaxTable.compile(List.of(
+			rule("MX", null, "16", false, TaxRule.TaxRounding.PER_INVOICE),
+			rule("MX", "Acme", "8", false, TaxRule.TaxRounding.PER_INVOICE),
+			rule("MX", "Exempt Co", "16", true, TaxRule.TaxRounding.PER_INVOICE)));
+
+		assertEquals(new BigDecimal("8"), table.policyFor("MX", "Acme").getRatePercent());
+		assertEquals(new BigDecimal("16"), table.policyFor("MX", "Other").getRatePercent());
+		assertEquals(0, table.policyFor("MX", "Exempt Co").calculate(lines("100.00"), "USD").getTaxAmount().signum());
+		assertNull(table.policyFor("US-CA", "Acme"));
+	}
+
+	@Test
+	void duplicateRulesAreRejected() {
+		assertThrows(IllegalArgumentException.class, () -> TaxTable.compile(List.of(
+			rule("mx", null, "16", false, TaxRule.TaxRounding.PER_INVOICE),
+			rule("MX", null, "8", false, TaxRule.TaxRounding.PER_INVOICE))));
+	}
+
+	@Test
+	void roundingPerLineAndPerInvoice() {
+		List<Line> lines = lines("0.05", "0.05", "0.05");
+
+		TaxResult perLine = policy("10", TaxRule.TaxRounding.PER_LINE).calculate(lines, "USD");
+		assertEquals(new BigDecimal("0.03"), perLine.getTaxAmount());
+
+		TaxResult perInvoice = policy("10", TaxRule.TaxRounding.PER_INVOICE).calculate(lines, "USD");
+		assertEquals(new BigDecimal("0.02"), perInvoice.getTaxAmount());
+		assertEquals(List.of(new BigDecimal("0.01"), new BigDecimal("0.01"), new BigDecimal("0.00")),
+			perInvoice.getLineTaxes());
+	}
+
+	@Test
+	void perInvoiceTaxMatchesBigDecimalArithmetic() {
+		Random random = new Random(11);
+		for (int i = 0; i < 10_000; i++) {
+			BigDecimal rate = BigDecimal.valueOf(random.nextInt(300_000), 4);
+			List<Line> lines = new ArrayList<>();
+			BigDecimal unrounded = BigDecimal.ZERO;
+			int size = 1 + random.nextInt(30);
+			for (int j = 0; j < size; j++) {
+				Line line = new Line(BigDecimal.valueOf(1 + random.nextInt(1_000_000), random.nextInt(4)), 1 + random.nextInt(100));
+				lines.add(line);
+				unrounded = unrounded.add(line.unitPrice().multiply(BigDecimal.valueOf(line.quantity())).multiply(rate)
+					.movePointLeft(2));
+			}
+			TaxResult result = policy(rate.toPlainString(), TaxRule.TaxRounding.PER_INVOICE).calculate(lines, "USD");
+			assertEquals(0, unrounded.setScale(2, RoundingMode.HALF_UP).compareTo(result.getTaxAmount()));
+			BigDecimal sum = BigDecimal.ZERO;
+			for (BigDecimal lineTax : result.getLineTaxes()) {
+				assertTrue(lineTax.signum() >= 0);
+				sum = sum.add(lineTax);
+			}
+			assertEquals(0, sum.compareTo(result.getTaxAmount()));
+		}
+	}
+
+	private static TaxPolicy policy(String ratePercent, TaxRule.TaxRounding rounding) {
+		return TaxPolicy.of(rule("MX", null, ratePercent, false, rounding));
+	}
+
+	private static TaxRule rule(String region, String clientName, String ratePercent, boolean exempt,
+								TaxRule.TaxRounding rounding) {
+		TaxRule rule = new TaxRule();
+		rule.setRegion(region);
+		rule.setClientName(clientName);
+		rule.setRatePercent(new BigDecimal(ratePercent));
+		rule.setExempt(exempt);
+		rule.setRounding(rounding);
+		return rule;
+	}
+
+	private static List<Line> lines(String... prices) {
+		List<Line> lines = new ArrayList<>();
+		for (String price : prices) {
+			lines.add(new Line(new BigDecimal(price), 1));
+		}
+		return lines;
+	}
+
+	private record Line(BigDecimal unitPrice, Integer quantity) implements InvoiceLine {
+
+		@Override
+		public BigDecimal getUnitPrice() {
+			return unitPrice;
+		}
+
+		@Override
+		public Integer getQuantity() {
+			return quantity;
+		}
+	}
+}
@@ -0,0 +1,53 @@
+package com.fabrica.p6f5.springapp.tax.service;
+
+import com.fabrica.p6f5.springapp.exception.BusinessException;
+import com.fabrica.p6f5.springapp.tax.model.TaxRule;
+import com.fabrica.p6f5.springapp.tax.repository.TaxRuleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TaxServiceTest {
+
+	private final TaxRuleRepository taxRuleRepository = mock(TaxRuleRepository.class);
+	private final TaxService taxService = new TaxService(taxRuleRepository);
+
+	@BeforeEach
+	void setUp() {
+		TaxRule rule = new TaxRule();
+		rule.setRegion("MX");
+		rule.setRatePercent(new BigDecimal("16"));
+		when(taxRuleRepository.findByActiveTrueOrderByRegionAscClientNameAsc()).thenReturn(List.of(rule));
+		when(taxRuleRepository.findFingerprint()).thenReturn(List.of());
+		taxService.reload();
+	}
+
+	@Test
+	void missingRegionFallsBackToTheDefaultRegion() {
+		ReflectionTestUtils.setField(taxService, "defaultRegion", "mx");
+
+		assertEquals(new BigDecimal("16"), taxService.policyFor(null, "Acme").getRatePercent());
+		assertEquals(new BigDecimal("16"), taxService.policyFor(" ", "Acme").getRatePercent());
+	}
+
+	@Test
+	void missingRegionWithoutDefaultIsRejected() {
+		ReflectionTestUtils.setField(taxService, "defaultRegion", "");
+
+		BusinessException error = assertThrows(BusinessException.class, () -> taxService.policyFor(null, "Acme"));
+		assertEquals("No tax region for client Acme and billing.tax.default-region is not set", error.getMessage());
+	}
+
+	@Test
+	void regionWithoutRuleIsRejected() {
+		assertThrows(BusinessException.class, () -> taxService.policyFor("US-CA", "Acme"));
+	}
+}
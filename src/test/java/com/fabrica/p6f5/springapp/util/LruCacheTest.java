@@ -0,0 +1,33 @@
+package com.fabrica.p6f5.springapp.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class LruCacheTest {
+
+	@Test
+	void evictsLeastRecentlyUsedEntry() {
+		LruCache<String, Integer> cache = new LruCache<>(2);
+		cache.put("a", 1);
+		cache.put("b", 2);
+		cache.get("a");
+		cache.put("c", 3);
+
+		assertEquals(1, cache.get("a"));
+		assertNull(cache.get("b"));
+		assertEquals(3, cache.get("c"));
+		assertEquals(2, cache.size());
+		assertEquals(1, cache.getEvictions());
+	}
+
+	@Test
+	void computeIfAbsentKeepsFirstValue() {
+		LruCache<String, Integer> cache = new LruCache<>(2);
+		assertEquals(1, cache.computeIfAbsent("a", key -> 1));
+		assertEquals(1, cache.computeIfAbsent("a", key -> 2));
+		assertNull(cache.computeIfAbsent("b", key -> null));
+		assertEquals(1, cache.size());
+	}
+}